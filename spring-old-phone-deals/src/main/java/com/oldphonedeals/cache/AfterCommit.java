@@ -0,0 +1,35 @@
+package com.oldphonedeals.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 在事务提交后执行内存索引的增量更新
+ * <p>
+ * 索引按数据库中的最新状态增量维护，事务回滚时不应留下未提交的修改：
+ * 存在事务同步时注册到 afterCommit 执行（回滚时丢弃），否则立即执行。
+ * </p>
+ */
+final class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    /**
+     * 提交后执行（无事务时立即执行）
+     *
+     * @param action 更新动作
+     */
+    static void run(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
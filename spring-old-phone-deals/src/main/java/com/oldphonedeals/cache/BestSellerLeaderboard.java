@@ -0,0 +1,151 @@
+package com.oldphonedeals.cache;
+
+import com.oldphonedeals.repository.PhoneRatingStats;
+import com.oldphonedeals.repository.PhoneRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
+
+/**
+ * 畅销榜（内存物化视图）
+ * <p>
+ * 保存所有候选商品（未禁用且至少有 2 条评论）的平均评分，按评分降序排列。
+ * 评分取自 Phone 上持久化的 totalRatingSum / totalReviewCount（包含隐藏评论，与原算法一致）。
+ * </p>
+ * <ul>
+ *   <li>首次读取时从数据库全量构建</li>
+ *   <li>评论增删、商品启用/禁用/删除后调用 {@link #refresh(String)} 增量更新单个商品</li>
+ *   <li>定期全量对账，纠正并发或遗漏造成的偏差</li>
+ * </ul>
+ * <p>
+ * 在事务中调用 {@link #refresh(String)} / {@link #remove(String)} 时，更新推迟到事务提交后执行。
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BestSellerLeaderboard {
+
+    /**
+     * 上榜所需的最少评论数
+     */
+    static final int MIN_REVIEWS = 2;
+
+    /**
+     * 排序：平均评分降序，评论数降序，商品ID升序（保证稳定）
+     */
+    private static final Comparator<Entry> RANKING_ORDER = Comparator
+        .comparingDouble(Entry::averageRating).reversed()
+        .thenComparing(Comparator.comparingInt(Entry::reviewCount).reversed())
+        .thenComparing(Entry::phoneId);
+
+    private final PhoneRepository phoneRepository;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private final NavigableSet<Entry> ranking = new TreeSet<>(RANKING_ORDER);
+
+    private volatile boolean initialized;
+
+    /**
+     * 获取排名前 limit 的商品ID
+     *
+     * @param limit 数量
+     * @return 商品ID列表（按排名）
+     */
+    public List<String> top(int limit) {
+        if (!initialized) {
+            reconcile();
+        }
+        synchronized (this) {
+            return ranking.stream()
+                .limit(limit)
+                .map(Entry::phoneId)
+                .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * 重新读取单个商品的评分统计并更新排名
+     *
+     * @param phoneId 商品ID
+     */
+    public void refresh(String phoneId) {
+        if (!initialized || phoneId == null) {
+            // 尚未构建时无需维护，首次读取会全量构建
+            return;
+        }
+        AfterCommit.run(() -> reload(phoneId));
+    }
+
+    /**
+     * 从排行中移除商品（商品删除时调用）
+     *
+     * @param phoneId 商品ID
+     */
+    public void remove(String phoneId) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                removeEntry(phoneId);
+            }
+        });
+    }
+
+    /**
+     * 全量对账：用数据库中的候选商品重建排名
+     */
+    @Scheduled(
+        fixedDelayString = "${catalog.best-sellers-reconcile-interval-ms:600000}",
+        initialDelayString = "${catalog.best-sellers-reconcile-interval-ms:600000}")
+    public void reconcile() {
+        List<PhoneRatingStats> candidates = phoneRepository.findBestSellerCandidates(MIN_REVIEWS);
+        synchronized (this) {
+            entries.clear();
+            ranking.clear();
+            candidates.forEach(this::putEntry);
+            initialized = true;
+        }
+        log.debug("Best-seller leaderboard reconciled with {} candidates", candidates.size());
+    }
+
+    private void reload(String phoneId) {
+        Optional<PhoneRatingStats> stats = phoneRepository.findRatingStats(phoneId);
+        synchronized (this) {
+            removeEntry(phoneId);
+            stats.filter(BestSellerLeaderboard::isEligible)
+                .ifPresent(this::putEntry);
+        }
+    }
+
+    private static boolean isEligible(PhoneRatingStats stats) {
+        return !Boolean.TRUE.equals(stats.getIsDisabled())
+            && stats.getTotalReviewCount() != null
+            && stats.getTotalReviewCount() >= MIN_REVIEWS;
+    }
+
+    private void putEntry(PhoneRatingStats stats) {
+        Entry entry = new Entry(stats.getId(), stats.getAverageRating(), stats.getTotalReviewCount());
+        entries.put(entry.phoneId(), entry);
+        ranking.add(entry);
+    }
+
+    private void removeEntry(String phoneId) {
+        Entry existing = entries.remove(phoneId);
+        if (existing != null) {
+            ranking.remove(existing);
+        }
+    }
+
+    private record Entry(String phoneId, double averageRating, int reviewCount) {
+    }
+}
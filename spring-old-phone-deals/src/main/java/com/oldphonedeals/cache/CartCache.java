@@ -0,0 +1,91 @@
+package com.oldphonedeals.cache;
+
+import com.oldphonedeals.config.CatalogProperties;
+import com.oldphonedeals.entity.Cart;
+import org.springframework.stereotype.Component;
+
+import java.util.function.Supplier;
+
+/**
+ * 用户购物车缓存（按用户ID）
+ * <p>
+ * 购物车的读写来自同一用户且成批出现（加入、查看、修改、查看），
+ * 查看购物车时先查缓存，未命中时通过 loader 读取数据库。
+ * 修改购物车仍然是一次原子的 findAndModify，其返回的最新购物车直接写入缓存（write-through），
+ * 下一次查看不再读取数据库；写入从不基于缓存中的内容，因此缓存不会导致更新丢失。
+ * </p>
+ * <p>
+ * 在购物车服务之外修改购物车的写路径（结账清空、删除用户）按用户ID失效，删除商品时按所含商品失效，
+ * 另设 TTL 兜底。
+ * </p>
+ * <p>
+ * 多实例部署时，其他实例的修改只能等待 TTL 过期：应按用户粘性路由，
+ * 否则应缩短 TTL 或将 max-entries 设为 0 关闭缓存。
+ * </p>
+ */
+@Component
+public class CartCache {
+
+    private final VersionedLruCache<String, Cart> entries;
+
+    public CartCache(CatalogProperties catalogProperties) {
+        this.entries = new VersionedLruCache<>(
+            () -> catalogProperties.getCartCache().getMaxEntries(),
+            () -> catalogProperties.getCartCache().getTtl());
+    }
+
+    /**
+     * 获取用户购物车，未命中或过期时通过 loader 加载
+     *
+     * @param userId 用户ID
+     * @param loader 读取或创建购物车（异常直接抛出，不缓存）
+     * @return 购物车（共享，调用方不得修改）
+     */
+    public Cart get(String userId, Supplier<Cart> loader) {
+        return entries.get(userId, loader);
+    }
+
+    /**
+     * 当前版本号，修改购物车前记录并传给 {@link #put(Cart, long)}
+     */
+    public long version() {
+        return entries.version();
+    }
+
+    /**
+     * 写入修改后的购物车（原子更新返回的最新文档）
+     * <p>
+     * 同时使进行中的加载失效；修改期间有其他失效或写入（并发结账、清空或修改）时
+     * 不写入，并使该用户的购物车失效，下一次查看重新读取数据库。
+     * </p>
+     *
+     * @param cart 修改后的购物车
+     * @param writeVersion 修改购物车前的 {@link #version()}
+     */
+    public void put(Cart cart, long writeVersion) {
+        entries.putIfUnchanged(cart.getUserId(), cart, writeVersion);
+    }
+
+    /**
+     * 使单个用户的购物车失效（结账、清空购物车、删除用户时使用）
+     *
+     * @param userId 用户ID
+     */
+    public void evict(String userId) {
+        entries.evict(userId);
+    }
+
+    /**
+     * 使仍包含指定商品的购物车失效（从所有购物车中删除商品后使用）
+     * <p>
+     * 在数据库更新之后按缓存内容失效，更新前并发加入该商品并写入缓存的购物车也会被失效；
+     * 失效同时递增版本号，更新前开始的写入结果不会再写回缓存。
+     * </p>
+     *
+     * @param phoneId 已从所有购物车中移除的商品ID
+     */
+    public void evictContaining(String phoneId) {
+        entries.evictValuesWhere(cart -> cart.getItems() != null
+            && cart.getItems().stream().anyMatch(item -> phoneId.equals(item.getPhoneId())));
+    }
+}
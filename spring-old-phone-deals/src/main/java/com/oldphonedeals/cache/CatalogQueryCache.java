@@ -0,0 +1,199 @@
+package com.oldphonedeals.cache;
+
+import com.oldphonedeals.config.CatalogProperties;
+import com.oldphonedeals.dto.request.phone.PhoneQueryRequest;
+import com.oldphonedeals.enums.PhoneBrand;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 商品目录查询结果缓存（GET /api/phones 页码模式）
+ * <p>
+ * 以规范化后的查询条件为键，按 LRU 保留最多 catalog.query-cache.max-entries 个结果：
+ * </p>
+ * <ul>
+ *   <li>写入后 ttl 内直接命中</li>
+ *   <li>ttl 之后的 stale-window 内仍返回旧结果，同时在后台线程池中刷新（每个键同时只刷新一次）</li>
+ *   <li>超过 ttl + stale-window 视为未命中，同步加载</li>
+ * </ul>
+ * <p>
+ * 商品写操作按品牌失效：只移除该品牌、不限品牌以及带分面统计的结果。
+ * 游标模式（after 不为 null）不缓存。
+ * </p>
+ */
+@Slf4j
+@Component
+public class CatalogQueryCache {
+
+    private final CatalogProperties catalogProperties;
+
+    private final Executor refreshExecutor;
+
+    private final VersionedLruCache<Key, Entry> entries;
+
+    private final LongAdder hits = new LongAdder();
+
+    private final LongAdder staleHits = new LongAdder();
+
+    private final LongAdder misses = new LongAdder();
+
+    private final LongAdder evictions = new LongAdder();
+
+    private final LongAdder refreshFailures = new LongAdder();
+
+    public CatalogQueryCache(CatalogProperties catalogProperties,
+                             @Qualifier("catalogCacheExecutor") Executor refreshExecutor) {
+        this.catalogProperties = catalogProperties;
+        this.refreshExecutor = refreshExecutor;
+        this.entries = new VersionedLruCache<>(
+            () -> catalogProperties.getQueryCache().getMaxEntries(),
+            () -> catalogProperties.getQueryCache().getTtl(),
+            evictions::increment);
+    }
+
+    /**
+     * 获取查询结果，未命中时通过 loader 加载
+     *
+     * @param query 查询条件（已应用页码 / 数量默认值和排序白名单）
+     * @param loader 实际查询（可能在后台线程中执行）
+     * @return 查询结果（多个请求共享，调用方不得修改）
+     */
+    public Map<String, Object> get(PhoneQueryRequest query, Supplier<Map<String, Object>> loader) {
+        CatalogProperties.QueryCache config = catalogProperties.getQueryCache();
+        if (config.getMaxEntries() <= 0 || query.getAfter() != null) {
+            return loader.get();
+        }
+
+        Key key = Key.of(query);
+        VersionedLruCache.Cached<Entry> cached = entries.getEntry(key);
+        if (cached != null) {
+            long age = cached.ageNanos();
+            if (age < config.getTtl().toNanos()) {
+                hits.increment();
+                return cached.value().value();
+            }
+            if (age < config.getTtl().plus(config.getStaleWindow()).toNanos()) {
+                staleHits.increment();
+                scheduleRefresh(key, cached.value(), loader);
+                return cached.value().value();
+            }
+        }
+
+        misses.increment();
+        return load(key, loader);
+    }
+
+    /**
+     * 按品牌失效：移除指定品牌、不限品牌以及带分面统计的结果
+     *
+     * @param brands 发生变化的商品品牌（更新品牌时传入新旧两个品牌）
+     */
+    public void invalidateBrands(PhoneBrand... brands) {
+        Set<PhoneBrand> changed = Set.copyOf(Arrays.stream(brands).filter(brand -> brand != null).toList());
+        entries.evictWhere(key -> key.brand() == null || key.facets() || changed.contains(key.brand()));
+    }
+
+    /**
+     * 清空全部结果
+     */
+    public void invalidateAll() {
+        entries.evictAll();
+    }
+
+    /**
+     * 当前统计
+     */
+    public Stats stats() {
+        return new Stats(entries.size(), hits.sum(), staleHits.sum(), misses.sum(), evictions.sum(), refreshFailures.sum());
+    }
+
+    /**
+     * 定期输出命中率等统计
+     */
+    @Scheduled(
+        fixedDelayString = "${catalog.query-cache.stats-log-interval-ms:300000}",
+        initialDelayString = "${catalog.query-cache.stats-log-interval-ms:300000}")
+    public void logStats() {
+        Stats stats = stats();
+        if (stats.requests() > 0) {
+            log.info("Catalog query cache: {}", stats);
+        }
+    }
+
+    private Map<String, Object> load(Key key, Supplier<Map<String, Object>> loader) {
+        long loadVersion = entries.version();
+        Map<String, Object> value = loader.get();
+        entries.putIfCurrent(key, new Entry(value, new AtomicBoolean()), loadVersion);
+        return value;
+    }
+
+    private void scheduleRefresh(Key key, Entry entry, Supplier<Map<String, Object>> loader) {
+        if (!entry.refreshing().compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    load(key, loader);
+                } catch (RuntimeException e) {
+                    refreshFailures.increment();
+                    log.warn("Failed to refresh catalog query {}: {}", key, e.getMessage());
+                } finally {
+                    entry.refreshing().set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // 刷新队列已满：继续返回旧结果，过期后由请求线程同步加载
+            entry.refreshing().set(false);
+        }
+    }
+
+    /**
+     * 查询键
+     * <p>
+     * 分页和排序直接取自调用方规范化后的查询条件；搜索词不区分大小写，按小写去空白后的值区分。
+     * </p>
+     */
+    record Key(String search, boolean fuzzy, PhoneBrand brand, Double minPrice, Double maxPrice, String sortBy,
+               String sortOrder, int page, int limit, boolean facets, List<Double> priceBuckets) {
+
+        static Key of(PhoneQueryRequest query) {
+            String search = query.getSearch() == null || query.getSearch().isBlank()
+                ? null : query.getSearch().trim().toLowerCase(Locale.ROOT);
+            boolean facets = Boolean.TRUE.equals(query.getFacets());
+            boolean fuzzy = search != null && Boolean.TRUE.equals(query.getFuzzy());
+            return new Key(search, fuzzy, query.getBrand(), query.getMinPrice(), query.getMaxPrice(),
+                query.getSortBy(), query.getSortOrder(), query.getPage(), query.getLimit(), facets,
+                facets && query.getPriceBuckets() != null
+                    ? Collections.unmodifiableList(new ArrayList<>(query.getPriceBuckets())) : null);
+        }
+    }
+
+    private record Entry(Map<String, Object> value, AtomicBoolean refreshing) {
+    }
+
+    /**
+     * 缓存统计
+     */
+    public record Stats(int size, long hits, long staleHits, long misses, long evictions, long refreshFailures) {
+
+        public long requests() {
+            return hits + staleHits + misses;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.oldphonedeals.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oldphonedeals.config.CatalogProperties;
+import org.springframework.stereotype.Component;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+/**
+ * 商品详情响应缓存（匿名访问，GET /api/phones/{phoneId}）
+ * <p>
+ * 按商品ID缓存已序列化的 JSON 字节及其强 ETag（响应体 SHA-256），
+ * 命中时既不查询数据库也不经过 Jackson，If-None-Match 匹配时直接返回 304。
+ * </p>
+ * <p>
+ * 商品、评论、库存变化时按商品ID失效；卖家或评论者姓名变化时全部失效；
+ * 另设 TTL 兜底。
+ * </p>
+ */
+@Component
+public class PhoneDetailCache {
+
+    private final ObjectMapper objectMapper;
+
+    private final VersionedLruCache<String, Detail> entries;
+
+    public PhoneDetailCache(ObjectMapper objectMapper, CatalogProperties catalogProperties) {
+        this.objectMapper = objectMapper;
+        this.entries = new VersionedLruCache<>(
+            () -> catalogProperties.getDetailCache().getMaxEntries(),
+            () -> catalogProperties.getDetailCache().getTtl());
+    }
+
+    /**
+     * 获取商品详情的序列化结果，未命中或过期时通过 loader 构建响应并序列化
+     *
+     * @param phoneId 商品ID
+     * @param loader 构建响应对象（异常直接抛出，不缓存）
+     * @return 序列化结果
+     */
+    public Detail get(String phoneId, Supplier<Object> loader) {
+        return entries.get(phoneId, () -> serialize(loader.get()));
+    }
+
+    /**
+     * 使单个商品失效
+     *
+     * @param phoneId 商品ID
+     */
+    public void evict(String phoneId) {
+        entries.evict(phoneId);
+    }
+
+    /**
+     * 全部失效（卖家 / 评论者姓名变化时使用）
+     */
+    public void evictAll() {
+        entries.evictAll();
+    }
+
+    private Detail serialize(Object response) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(response);
+            return new Detail(body, strongEtag(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize phone detail", e);
+        }
+    }
+
+    private static String strongEtag(byte[] body) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * 序列化后的商品详情
+     *
+     * @param body JSON 字节（共享，调用方不得修改）
+     * @param etag 带引号的强 ETag
+     */
+    public record Detail(byte[] body, String etag) {
+
+        /**
+         * 判断 If-None-Match 请求头是否匹配当前 ETag（弱比较，支持多个值和 *）
+         *
+         * @param ifNoneMatch If-None-Match 请求头，可为 null
+         */
+        public boolean matches(String ifNoneMatch) {
+            if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+                return false;
+            }
+            return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(tag -> tag.startsWith("W/") ? tag.substring(2) : tag)
+                .anyMatch(tag -> tag.equals("*") || tag.equals(etag));
+        }
+    }
+}
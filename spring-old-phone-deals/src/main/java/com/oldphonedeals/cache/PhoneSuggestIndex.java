@@ -0,0 +1,504 @@
+package com.oldphonedeals.cache;
+
+import com.oldphonedeals.entity.Phone;
+import com.oldphonedeals.entity.PhoneSummary;
+import com.oldphonedeals.enums.PhoneBrand;
+import com.oldphonedeals.repository.PhoneRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * 商品标题内存索引：搜索建议（GET /api/phones/suggest）与模糊搜索（GET /api/phones?fuzzy=true）
+ * <p>
+ * 只包含未禁用商品，不访问数据库：
+ * </p>
+ * <ul>
+ *   <li>前缀索引：键为规范化后的词条（标题从每个单词开始的后缀以及品牌名），
+ *       查询时按前缀取子区间，再按销量取前 k 个</li>
+ *   <li>三元组索引：标题和品牌中每个单词的 trigram 到商品ID的倒排表，
+ *       模糊搜索时按共享 trigram 数生成有限数量的候选，再按编辑距离重新排序</li>
+ * </ul>
+ * <p>
+ * 规范化：去除重音、转小写、非字母数字字符视为空格并合并连续空格。
+ * </p>
+ * <ul>
+ *   <li>首次查询时从数据库全量构建</li>
+ *   <li>商品新增、修改、启用/禁用、售出后调用 {@link #update(Phone)}，删除后调用 {@link #remove(String)}</li>
+ *   <li>定期全量对账，纠正并发或遗漏造成的偏差</li>
+ * </ul>
+ * <p>
+ * 读取无锁，写入由 this 串行化，单个商品的变化只增删该商品的词条；对账时构建新索引后整体替换。
+ * 在事务中调用 {@link #update(Phone)} / {@link #remove(String)} 时，修改推迟到事务提交后执行。
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PhoneSuggestIndex {
+
+    /**
+     * 模糊搜索最多重新排序的候选数量（按共享 trigram 数选取），保证耗时与结果规模而非商品总数相关
+     */
+    static final int MAX_FUZZY_CANDIDATES = 200;
+
+    /**
+     * 词条与商品ID之间的分隔符（保证同一词条可对应多个商品）
+     */
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    /**
+     * 排序：销量降序，标题升序，商品ID升序（保证稳定）
+     */
+    private static final Comparator<Suggestion> RANKING_ORDER = Comparator
+        .comparingInt(Suggestion::salesCount).reversed()
+        .thenComparing(Suggestion::title, Comparator.nullsLast(Comparator.naturalOrder()))
+        .thenComparing(Suggestion::phoneId);
+
+    /**
+     * 模糊匹配排序：匹配的词数降序，编辑距离之和升序，共享 trigram 数降序，销量降序
+     */
+    private static final Comparator<FuzzyMatch> FUZZY_ORDER = Comparator
+        .comparingInt(FuzzyMatch::matchedTokens).reversed()
+        .thenComparingInt(FuzzyMatch::distance)
+        .thenComparing(Comparator.comparingInt(FuzzyMatch::sharedGrams).reversed())
+        .thenComparing(FuzzyMatch::phone, RANKING_ORDER);
+
+    private final PhoneRepository phoneRepository;
+
+    /**
+     * 当前索引（对账时整体替换，读取方不会看到构建中的索引）
+     */
+    private volatile Tables tables = new Tables();
+
+    /**
+     * 各品牌未禁用商品的数量和总销量（写入时整体替换）
+     */
+    private volatile Map<PhoneBrand, BrandStats> brandStats = Map.of();
+
+    private volatile boolean initialized;
+
+    /**
+     * 按前缀查询商品建议
+     *
+     * @param prefix 用户输入
+     * @param limit 最大返回数量
+     * @return 匹配的商品（按销量降序）
+     */
+    public List<Suggestion> suggestPhones(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        ensureInitialized();
+
+        // 小顶堆保留销量最高的 limit 个商品
+        PriorityQueue<Suggestion> top = new PriorityQueue<>(limit + 1, RANKING_ORDER.reversed());
+        Set<String> seen = new HashSet<>();
+        for (Suggestion suggestion : tables.terms.subMap(normalized, normalized + Character.MAX_VALUE).values()) {
+            if (seen.add(suggestion.phoneId())) {
+                top.offer(suggestion);
+                if (top.size() > limit) {
+                    top.poll();
+                }
+            }
+        }
+        List<Suggestion> result = new ArrayList<>(top);
+        result.sort(RANKING_ORDER);
+        return result;
+    }
+
+    /**
+     * 按前缀查询品牌建议（只返回至少有一个未禁用商品的品牌）
+     *
+     * @param prefix 用户输入
+     * @param limit 最大返回数量
+     * @return 匹配的品牌（按总销量降序）
+     */
+    public List<PhoneBrand> suggestBrands(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        ensureInitialized();
+
+        Map<PhoneBrand, BrandStats> stats = brandStats;
+        return Arrays.stream(PhoneBrand.values())
+            .filter(brand -> stats.containsKey(brand) && normalize(brand.getDisplayName()).startsWith(normalized))
+            .sorted(Comparator.comparingLong((PhoneBrand brand) -> stats.get(brand).salesCount()).reversed())
+            .limit(limit)
+            .toList();
+    }
+
+    /**
+     * 容错搜索：允许拼写错误（如 "samsng galxy"、"iphne"）
+     * <p>
+     * 每个查询词与商品的标题词 / 品牌名比较编辑距离（也允许与其前缀比较），
+     * 长度 <= 2 的词必须精确匹配，<= 5 允许 1 处错误，更长的允许 2 处。
+     * 至少有一个查询词匹配的商品才会返回。
+     * </p>
+     *
+     * @param search 用户输入
+     * @param brand 品牌过滤（可选）
+     * @param limit 最大返回数量
+     * @return 商品ID（按匹配程度排序）
+     */
+    public List<String> fuzzySearch(String search, PhoneBrand brand, int limit) {
+        List<String> queryTokens = tokens(normalize(search));
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        ensureInitialized();
+        Tables current = tables;
+
+        // 1. 候选生成：统计每个商品与查询共享的 trigram 数，按品牌过滤后保留最多的 MAX_FUZZY_CANDIDATES 个
+        Map<String, Integer> sharedGrams = new HashMap<>();
+        for (String gram : trigramsOf(queryTokens)) {
+            for (String phoneId : current.trigrams.getOrDefault(gram, Set.of())) {
+                sharedGrams.merge(phoneId, 1, Integer::sum);
+            }
+        }
+        PriorityQueue<Map.Entry<String, Integer>> candidates = new PriorityQueue<>(
+            MAX_FUZZY_CANDIDATES + 1, Map.Entry.comparingByValue());
+        for (Map.Entry<String, Integer> entry : sharedGrams.entrySet()) {
+            Suggestion phone = current.phones.get(entry.getKey());
+            if (phone == null || (brand != null && brand != phone.brand())) {
+                continue;
+            }
+            candidates.offer(entry);
+            if (candidates.size() > MAX_FUZZY_CANDIDATES) {
+                candidates.poll();
+            }
+        }
+
+        // 2. 重新排序：按编辑距离确认匹配
+        List<FuzzyMatch> matches = new ArrayList<>();
+        for (Map.Entry<String, Integer> candidate : candidates) {
+            Suggestion phone = current.phones.get(candidate.getKey());
+            if (phone == null) {
+                continue;
+            }
+            List<String> phoneTokens = tokensOf(phone.title(), phone.brand());
+            int matched = 0;
+            int distance = 0;
+            for (String queryToken : queryTokens) {
+                int maxEdits = maxEdits(queryToken);
+                int best = maxEdits + 1;
+                for (String phoneToken : phoneTokens) {
+                    best = Math.min(best, tokenDistance(queryToken, phoneToken, maxEdits));
+                }
+                if (best <= maxEdits) {
+                    matched++;
+                    distance += best;
+                }
+            }
+            if (matched > 0) {
+                matches.add(new FuzzyMatch(phone, matched, distance, candidate.getValue()));
+            }
+        }
+        matches.sort(FUZZY_ORDER);
+        return matches.stream()
+            .limit(limit)
+            .map(match -> match.phone().phoneId())
+            .toList();
+    }
+
+    /**
+     * 根据商品最新状态更新索引（禁用的商品会被移除）
+     *
+     * @param phone 商品
+     */
+    public void update(Phone phone) {
+        if (!initialized || phone == null || phone.getId() == null) {
+            // 尚未构建时无需维护，首次查询会全量构建
+            return;
+        }
+        Suggestion suggestion = Boolean.TRUE.equals(phone.getIsDisabled()) ? null
+            : new Suggestion(phone.getId(), phone.getTitle(), phone.getBrand(),
+                phone.getSalesCount() != null ? phone.getSalesCount() : 0);
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                removeEntry(phone.getId());
+                if (suggestion != null) {
+                    putEntry(suggestion);
+                }
+            }
+        });
+    }
+
+    /**
+     * 从索引中移除商品（商品删除时调用）
+     *
+     * @param phoneId 商品ID
+     */
+    public void remove(String phoneId) {
+        AfterCommit.run(() -> {
+            synchronized (this) {
+                removeEntry(phoneId);
+            }
+        });
+    }
+
+    /**
+     * 全量对账：用数据库中的未禁用商品重建索引
+     */
+    @Scheduled(
+        fixedDelayString = "${catalog.suggest-reconcile-interval-ms:600000}",
+        initialDelayString = "${catalog.suggest-reconcile-interval-ms:600000}")
+    public void reconcile() {
+        List<PhoneSummary> candidates = phoneRepository.findSuggestCandidates();
+        Tables fresh = new Tables();
+        Map<PhoneBrand, BrandStats> freshBrandStats = new EnumMap<>(PhoneBrand.class);
+        for (PhoneSummary summary : candidates) {
+            Suggestion suggestion = new Suggestion(summary.getId(), summary.getTitle(), summary.getBrand(),
+                summary.getSalesCount() != null ? summary.getSalesCount() : 0);
+            fresh.put(suggestion);
+            if (suggestion.brand() != null) {
+                freshBrandStats.merge(suggestion.brand(), new BrandStats(1, suggestion.salesCount()), BrandStats::plus);
+            }
+        }
+        synchronized (this) {
+            tables = fresh;
+            brandStats = freshBrandStats;
+            initialized = true;
+        }
+        log.debug("Suggest index reconciled with {} phones", candidates.size());
+    }
+
+    /**
+     * 规范化输入或词条：去除重音、转小写、非字母数字字符替换为单个空格
+     *
+     * @param text 原始文本，可为 null
+     * @return 规范化后的文本（不会为 null）
+     */
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFKD)).replaceAll("");
+        return NON_ALPHANUMERIC.matcher(decomposed.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /**
+     * 商品对应的全部词条：标题从每个单词开始的后缀，以及品牌名
+     */
+    static Set<String> termsOf(String title, PhoneBrand brand) {
+        Set<String> result = new LinkedHashSet<>();
+        String normalizedTitle = normalize(title);
+        if (!normalizedTitle.isEmpty()) {
+            result.add(normalizedTitle);
+            for (int i = normalizedTitle.indexOf(' '); i >= 0; i = normalizedTitle.indexOf(' ', i + 1)) {
+                result.add(normalizedTitle.substring(i + 1));
+            }
+        }
+        if (brand != null) {
+            result.add(normalize(brand.getDisplayName()));
+        }
+        return result;
+    }
+
+    /**
+     * 单词的 trigram（前补两个空格、后补一个空格，短词也能产生 trigram）
+     */
+    static Set<String> trigramsOf(List<String> tokens) {
+        Set<String> grams = new HashSet<>();
+        for (String token : tokens) {
+            String padded = "  " + token + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    /**
+     * 编辑距离（插入、删除、替换以及相邻字符交换各计 1 次），超过 maxEdits 时提前结束并返回 maxEdits + 1
+     */
+    static int boundedEditDistance(String a, String b, int maxEdits) {
+        if (Math.abs(a.length() - b.length()) > maxEdits) {
+            return maxEdits + 1;
+        }
+        int[] beforePrevious = new int[b.length() + 1];
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && a.charAt(i - 1) == b.charAt(j - 2) && a.charAt(i - 2) == b.charAt(j - 1)) {
+                    current[j] = Math.min(current[j], beforePrevious[j - 2] + 1);
+                }
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return maxEdits + 1;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+        return Math.min(previous[b.length()], maxEdits + 1);
+    }
+
+    private static int maxEdits(String token) {
+        if (token.length() <= 2) {
+            return 0;
+        }
+        return token.length() <= 5 ? 1 : 2;
+    }
+
+    /**
+     * 查询词与商品词的距离：完整比较，或与商品词的同长前缀比较（输入未完成时）
+     */
+    private static int tokenDistance(String queryToken, String phoneToken, int maxEdits) {
+        int distance = boundedEditDistance(queryToken, phoneToken, maxEdits);
+        if (distance > 0 && queryToken.length() >= 3 && phoneToken.length() > queryToken.length()) {
+            distance = Math.min(distance,
+                boundedEditDistance(queryToken, phoneToken.substring(0, queryToken.length()), maxEdits));
+        }
+        return distance;
+    }
+
+    private static List<String> tokens(String normalized) {
+        return normalized.isEmpty() ? List.of() : List.of(normalized.split(" "));
+    }
+
+    private static List<String> tokensOf(String title, PhoneBrand brand) {
+        List<String> result = new ArrayList<>(tokens(normalize(title)));
+        if (brand != null) {
+            result.addAll(tokens(normalize(brand.getDisplayName())));
+        }
+        return result;
+    }
+
+    private void ensureInitialized() {
+        if (!initialized) {
+            synchronized (this) {
+                if (!initialized) {
+                    reconcile();
+                }
+            }
+        }
+    }
+
+    private void putEntry(Suggestion suggestion) {
+        tables.put(suggestion);
+        adjustBrandStats(suggestion, 1);
+    }
+
+    private void removeEntry(String phoneId) {
+        Suggestion existing = tables.remove(phoneId);
+        if (existing != null) {
+            adjustBrandStats(existing, -1);
+        }
+    }
+
+    private void adjustBrandStats(Suggestion suggestion, int sign) {
+        if (suggestion.brand() == null) {
+            return;
+        }
+        Map<PhoneBrand, BrandStats> stats = brandStats.isEmpty()
+            ? new EnumMap<>(PhoneBrand.class) : new EnumMap<>(brandStats);
+        BrandStats updated = stats.getOrDefault(suggestion.brand(), new BrandStats(0, 0))
+            .plus(new BrandStats(sign, (long) sign * suggestion.salesCount()));
+        if (updated.phoneCount() > 0) {
+            stats.put(suggestion.brand(), updated);
+        } else {
+            stats.remove(suggestion.brand());
+        }
+        brandStats = stats;
+    }
+
+    /**
+     * 索引中的商品
+     *
+     * @param phoneId 商品ID
+     * @param title 商品标题（原始文本，用于展示）
+     * @param brand 商品品牌
+     * @param salesCount 销量
+     */
+    public record Suggestion(String phoneId, String title, PhoneBrand brand, int salesCount) {
+    }
+
+    private record FuzzyMatch(Suggestion phone, int matchedTokens, int distance, int sharedGrams) {
+    }
+
+    private record BrandStats(int phoneCount, long salesCount) {
+
+        BrandStats plus(BrandStats other) {
+            return new BrandStats(phoneCount + other.phoneCount, salesCount + other.salesCount);
+        }
+    }
+
+    /**
+     * 索引数据（可并发读取；写入由外部类的 this 串行化）
+     */
+    private static final class Tables {
+
+        private final ConcurrentSkipListMap<String, Suggestion> terms = new ConcurrentSkipListMap<>();
+
+        private final Map<String, Set<String>> trigrams = new ConcurrentHashMap<>();
+
+        private final Map<String, Suggestion> phones = new ConcurrentHashMap<>();
+
+        void put(Suggestion suggestion) {
+            String phoneId = suggestion.phoneId();
+            phones.put(phoneId, suggestion);
+            for (String term : termsOf(suggestion.title(), suggestion.brand())) {
+                terms.put(key(term, phoneId), suggestion);
+            }
+            for (String gram : trigramsOf(tokensOf(suggestion.title(), suggestion.brand()))) {
+                trigrams.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(phoneId);
+            }
+        }
+
+        Suggestion remove(String phoneId) {
+            Suggestion existing = phones.remove(phoneId);
+            if (existing == null) {
+                return null;
+            }
+            for (String term : termsOf(existing.title(), existing.brand())) {
+                terms.remove(key(term, phoneId));
+            }
+            for (String gram : trigramsOf(tokensOf(existing.title(), existing.brand()))) {
+                trigrams.computeIfPresent(gram, (g, ids) -> {
+                    ids.remove(phoneId);
+                    return ids.isEmpty() ? null : ids;
+                });
+            }
+            return existing;
+        }
+
+        private static String key(String term, String phoneId) {
+            return term + KEY_SEPARATOR + phoneId;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.oldphonedeals.cache;
+
+import com.oldphonedeals.entity.PhoneCoPurchase;
+import com.oldphonedeals.repository.CoPurchaseRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * "经常一起购买"推荐列表（内存）
+ * <p>
+ * 保存每个商品共同购买次数最多的前 k 个商品ID，查询时按商品ID直接取出，不访问数据库。
+ * </p>
+ * <ul>
+ *   <li>首次读取时从 copurchases 集合全量加载</li>
+ *   <li>CoPurchaseMatrixJob 处理新订单后调用 {@link #putAll(Map)} 更新受影响的商品</li>
+ *   <li>其他实例处理了新订单时由任务调用 {@link #reload()} 重新加载</li>
+ * </ul>
+ * <p>
+ * 读取无锁；重新加载时构建新表后整体替换，读取方不会看到加载中的表。
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RelatedPhonesIndex {
+
+    private final CoPurchaseRepository coPurchaseRepository;
+
+    private volatile Map<String, List<String>> related = new ConcurrentHashMap<>();
+
+    private volatile boolean initialized;
+
+    /**
+     * 获取商品的推荐列表
+     *
+     * @param phoneId 商品ID
+     * @return 推荐商品ID（按共同购买次数降序），没有时为空列表
+     */
+    public List<String> get(String phoneId) {
+        if (!initialized) {
+            reload();
+        }
+        return related.getOrDefault(phoneId, List.of());
+    }
+
+    /**
+     * 更新部分商品的推荐列表
+     *
+     * @param updates 商品ID -> 推荐商品ID
+     */
+    public synchronized void putAll(Map<String, List<String>> updates) {
+        if (!initialized) {
+            // 尚未加载时无需维护，首次读取会全量加载
+            return;
+        }
+        updates.forEach((phoneId, ids) -> related.put(phoneId, List.copyOf(ids)));
+    }
+
+    /**
+     * 从数据库全量加载推荐列表
+     */
+    public synchronized void reload() {
+        Map<String, List<String>> loaded = new ConcurrentHashMap<>();
+        for (PhoneCoPurchase row : coPurchaseRepository.findAllRelated()) {
+            if (row.getRelated() != null) {
+                loaded.put(row.getId(), List.copyOf(row.getRelated()));
+            }
+        }
+        related = loaded;
+        initialized = true;
+        log.debug("Related phones index loaded for {} phones", loaded.size());
+    }
+}
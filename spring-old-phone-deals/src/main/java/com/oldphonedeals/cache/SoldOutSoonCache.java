@@ -0,0 +1,136 @@
+package com.oldphonedeals.cache;
+
+import com.oldphonedeals.config.CatalogProperties;
+import com.oldphonedeals.entity.PhoneSummary;
+import com.oldphonedeals.repository.PhoneRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 即将售罄商品缓存（首页列表）
+ * <p>
+ * 缓存库存 <= 5 的未禁用商品摘要（按库存升序，最多 6 个）。
+ * 列表只在库存、启用状态变化或商品增删时改变，因此由写路径调用
+ * {@link #evictIfAffected(String, Integer)} / {@link #invalidate()} 失效，
+ * 另设 TTL 兜底（评分等次要字段以及未接入失效的写路径在 TTL 内可能略有滞后）。
+ * </p>
+ * <p>
+ * 使用版本号防止并发加载写回过期结果：加载期间发生失效时，加载结果不会被缓存。
+ * 在事务中失效时，事务提交后会再失效一次，避免提交前的并发读取把旧数据写回缓存。
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SoldOutSoonCache {
+
+    /**
+     * 库存上限（包含）
+     */
+    public static final int MAX_STOCK = 5;
+
+    /**
+     * 最大返回数量
+     */
+    public static final int LIMIT = 6;
+
+    private final PhoneRepository phoneRepository;
+
+    private final CatalogProperties catalogProperties;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * 获取即将售罄商品列表（未命中或已过期时从数据库加载）
+     *
+     * @return 不可变的商品摘要列表
+     */
+    public List<PhoneSummary> get() {
+        Snapshot current = snapshot;
+        if (isFresh(current)) {
+            return current.phones();
+        }
+        return load();
+    }
+
+    /**
+     * 商品库存或状态变化后调用
+     * <p>
+     * 总是递增版本号，丢弃进行中的加载（加载可能读到变化前的数据）；
+     * 仅当商品可能进入或已在列表中时才清除快照，否则保留快照并更新其版本号。
+     * </p>
+     *
+     * @param phoneId 商品ID
+     * @param stock 变化后的库存（未知时传 null，直接失效）
+     */
+    public void evictIfAffected(String phoneId, Integer stock) {
+        if (stock == null || stock <= MAX_STOCK || contains(phoneId)) {
+            invalidate();
+        } else {
+            retainSnapshot();
+        }
+    }
+
+    /**
+     * 使缓存失效
+     */
+    public void invalidate() {
+        version.incrementAndGet();
+        snapshot = null;
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                    snapshot = null;
+                }
+            });
+        }
+    }
+
+    private synchronized List<PhoneSummary> load() {
+        Snapshot current = snapshot;
+        if (isFresh(current)) {
+            return current.phones();
+        }
+        long loadVersion = version.get();
+        List<PhoneSummary> phones = List.copyOf(phoneRepository.findLowStockSummaries(MAX_STOCK, LIMIT));
+        if (version.get() == loadVersion) {
+            long expiresAt = System.nanoTime() + catalogProperties.getSoldOutSoonTtl().toNanos();
+            snapshot = new Snapshot(loadVersion, expiresAt, phones);
+        }
+        log.debug("Sold-out-soon cache loaded {} phones", phones.size());
+        return phones;
+    }
+
+    private synchronized void retainSnapshot() {
+        Snapshot current = snapshot;
+        long newVersion = version.incrementAndGet();
+        if (current != null && current.version() == newVersion - 1) {
+            snapshot = new Snapshot(newVersion, current.expiresAt(), current.phones());
+        }
+    }
+
+    private boolean isFresh(Snapshot current) {
+        return current != null
+            && current.version() == version.get()
+            && System.nanoTime() - current.expiresAt() < 0;
+    }
+
+    private boolean contains(String phoneId) {
+        Snapshot current = snapshot;
+        return current != null && current.phones().stream()
+            .anyMatch(phone -> phone.getId().equals(phoneId));
+    }
+
+    private record Snapshot(long version, long expiresAt, List<PhoneSummary> phones) {
+    }
+}
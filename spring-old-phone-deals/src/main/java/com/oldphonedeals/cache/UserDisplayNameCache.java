@@ -0,0 +1,98 @@
+package com.oldphonedeals.cache;
+
+import com.oldphonedeals.config.CatalogProperties;
+import com.oldphonedeals.entity.User;
+import com.oldphonedeals.repository.UserRepository;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * 用户显示名称缓存（"First Last"）
+ * <p>
+ * 评论列表、卖家评论、管理端评论管理等渲染评论时都需要把评论者ID解析为姓名，
+ * 而姓名几乎不变。{@link #getAll(Collection)} 先查缓存，未命中的ID通过一次 $in 查询
+ * （只投影姓名字段）批量加载。
+ * </p>
+ * <p>
+ * 用户资料修改、管理员修改/删除用户时按用户ID失效，另设 TTL 兜底。
+ * </p>
+ */
+@Component
+public class UserDisplayNameCache {
+
+    private final UserRepository userRepository;
+
+    private final VersionedLruCache<String, String> entries;
+
+    public UserDisplayNameCache(UserRepository userRepository, CatalogProperties catalogProperties) {
+        this.userRepository = userRepository;
+        this.entries = new VersionedLruCache<>(
+            () -> catalogProperties.getNameCache().getMaxEntries(),
+            () -> catalogProperties.getNameCache().getTtl());
+    }
+
+    /**
+     * 批量获取用户显示名称
+     *
+     * @param userIds 用户ID（null 和重复值会被忽略）
+     * @return 用户ID到显示名称的映射，不存在的用户不在结果中
+     */
+    public Map<String, String> getAll(Collection<String> userIds) {
+        Map<String, String> names = new HashMap<>();
+        Set<String> misses = new LinkedHashSet<>();
+        for (String userId : userIds) {
+            if (userId == null || names.containsKey(userId) || misses.contains(userId)) {
+                continue;
+            }
+            String cached = entries.getIfFresh(userId);
+            if (cached != null) {
+                names.put(userId, cached);
+            } else {
+                misses.add(userId);
+            }
+        }
+        if (misses.isEmpty()) {
+            return names;
+        }
+
+        long loadVersion = entries.version();
+        List<User> users = userRepository.findNamesByIdIn(misses);
+        Map<String, String> loaded = new HashMap<>();
+        for (User user : users) {
+            loaded.put(user.getId(), displayName(user));
+        }
+        names.putAll(loaded);
+        entries.putAllIfCurrent(loaded, loadVersion);
+        return names;
+    }
+
+    /**
+     * 获取单个用户的显示名称
+     *
+     * @param userId 用户ID
+     * @return 显示名称，用户不存在时为 null
+     */
+    public String get(String userId) {
+        return userId != null ? getAll(List.of(userId)).get(userId) : null;
+    }
+
+    /**
+     * 使单个用户失效（姓名修改或用户删除时使用）
+     *
+     * @param userId 用户ID
+     */
+    public void evict(String userId) {
+        entries.evict(userId);
+    }
+
+    private static String displayName(User user) {
+        return Objects.toString(user.getFirstName(), "") + " " + Objects.toString(user.getLastName(), "");
+    }
+}
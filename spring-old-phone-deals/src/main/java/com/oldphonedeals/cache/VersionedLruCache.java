@@ -0,0 +1,230 @@
+package com.oldphonedeals.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * 带版本号的有界 LRU 缓存（各进程内缓存的公共实现）
+ * <p>
+ * 按访问顺序淘汰超出 max-entries 的条目，超过 TTL 的条目视为未命中；max-entries 为 0 时不缓存。
+ * 容量和 TTL 每次使用时读取，配置修改后立即生效。
+ * </p>
+ * <p>
+ * 每次失效或写入都会递增版本号，加载结果只在加载期间版本号未变化时写入，
+ * 避免把失效前读到的旧数据写回缓存。在事务中失效时，事务提交后会再失效一次，
+ * 避免提交前的并发读取把旧数据写回缓存。
+ * </p>
+ *
+ * @param <K> 键类型
+ * @param <V> 值类型（共享，调用方不得修改）
+ */
+final class VersionedLruCache<K, V> {
+
+    private final IntSupplier maxEntries;
+
+    private final Supplier<Duration> ttl;
+
+    private final AtomicLong version = new AtomicLong();
+
+    /**
+     * 按访问顺序排列，超出容量时淘汰最久未访问的条目（由 this 保护）
+     */
+    private final LinkedHashMap<K, Cached<V>> entries;
+
+    /**
+     * @param maxEntries 最大条目数（0 表示关闭缓存）
+     * @param ttl 条目有效期
+     */
+    VersionedLruCache(IntSupplier maxEntries, Supplier<Duration> ttl) {
+        this(maxEntries, ttl, () -> {
+        });
+    }
+
+    /**
+     * @param maxEntries 最大条目数（0 表示关闭缓存）
+     * @param ttl 条目有效期
+     * @param onEviction 因容量淘汰条目时调用（用于统计）
+     */
+    VersionedLruCache(IntSupplier maxEntries, Supplier<Duration> ttl, Runnable onEviction) {
+        this.maxEntries = maxEntries;
+        this.ttl = ttl;
+        this.entries = new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Cached<V>> eldest) {
+                boolean evict = size() > maxEntries.getAsInt();
+                if (evict) {
+                    onEviction.run();
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * 是否启用缓存（max-entries 大于 0）
+     */
+    boolean isEnabled() {
+        return maxEntries.getAsInt() > 0;
+    }
+
+    /**
+     * 当前版本号，加载前记录并传给 {@link #putIfCurrent(Object, Object, long)}
+     */
+    long version() {
+        return version.get();
+    }
+
+    /**
+     * 获取条目（不检查 TTL，用于需要自行判断过期的调用方）
+     *
+     * @return 条目，不存在时为 null
+     */
+    synchronized Cached<V> getEntry(K key) {
+        return entries.get(key);
+    }
+
+    /**
+     * 获取 TTL 内的值
+     *
+     * @return 值，不存在或已过期时为 null
+     */
+    V getIfFresh(K key) {
+        Cached<V> cached = getEntry(key);
+        return cached != null && cached.ageNanos() < ttl.get().toNanos() ? cached.value() : null;
+    }
+
+    /**
+     * 获取值，不存在或已过期时通过 loader 加载
+     *
+     * @param loader 加载（异常直接抛出，不缓存；返回 null 时不缓存）
+     */
+    V get(K key, Supplier<V> loader) {
+        V cached = getIfFresh(key);
+        if (cached != null) {
+            return cached;
+        }
+        long loadVersion = version();
+        V value = loader.get();
+        putIfCurrent(key, value, loadVersion);
+        return value;
+    }
+
+    /**
+     * 写入加载结果：仅当版本号仍为 loadVersion 时写入
+     *
+     * @param loadVersion 加载前的 {@link #version()}
+     */
+    void putIfCurrent(K key, V value, long loadVersion) {
+        if (value != null) {
+            putAllIfCurrent(Map.of(key, value), loadVersion);
+        }
+    }
+
+    /**
+     * 批量写入加载结果：仅当版本号仍为 loadVersion 时写入
+     *
+     * @param loadVersion 加载前的 {@link #version()}
+     */
+    synchronized void putAllIfCurrent(Map<K, V> values, long loadVersion) {
+        if (!isEnabled() || version.get() != loadVersion) {
+            return;
+        }
+        long loadedAt = System.nanoTime();
+        values.forEach((key, value) -> {
+            if (value != null) {
+                entries.put(key, new Cached<>(value, loadedAt));
+            }
+        });
+    }
+
+    /**
+     * 写入最新值（写路径使用），同时使进行中的加载失效
+     * <p>
+     * 仅当版本号仍为 writeVersion 时写入；期间有其他失效或写入时丢弃该值并移除该键，
+     * 避免乱序到达的写入结果覆盖失效或更新的写入。
+     * </p>
+     *
+     * @param writeVersion 写入数据库前的 {@link #version()}
+     */
+    synchronized void putIfUnchanged(K key, V value, long writeVersion) {
+        boolean unchanged = version.getAndIncrement() == writeVersion;
+        if (unchanged && value != null && isEnabled()) {
+            entries.put(key, new Cached<>(value, System.nanoTime()));
+        } else {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * 使单个键失效
+     */
+    void evict(K key) {
+        invalidate(() -> entries.remove(key));
+    }
+
+    /**
+     * 使满足条件的键失效
+     */
+    void evictWhere(Predicate<K> affected) {
+        invalidate(() -> entries.keySet().removeIf(affected));
+    }
+
+    /**
+     * 使值满足条件的条目失效
+     */
+    void evictValuesWhere(Predicate<V> affected) {
+        invalidate(() -> entries.values().removeIf(cached -> affected.test(cached.value())));
+    }
+
+    /**
+     * 全部失效
+     */
+    void evictAll() {
+        invalidate(entries::clear);
+    }
+
+    /**
+     * 当前条目数
+     */
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private void invalidate(Runnable removal) {
+        remove(removal);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remove(removal);
+                }
+            });
+        }
+    }
+
+    private synchronized void remove(Runnable removal) {
+        version.incrementAndGet();
+        removal.run();
+    }
+
+    /**
+     * 缓存条目
+     *
+     * @param value 值
+     * @param loadedAt 写入时间（System.nanoTime）
+     */
+    record Cached<V>(V value, long loadedAt) {
+
+        long ageNanos() {
+            return System.nanoTime() - loadedAt;
+        }
+    }
+}
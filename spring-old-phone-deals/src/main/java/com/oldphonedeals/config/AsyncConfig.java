@@ -1,5 +1,6 @@
 package com.oldphonedeals.config;
 
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.AsyncConfigurer;
@@ -23,4 +24,18 @@ public class AsyncConfig implements AsyncConfigurer {
         executor.initialize();
         return executor;
     }
+    
+    /**
+     * 商品列表缓存后台刷新线程池
+     * 队列满时拒绝任务，由缓存继续返回旧结果
+     */
+    @Bean(name = "catalogCacheExecutor")
+    public ThreadPoolTaskExecutor catalogCacheExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("catalog-cache-");
+        return executor;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,158 @@
+package com.oldphonedeals.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 商品目录配置属性
+ */
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "catalog")
+public class CatalogProperties {
+
+    /**
+     * 价格分面默认的桶边界（升序）
+     * 相邻边界构成 [min, max) 区间，大于等于最后一个边界的价格归入开放区间
+     */
+    private List<Double> priceBuckets = Arrays.asList(0.0, 100.0, 200.0, 500.0, 1000.0);
+
+    /**
+     * 单次请求允许的最大桶边界数量
+     */
+    private int maxPriceBuckets = 20;
+
+    /**
+     * 即将售罄列表缓存的最长存活时间（写路径会主动失效，TTL 仅作兜底）
+     */
+    private Duration soldOutSoonTtl = Duration.ofSeconds(60);
+
+    /**
+     * 商品列表查询结果缓存
+     */
+    private QueryCache queryCache = new QueryCache();
+
+    /**
+     * 商品详情序列化结果缓存（匿名访问）
+     */
+    private DetailCache detailCache = new DetailCache();
+
+    /**
+     * 用户显示名称缓存（评论者姓名）
+     */
+    private NameCache nameCache = new NameCache();
+
+    /**
+     * 用户购物车缓存
+     */
+    private CartCache cartCache = new CartCache();
+
+    /**
+     * "经常一起购买"推荐（共同购买矩阵）
+     */
+    private CoPurchase coPurchase = new CoPurchase();
+
+    /**
+     * 卖家批量导入商品
+     */
+    private BulkImport bulkImport = new BulkImport();
+
+    @Data
+    public static class QueryCache {
+
+        /**
+         * 最多缓存的查询结果数量（0 表示关闭缓存）
+         */
+        private int maxEntries = 500;
+
+        /**
+         * 结果新鲜期，期间直接返回缓存
+         */
+        private Duration ttl = Duration.ofSeconds(30);
+
+        /**
+         * 过期后仍可返回旧结果的时长，期间在后台刷新
+         */
+        private Duration staleWindow = Duration.ofSeconds(60);
+    }
+
+    @Data
+    public static class DetailCache {
+
+        /**
+         * 最多缓存的商品数量（0 表示关闭缓存）
+         */
+        private int maxEntries = 1000;
+
+        /**
+         * 最长存活时间（写路径会主动失效，TTL 仅作兜底）
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class NameCache {
+
+        /**
+         * 最多缓存的用户数量（0 表示关闭缓存）
+         */
+        private int maxEntries = 10000;
+
+        /**
+         * 最长存活时间（姓名修改和删除用户时会主动失效，TTL 仅作兜底）
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class CartCache {
+
+        /**
+         * 最多缓存的用户数量（0 表示关闭缓存）
+         */
+        private int maxEntries = 10000;
+
+        /**
+         * 最长存活时间（多实例且未按用户粘性路由时，其他实例的修改最多延迟该时长可见）
+         */
+        private Duration ttl = Duration.ofMinutes(2);
+    }
+
+    @Data
+    public static class CoPurchase {
+
+        /**
+         * 每个商品保留的推荐数量
+         */
+        private int topK = 10;
+
+        /**
+         * 只处理创建时间早于当前时间减去该时长的订单，避免遗漏创建时间靠前但稍后才写入的订单
+         */
+        private Duration settleDelay = Duration.ofMinutes(1);
+    }
+
+    @Data
+    public static class BulkImport {
+
+        /**
+         * 每次批量写入的商品数量
+         */
+        private int batchSize = 500;
+
+        /**
+         * 单次导入最多读取的数据行数，超出部分不导入
+         */
+        private int maxRows = 20000;
+
+        /**
+         * 结果中最多返回的错误行数
+         */
+        private int maxReportedErrors = 1000;
+    }
+}
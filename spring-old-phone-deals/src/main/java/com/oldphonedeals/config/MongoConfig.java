@@ -4,6 +4,7 @@ import com.mongodb.ConnectionString;
 import com.mongodb.MongoClientSettings;
 import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
+import com.oldphonedeals.entity.User;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -16,9 +17,17 @@ import org.springframework.data.mongodb.core.convert.DefaultMongoTypeMapper;
 import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
 import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
 
+import java.util.Collection;
+import java.util.Collections;
+
 /**
  * MongoDB配置类
  * 配置MongoTemplate、事务管理器和审计支持
+ * <p>
+ * 继承 AbstractMongoClientConfiguration 后映射上下文由本类提供，
+ * Spring Boot 的 spring.data.mongodb.auto-index-creation 不再生效，
+ * 因此在这里读取该配置并扫描实体包，启动时按实体上的注解创建索引。
+ * </p>
  */
 @Configuration
 public class MongoConfig extends AbstractMongoClientConfiguration {
@@ -26,6 +35,9 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
   @Value("${spring.data.mongodb.uri}")
   private String mongoUri;
 
+  @Value("${spring.data.mongodb.auto-index-creation:true}")
+  private boolean autoIndexCreation;
+
   @Override
   protected String getDatabaseName() {
     // 从URI中提取数据库名
@@ -34,6 +46,22 @@ public class MongoConfig extends AbstractMongoClientConfiguration {
            connectionString.getDatabase() : "oldphonedeals";
   }
 
+  /**
+   * 启动时扫描实体包，使所有实体的索引在 MongoTemplate 创建时即被确保
+   */
+  @Override
+  protected Collection<String> getMappingBasePackages() {
+    return Collections.singleton(User.class.getPackageName());
+  }
+
+  /**
+   * 按实体上的 @Indexed / @CompoundIndex / @TextIndexed 自动创建索引
+   */
+  @Override
+  protected boolean autoIndexCreation() {
+    return autoIndexCreation;
+  }
+
   @Override
   public MongoClient mongoClient() {
     ConnectionString connectionString = new ConnectionString(mongoUri);
@@ -3,11 +3,13 @@ package com.oldphonedeals.controller;
 import com.oldphonedeals.dto.response.ApiResponse;
 import com.oldphonedeals.dto.response.e2e.E2eSetupResponse;
 import com.oldphonedeals.entity.Phone;
+import com.oldphonedeals.entity.Review;
 import com.oldphonedeals.entity.User;
 import com.oldphonedeals.enums.PhoneBrand;
 import com.oldphonedeals.repository.CartRepository;
 import com.oldphonedeals.repository.OrderRepository;
 import com.oldphonedeals.repository.PhoneRepository;
+import com.oldphonedeals.repository.ReviewRepository;
 import com.oldphonedeals.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -37,6 +39,7 @@ public class E2eTestController {
 
     private final UserRepository userRepository;
     private final PhoneRepository phoneRepository;
+    private final ReviewRepository reviewRepository;
     private final CartRepository cartRepository;
     private final OrderRepository orderRepository;
     private final PasswordEncoder passwordEncoder;
@@ -48,6 +51,7 @@ public class E2eTestController {
         // 清空数据
         orderRepository.deleteAll();
         cartRepository.deleteAll();
+        reviewRepository.deleteAll();
         phoneRepository.deleteAll();
         userRepository.deleteAll();
 
@@ -88,39 +92,44 @@ public class E2eTestController {
                         .build()
         );
 
-        List<Phone.Review> seedReviews = List.of(
-                Phone.Review.builder()
+        Phone phone = Phone.builder()
+                .title("E2E Apple iPhone 15 Pro")
+                .brand(PhoneBrand.APPLE)
+                .image("https://images.unsplash.com/photo-1512499617640-c2f999098c01?auto=format&fit=crop&w=1200&q=80")
+                .stock(3)
+                .price(1199.0)
+                .seller(Phone.Seller.from(seller))
+                .isDisabled(false)
+                .salesCount(42)
+                .visibleRatingSum(9)
+                .visibleReviewCount(2)
+                .totalReviewCount(2)
+                .totalRatingSum(9)
+                .createdAt(now)
+                .updatedAt(now)
+                .build();
+        phone = phoneRepository.save(phone);
+
+        reviewRepository.saveAll(List.of(
+                Review.builder()
                         .id(UUID.randomUUID().toString())
+                        .phoneId(phone.getId())
                         .reviewerId(buyer.getId())
                         .rating(5)
                         .comment("Love how smooth this phone feels.")
                         .isHidden(false)
                         .createdAt(now.minusDays(1))
                         .build(),
-                Phone.Review.builder()
+                Review.builder()
                         .id(UUID.randomUUID().toString())
+                        .phoneId(phone.getId())
                         .reviewerId(seller.getId())
                         .rating(4)
                         .comment("Surprisingly solid battery life.")
                         .isHidden(false)
                         .createdAt(now.minusHours(12))
                         .build()
-        );
-
-        Phone phone = Phone.builder()
-                .title("E2E Apple iPhone 15 Pro")
-                .brand(PhoneBrand.APPLE)
-                .image("https://images.unsplash.com/photo-1512499617640-c2f999098c01?auto=format&fit=crop&w=1200&q=80")
-                .stock(3)
-                .price(1199.0)
-                .seller(seller)
-                .reviews(seedReviews)
-                .isDisabled(false)
-                .salesCount(42)
-                .createdAt(now)
-                .updatedAt(now)
-                .build();
-        phone = phoneRepository.save(phone);
+        ));
 
         E2eSetupResponse response = E2eSetupResponse.builder()
                 .buyer(E2eSetupResponse.TestUserInfo.builder()
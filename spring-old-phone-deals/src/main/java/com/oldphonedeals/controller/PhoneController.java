@@ -1,26 +1,38 @@
 package com.oldphonedeals.controller;
 
+import com.oldphonedeals.cache.PhoneDetailCache;
+import com.oldphonedeals.dto.request.phone.PhoneBulkUpdateRequest;
 import com.oldphonedeals.dto.request.phone.PhoneCreateRequest;
+import com.oldphonedeals.dto.request.phone.PhoneQueryRequest;
 import com.oldphonedeals.dto.request.phone.PhoneUpdateRequest;
 import com.oldphonedeals.dto.request.phone.ReviewCreateRequest;
 import com.oldphonedeals.dto.request.phone.TogglePhoneStatusRequest;
 import com.oldphonedeals.dto.response.ApiResponse;
+import com.oldphonedeals.dto.response.PageResponse;
+import com.oldphonedeals.dto.response.phone.PhoneBulkUpdateResponse;
+import com.oldphonedeals.dto.response.phone.PhoneImportResponse;
 import com.oldphonedeals.dto.response.phone.PhoneListItemResponse;
 import com.oldphonedeals.dto.response.phone.PhoneResponse;
+import com.oldphonedeals.dto.response.phone.PhoneSuggestionResponse;
 import com.oldphonedeals.dto.response.phone.ReviewResponse;
 import com.oldphonedeals.enums.PhoneBrand;
 import com.oldphonedeals.service.PhoneService;
 import com.oldphonedeals.service.ReviewService;
+import com.oldphonedeals.util.PhoneImportReader;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -40,6 +52,9 @@ public class PhoneController {
   @Autowired
   private PhoneService phoneService;
 
+  @Autowired
+  private PhoneDetailCache phoneDetailCache;
+
   /**
    * 创建手机商品
    * POST /api/phones
@@ -69,6 +84,57 @@ public class PhoneController {
         .body(ApiResponse.success(response, "Phone created successfully"));
   }
 
+  /**
+   * 批量导入商品
+   * POST /api/phones/bulk
+   * 需要认证，导入的商品归当前用户所有
+   *
+   * 请求体为 CSV（text/csv，首行为表头 title,brand,image,stock,price）
+   * 或 NDJSON（application/x-ndjson，每行一个 JSON 对象），按行流式读取；
+   * 也可通过 format 参数（csv / ndjson）指定格式
+   *
+   * @param body 请求体
+   * @param format 导入格式（可选，优先于 Content-Type）
+   * @param contentType 请求的 Content-Type
+   * @return 导入结果（含每个失败行的错误信息）
+   */
+  @PostMapping("/bulk")
+  @PreAuthorize("isAuthenticated()")
+  public ResponseEntity<ApiResponse<PhoneImportResponse>> importPhones(
+      InputStream body,
+      @RequestParam(required = false) String format,
+      @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType
+  ) {
+    log.info("POST /api/phones/bulk - Importing phones");
+
+    PhoneImportReader.Format importFormat = PhoneImportReader.Format.resolve(format, contentType);
+    String userId = getCurrentUserId();
+    PhoneImportResponse response = phoneService.importPhones(body, importFormat, userId);
+
+    return ResponseEntity.ok(ApiResponse.success(response, "Bulk import completed"));
+  }
+
+  /**
+   * 批量更新库存 / 价格 / 上下架状态
+   * PATCH /api/phones/bulk
+   * 需要认证，所有商品都必须属于当前用户
+   *
+   * @param request 批量更新请求（updates: [{phoneId, stock?, price?, isDisabled?}]）
+   * @return 匹配和修改的商品数量
+   */
+  @PatchMapping("/bulk")
+  @PreAuthorize("isAuthenticated()")
+  public ResponseEntity<ApiResponse<PhoneBulkUpdateResponse>> bulkUpdatePhones(
+      @Valid @RequestBody PhoneBulkUpdateRequest request
+  ) {
+    log.info("PATCH /api/phones/bulk - Updating {} phones", request.getUpdates().size());
+
+    String userId = getCurrentUserId();
+    PhoneBulkUpdateResponse response = phoneService.bulkUpdatePhones(request, userId);
+
+    return ResponseEntity.ok(ApiResponse.success(response, "Phones updated successfully"));
+  }
+
   /**
    * 更新手机商品
    * PUT /api/phones/{phoneId}
@@ -157,26 +223,92 @@ public class PhoneController {
     return ResponseEntity.ok(response);
   }
 
+  /**
+   * 搜索建议（输入框自动补全）
+   * GET /api/phones/suggest?q=
+   * 公开访问；由内存前缀索引直接返回，不访问数据库
+   *
+   * @param q 用户输入
+   * @param limit 最大返回数量（默认：8，最大：20）
+   * @return 建议列表（品牌在前，商品按销量降序）
+   */
+  @GetMapping("/suggest")
+  public ResponseEntity<ApiResponse<List<PhoneSuggestionResponse>>> suggestPhones(
+      @RequestParam(defaultValue = "") String q,
+      @RequestParam(required = false) Integer limit
+  ) {
+    // 每次按键都会调用，只记录 debug 日志
+    log.debug("GET /api/phones/suggest - q={}, limit={}", q, limit);
+
+    List<PhoneSuggestionResponse> suggestions = phoneService.suggestPhones(q, limit);
+
+    return ResponseEntity.ok(
+        ApiResponse.success(suggestions, "Suggestions retrieved successfully")
+    );
+  }
+
+  /**
+   * "经常一起购买"推荐
+   * GET /api/phones/{phoneId}/related
+   * 公开访问；推荐列表由订单预先计算，从内存读取
+   *
+   * @param phoneId 商品ID
+   * @param limit 最大返回数量（默认：6）
+   * @return 推荐商品列表（按共同购买次数降序）
+   */
+  @GetMapping("/{phoneId}/related")
+  public ResponseEntity<ApiResponse<List<PhoneListItemResponse>>> getRelatedPhones(
+      @PathVariable String phoneId,
+      @RequestParam(required = false) Integer limit
+  ) {
+    log.debug("GET /api/phones/{}/related - limit={}", phoneId, limit);
+
+    List<PhoneListItemResponse> phones = phoneService.getRelatedPhones(phoneId, limit);
+
+    return ResponseEntity.ok(
+        ApiResponse.success(phones, "Related phones retrieved successfully")
+    );
+  }
+
   /**
    * 获取单个商品详情
    * GET /api/phones/{phoneId}
-   * 公开访问
+   * 公开访问；匿名访问的响应带强 ETag，支持 If-None-Match 条件请求
    * 
    * 参考：server/app/routes/phone.routes.js:9
    *      server/app/controllers/phone.controller.js:135-176
    * 
    * @param phoneId 商品ID
-   * @return 商品详情
+   * @param ifNoneMatch If-None-Match 请求头（可选）
+   * @return 商品详情，或 304 Not Modified
    */
   @GetMapping("/{phoneId}")
-  public ResponseEntity<ApiResponse<PhoneResponse>> getPhoneById(
-      @PathVariable String phoneId
+  public ResponseEntity<?> getPhoneById(
+      @PathVariable String phoneId,
+      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch
   ) {
     log.info("GET /api/phones/{} - Fetching phone details", phoneId);
 
     // 获取当前用户ID（如果已登录）
     String currentUserId = getCurrentUserIdOrNull();
 
+    // 匿名访问：返回缓存的序列化结果，ETag 匹配时返回 304
+    if (currentUserId == null) {
+      PhoneDetailCache.Detail detail = phoneDetailCache.get(phoneId, () -> ApiResponse.success(
+          phoneService.getPhoneById(phoneId, null), "Phone retrieved successfully"));
+      if (detail.matches(ifNoneMatch)) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+            .eTag(detail.etag())
+            .cacheControl(CacheControl.noCache())
+            .build();
+      }
+      return ResponseEntity.ok()
+          .eTag(detail.etag())
+          .cacheControl(CacheControl.noCache())
+          .contentType(MediaType.APPLICATION_JSON)
+          .body(detail.body());
+    }
+
     // 调用服务层获取商品详情
     PhoneResponse response = phoneService.getPhoneById(phoneId, currentUserId);
 
@@ -193,26 +325,36 @@ public class PhoneController {
    * 参考：server/app/routes/phone.routes.js:8
    *      server/app/controllers/phone.controller.js:178-234
    *
-   * @param search 搜索关键词（可选）
+   * @param search 搜索关键词（可选，全文搜索标题和品牌）
+   * @param fuzzy 是否容错搜索（可选，默认：false；允许拼写错误，仅页码模式）
    * @param brand 品牌过滤（可选）
+   * @param minPrice 最低价格过滤（可选）
    * @param maxPrice 最高价格过滤（可选）
    * @param special 特殊列表类型（soldOutSoon / bestSellers，可选）
-   * @param sortBy 排序字段（默认：createdAt）
+   * @param sortBy 排序字段（默认：有搜索词时为 relevance，否则为 createdAt）
    * @param sortOrder 排序方向（asc/desc，默认：desc）
    * @param page 页码（从1开始，默认：1）
    * @param limit 每页数量（默认：12）
+   * @param after 游标（可选；传入时改用游标分页，空值表示第一页，返回 nextCursor / hasMore 而非总数）
+   * @param facets 是否同时返回品牌计数和价格分布（可选，默认：false）
+   * @param priceBuckets 价格桶边界（可选，逗号分隔，如 0,100,500）
    * @return 包含商品列表和分页信息的响应
    */
   @GetMapping
   public ResponseEntity<ApiResponse<?>> getAllPhones(
       @RequestParam(required = false) String search,
+      @RequestParam(defaultValue = "false") Boolean fuzzy,
       @RequestParam(required = false) PhoneBrand brand,
+      @RequestParam(required = false) Double minPrice,
       @RequestParam(required = false) Double maxPrice,
       @RequestParam(required = false) String special,
-      @RequestParam(defaultValue = "createdAt") String sortBy,
+      @RequestParam(required = false) String sortBy,
       @RequestParam(defaultValue = "desc") String sortOrder,
       @RequestParam(defaultValue = "1") Integer page,
-      @RequestParam(defaultValue = "12") Integer limit
+      @RequestParam(defaultValue = "12") Integer limit,
+      @RequestParam(required = false) String after,
+      @RequestParam(defaultValue = "false") Boolean facets,
+      @RequestParam(required = false) List<Double> priceBuckets
   ) {
     log.info("GET /api/phones - Fetching phones with filters: search={}, brand={}, special={}, page={}, limit={}",
         search, brand, special, page, limit);
@@ -233,15 +375,21 @@ public class PhoneController {
     }
 
     // 调用服务层获取商品列表
-    Map<String, Object> response = phoneService.getPhones(
-        search,
-        brand,
-        maxPrice,
-        sortBy,
-        sortOrder,
-        page,
-        limit
-    );
+    PhoneQueryRequest query = PhoneQueryRequest.builder()
+        .search(search)
+        .fuzzy(fuzzy)
+        .brand(brand)
+        .minPrice(minPrice)
+        .maxPrice(maxPrice)
+        .sortBy(sortBy)
+        .sortOrder(sortOrder)
+        .page(page)
+        .limit(limit)
+        .after(after)
+        .facets(facets)
+        .priceBuckets(priceBuckets)
+        .build();
+    Map<String, Object> response = phoneService.getPhones(query);
 
     return ResponseEntity.ok(
         ApiResponse.success(response, "Phones retrieved successfully")
@@ -249,24 +397,47 @@ public class PhoneController {
   }
 
   /**
-   * 获取卖家的所有商品
+   * 获取卖家的商品（包含禁用商品）
    * GET /api/phones/by-seller/{sellerId}
    * 公开访问
    *
+   * 未传 page 和 summary 时返回该卖家的所有商品列表（兼容原有调用方）；
+   * 传入其一时返回分页结果（PageResponse），summary=true 时只包含列表摘要
+   *
    * 参考：server/app/routes/phone.routes.js
    *      server/app/controllers/phone.controller.js:486-514
    *
    * @param sellerId 卖家ID
-   * @return 该卖家的所有商品列表
+   * @param sortBy 排序字段（分页时有效，默认：createdAt）
+   * @param sortOrder 排序方向（分页时有效，asc/desc，默认：desc）
+   * @param page 页码（可选，从1开始，默认：1）
+   * @param limit 每页数量（分页时有效，默认：12，最大：100）
+   * @param summary 是否只返回列表摘要（可选，默认：false）
+   * @return 商品列表，或包含商品列表和分页信息的响应
    */
   @GetMapping("/by-seller/{sellerId}")
-  public ResponseEntity<ApiResponse<List<PhoneResponse>>> getPhonesBySeller(
-      @PathVariable String sellerId
+  public ResponseEntity<ApiResponse<?>> getPhonesBySeller(
+      @PathVariable String sellerId,
+      @RequestParam(required = false) String sortBy,
+      @RequestParam(defaultValue = "desc") String sortOrder,
+      @RequestParam(required = false) Integer page,
+      @RequestParam(defaultValue = "12") Integer limit,
+      @RequestParam(required = false) Boolean summary
   ) {
-    log.info("GET /api/phones/by-seller/{} - Fetching phones by seller", sellerId);
+    log.info("GET /api/phones/by-seller/{} - Fetching phones by seller: page={}, limit={}, summary={}",
+        sellerId, page, limit, summary);
+
+    // 未请求分页时保持原有的列表响应
+    if (page == null && summary == null) {
+      List<PhoneResponse> phones = phoneService.getPhonesBySeller(sellerId);
+      return ResponseEntity.ok(
+          ApiResponse.success(phones, "Seller phones retrieved successfully")
+      );
+    }
 
-    // 调用服务层获取卖家商品列表
-    List<PhoneResponse> phones = phoneService.getPhonesBySeller(sellerId);
+    PageResponse<?> phones = Boolean.TRUE.equals(summary)
+        ? phoneService.getPhoneSummariesBySeller(sellerId, page, limit, sortBy, sortOrder)
+        : phoneService.getPhonesBySeller(sellerId, page, limit, sortBy, sortOrder);
 
     return ResponseEntity.ok(
         ApiResponse.success(phones, "Seller phones retrieved successfully")
@@ -3,14 +3,12 @@ package com.oldphonedeals.controller;
 import com.oldphonedeals.dto.request.admin.ToggleReviewVisibilityRequest;
 import com.oldphonedeals.dto.request.phone.ReviewCreateRequest;
 import com.oldphonedeals.dto.response.ApiResponse;
+import com.oldphonedeals.dto.response.phone.ReviewCursorPageResponse;
 import com.oldphonedeals.dto.response.phone.ReviewPageResponse;
 import com.oldphonedeals.dto.response.phone.ReviewResponse;
 import com.oldphonedeals.dto.response.phone.SellerReviewResponse;
-import com.oldphonedeals.entity.Phone;
-import com.oldphonedeals.exception.ResourceNotFoundException;
 import com.oldphonedeals.security.SecurityContextHelper;
 import com.oldphonedeals.service.ReviewService;
-import com.oldphonedeals.repository.PhoneRepository;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -36,26 +34,26 @@ import java.util.List;
 public class ReviewController {
 
   private final ReviewService reviewService;
-  private final PhoneRepository phoneRepository;
 
   /**
    * 获取某个手机的评论列表（分页）
+   *
+   * 指定 cursor 时使用游标分页（第一页传空字符串），返回 nextCursor / hasMore；
+   * 否则按 page / limit 分页。两种模式都只从数据库读取当前页的评论
    */
   @GetMapping("/{phoneId}/reviews")
-  public ResponseEntity<ApiResponse<ReviewPageResponse>> getReviews(
+  public ResponseEntity<ApiResponse<?>> getReviews(
       @PathVariable String phoneId,
+      @RequestParam(required = false) String cursor,
       @RequestParam(defaultValue = "1") int page,
       @RequestParam(defaultValue = "10") int limit
   ) {
-    log.info("GET /api/phones/{}/reviews?page={}&limit={}", phoneId, page, limit);
+    log.info("GET /api/phones/{}/reviews?cursor={}&page={}&limit={}", phoneId, cursor, page, limit);
 
     if (page < 1 || limit < 1) {
       return ResponseEntity.badRequest().body(ApiResponse.error("Invalid page or limit"));
     }
 
-    Phone phone = phoneRepository.findById(phoneId)
-        .orElseThrow(() -> new ResourceNotFoundException("Phone not found with id: " + phoneId));
-
     String currentUserId = null;
     try {
       if (SecurityContextHelper.isAuthenticated()) {
@@ -66,36 +64,12 @@ public class ReviewController {
       currentUserId = null;
     }
 
-    List<ReviewResponse> allVisibleReviews = reviewService.filterVisibleReviews(
-        phone.getReviews(),
-        currentUserId,
-        phone.getSeller() != null ? phone.getSeller().getId() : null
-    );
-
-    int totalReviews = allVisibleReviews.size();
-    int fromIndex = (page - 1) * limit;
-    if (fromIndex >= totalReviews) {
-      // 超出范围返回空列表
-      ReviewPageResponse empty = ReviewPageResponse.builder()
-          .reviews(List.of())
-          .totalReviews(totalReviews)
-          .currentPage(page)
-          .totalPages((int) Math.ceil(totalReviews / (double) limit))
-          .build();
-      return ResponseEntity.ok(ApiResponse.success(empty));
+    if (cursor != null) {
+      ReviewCursorPageResponse response = reviewService.getReviewsAfter(phoneId, currentUserId, cursor, limit);
+      return ResponseEntity.ok(ApiResponse.success(response, "Reviews retrieved successfully"));
     }
 
-    int toIndex = Math.min(fromIndex + limit, totalReviews);
-    List<ReviewResponse> pageContent = allVisibleReviews.subList(fromIndex, toIndex);
-    int totalPages = (int) Math.ceil(totalReviews / (double) limit);
-
-    ReviewPageResponse response = ReviewPageResponse.builder()
-        .reviews(pageContent)
-        .totalReviews(totalReviews)
-        .currentPage(page)
-        .totalPages(totalPages)
-        .build();
-
+    ReviewPageResponse response = reviewService.getReviews(phoneId, currentUserId, page, limit);
     return ResponseEntity.ok(ApiResponse.success(response, "Reviews retrieved successfully"));
   }
 
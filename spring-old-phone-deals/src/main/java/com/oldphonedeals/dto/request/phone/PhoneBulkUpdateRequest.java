@@ -0,0 +1,69 @@
+package com.oldphonedeals.dto.request.phone;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 批量更新库存 / 价格 / 上下架状态请求 DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PhoneBulkUpdateRequest {
+
+    /**
+     * 单次请求最多更新的商品数量
+     */
+    public static final int MAX_ITEMS = 1000;
+
+    /**
+     * 待更新的商品（每个商品ID只能出现一次）
+     */
+    @NotEmpty(message = "Updates are required")
+    @Size(max = MAX_ITEMS, message = "At most " + MAX_ITEMS + " updates per request")
+    @Valid
+    private List<Item> updates;
+
+    /**
+     * 单个商品的更新（只更新非 null 的字段，至少提供一个）
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Item {
+
+        /**
+         * 商品ID
+         */
+        @NotBlank(message = "Phone ID is required")
+        private String phoneId;
+
+        /**
+         * 库存数量
+         */
+        @Min(value = 0, message = "Stock must be at least 0")
+        private Integer stock;
+
+        /**
+         * 价格
+         */
+        @Min(value = 0, message = "Price must be at least 0")
+        private Double price;
+
+        /**
+         * 是否下架
+         */
+        private Boolean isDisabled;
+    }
+}
@@ -7,6 +7,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * 商品查询请求 DTO
  * 用于商品列表查询，支持搜索、筛选、分页和排序
@@ -14,29 +16,40 @@ import lombok.NoArgsConstructor;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class PhoneQueryRequest {
     
     /**
-     * 搜索关键词（模糊匹配商品标题）
+     * 搜索关键词（全文匹配商品标题和品牌）
      */
     private String search;
     
+    /**
+     * 是否启用容错搜索（允许拼写错误，按编辑距离排序）
+     * 仅在页码模式且有搜索词时生效，不返回分面统计
+     */
+    private Boolean fuzzy;
+    
     /**
      * 品牌过滤
      */
     private PhoneBrand brand;
     
+    /**
+     * 最低价格过滤
+     */
+    private Double minPrice;
+    
     /**
      * 最高价格过滤
      */
     private Double maxPrice;
     
     /**
-     * 排序字段（默认：createdAt）
+     * 排序字段
+     * 未指定时：有搜索词按相关度（relevance）排序，否则按 createdAt 排序
      */
-    @Builder.Default
-    private String sortBy = "createdAt";
+    private String sortBy;
     
     /**
      * 排序方向（asc/desc，默认：desc）
@@ -56,7 +69,24 @@ public class PhoneQueryRequest {
      */
     @Min(value = 1, message = "Limit must be at least 1")
     @Builder.Default
-    private Integer limit = 10;
+    private Integer limit = 12;
+    
+    /**
+     * 游标（keyset 分页）
+     * 非 null 时启用游标模式：空字符串表示第一页，否则为上一页返回的 nextCursor；
+     * 游标模式下忽略 page，不返回总数
+     */
+    private String after;
+    
+    /**
+     * 是否返回分面统计（品牌计数、价格分布）
+     */
+    private Boolean facets;
+    
+    /**
+     * 价格桶边界（可选，未指定时使用 catalog.price-buckets 配置）
+     */
+    private List<Double> priceBuckets;
     
     /**
      * 特殊查询类型
@@ -0,0 +1,31 @@
+package com.oldphonedeals.dto.response.phone;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 批量更新商品结果 DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PhoneBulkUpdateResponse {
+
+    /**
+     * 请求中的商品数量
+     */
+    private int requested;
+
+    /**
+     * 匹配到的商品数量
+     */
+    private long matched;
+
+    /**
+     * 实际发生变化的商品数量（字段值未变化的商品不计入）
+     */
+    private long modified;
+}
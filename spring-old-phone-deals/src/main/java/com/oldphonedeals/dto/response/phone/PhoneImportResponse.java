@@ -0,0 +1,64 @@
+package com.oldphonedeals.dto.response.phone;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入商品结果 DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PhoneImportResponse {
+
+    /**
+     * 读取的数据行数（不含表头和空行）
+     */
+    private int totalRows;
+
+    /**
+     * 成功导入的商品数
+     */
+    private int imported;
+
+    /**
+     * 失败的行数
+     */
+    private int failed;
+
+    /**
+     * 失败行的错误信息（按行号排序，超过上限的部分不返回，failed 仍为准确数量）
+     */
+    @Builder.Default
+    private List<RowError> errors = new ArrayList<>();
+
+    /**
+     * 是否因超过行数上限而提前停止
+     */
+    private boolean truncated;
+
+    /**
+     * 单行错误
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        /**
+         * 行号（从 1 开始，CSV 表头为第 1 行）
+         */
+        private int line;
+
+        /**
+         * 错误原因
+         */
+        private String message;
+    }
+}
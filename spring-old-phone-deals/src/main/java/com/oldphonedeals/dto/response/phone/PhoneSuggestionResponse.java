@@ -0,0 +1,37 @@
+package com.oldphonedeals.dto.response.phone;
+
+import com.oldphonedeals.enums.PhoneBrand;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 搜索建议响应 DTO（输入框自动补全）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PhoneSuggestionResponse {
+
+    /**
+     * 建议类型：brand（品牌）或 phone（商品）
+     */
+    private String type;
+
+    /**
+     * 展示文本（品牌名或商品标题）
+     */
+    private String text;
+
+    /**
+     * 商品品牌
+     */
+    private PhoneBrand brand;
+
+    /**
+     * 商品ID（品牌建议时为 null）
+     */
+    private String phoneId;
+}
@@ -0,0 +1,38 @@
+package com.oldphonedeals.dto.response.phone;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 评论游标分页响应 DTO
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ReviewCursorPageResponse {
+
+    /**
+     * 当前页的评论列表
+     */
+    private List<ReviewResponse> reviews;
+
+    /**
+     * 当前用户可见的评论总数
+     */
+    private long totalReviews;
+
+    /**
+     * 下一页游标（没有下一页时为 null）
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private boolean hasMore;
+}
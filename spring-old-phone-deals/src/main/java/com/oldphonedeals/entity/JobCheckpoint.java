@@ -0,0 +1,36 @@
+package com.oldphonedeals.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * 增量任务的检查点
+ * <p>
+ * 记录任务已处理到的时间点，下次只处理之后的数据。
+ * 使用乐观锁，多个实例同时认领同一时间窗口时只有一个成功。
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "jobcheckpoints")
+public class JobCheckpoint {
+
+    // 任务名
+    @Id
+    private String id;
+
+    // 已处理（或已被认领）的数据截止时间（不包含）
+    private LocalDateTime processedUntil;
+
+    @Version
+    private Long version;
+}
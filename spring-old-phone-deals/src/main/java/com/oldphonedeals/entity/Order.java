@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.time.LocalDateTime;
@@ -29,6 +30,8 @@ public class Order {
     
     private Address address;
     
+    // 按时间范围查询（统计、共同购买增量任务）
+    @Indexed
     @CreatedDate
     private LocalDateTime createdAt;
     
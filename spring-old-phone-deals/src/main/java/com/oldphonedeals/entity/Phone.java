@@ -8,38 +8,62 @@ import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.annotation.LastModifiedDate;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Document(collection = "phones")
+@CompoundIndexes({
+    // 末尾的 _id 与查询附加的次级排序键一致，使排序和游标分页都能走索引
+    // 目录查询：品牌过滤 + 价格过滤/排序
+    @CompoundIndex(name = "disabled_brand_price_idx", def = "{'isDisabled': 1, 'brand': 1, 'price': 1, '_id': 1}"),
+    // 目录查询：默认按创建时间排序
+    @CompoundIndex(name = "disabled_created_idx", def = "{'isDisabled': 1, 'createdAt': -1, '_id': -1}"),
+    // 目录查询：价格过滤/排序
+    @CompoundIndex(name = "disabled_price_idx", def = "{'isDisabled': 1, 'price': 1, '_id': 1}"),
+    // 即将售罄列表：只索引未禁用商品的库存
+    @CompoundIndex(name = "enabled_stock_idx", def = "{'stock': 1}",
+        partialFilter = "{'isDisabled': false}"),
+    // 卖家店铺分页（默认按创建时间排序），前缀同时用于按卖家查询商品、同步卖家快照
+    @CompoundIndex(name = "seller_created_idx", def = "{'seller._id': 1, 'createdAt': -1, '_id': -1}")
+})
 public class Phone {
     
     @Id
     private String id;
     
+    // 全文搜索：标题权重高于品牌（品牌以枚举名存储，与 displayName 忽略大小写后一致）
+    @TextIndexed(weight = 3)
     private String title;
     
+    @TextIndexed
     private PhoneBrand brand;
     
     private String image;
     
     private Integer stock;
     
-    @DBRef
-    private User seller;
+    // 卖家快照（内嵌，读取商品时无需再逐个解析 users 引用）
+    // 用户修改姓名/邮箱时批量同步，旧的 DBRef 文档由 SellerSnapshotMigration 转换
+    private Seller seller;
     
     private Double price;
     
-    @Builder.Default
-    private List<Review> reviews = new ArrayList<>();
+    // 旧版内嵌评论，评论已移到 reviews 集合（见 Review）
+    // 仅在 ReviewCollectionMigration 完成前保留，避免迁移期间整文档保存丢失尚未迁移的评论；业务代码不应读取
+    // 按原始文档保存而不映射为 Review，否则 Review 上的索引（含唯一索引）会被当作 reviews.* 嵌套索引建在 phones 上
+    @Field("reviews")
+    private List<Map<String, Object>> legacyReviews;
     
     @Builder.Default
     private Boolean isDisabled = false;
@@ -47,43 +71,53 @@ public class Phone {
     @Builder.Default
     private Integer salesCount = 0;
     
+    // 评论统计（随评论增删/显隐通过 $inc 维护，由 ReviewStatsRepairJob 根据 reviews 集合回填和修复）
+    // 为 null 表示尚未回填，此时视为没有评论
+    private Integer visibleRatingSum;
+    
+    private Integer visibleReviewCount;
+    
+    private Integer totalReviewCount;
+    
+    // 全部评论（含隐藏）的评分总和，用于畅销榜排序
+    private Integer totalRatingSum;
+    
     @CreatedDate
     private LocalDateTime createdAt;
     
     @LastModifiedDate
     private LocalDateTime updatedAt;
     
-    // Nested Review class
+    // Nested Seller snapshot class
     @Data
     @Builder
     @NoArgsConstructor
     @AllArgsConstructor
-    public static class Review {
+    public static class Seller {
         
         private String id;
         
-        private String reviewerId;
-        
-        private Integer rating;
+        private String firstName;
         
-        private String comment;
+        private String lastName;
         
-        @Builder.Default
-        private Boolean isHidden = false;
+        private String email;
         
-        @CreatedDate
-        private LocalDateTime createdAt;
+        public static Seller from(User user) {
+            return Seller.builder()
+                    .id(user.getId())
+                    .firstName(user.getFirstName())
+                    .lastName(user.getLastName())
+                    .email(user.getEmail())
+                    .build();
+        }
     }
     
     // Calculate average rating
     public Double getAverageRating() {
-        if (reviews == null || reviews.isEmpty()) {
+        if (visibleReviewCount == null || visibleRatingSum == null || visibleReviewCount == 0) {
             return 0.0;
         }
-        return reviews.stream()
-                .filter(r -> !r.getIsHidden())
-                .mapToInt(Review::getRating)
-                .average()
-                .orElse(0.0);
+        return (double) visibleRatingSum / visibleReviewCount;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,39 @@
+package com.oldphonedeals.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 商品共同购买统计（"经常一起购买"推荐）
+ * <p>
+ * 每个商品一个文档，保存共同购买矩阵中该商品所在的一行（稀疏，只记录出现过的组合），
+ * 由 CoPurchaseMatrixJob 按新增订单增量 $inc 维护，并据此重新计算 related。
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "copurchases")
+public class PhoneCoPurchase {
+
+    // 商品ID
+    @Id
+    private String id;
+
+    // 其他商品ID -> 与本商品出现在同一订单中的订单数
+    private Map<String, Integer> counts;
+
+    // 共同购买次数最多的前 k 个商品ID（次数降序）
+    private List<String> related;
+
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,67 @@
+package com.oldphonedeals.entity;
+
+import com.oldphonedeals.enums.PhoneBrand;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+
+import java.time.LocalDateTime;
+
+/**
+ * 商品摘要（只读模型）
+ * <p>
+ * 从 phones 集合投影得到，用于商品列表、收藏夹等只需要评论统计的场景。
+ * 评论数量和平均评分取自 Phone 上持久化的评论统计（未回填时视为 0），评论本身保存在 reviews 集合。
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PhoneSummary {
+
+    @Id
+    private String id;
+
+    private String title;
+
+    private PhoneBrand brand;
+
+    private String image;
+
+    private Integer stock;
+
+    private Phone.Seller seller;
+
+    private Double price;
+
+    private Boolean isDisabled;
+
+    private Integer salesCount;
+
+    private LocalDateTime createdAt;
+
+    /**
+     * 评论总数（包含隐藏评论）
+     */
+    private Integer reviewCount;
+
+    /**
+     * 可见评论数量
+     */
+    private Integer visibleReviewCount;
+
+    /**
+     * 可见评论的平均评分，没有可见评论时为 null
+     */
+    private Double averageRating;
+
+    /**
+     * 平均评分（没有可见评论时为 0.0，与 Phone.getAverageRating 一致）
+     */
+    public Double getAverageRating() {
+        return averageRating != null ? averageRating : 0.0;
+    }
+}
@@ -0,0 +1,53 @@
+package com.oldphonedeals.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * 商品评论（独立集合）
+ * <p>
+ * 原先内嵌在 Phone.reviews 中，由 ReviewCollectionMigration 迁移到本集合。
+ * Phone 上的评论统计字段仍随评论增删/显隐通过 $inc 维护。
+ * </p>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "reviews")
+@CompoundIndexes({
+    // 商品详情 / 评论分页：按创建时间排序，_id 作为游标的次级键
+    @CompoundIndex(name = "phone_created_idx", def = "{'phoneId': 1, 'createdAt': 1, '_id': 1}"),
+    // 用户的评论列表、评论数量
+    @CompoundIndex(name = "reviewer_created_idx", def = "{'reviewerId': 1, 'createdAt': -1}"),
+    // 每个用户对每个商品只能评论一次（并发提交时由索引保证）
+    @CompoundIndex(name = "phone_reviewer_unique_idx", def = "{'phoneId': 1, 'reviewerId': 1}", unique = true)
+})
+public class Review {
+
+    // 沿用内嵌评论时代的 UUID 字符串ID
+    @Id
+    private String id;
+
+    private String phoneId;
+
+    private String reviewerId;
+
+    private Integer rating;
+
+    private String comment;
+
+    @Builder.Default
+    private Boolean isHidden = false;
+
+    // 由服务层写入（迁移的旧评论沿用原时间），与 _id 一起作为分页排序键
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,304 @@
+package com.oldphonedeals.job;
+
+import com.oldphonedeals.cache.RelatedPhonesIndex;
+import com.oldphonedeals.config.CatalogProperties;
+import com.oldphonedeals.entity.JobCheckpoint;
+import com.oldphonedeals.entity.Order;
+import com.oldphonedeals.entity.PhoneCoPurchase;
+import com.oldphonedeals.repository.CoPurchaseRepository;
+import com.oldphonedeals.repository.JobCheckpointRepository;
+import com.oldphonedeals.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 共同购买矩阵增量任务（"经常一起购买"推荐）
+ * <p>
+ * 每次只处理上次检查点之后创建的订单，耗时与新增订单数相关而非订单总量：
+ * </p>
+ * <ol>
+ *   <li>以乐观锁认领时间窗口 [检查点, 当前时间 - settleDelay)，其他实例认领失败时只重新加载推荐列表</li>
+ *   <li>流式读取窗口内订单的商品ID，在内存中累加稀疏的商品对计数（商品ID映射为 int，
+ *       商品对打包为 long 键，开放寻址保存 int 计数，避免装箱）</li>
+ *   <li>每累计 FLUSH_ORDERS 个订单，将计数以 $inc 批量写入 copurchases 集合</li>
+ *   <li>为受影响的商品重新选出前 k 个推荐，写回数据库并更新 {@link RelatedPhonesIndex}</li>
+ * </ol>
+ * <p>
+ * 窗口在处理前认领，处理中途失败时该窗口的部分订单不会重试（推荐数据允许少量缺失，但不会重复计数）。
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CoPurchaseMatrixJob {
+
+    static final String CHECKPOINT_ID = "co-purchase-matrix";
+
+    /**
+     * 每累计多少个订单写入一次计数（限制内存中的商品对数量）
+     */
+    static final int FLUSH_ORDERS = 2000;
+
+    /**
+     * 单个订单最多参与统计的商品数（商品对数量随商品数平方增长）
+     */
+    static final int MAX_ITEMS_PER_ORDER = 50;
+
+    /**
+     * 每次重新计算推荐时加载的商品数
+     */
+    private static final int REFRESH_BATCH_SIZE = 500;
+
+    /**
+     * 首次运行时的起始时间（处理全部历史订单）
+     */
+    private static final LocalDateTime INITIAL_CHECKPOINT = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final OrderRepository orderRepository;
+
+    private final CoPurchaseRepository coPurchaseRepository;
+
+    private final JobCheckpointRepository jobCheckpointRepository;
+
+    private final RelatedPhonesIndex relatedPhonesIndex;
+
+    private final CatalogProperties catalogProperties;
+
+    /**
+     * 定期处理新订单
+     */
+    @Scheduled(
+        fixedDelayString = "${catalog.co-purchase-interval-ms:300000}",
+        initialDelayString = "${catalog.co-purchase-interval-ms:300000}")
+    public void run() {
+        try {
+            long processed = processNewOrders();
+            if (processed > 0) {
+                log.info("Co-purchase matrix updated with {} new orders", processed);
+            }
+        } catch (Exception e) {
+            log.error("Failed to update co-purchase matrix: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 处理上次检查点之后的订单
+     *
+     * @return 处理的订单数量
+     */
+    public synchronized long processNewOrders() {
+        JobCheckpoint checkpoint = jobCheckpointRepository.findById(CHECKPOINT_ID)
+            .orElseGet(() -> JobCheckpoint.builder().id(CHECKPOINT_ID).processedUntil(INITIAL_CHECKPOINT).build());
+        LocalDateTime from = checkpoint.getProcessedUntil();
+        LocalDateTime to = LocalDateTime.now().minus(catalogProperties.getCoPurchase().getSettleDelay());
+        if (!to.isAfter(from)) {
+            return 0;
+        }
+
+        // 先认领窗口，避免多个实例重复计数
+        checkpoint.setProcessedUntil(to);
+        try {
+            jobCheckpointRepository.save(checkpoint);
+        } catch (OptimisticLockingFailureException | DuplicateKeyException e) {
+            log.debug("Co-purchase window already claimed by another instance");
+            relatedPhonesIndex.reload();
+            return 0;
+        }
+
+        long processed = 0;
+        Set<String> touched = new HashSet<>();
+        PairCounts pairs = new PairCounts();
+        try (Stream<Order> orders = orderRepository.streamItemsCreatedBetween(from, to)) {
+            Iterator<Order> iterator = orders.iterator();
+            while (iterator.hasNext()) {
+                pairs.addOrder(phoneIdsOf(iterator.next()));
+                if (++processed % FLUSH_ORDERS == 0) {
+                    flush(pairs, touched);
+                    pairs = new PairCounts();
+                }
+            }
+        }
+        flush(pairs, touched);
+        refreshRelated(touched);
+        return processed;
+    }
+
+    private void flush(PairCounts pairs, Set<String> touched) {
+        Map<String, Map<String, Integer>> deltas = pairs.toDeltas();
+        coPurchaseRepository.incrementCounts(deltas);
+        touched.addAll(deltas.keySet());
+    }
+
+    /**
+     * 为计数发生变化的商品重新选出前 k 个推荐
+     */
+    private void refreshRelated(Set<String> phoneIds) {
+        int topK = catalogProperties.getCoPurchase().getTopK();
+        List<String> ids = new ArrayList<>(phoneIds);
+        for (int from = 0; from < ids.size(); from += REFRESH_BATCH_SIZE) {
+            List<String> batch = ids.subList(from, Math.min(from + REFRESH_BATCH_SIZE, ids.size()));
+            Map<String, List<String>> related = new HashMap<>();
+            for (PhoneCoPurchase row : coPurchaseRepository.findAllById(batch)) {
+                related.put(row.getId(), topRelated(row.getCounts(), topK));
+            }
+            coPurchaseRepository.saveRelated(related);
+            relatedPhonesIndex.putAll(related);
+        }
+    }
+
+    /**
+     * 按共同购买次数降序（次数相同时按商品ID升序）取前 k 个商品
+     */
+    static List<String> topRelated(Map<String, Integer> counts, int k) {
+        if (counts == null || counts.isEmpty()) {
+            return List.of();
+        }
+        return counts.entrySet().stream()
+            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()))
+            .limit(k)
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toList());
+    }
+
+    private static List<String> phoneIdsOf(Order order) {
+        if (order.getItems() == null) {
+            return List.of();
+        }
+        return order.getItems().stream()
+            .filter(Objects::nonNull)
+            .map(Order.OrderItem::getPhoneId)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toCollection(LinkedHashSet::new))
+            .stream()
+            .limit(MAX_ITEMS_PER_ORDER)
+            .toList();
+    }
+
+    /**
+     * 稀疏商品对计数
+     * <p>
+     * 商品ID映射为 int 下标，有序商品对 (a, b) 打包为 long 键 a << 32 | b，
+     * 以线性探测的开放寻址表保存 int 计数。同一商品不会与自身配对，键不可能为 0，0 表示空槽。
+     * </p>
+     */
+    static final class PairCounts {
+
+        private final Map<String, Integer> indexOf = new HashMap<>();
+
+        private final List<String> phoneIds = new ArrayList<>();
+
+        private long[] keys = new long[1024];
+
+        private int[] counts = new int[1024];
+
+        private int size;
+
+        /**
+         * 累加一个订单中所有商品对（两个方向各计一次）
+         *
+         * @param orderPhoneIds 订单中去重后的商品ID
+         */
+        void addOrder(List<String> orderPhoneIds) {
+            int[] indexes = orderPhoneIds.stream().mapToInt(this::intern).toArray();
+            for (int i = 0; i < indexes.length; i++) {
+                for (int j = i + 1; j < indexes.length; j++) {
+                    increment(pack(indexes[i], indexes[j]));
+                    increment(pack(indexes[j], indexes[i]));
+                }
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        int get(String phoneId, String otherId) {
+            Integer a = indexOf.get(phoneId);
+            Integer b = indexOf.get(otherId);
+            if (a == null || b == null) {
+                return 0;
+            }
+            int slot = find(keys, pack(a, b));
+            return keys[slot] == 0 ? 0 : counts[slot];
+        }
+
+        /**
+         * 转换为按商品分组的计数增量
+         */
+        Map<String, Map<String, Integer>> toDeltas() {
+            Map<String, Map<String, Integer>> deltas = new HashMap<>();
+            for (int slot = 0; slot < keys.length; slot++) {
+                long key = keys[slot];
+                if (key != 0) {
+                    deltas.computeIfAbsent(phoneIds.get((int) (key >>> 32)), id -> new HashMap<>())
+                        .put(phoneIds.get((int) key), counts[slot]);
+                }
+            }
+            return deltas;
+        }
+
+        private int intern(String phoneId) {
+            return indexOf.computeIfAbsent(phoneId, id -> {
+                phoneIds.add(id);
+                return phoneIds.size() - 1;
+            });
+        }
+
+        private void increment(long key) {
+            if ((size + 1) * 2 > keys.length) {
+                resize();
+            }
+            int slot = find(keys, key);
+            if (keys[slot] == 0) {
+                keys[slot] = key;
+                size++;
+            }
+            counts[slot]++;
+        }
+
+        private void resize() {
+            long[] oldKeys = keys;
+            int[] oldCounts = counts;
+            keys = new long[oldKeys.length * 2];
+            counts = new int[oldCounts.length * 2];
+            for (int slot = 0; slot < oldKeys.length; slot++) {
+                if (oldKeys[slot] != 0) {
+                    int target = find(keys, oldKeys[slot]);
+                    keys[target] = oldKeys[slot];
+                    counts[target] = oldCounts[slot];
+                }
+            }
+        }
+
+        private static int find(long[] table, long key) {
+            int mask = table.length - 1;
+            int slot = (int) ((key * 0x9E3779B97F4A7C15L) >>> 32) & mask;
+            while (table[slot] != 0 && table[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private static long pack(int a, int b) {
+            return ((long) a << 32) | (b & 0xFFFFFFFFL);
+        }
+    }
+}
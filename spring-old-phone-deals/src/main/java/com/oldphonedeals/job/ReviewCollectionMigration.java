@@ -0,0 +1,41 @@
+package com.oldphonedeals.job;
+
+import com.oldphonedeals.repository.ReviewRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * 评论集合迁移任务
+ * <p>
+ * 评论由内嵌的 Phone.reviews 数组移到独立的 reviews 集合。
+ * 启动时分批把旧数组中的评论写入 reviews 集合并移除旧字段，已迁移的商品不会被再次处理。
+ * 先于 ReviewStatsRepairJob 执行，保证统计回填时评论已在新集合中。
+ * </p>
+ */
+@Slf4j
+@Component
+@Order(1)
+@RequiredArgsConstructor
+public class ReviewCollectionMigration implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final ReviewRepository reviewRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            long migrated = reviewRepository.migrateEmbeddedReviews(BATCH_SIZE);
+            if (migrated > 0) {
+                log.info("Migrated embedded reviews for {} phones", migrated);
+            }
+        } catch (Exception e) {
+            // 迁移失败不影响启动，下次启动会继续处理剩余的旧文档
+            log.error("Failed to migrate embedded reviews: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.oldphonedeals.job;
+
+import com.oldphonedeals.repository.PhoneRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 商品评论统计回填 / 修复任务
+ * <p>
+ * Phone 上的评论统计字段（visibleRatingSum / visibleReviewCount / totalReviewCount / totalRatingSum）
+ * 由评论操作通过 $inc 增量维护。
+ * 本任务根据 reviews 集合在服务端重新计算这些字段：
+ * - 启动时回填尚未包含统计字段的商品（历史数据），在 ReviewCollectionMigration 之后执行
+ * - 按 cron 定期全量修复，纠正整文档保存等路径造成的偏差
+ * </p>
+ */
+@Slf4j
+@Component
+@Order(2)
+@RequiredArgsConstructor
+public class ReviewStatsRepairJob implements ApplicationRunner {
+
+    private final PhoneRepository phoneRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            long backfilled = phoneRepository.recalculateReviewStats(true);
+            if (backfilled > 0) {
+                log.info("Backfilled review stats for {} phones", backfilled);
+            }
+        } catch (Exception e) {
+            // 回填失败不影响启动，统计缺失的商品暂时按没有评论展示，定期修复时补齐
+            log.error("Failed to backfill review stats: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 定期全量修复评论统计
+     */
+    @Scheduled(cron = "${catalog.review-stats-repair-cron:0 30 3 * * *}")
+    public void repair() {
+        long repaired = phoneRepository.recalculateReviewStats(false);
+        log.info("Review stats repair finished, {} phones corrected", repaired);
+    }
+}
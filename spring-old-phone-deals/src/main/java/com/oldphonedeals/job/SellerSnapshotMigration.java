@@ -0,0 +1,38 @@
+package com.oldphonedeals.job;
+
+import com.oldphonedeals.repository.PhoneRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/**
+ * 卖家快照迁移任务
+ * <p>
+ * Phone.seller 由 DBRef 改为内嵌的卖家快照（id / 姓名 / 邮箱）。
+ * 启动时分批把仍为 DBRef 的旧文档转换为快照，已转换的文档不会被再次处理。
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SellerSnapshotMigration implements ApplicationRunner {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final PhoneRepository phoneRepository;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        try {
+            long migrated = phoneRepository.migrateSellerReferences(BATCH_SIZE);
+            if (migrated > 0) {
+                log.info("Migrated seller snapshot for {} phones", migrated);
+            }
+        } catch (Exception e) {
+            // 迁移失败不影响启动，下次启动会继续处理剩余的旧文档
+            log.error("Failed to migrate seller references: {}", e.getMessage());
+        }
+    }
+}
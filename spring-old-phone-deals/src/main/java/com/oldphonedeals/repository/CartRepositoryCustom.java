@@ -0,0 +1,66 @@
+package com.oldphonedeals.repository;
+
+import com.oldphonedeals.entity.Cart;
+
+import java.util.Optional;
+
+/**
+ * 购物车自定义写操作
+ *
+ * 所有修改都是针对单个购物车文档的原子更新（定位 $set / 条件 $push / $pull / upsert），
+ * 不读取后整体回写，同一用户的并发请求不会互相覆盖
+ */
+public interface CartRepositoryCustom {
+
+    /**
+     * 查找用户购物车，不存在时以 upsert 创建空购物车（并发创建不会冲突）
+     *
+     * @param userId 用户ID
+     * @return 用户购物车
+     */
+    Cart findOrCreate(String userId);
+
+    /**
+     * 加入商品：已在购物车中时更新数量和价格，否则追加到末尾；购物车不存在时一并创建
+     *
+     * @param userId 用户ID
+     * @param item 购物车项
+     * @return 修改后的购物车
+     */
+    Cart upsertItem(String userId, Cart.CartItem item);
+
+    /**
+     * 更新购物车中商品的数量
+     *
+     * @param userId 用户ID
+     * @param phoneId 商品ID
+     * @param quantity 新数量
+     * @return 修改后的购物车，购物车不存在或不包含该商品时为空
+     */
+    Optional<Cart> updateItemQuantity(String userId, String phoneId, int quantity);
+
+    /**
+     * 从购物车移除商品
+     *
+     * @param userId 用户ID
+     * @param phoneId 商品ID
+     * @return 修改后的购物车，购物车不存在或不包含该商品时为空
+     */
+    Optional<Cart> removeItem(String userId, String phoneId);
+
+    /**
+     * 清空购物车
+     *
+     * @param userId 用户ID
+     * @return 购物车是否存在
+     */
+    boolean clearItems(String userId);
+
+    /**
+     * 从所有购物车中移除指定商品（一次 updateMulti $pull，按 items_phone_idx 定位，删除商品时使用）
+     *
+     * @param phoneId 商品ID
+     * @return 被修改的购物车数量
+     */
+    long pullPhoneFromAllCarts(String phoneId);
+}
@@ -0,0 +1,137 @@
+package com.oldphonedeals.repository;
+
+import com.oldphonedeals.entity.Cart;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Optional;
+
+/**
+ * 购物车自定义写操作实现
+ * <p>
+ * 每个操作一次 findAndModify（returnNew）完成修改并返回最新购物车，
+ * 时间戳由更新语句显式写入（findAndModify 不经过审计回调）。
+ * </p>
+ */
+@RequiredArgsConstructor
+public class CartRepositoryCustomImpl implements CartRepositoryCustom {
+
+    /**
+     * 加入商品时因并发插入冲突而重试的最大次数
+     */
+    private static final int MAX_UPSERT_ATTEMPTS = 3;
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Cart findOrCreate(String userId) {
+        LocalDateTime now = LocalDateTime.now();
+        Update update = new Update()
+            .setOnInsert("items", new ArrayList<>())
+            .setOnInsert("createdAt", now)
+            .setOnInsert("updatedAt", now);
+        try {
+            return mongoTemplate.findAndModify(buildCartQuery(userId), update,
+                FindAndModifyOptions.options().upsert(true).returnNew(true), Cart.class);
+        } catch (DuplicateKeyException e) {
+            // 并发请求已创建购物车
+            return mongoTemplate.findOne(buildCartQuery(userId), Cart.class);
+        }
+    }
+
+    @Override
+    public Cart upsertItem(String userId, Cart.CartItem item) {
+        for (int attempt = 1; ; attempt++) {
+            LocalDateTime now = LocalDateTime.now();
+
+            // 已在购物车中：定位更新数量和价格
+            Cart updated = mongoTemplate.findAndModify(
+                buildItemQuery(userId, item.getPhoneId()),
+                new Update()
+                    .set("items.$.quantity", item.getQuantity())
+                    .set("items.$.price", item.getPrice())
+                    .set("updatedAt", now),
+                FindAndModifyOptions.options().returnNew(true), Cart.class);
+            if (updated != null) {
+                return updated;
+            }
+
+            // 不在购物车中：条件 $push，购物车不存在时插入
+            try {
+                return mongoTemplate.findAndModify(
+                    Query.query(Criteria.where("userId").is(userId).and("items.phoneId").ne(item.getPhoneId())),
+                    buildPushUpdate(item, now),
+                    FindAndModifyOptions.options().upsert(true).returnNew(true), Cart.class);
+            } catch (DuplicateKeyException e) {
+                // 购物车已存在且并发请求刚加入了同一商品，条件不匹配导致插入冲突，重新走定位更新
+                if (attempt >= MAX_UPSERT_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    @Override
+    public Optional<Cart> updateItemQuantity(String userId, String phoneId, int quantity) {
+        Update update = new Update()
+            .set("items.$.quantity", quantity)
+            .set("updatedAt", LocalDateTime.now());
+        return Optional.ofNullable(mongoTemplate.findAndModify(buildItemQuery(userId, phoneId), update,
+            FindAndModifyOptions.options().returnNew(true), Cart.class));
+    }
+
+    @Override
+    public Optional<Cart> removeItem(String userId, String phoneId) {
+        Update update = new Update()
+            .pull("items", new Document("phoneId", phoneId))
+            .set("updatedAt", LocalDateTime.now());
+        return Optional.ofNullable(mongoTemplate.findAndModify(buildItemQuery(userId, phoneId), update,
+            FindAndModifyOptions.options().returnNew(true), Cart.class));
+    }
+
+    @Override
+    public boolean clearItems(String userId) {
+        Update update = new Update()
+            .set("items", new ArrayList<>())
+            .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.updateFirst(buildCartQuery(userId), update, Cart.class).getMatchedCount() > 0;
+    }
+
+    @Override
+    public long pullPhoneFromAllCarts(String phoneId) {
+        Update update = new Update()
+            .pull("items", new Document("phoneId", phoneId))
+            .set("updatedAt", LocalDateTime.now());
+        return mongoTemplate.updateMulti(Query.query(Criteria.where("items.phoneId").is(phoneId)), update, Cart.class)
+            .getModifiedCount();
+    }
+
+    static Query buildCartQuery(String userId) {
+        return Query.query(Criteria.where("userId").is(userId));
+    }
+
+    /**
+     * 匹配包含指定商品的购物车（供定位操作符 $ 使用）
+     */
+    static Query buildItemQuery(String userId, String phoneId) {
+        return Query.query(Criteria.where("userId").is(userId).and("items.phoneId").is(phoneId));
+    }
+
+    /**
+     * 追加新商品；插入新购物车时同时写入创建时间
+     */
+    static Update buildPushUpdate(Cart.CartItem item, LocalDateTime now) {
+        return new Update()
+            .push("items", item)
+            .set("updatedAt", now)
+            .setOnInsert("createdAt", now);
+    }
+}
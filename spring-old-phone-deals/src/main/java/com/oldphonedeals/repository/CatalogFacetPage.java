@@ -0,0 +1,57 @@
+package com.oldphonedeals.repository;
+
+import com.oldphonedeals.entity.PhoneSummary;
+import com.oldphonedeals.enums.PhoneBrand;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 商品目录分面查询结果
+ * 由一次 $facet 聚合同时得到当前页、总数、品牌计数和价格分布
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CatalogFacetPage {
+
+    /**
+     * 当前页商品
+     */
+    private List<PhoneSummary> phones;
+
+    /**
+     * 符合条件的商品总数
+     */
+    private long total;
+
+    /**
+     * 每个品牌的商品数量（包含数量为 0 的品牌，忽略品牌过滤条件）
+     */
+    private Map<PhoneBrand, Long> brandCounts;
+
+    /**
+     * 价格区间分布（按边界升序）
+     */
+    private List<PriceBucket> priceBuckets;
+
+    /**
+     * 价格区间 [min, max)，max 为 null 表示不设上限
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceBucket {
+
+        private Double min;
+
+        private Double max;
+
+        private long count;
+    }
+}
@@ -0,0 +1,16 @@
+package com.oldphonedeals.repository;
+
+import com.oldphonedeals.entity.PhoneCoPurchase;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CoPurchaseRepository extends MongoRepository<PhoneCoPurchase, String>, CoPurchaseRepositoryCustom {
+
+    // 加载所有商品的推荐列表（不加载计数）
+    @Query(value = "{'related.0': {$exists: true}}", fields = "{'related': 1}")
+    List<PhoneCoPurchase> findAllRelated();
+}
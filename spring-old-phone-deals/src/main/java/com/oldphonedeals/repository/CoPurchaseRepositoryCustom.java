@@ -0,0 +1,25 @@
+package com.oldphonedeals.repository;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 共同购买统计自定义写入接口
+ * 基于 MongoTemplate 批量写入实现，由 CoPurchaseRepository 继承
+ */
+public interface CoPurchaseRepositoryCustom {
+
+    /**
+     * 累加共同购买计数（每个商品一次 upsert + $inc，整体一次无序批量写入）
+     *
+     * @param deltas 商品ID -> (其他商品ID -> 新增订单数)
+     */
+    void incrementCounts(Map<String, Map<String, Integer>> deltas);
+
+    /**
+     * 保存推荐列表（整体一次无序批量写入）
+     *
+     * @param related 商品ID -> 推荐商品ID（按共同购买次数降序）
+     */
+    void saveRelated(Map<String, List<String>> related);
+}
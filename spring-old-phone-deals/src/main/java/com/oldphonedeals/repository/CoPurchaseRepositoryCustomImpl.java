@@ -0,0 +1,57 @@
+package com.oldphonedeals.repository;
+
+import com.oldphonedeals.entity.PhoneCoPurchase;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 共同购买统计自定义写入实现
+ */
+@RequiredArgsConstructor
+public class CoPurchaseRepositoryCustomImpl implements CoPurchaseRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void incrementCounts(Map<String, Map<String, Integer>> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PhoneCoPurchase.class);
+        deltas.forEach((phoneId, counts) -> bulk.upsert(byId(phoneId), buildIncrementUpdate(counts)));
+        bulk.execute();
+    }
+
+    @Override
+    public void saveRelated(Map<String, List<String>> related) {
+        if (related.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PhoneCoPurchase.class);
+        related.forEach((phoneId, ids) -> bulk.updateOne(byId(phoneId),
+            new Update().set("related", ids).set("updatedAt", now)));
+        bulk.execute();
+    }
+
+    /**
+     * 单个商品的计数更新：counts.<其他商品ID> 逐个 $inc
+     */
+    static Update buildIncrementUpdate(Map<String, Integer> counts) {
+        Update update = new Update();
+        counts.forEach((otherId, count) -> update.inc("counts." + otherId, count));
+        return update;
+    }
+
+    private static Query byId(String phoneId) {
+        return Query.query(Criteria.where("_id").is(phoneId));
+    }
+}
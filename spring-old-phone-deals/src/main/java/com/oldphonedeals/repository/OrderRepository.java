@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends MongoRepository<Order, String> {
@@ -22,6 +23,10 @@ public interface OrderRepository extends MongoRepository<Order, String> {
     @Query("{'createdAt': {$gte: ?0, $lte: ?1}}")
     List<Order> findByCreatedAtBetween(LocalDateTime startDate, LocalDateTime endDate);
     
+    // 流式读取时间窗口 [from, to) 内订单的商品ID（共同购买统计使用，调用方负责关闭）
+    @Query(value = "{'createdAt': {$gte: ?0, $lt: ?1}}", fields = "{'items.phoneId': 1}")
+    Stream<Order> streamItemsCreatedBetween(LocalDateTime from, LocalDateTime to);
+    
     // 删除用户的所有订单
     void deleteByUserId(String userId);
     
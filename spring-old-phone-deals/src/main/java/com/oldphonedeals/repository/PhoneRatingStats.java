@@ -0,0 +1,41 @@
+package com.oldphonedeals.repository;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+
+/**
+ * 商品评分统计投影（畅销榜使用）
+ * 只包含 Phone 上持久化的评论统计字段
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PhoneRatingStats {
+
+    @Id
+    private String id;
+
+    private Boolean isDisabled;
+
+    /**
+     * 评论总数（包含隐藏评论）
+     */
+    private Integer totalReviewCount;
+
+    /**
+     * 全部评论的评分总和（包含隐藏评论）
+     */
+    private Integer totalRatingSum;
+
+    /**
+     * 平均评分（包含隐藏评论，与原畅销榜算法一致）
+     */
+    public double getAverageRating() {
+        if (totalReviewCount == null || totalReviewCount == 0 || totalRatingSum == null) {
+            return 0.0;
+        }
+        return (double) totalRatingSum / totalReviewCount;
+    }
+}
@@ -11,7 +11,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface PhoneRepository extends MongoRepository<Phone, String> {
+public interface PhoneRepository extends MongoRepository<Phone, String>, PhoneRepositoryCustom {
     
     // 根据品牌查询
     Page<Phone> findByBrand(PhoneBrand brand, Pageable pageable);
@@ -35,24 +35,6 @@ public interface PhoneRepository extends MongoRepository<Phone, String> {
     @Query("{'price': {$gte: ?0, $lte: ?1}, 'isDisabled': false}")
     Page<Phone> findByPriceRange(Double minPrice, Double maxPrice, Pageable pageable);
     
-    // 综合查询：搜索 + 品牌 + 价格
-    @Query("{'title': {$regex: ?0, $options: 'i'}, 'brand': ?1, 'price': {$lte: ?2}, 'isDisabled': false}")
-    Page<Phone> findByTitleAndBrandAndPriceLessThanEqual(String keyword, PhoneBrand brand, Double maxPrice, Pageable pageable);
-    
-    // 搜索 + 价格
-    @Query("{'title': {$regex: ?0, $options: 'i'}, 'price': {$lte: ?1}, 'isDisabled': false}")
-    Page<Phone> findByTitleAndPriceLessThanEqual(String keyword, Double maxPrice, Pageable pageable);
-    
-    // 搜索 + 品牌
-    @Query("{'title': {$regex: ?0, $options: 'i'}, 'brand': ?1, 'isDisabled': false}")
-    Page<Phone> findByTitleAndBrand(String keyword, PhoneBrand brand, Pageable pageable);
-    
-    // 品牌 + 价格
-    Page<Phone> findByBrandAndPriceLessThanEqualAndIsDisabledFalse(PhoneBrand brand, Double maxPrice, Pageable pageable);
-    
-    // 仅价格过滤
-    Page<Phone> findByPriceLessThanEqualAndIsDisabledFalse(Double maxPrice, Pageable pageable);
-    
     // 库存低于指定值的商品(用于 soldOutSoon)
     List<Phone> findTop5ByIsDisabledFalseOrderByStockAsc();
     
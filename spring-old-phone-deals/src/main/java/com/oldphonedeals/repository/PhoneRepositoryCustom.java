@@ -0,0 +1,246 @@
+package com.oldphonedeals.repository;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.oldphonedeals.dto.request.phone.PhoneBulkUpdateRequest;
+import com.oldphonedeals.dto.request.phone.PhoneQueryRequest;
+import com.oldphonedeals.entity.Phone;
+import com.oldphonedeals.entity.PhoneSummary;
+import com.oldphonedeals.util.CatalogCursor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * 商品自定义查询接口
+ * 基于 MongoTemplate / Criteria 实现，由 PhoneRepository 继承
+ */
+public interface PhoneRepositoryCustom {
+
+    /**
+     * 默认排序字段
+     */
+    String DEFAULT_SORT_FIELD = "createdAt";
+
+    /**
+     * 按文本相关度排序（仅在有搜索词时生效）
+     */
+    String RELEVANCE_SORT = "relevance";
+
+    /**
+     * 允许排序的字段（防止任意字段排序导致无法使用索引）
+     */
+    Set<String> SORTABLE_FIELDS = Set.of(
+        "createdAt", "price", "title", "stock", "salesCount"
+    );
+
+    /**
+     * 商品目录查询（公开列表）
+     *
+     * 按需组合以下条件：
+     * - 标题 / 品牌全文搜索（文本索引）
+     * - 品牌
+     * - 最低 / 最高价格
+     * - 排序字段与方向（仅允许白名单字段，其余回退到 createdAt；
+     *   有搜索词且未指定排序或指定 relevance 时按相关度排序）
+     *
+     * 始终只返回未禁用的商品；结果为摘要投影，不包含 reviews 数组
+     *
+     * @param query 查询条件（page 从 1 开始）
+     * @return 分页结果
+     */
+    Page<PhoneSummary> searchCatalog(PhoneQueryRequest query);
+
+    /**
+     * 商品目录游标查询（keyset 分页）
+     *
+     * 过滤条件与 searchCatalog 相同，但不使用 skip，也不执行 count：
+     * - after 为 null 时返回第一页，排序取自 query（游标模式不支持相关度排序，回退到 createdAt）
+     * - after 不为 null 时沿用游标中的排序字段与方向，返回 (排序值, _id) 之后的数据
+     *
+     * 多查询一条用于判断是否还有下一页
+     *
+     * @param query 查询条件（忽略 page）
+     * @param after 上一页最后一条商品的游标，第一页为 null
+     * @return 切片结果，getSort() 为实际使用的排序
+     */
+    Slice<PhoneSummary> searchCatalogAfter(PhoneQueryRequest query, CatalogCursor after);
+
+    /**
+     * 商品目录分面查询（单次 $facet 聚合）
+     *
+     * 共享同一个 $match 阶段，在一次往返中返回：
+     * - 当前页商品与总数（与 searchCatalog 相同的过滤和排序）
+     * - 每个品牌的数量（不应用品牌过滤，便于侧边栏切换品牌）
+     * - 价格区间分布
+     *
+     * @param query 查询条件（page 从 1 开始）
+     * @param priceBoundaries 价格桶边界，须为升序且从 0 开始
+     * @return 分面查询结果
+     */
+    CatalogFacetPage searchCatalogWithFacets(PhoneQueryRequest query, List<Double> priceBoundaries);
+
+    /**
+     * 按ID批量查询商品摘要（包含禁用商品，由调用方决定是否过滤）
+     *
+     * @param ids 商品ID集合
+     * @return 商品摘要列表（顺序不保证）
+     */
+    List<PhoneSummary> findSummariesByIds(Collection<String> ids);
+
+    /**
+     * 查询低库存的未禁用商品摘要，按库存升序
+     *
+     * @param maxStock 库存上限（包含）
+     * @param limit 最大返回数量
+     * @return 商品摘要列表
+     */
+    List<PhoneSummary> findLowStockSummaries(int maxStock, int limit);
+
+    // ==================== 卖家店铺 ====================
+
+    /**
+     * 分页查询卖家的商品（包含禁用商品），不加载旧版内嵌评论
+     *
+     * 排序规则与 searchCatalog 相同（白名单字段 + _id 次级键，默认 createdAt 降序），
+     * 默认排序走 seller._id + createdAt 索引
+     *
+     * @param sellerId 卖家ID
+     * @param query 分页和排序条件（page 从 1 开始，其余过滤条件忽略）
+     * @return 分页结果
+     */
+    Page<Phone> findSellerPhones(String sellerId, PhoneQueryRequest query);
+
+    /**
+     * 分页查询卖家的商品摘要（包含禁用商品），排序规则同 findSellerPhones
+     *
+     * @param sellerId 卖家ID
+     * @param query 分页和排序条件（page 从 1 开始，其余过滤条件忽略）
+     * @return 分页结果
+     */
+    Page<PhoneSummary> findSellerSummaries(String sellerId, PhoneQueryRequest query);
+
+    // ==================== 评论统计 ====================
+
+    /**
+     * 增量更新评论统计（评论保存在 reviews 集合，写入评论后调用）
+     *
+     * @param phoneId 商品ID
+     * @param reviewCount 评论总数增量
+     * @param ratingSum 评分总和增量
+     * @param visibleReviewCount 可见评论数增量
+     * @param visibleRatingSum 可见评论评分总和增量
+     */
+    void incrementReviewStats(String phoneId, int reviewCount, int ratingSum,
+                              int visibleReviewCount, int visibleRatingSum);
+
+    /**
+     * 根据 reviews 集合重新计算评论统计
+     *
+     * 分批读取商品ID，每批一次 $group 聚合得到统计，再以无序批量写入更新；
+     * 统计未变化的商品不计入修改数量
+     *
+     * @param onlyMissing 为 true 时只处理尚未回填统计字段的商品
+     * @return 被修改的商品数量
+     */
+    long recalculateReviewStats(boolean onlyMissing);
+
+    // ==================== 畅销榜 ====================
+
+    /**
+     * 查询畅销榜候选商品的评分统计（未禁用且评论数不少于 minReviews），不加载评论
+     *
+     * @param minReviews 最少评论数（包含隐藏评论）
+     * @return 评分统计列表
+     */
+    List<PhoneRatingStats> findBestSellerCandidates(int minReviews);
+
+    /**
+     * 查询单个商品的评分统计
+     *
+     * @param phoneId 商品ID
+     * @return 评分统计，商品不存在时为空
+     */
+    Optional<PhoneRatingStats> findRatingStats(String phoneId);
+
+    // ==================== 搜索建议 ====================
+
+    /**
+     * 查询所有未禁用商品的标题、品牌和销量（用于构建搜索建议索引），不加载评论
+     *
+     * @return 商品摘要列表（仅包含 id / title / brand / salesCount）
+     */
+    List<PhoneSummary> findSuggestCandidates();
+
+    // ==================== 卖家快照 ====================
+
+    /**
+     * 将卖家最新的姓名 / 邮箱同步到其所有商品的卖家快照（单次 updateMulti）
+     *
+     * @param seller 卖家快照
+     * @return 被修改的商品数量
+     */
+    long updateSellerSnapshot(Phone.Seller seller);
+
+    /**
+     * 将仍以 DBRef 引用卖家的旧文档转换为内嵌卖家快照
+     *
+     * 每批读取 batchSize 条旧文档，用一次 $in 查询加载卖家，再以无序批量写入更新；
+     * 条件中包含 DBRef 判断，可重复执行
+     *
+     * @param batchSize 每批处理数量
+     * @return 被转换的商品数量
+     */
+    long migrateSellerReferences(int batchSize);
+
+    // ==================== 批量更新 ====================
+
+    /**
+     * 以一次无序批量写入更新卖家商品的库存 / 价格 / 上下架状态
+     *
+     * 每个更新的条件同时包含商品ID和卖家ID，不属于该卖家的商品不会被修改
+     *
+     * @param sellerId 卖家ID
+     * @param updates 商品更新（只写入非 null 的字段）
+     * @return 批量写入结果（匹配数量与修改数量）
+     */
+    BulkWriteResult bulkUpdateListings(String sellerId, List<PhoneBulkUpdateRequest.Item> updates);
+
+    // ==================== 批量导入 ====================
+
+    /**
+     * 以一次无序批量写入插入一批商品（调用方需预先分配ID）
+     *
+     * 单个文档写入失败不影响同批其他文档
+     *
+     * @param phones 待插入的商品
+     * @return 写入失败的商品在 phones 中的下标 -> 失败原因，全部成功时为空
+     */
+    Map<Integer, String> insertUnordered(List<Phone> phones);
+
+    // ==================== 库存预留 ====================
+
+    /**
+     * 结账时预留库存：一次条件更新同时校验并扣减
+     *
+     * 条件为 {_id, stock >= quantity, isDisabled = false}，满足时 $inc 库存 -quantity、销量 +quantity，
+     * 校验与扣减在同一文档更新中完成，并发结账不会超卖
+     *
+     * @param phoneId 商品ID
+     * @param quantity 购买数量
+     * @return 扣减后的商品（仅包含 id / title / brand / stock / salesCount / isDisabled），
+     *         商品不存在、已禁用或库存不足时为空
+     */
+    Optional<Phone> reserveStock(String phoneId, int quantity);
+
+    /**
+     * 归还已预留的库存（结账失败时的补偿），以一次无序批量写入 $inc 库存 +数量、销量 -数量
+     *
+     * @param quantities 商品ID -> 预留数量
+     */
+    void releaseStock(Map<String, Integer> quantities);
+}
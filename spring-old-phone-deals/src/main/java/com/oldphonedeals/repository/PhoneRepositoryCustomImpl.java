@@ -0,0 +1,678 @@
+package com.oldphonedeals.repository;
+
+import com.mongodb.DBRef;
+import com.mongodb.bulk.BulkWriteResult;
+import com.oldphonedeals.dto.request.phone.PhoneBulkUpdateRequest;
+import com.oldphonedeals.dto.request.phone.PhoneQueryRequest;
+import com.oldphonedeals.entity.Phone;
+import com.oldphonedeals.entity.PhoneSummary;
+import com.oldphonedeals.entity.User;
+import com.oldphonedeals.enums.PhoneBrand;
+import com.oldphonedeals.util.CatalogCursor;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationOperation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Field;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 商品自定义查询实现
+ *
+ * 所有过滤条件都以 isDisabled 作为前缀，配合 Phone 上的复合索引：
+ * - isDisabled + brand + price
+ * - isDisabled + createdAt
+ * - isDisabled + price
+ *
+ * 标题搜索使用 MongoDB 文本索引（title + brand），支持分词、词干提取和相关度排序，
+ * 用户输入不再作为正则表达式执行
+ *
+ * 游标分页使用 (排序字段, _id) 作为 keyset，避免深分页时的 skip 扫描
+ *
+ * 列表类查询统一返回 PhoneSummary：只投影列表需要的字段，
+ * 评论数量和平均评分取自持久化的评论统计字段（评论本身保存在 reviews 集合）
+ */
+@RequiredArgsConstructor
+public class PhoneRepositoryCustomImpl implements PhoneRepositoryCustom {
+
+    private static final int DEFAULT_PAGE_SIZE = 12;
+    private static final String OPEN_PRICE_BUCKET = "open";
+    private static final String PHONES_COLLECTION = "phones";
+    private static final String REVIEWS_COLLECTION = "reviews";
+    private static final int STATS_BATCH_SIZE = 500;
+    private static final String LEGACY_SELLER_REF = "seller.$ref";
+
+    /**
+     * PhoneSummary 直接投影的字段
+     */
+    private static final List<String> SUMMARY_FIELDS = List.of(
+        "title", "brand", "image", "stock", "seller", "price", "isDisabled", "salesCount", "createdAt"
+    );
+
+    /**
+     * PhoneRatingStats 投影的字段
+     */
+    private static final List<String> RATING_STATS_FIELDS = List.of(
+        "isDisabled", "totalReviewCount", "totalRatingSum"
+    );
+
+    /**
+     * Phone 上持久化的评论统计字段
+     */
+    private static final List<String> REVIEW_STATS_FIELDS = List.of(
+        "totalReviewCount", "totalRatingSum", "visibleReviewCount", "visibleRatingSum"
+    );
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Page<PhoneSummary> searchCatalog(PhoneQueryRequest query) {
+        Pageable pageable = toPageable(query);
+        Query mongoQuery = withSummaryFields(buildCatalogQuery(query).with(pageable));
+
+        List<PhoneSummary> content = mongoTemplate.find(mongoQuery, PhoneSummary.class, PHONES_COLLECTION);
+
+        // 首页结果不足一页时无需 count
+        return PageableExecutionUtils.getPage(content, pageable,
+            () -> mongoTemplate.count(Query.of(mongoQuery).limit(-1).skip(-1), Phone.class));
+    }
+
+    @Override
+    public Slice<PhoneSummary> searchCatalogAfter(PhoneQueryRequest query, CatalogCursor after) {
+        int pageSize = toPageSize(query);
+        Sort sort = after != null
+            ? Sort.by(after.getDirection(), after.getSortField()).and(Sort.by(after.getDirection(), "_id"))
+            : toSort(query);
+
+        Query mongoQuery = buildCatalogQuery(query).with(sort).limit(pageSize + 1);
+        if (after != null) {
+            // 包一层 $and，避免与价格等同名过滤字段冲突
+            mongoQuery.addCriteria(new Criteria().andOperator(buildKeysetCriteria(after)));
+        }
+
+        List<PhoneSummary> content = mongoTemplate.find(withSummaryFields(mongoQuery), PhoneSummary.class, PHONES_COLLECTION);
+        boolean hasNext = content.size() > pageSize;
+        if (hasNext) {
+            content = content.subList(0, pageSize);
+        }
+        return new SliceImpl<>(content, PageRequest.of(0, pageSize, sort), hasNext);
+    }
+
+    @Override
+    public CatalogFacetPage searchCatalogWithFacets(PhoneQueryRequest query, List<Double> priceBoundaries) {
+        TypedAggregation<Phone> aggregation = buildFacetAggregation(query, priceBoundaries);
+        Document result = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        if (result == null) {
+            result = new Document();
+        }
+
+        List<PhoneSummary> phones = new ArrayList<>();
+        for (Document doc : result.getList("page", Document.class, List.of())) {
+            phones.add(mongoTemplate.getConverter().read(PhoneSummary.class, doc));
+        }
+
+        List<Document> totalDocs = result.getList("total", Document.class, List.of());
+        long total = totalDocs.isEmpty() ? 0L : ((Number) totalDocs.get(0).get("count")).longValue();
+
+        return CatalogFacetPage.builder()
+            .phones(phones)
+            .total(total)
+            .brandCounts(toBrandCounts(result.getList("brands", Document.class, List.of())))
+            .priceBuckets(toPriceBuckets(result.getList("priceBuckets", Document.class, List.of()), priceBoundaries))
+            .build();
+    }
+
+    /**
+     * 构建分面聚合：
+     * $match（不含品牌）→ $facet { page, total, brands, priceBuckets }
+     * 品牌过滤只在 page / total / priceBuckets 子管道中应用
+     */
+    static TypedAggregation<Phone> buildFacetAggregation(PhoneQueryRequest query, List<Double> priceBoundaries) {
+        Document match = buildCatalogQuery(query, false).getQueryObject();
+        Pageable pageable = toPageable(query);
+
+        List<AggregationOperation> page = new ArrayList<>();
+        List<AggregationOperation> total = new ArrayList<>();
+        List<AggregationOperation> prices = new ArrayList<>();
+        if (query.getBrand() != null) {
+            AggregationOperation brandMatch = Aggregation.match(Criteria.where("brand").is(query.getBrand()));
+            page.add(brandMatch);
+            total.add(brandMatch);
+            prices.add(brandMatch);
+        }
+        page.add(context -> new Document("$sort", toSortDocument(query)));
+        page.add(Aggregation.skip(pageable.getOffset()));
+        page.add(Aggregation.limit(pageable.getPageSize()));
+        page.add(context -> new Document("$project", summaryProjection()));
+        total.add(Aggregation.count().as("count"));
+        prices.add(Aggregation.bucket("price")
+            .withBoundaries(priceBoundaries.toArray())
+            .withDefaultBucket(OPEN_PRICE_BUCKET)
+            .andOutputCount().as("count"));
+
+        return Aggregation.newAggregation(Phone.class,
+            // 与列表查询共用同一个 $match（$text 必须位于第一个阶段）
+            context -> new Document("$match", context.getMappedObject(match)),
+            Aggregation.facet(page.toArray(new AggregationOperation[0])).as("page")
+                .and(total.toArray(new AggregationOperation[0])).as("total")
+                .and(Aggregation.group("brand").count().as("count")).as("brands")
+                .and(prices.toArray(new AggregationOperation[0])).as("priceBuckets"));
+    }
+
+    @Override
+    public List<PhoneSummary> findSummariesByIds(Collection<String> ids) {
+        Query mongoQuery = Query.query(Criteria.where("_id").in(ids));
+        return mongoTemplate.find(withSummaryFields(mongoQuery), PhoneSummary.class, PHONES_COLLECTION);
+    }
+
+    @Override
+    public List<PhoneSummary> findLowStockSummaries(int maxStock, int limit) {
+        Query mongoQuery = Query.query(Criteria.where("isDisabled").is(false).and("stock").lte(maxStock))
+            .with(Sort.by(Sort.Direction.ASC, "stock"))
+            .limit(limit);
+        return mongoTemplate.find(withSummaryFields(mongoQuery), PhoneSummary.class, PHONES_COLLECTION);
+    }
+
+    @Override
+    public Page<Phone> findSellerPhones(String sellerId, PhoneQueryRequest query) {
+        Pageable pageable = toPageable(query);
+        Query mongoQuery = buildSellerQuery(sellerId).with(pageable);
+        // 旧版内嵌评论不属于响应内容
+        mongoQuery.fields().exclude("reviews");
+
+        List<Phone> content = mongoTemplate.find(mongoQuery, Phone.class);
+        return PageableExecutionUtils.getPage(content, pageable,
+            () -> mongoTemplate.count(Query.of(mongoQuery).limit(-1).skip(-1), Phone.class));
+    }
+
+    @Override
+    public Page<PhoneSummary> findSellerSummaries(String sellerId, PhoneQueryRequest query) {
+        Pageable pageable = toPageable(query);
+        Query mongoQuery = withSummaryFields(buildSellerQuery(sellerId).with(pageable));
+
+        List<PhoneSummary> content = mongoTemplate.find(mongoQuery, PhoneSummary.class, PHONES_COLLECTION);
+        return PageableExecutionUtils.getPage(content, pageable,
+            () -> mongoTemplate.count(Query.of(mongoQuery).limit(-1).skip(-1), Phone.class));
+    }
+
+    /**
+     * 卖家店铺查询：只按卖家过滤（包含禁用商品），搜索等目录条件不适用
+     */
+    static Query buildSellerQuery(String sellerId) {
+        return Query.query(Criteria.where("seller.id").is(sellerId));
+    }
+
+    @Override
+    public void incrementReviewStats(String phoneId, int reviewCount, int ratingSum,
+                                     int visibleReviewCount, int visibleRatingSum) {
+        Update update = new Update()
+            .inc("totalReviewCount", reviewCount)
+            .inc("totalRatingSum", ratingSum)
+            .inc("visibleReviewCount", visibleReviewCount)
+            .inc("visibleRatingSum", visibleRatingSum);
+        mongoTemplate.updateFirst(Query.query(Criteria.where("_id").is(phoneId)), update, Phone.class);
+    }
+
+    @Override
+    public long recalculateReviewStats(boolean onlyMissing) {
+        long modified = 0;
+        Object lastId = null;
+        while (true) {
+            Criteria criteria = onlyMissing ? Criteria.where("totalRatingSum").exists(false) : new Criteria();
+            if (lastId != null) {
+                criteria = criteria.and("_id").gt(lastId);
+            }
+            Query idQuery = Query.query(criteria)
+                .with(Sort.by(Sort.Direction.ASC, "_id"))
+                .limit(STATS_BATCH_SIZE);
+            idQuery.fields().include("_id");
+            List<Document> batch = mongoTemplate.find(idQuery, Document.class, PHONES_COLLECTION);
+            if (batch.isEmpty()) {
+                return modified;
+            }
+
+            // 一次 $group 聚合得到本批商品的评论统计，没有评论的商品统计为 0
+            Map<String, Document> statsByPhone = new HashMap<>();
+            List<String> phoneIds = batch.stream().map(doc -> doc.get("_id").toString()).toList();
+            mongoTemplate.aggregate(buildReviewStatsAggregation(phoneIds), REVIEWS_COLLECTION, Document.class)
+                .getMappedResults()
+                .forEach(doc -> statsByPhone.put(doc.get("_id").toString(), doc));
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Phone.class);
+            for (Document doc : batch) {
+                Document stats = statsByPhone.getOrDefault(doc.get("_id").toString(), new Document());
+                Update update = new Update();
+                REVIEW_STATS_FIELDS.forEach(field -> update.set(field, ((Number) stats.getOrDefault(field, 0)).intValue()));
+                bulk.updateOne(Query.query(Criteria.where("_id").is(doc.get("_id"))), update);
+            }
+            modified += bulk.execute().getModifiedCount();
+
+            if (batch.size() < STATS_BATCH_SIZE) {
+                return modified;
+            }
+            lastId = batch.get(batch.size() - 1).get("_id");
+        }
+    }
+
+    /**
+     * 评论统计聚合：按 phoneId 分组计算四个统计字段（isHidden 缺失视为可见）
+     */
+    static Aggregation buildReviewStatsAggregation(Collection<String> phoneIds) {
+        Document visible = new Document("$ne", List.of("$isHidden", true));
+        Document group = new Document("_id", "$phoneId")
+            .append("totalReviewCount", new Document("$sum", 1))
+            .append("totalRatingSum", new Document("$sum", "$rating"))
+            .append("visibleReviewCount", new Document("$sum", new Document("$cond", Arrays.asList(visible, 1, 0))))
+            .append("visibleRatingSum", new Document("$sum", new Document("$cond", Arrays.asList(visible, "$rating", 0))));
+        return Aggregation.newAggregation(
+            Aggregation.match(Criteria.where("phoneId").in(phoneIds)),
+            context -> new Document("$group", group));
+    }
+
+    @Override
+    public List<PhoneRatingStats> findBestSellerCandidates(int minReviews) {
+        Query mongoQuery = Query.query(Criteria.where("isDisabled").is(false)
+            .and("totalReviewCount").gte(minReviews));
+        RATING_STATS_FIELDS.forEach(mongoQuery.fields()::include);
+        return mongoTemplate.find(mongoQuery, PhoneRatingStats.class, PHONES_COLLECTION);
+    }
+
+    @Override
+    public Optional<PhoneRatingStats> findRatingStats(String phoneId) {
+        Query mongoQuery = Query.query(Criteria.where("_id").is(phoneId));
+        RATING_STATS_FIELDS.forEach(mongoQuery.fields()::include);
+        return Optional.ofNullable(mongoTemplate.findOne(mongoQuery, PhoneRatingStats.class, PHONES_COLLECTION));
+    }
+
+    @Override
+    public List<PhoneSummary> findSuggestCandidates() {
+        Query mongoQuery = Query.query(Criteria.where("isDisabled").is(false));
+        mongoQuery.fields().include("title", "brand", "salesCount");
+        return mongoTemplate.find(mongoQuery, PhoneSummary.class, PHONES_COLLECTION);
+    }
+
+    @Override
+    public long updateSellerSnapshot(Phone.Seller seller) {
+        Query mongoQuery = Query.query(Criteria.where("seller.id").is(seller.getId()));
+        Update update = new Update()
+            .set("seller.firstName", seller.getFirstName())
+            .set("seller.lastName", seller.getLastName())
+            .set("seller.email", seller.getEmail());
+        return mongoTemplate.updateMulti(mongoQuery, update, Phone.class).getModifiedCount();
+    }
+
+    @Override
+    public long migrateSellerReferences(int batchSize) {
+        Query legacyQuery = Query.query(Criteria.where(LEGACY_SELLER_REF).exists(true)).limit(batchSize);
+        legacyQuery.fields().include("seller");
+
+        long migrated = 0;
+        while (true) {
+            List<Document> batch = mongoTemplate.find(legacyQuery, Document.class, PHONES_COLLECTION);
+            if (batch.isEmpty()) {
+                return migrated;
+            }
+
+            // 一次 $in 查询加载本批涉及的卖家
+            Map<Object, Object> sellerIdByPhone = new HashMap<>();
+            batch.forEach(doc -> sellerIdByPhone.put(doc.get("_id"), legacySellerId(doc.get("seller"))));
+            Map<String, User> sellers = new HashMap<>();
+            mongoTemplate.find(Query.query(Criteria.where("_id").in(sellerIdByPhone.values())), User.class)
+                .forEach(user -> sellers.put(user.getId(), user));
+
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Phone.class);
+            sellerIdByPhone.forEach((phoneId, sellerId) -> {
+                String id = sellerId != null ? sellerId.toString() : null;
+                User user = sellers.get(id);
+                // 卖家已不存在时只保留ID，保证归属判断仍然有效
+                Phone.Seller snapshot = user != null ? Phone.Seller.from(user) : Phone.Seller.builder().id(id).build();
+                bulk.updateOne(
+                    Query.query(Criteria.where("_id").is(phoneId).and(LEGACY_SELLER_REF).exists(true)),
+                    Update.update("seller", snapshot));
+            });
+            int modified = bulk.execute().getModifiedCount();
+            migrated += modified;
+
+            // 本批已全部被并发转换（或无法转换）时停止，避免重复读取同一批
+            if (batch.size() < batchSize || modified == 0) {
+                return migrated;
+            }
+        }
+    }
+
+    @Override
+    public BulkWriteResult bulkUpdateListings(String sellerId, List<PhoneBulkUpdateRequest.Item> updates) {
+        LocalDateTime now = LocalDateTime.now();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Phone.class);
+        for (PhoneBulkUpdateRequest.Item item : updates) {
+            bulk.updateOne(
+                Query.query(Criteria.where("_id").is(item.getPhoneId()).and("seller.id").is(sellerId)),
+                buildListingUpdate(item, now));
+        }
+        return bulk.execute();
+    }
+
+    /**
+     * 构建单个商品的 $set 更新（只包含请求中非 null 的字段）
+     */
+    static Update buildListingUpdate(PhoneBulkUpdateRequest.Item item, LocalDateTime now) {
+        Update update = new Update().set("updatedAt", now);
+        if (item.getStock() != null) {
+            update.set("stock", item.getStock());
+        }
+        if (item.getPrice() != null) {
+            update.set("price", item.getPrice());
+        }
+        if (item.getIsDisabled() != null) {
+            update.set("isDisabled", item.getIsDisabled());
+        }
+        return update;
+    }
+
+    @Override
+    public Map<Integer, String> insertUnordered(List<Phone> phones) {
+        if (phones.isEmpty()) {
+            return Map.of();
+        }
+        try {
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Phone.class).insert(phones).execute();
+            return Map.of();
+        } catch (BulkOperationException e) {
+            Map<Integer, String> failures = new HashMap<>();
+            e.getErrors().forEach(error -> failures.put(error.getIndex(), error.getMessage()));
+            return failures;
+        }
+    }
+
+    @Override
+    public Optional<Phone> reserveStock(String phoneId, int quantity) {
+        Query query = buildReserveQuery(phoneId, quantity);
+        query.fields().include("title", "brand", "stock", "salesCount", "isDisabled");
+        return Optional.ofNullable(mongoTemplate.findAndModify(query, buildStockUpdate(-quantity),
+            FindAndModifyOptions.options().returnNew(true), Phone.class));
+    }
+
+    @Override
+    public void releaseStock(Map<String, Integer> quantities) {
+        if (quantities.isEmpty()) {
+            return;
+        }
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Phone.class);
+        quantities.forEach((phoneId, quantity) ->
+            bulk.updateOne(Query.query(Criteria.where("_id").is(phoneId)), buildStockUpdate(quantity)));
+        bulk.execute();
+    }
+
+    /**
+     * 预留条件：商品存在、未禁用且库存足够
+     */
+    static Query buildReserveQuery(String phoneId, int quantity) {
+        return Query.query(Criteria.where("_id").is(phoneId)
+            .and("stock").gte(quantity)
+            .and("isDisabled").is(false));
+    }
+
+    /**
+     * 库存变化 delta 时销量反向变化（扣减库存即售出）
+     */
+    static Update buildStockUpdate(int delta) {
+        return new Update()
+            .inc("stock", delta)
+            .inc("salesCount", -delta)
+            .set("updatedAt", LocalDateTime.now());
+    }
+
+    /**
+     * 从旧的 DBRef 值中取出卖家ID（驱动可能解码为 DBRef 或普通文档）
+     */
+    static Object legacySellerId(Object sellerRef) {
+        if (sellerRef instanceof DBRef) {
+            return ((DBRef) sellerRef).getId();
+        }
+        if (sellerRef instanceof Document) {
+            return ((Document) sellerRef).get("$id");
+        }
+        return null;
+    }
+
+    /**
+     * 为查询添加 PhoneSummary 投影（find 投影中的聚合表达式需要 MongoDB 4.4+）
+     */
+    static Query withSummaryFields(Query mongoQuery) {
+        Field fields = mongoQuery.fields();
+        SUMMARY_FIELDS.forEach(fields::include);
+        fields.project(() -> storedOrZero("totalReviewCount")).as("reviewCount");
+        fields.project(() -> storedOrZero("visibleReviewCount")).as("visibleReviewCount");
+        fields.project(() -> averageRatingExpression()).as("averageRating");
+        return mongoQuery;
+    }
+
+    /**
+     * 聚合管道中的 PhoneSummary 投影（$project 阶段）
+     */
+    static Document summaryProjection() {
+        Document projection = new Document();
+        SUMMARY_FIELDS.forEach(field -> projection.put(field, 1));
+        projection.put("reviewCount", storedOrZero("totalReviewCount"));
+        projection.put("visibleReviewCount", storedOrZero("visibleReviewCount"));
+        projection.put("averageRating", averageRatingExpression());
+        return projection;
+    }
+
+    /**
+     * 持久化的统计字段，尚未回填时视为 0
+     */
+    private static Document storedOrZero(String field) {
+        return new Document("$ifNull", List.of("$" + field, 0));
+    }
+
+    /**
+     * 可见评论平均评分 = visibleRatingSum / visibleReviewCount（没有可见评论时为 null）
+     */
+    private static Document averageRatingExpression() {
+        Document vars = new Document("count", storedOrZero("visibleReviewCount"))
+            .append("sum", storedOrZero("visibleRatingSum"));
+        Document average = new Document("$cond", Arrays.asList(
+            new Document("$gt", List.of("$$count", 0)),
+            new Document("$divide", List.of("$$sum", "$$count")),
+            null));
+        return new Document("$let", new Document("vars", vars).append("in", average));
+    }
+
+    /**
+     * 聚合中的排序文档：相关度排序时先按 textScore，再按 toSort 的字段
+     */
+    static Document toSortDocument(PhoneQueryRequest query) {
+        Document sort = new Document();
+        if (isRelevanceSort(query)) {
+            sort.put("score", new Document("$meta", "textScore"));
+        }
+        toSort(query).forEach(order -> sort.put(order.getProperty(), order.isAscending() ? 1 : -1));
+        return sort;
+    }
+
+    /**
+     * 品牌计数：所有品牌都返回，没有商品的品牌计为 0
+     */
+    static Map<PhoneBrand, Long> toBrandCounts(List<Document> brandDocs) {
+        Map<PhoneBrand, Long> counts = new EnumMap<>(PhoneBrand.class);
+        for (PhoneBrand brand : PhoneBrand.values()) {
+            counts.put(brand, 0L);
+        }
+        for (Document doc : brandDocs) {
+            Object brand = doc.get("_id");
+            if (brand != null) {
+                counts.put(PhoneBrand.valueOf(brand.toString()), ((Number) doc.get("count")).longValue());
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * 价格分布：按边界补全空桶，最后一个边界之后为开放区间
+     */
+    static List<CatalogFacetPage.PriceBucket> toPriceBuckets(List<Document> bucketDocs, List<Double> boundaries) {
+        Map<Object, Long> countsByLowerBound = new HashMap<>();
+        for (Document doc : bucketDocs) {
+            Object id = doc.get("_id");
+            Object key = id instanceof Number ? (Object) ((Number) id).doubleValue() : id;
+            countsByLowerBound.put(key, ((Number) doc.get("count")).longValue());
+        }
+
+        List<CatalogFacetPage.PriceBucket> buckets = new ArrayList<>();
+        for (int i = 0; i < boundaries.size() - 1; i++) {
+            Double min = boundaries.get(i);
+            buckets.add(new CatalogFacetPage.PriceBucket(
+                min, boundaries.get(i + 1), countsByLowerBound.getOrDefault(min, 0L)));
+        }
+        buckets.add(new CatalogFacetPage.PriceBucket(
+            boundaries.get(boundaries.size() - 1), null, countsByLowerBound.getOrDefault(OPEN_PRICE_BUCKET, 0L)));
+        return buckets;
+    }
+
+    /**
+     * 构建目录查询：有搜索词时使用 $text 查询，否则为普通查询
+     */
+    static Query buildCatalogQuery(PhoneQueryRequest query) {
+        return buildCatalogQuery(query, true);
+    }
+
+    private static Query buildCatalogQuery(PhoneQueryRequest query, boolean includeBrand) {
+        Query mongoQuery;
+        if (hasSearch(query)) {
+            TextQuery textQuery = TextQuery.queryText(
+                TextCriteria.forDefaultLanguage().matching(query.getSearch().trim()));
+            if (isRelevanceSort(query)) {
+                textQuery.sortByScore();
+            }
+            mongoQuery = textQuery;
+        } else {
+            mongoQuery = new Query();
+        }
+        return mongoQuery.addCriteria(buildCatalogCriteria(query, includeBrand));
+    }
+
+    /**
+     * 构建目录过滤条件（不含搜索词）
+     */
+    static Criteria buildCatalogCriteria(PhoneQueryRequest query) {
+        return buildCatalogCriteria(query, true);
+    }
+
+    private static Criteria buildCatalogCriteria(PhoneQueryRequest query, boolean includeBrand) {
+        Criteria criteria = Criteria.where("isDisabled").is(false);
+
+        if (includeBrand && query.getBrand() != null) {
+            criteria.and("brand").is(query.getBrand());
+        }
+
+        boolean hasMinPrice = query.getMinPrice() != null && query.getMinPrice() > 0;
+        boolean hasMaxPrice = query.getMaxPrice() != null && query.getMaxPrice() > 0;
+        if (hasMinPrice || hasMaxPrice) {
+            Criteria price = criteria.and("price");
+            if (hasMinPrice) {
+                price.gte(query.getMinPrice());
+            }
+            if (hasMaxPrice) {
+                price.lte(query.getMaxPrice());
+            }
+        }
+
+        return criteria;
+    }
+
+    /**
+     * 构建 keyset 条件：严格位于游标 (排序值, _id) 之后
+     *
+     * MongoDB 排序中 null 小于任何值：升序时 null 在最前，降序时 null 在最后
+     */
+    static Criteria buildKeysetCriteria(CatalogCursor after) {
+        String field = after.getSortField();
+        Object value = after.getSortValue();
+        Object id = ObjectId.isValid(after.getId()) ? new ObjectId(after.getId()) : after.getId();
+        boolean ascending = after.getDirection().isAscending();
+
+        Criteria sameValue = ascending
+            ? Criteria.where(field).is(value).and("_id").gt(id)
+            : Criteria.where(field).is(value).and("_id").lt(id);
+
+        if (value == null) {
+            return ascending
+                ? new Criteria().orOperator(Criteria.where(field).ne(null), sameValue)
+                : sameValue;
+        }
+        if (ascending) {
+            return new Criteria().orOperator(Criteria.where(field).gt(value), sameValue);
+        }
+        return new Criteria().orOperator(
+            Criteria.where(field).lt(value), sameValue, Criteria.where(field).is(null));
+    }
+
+    /**
+     * 构建分页与排序（附加 _id 作为稳定排序的次级键）
+     */
+    static Pageable toPageable(PhoneQueryRequest query) {
+        int pageNum = (query.getPage() != null && query.getPage() > 0) ? query.getPage() - 1 : 0;
+        return PageRequest.of(pageNum, toPageSize(query), toSort(query));
+    }
+
+    private static int toPageSize(PhoneQueryRequest query) {
+        return (query.getLimit() != null && query.getLimit() > 0) ? query.getLimit() : DEFAULT_PAGE_SIZE;
+    }
+
+    /**
+     * 排序规则：
+     * - 有搜索词且未指定排序（或指定 relevance）时，按文本相关度排序（游标模式除外）
+     * - 其他情况按白名单字段排序
+     */
+    static Sort toSort(PhoneQueryRequest query) {
+        if (isRelevanceSort(query)) {
+            // 相关度排序由 TextQuery.sortByScore 提供，这里只补充稳定次级键
+            return Sort.by(Sort.Direction.DESC, "_id");
+        }
+
+        String sortBy = query.getSortBy();
+        String sortField = (sortBy != null && SORTABLE_FIELDS.contains(sortBy)) ? sortBy : DEFAULT_SORT_FIELD;
+        Sort.Direction direction = "asc".equalsIgnoreCase(query.getSortOrder())
+            ? Sort.Direction.ASC
+            : Sort.Direction.DESC;
+        return Sort.by(direction, sortField).and(Sort.by(direction, "_id"));
+    }
+
+    static boolean isRelevanceSort(PhoneQueryRequest query) {
+        // 相关度分数无法作为 keyset，游标模式下回退到字段排序
+        return hasSearch(query) && query.getAfter() == null
+            && (query.getSortBy() == null || RELEVANCE_SORT.equalsIgnoreCase(query.getSortBy()));
+    }
+
+    private static boolean hasSearch(PhoneQueryRequest query) {
+        return query.getSearch() != null && !query.getSearch().trim().isEmpty();
+    }
+}
@@ -0,0 +1,33 @@
+package com.oldphonedeals.repository;
+
+import com.oldphonedeals.entity.Review;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReviewRepository extends MongoRepository<Review, String>, ReviewRepositoryCustom {
+    
+    // 查询商品下的指定评论
+    Optional<Review> findByIdAndPhoneId(String id, String phoneId);
+    
+    // 商品的全部评论（按创建时间）
+    List<Review> findByPhoneIdOrderByCreatedAtAsc(String phoneId);
+    
+    // 多个商品的全部评论（卖家评论列表）
+    List<Review> findByPhoneIdIn(Collection<String> phoneIds);
+    
+    // 用户发表的评论
+    List<Review> findByReviewerId(String reviewerId);
+    
+    // 用户是否已评论过该商品（走 phone_reviewer_unique_idx）
+    boolean existsByPhoneIdAndReviewerId(String phoneId, String reviewerId);
+    
+    long countByReviewerId(String reviewerId);
+    
+    // 删除商品的所有评论（商品删除时调用）
+    void deleteByPhoneId(String phoneId);
+}
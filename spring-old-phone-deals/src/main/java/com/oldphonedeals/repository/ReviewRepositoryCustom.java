@@ -0,0 +1,95 @@
+package com.oldphonedeals.repository;
+
+import com.oldphonedeals.entity.Review;
+import com.oldphonedeals.util.ReviewCursor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Review 自定义查询 / 原子更新
+ */
+public interface ReviewRepositoryCustom {
+
+    // ==================== 商品评论分页 ====================
+
+    /**
+     * 分页查询商品对当前用户可见的评论（按 createdAt、_id 升序，走 phone_created_idx）
+     *
+     * 可见性规则：未隐藏的评论所有人可见；隐藏评论只有评论作者可见；
+     * includeHidden 为 true（当前用户是卖家）时返回全部评论
+     *
+     * @param phoneId 商品ID
+     * @param viewerId 当前用户ID（可为null表示未登录）
+     * @param includeHidden 是否包含所有隐藏评论
+     * @param pageable 分页参数（排序固定，忽略 pageable 中的排序）
+     * @return 评论分页
+     */
+    Page<Review> findVisibleByPhoneId(String phoneId, String viewerId, boolean includeHidden, Pageable pageable);
+
+    /**
+     * 游标分页：查询 after 之后最多 limit 条可见评论
+     *
+     * @param phoneId 商品ID
+     * @param viewerId 当前用户ID（可为null表示未登录）
+     * @param includeHidden 是否包含所有隐藏评论
+     * @param after 上一页最后一条评论的位置（为 null 表示第一页）
+     * @param limit 最大返回数量
+     * @return 评论列表
+     */
+    List<Review> findVisibleByPhoneIdAfter(String phoneId, String viewerId, boolean includeHidden,
+                                           ReviewCursor after, int limit);
+
+    /**
+     * 统计商品对当前用户可见的评论数量
+     */
+    long countVisibleByPhoneId(String phoneId, String viewerId, boolean includeHidden);
+
+    // ==================== 原子更新 ====================
+
+    /**
+     * 条件更新评论的隐藏状态（状态未变化时不修改）
+     *
+     * @param reviewId 评论ID
+     * @param hidden 目标隐藏状态
+     * @return 是否发生了修改（调用方据此维护可见评论统计）
+     */
+    boolean updateHidden(String reviewId, boolean hidden);
+
+    /**
+     * 原子地删除评论并返回被删除的文档（findAndRemove）
+     *
+     * @param reviewId 评论ID
+     * @return 被删除的评论，已被并发删除时为空
+     */
+    Optional<Review> removeById(String reviewId);
+
+    // ==================== 后台管理 ====================
+
+    /**
+     * 后台评论检索：过滤、排序（createdAt 降序）和分页都在数据库中完成
+     *
+     * @param visibility true 只看可见评论，false 只看隐藏评论，null 不过滤
+     * @param reviewerId 评论者ID（可选）
+     * @param phoneId 商品ID（可选）
+     * @param search 评论内容关键字（可选，忽略大小写）
+     * @param pageable 分页参数
+     * @return 评论分页
+     */
+    Page<Review> search(Boolean visibility, String reviewerId, String phoneId, String search, Pageable pageable);
+
+    // ==================== 数据迁移 ====================
+
+    /**
+     * 将仍内嵌在 phones.reviews 中的旧评论迁移到 reviews 集合
+     *
+     * 每批读取 batchSize 个仍含 reviews 字段的商品，以无序批量插入写入评论（重复键视为已迁移），
+     * 再在 reviews 数组未变化的条件下 $unset 该字段；可重复执行
+     *
+     * @param batchSize 每批处理的商品数量
+     * @return 完成迁移的商品数量
+     */
+    long migrateEmbeddedReviews(int batchSize);
+}
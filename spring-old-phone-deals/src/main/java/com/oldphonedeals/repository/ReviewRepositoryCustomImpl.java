@@ -0,0 +1,242 @@
+package com.oldphonedeals.repository;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.client.model.InsertManyOptions;
+import com.oldphonedeals.entity.Review;
+import com.oldphonedeals.util.ReviewCursor;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Review 自定义查询实现
+ * <p>
+ * 商品评论按 (phoneId, createdAt, _id) 排序，与 phone_created_idx 一致，
+ * 可见性过滤、分页都在数据库中完成。
+ * </p>
+ */
+@RequiredArgsConstructor
+public class ReviewRepositoryCustomImpl implements ReviewRepositoryCustom {
+
+    private static final String PHONES_COLLECTION = "phones";
+    private static final String REVIEWS_COLLECTION = "reviews";
+    private static final String LEGACY_REVIEWS = "reviews";
+    private static final int DUPLICATE_KEY_CODE = 11000;
+
+    /**
+     * 商品评论的固定排序（与内嵌数组时代的追加顺序一致）
+     */
+    private static final Sort PHONE_REVIEW_SORT = Sort.by(Sort.Direction.ASC, "createdAt")
+        .and(Sort.by(Sort.Direction.ASC, "_id"));
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Page<Review> findVisibleByPhoneId(String phoneId, String viewerId, boolean includeHidden, Pageable pageable) {
+        Query mongoQuery = Query.query(buildVisibleCriteria(phoneId, viewerId, includeHidden))
+            .with(PHONE_REVIEW_SORT)
+            .skip(pageable.getOffset())
+            .limit(pageable.getPageSize());
+        List<Review> content = mongoTemplate.find(mongoQuery, Review.class);
+        return PageableExecutionUtils.getPage(content, pageable,
+            () -> countVisibleByPhoneId(phoneId, viewerId, includeHidden));
+    }
+
+    @Override
+    public List<Review> findVisibleByPhoneIdAfter(String phoneId, String viewerId, boolean includeHidden,
+                                                  ReviewCursor after, int limit) {
+        return mongoTemplate.find(buildVisibleAfterQuery(phoneId, viewerId, includeHidden, after, limit), Review.class);
+    }
+
+    @Override
+    public long countVisibleByPhoneId(String phoneId, String viewerId, boolean includeHidden) {
+        return mongoTemplate.count(Query.query(buildVisibleCriteria(phoneId, viewerId, includeHidden)), Review.class);
+    }
+
+    @Override
+    public boolean updateHidden(String reviewId, boolean hidden) {
+        // isHidden 缺失视为可见
+        Criteria stateCriteria = hidden
+            ? Criteria.where("isHidden").ne(true)
+            : Criteria.where("isHidden").is(true);
+        Query query = Query.query(Criteria.where("_id").is(reviewId).andOperator(stateCriteria));
+        return mongoTemplate.updateFirst(query, Update.update("isHidden", hidden), Review.class)
+            .getModifiedCount() > 0;
+    }
+
+    @Override
+    public Optional<Review> removeById(String reviewId) {
+        return Optional.ofNullable(
+            mongoTemplate.findAndRemove(Query.query(Criteria.where("_id").is(reviewId)), Review.class));
+    }
+
+    @Override
+    public Page<Review> search(Boolean visibility, String reviewerId, String phoneId, String search, Pageable pageable) {
+        Criteria criteria = buildSearchCriteria(visibility, reviewerId, phoneId, search);
+        Query mongoQuery = Query.query(criteria)
+            .with(Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "_id")))
+            .with(pageable);
+        List<Review> content = mongoTemplate.find(mongoQuery, Review.class);
+        return PageableExecutionUtils.getPage(content, pageable,
+            () -> mongoTemplate.count(Query.query(criteria), Review.class));
+    }
+
+    @Override
+    public long migrateEmbeddedReviews(int batchSize) {
+        Query legacyQuery = Query.query(Criteria.where(LEGACY_REVIEWS).exists(true)).limit(batchSize);
+        legacyQuery.fields().include(LEGACY_REVIEWS);
+
+        long migrated = 0;
+        while (true) {
+            List<Document> batch = mongoTemplate.find(legacyQuery, Document.class, PHONES_COLLECTION);
+            if (batch.isEmpty()) {
+                return migrated;
+            }
+
+            // 1. 本批所有评论一次无序批量插入；重复键表示已迁移过（上次迁移中断）
+            Map<Object, List<?>> legacyByPhone = new LinkedHashMap<>();
+            List<Document> reviews = new ArrayList<>();
+            List<Object> ownerOfReview = new ArrayList<>();
+            for (Document doc : batch) {
+                List<?> embedded = doc.get(LEGACY_REVIEWS, List.class);
+                legacyByPhone.put(doc.get("_id"), embedded);
+                if (embedded == null) {
+                    continue;
+                }
+                for (Object item : embedded) {
+                    if (item instanceof Document) {
+                        reviews.add(toReviewDocument(doc.get("_id").toString(), (Document) item));
+                        ownerOfReview.add(doc.get("_id"));
+                    }
+                }
+            }
+            Set<Object> failedPhones = insertIgnoringDuplicates(reviews, ownerOfReview);
+
+            // 2. 数组未变化时才移除旧字段，插入失败的商品留到下次处理
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, PHONES_COLLECTION);
+            int pending = 0;
+            for (Map.Entry<Object, List<?>> entry : legacyByPhone.entrySet()) {
+                if (failedPhones.contains(entry.getKey())) {
+                    continue;
+                }
+                bulk.updateOne(
+                    Query.query(Criteria.where("_id").is(entry.getKey()).and(LEGACY_REVIEWS).is(entry.getValue())),
+                    new Update().unset(LEGACY_REVIEWS));
+                pending++;
+            }
+            int modified = pending > 0 ? bulk.execute().getModifiedCount() : 0;
+            migrated += modified;
+
+            // 本批没有任何进展时停止，避免重复读取同一批
+            if (batch.size() < batchSize || modified == 0) {
+                return migrated;
+            }
+        }
+    }
+
+    /**
+     * 无序批量插入评论，忽略重复键错误
+     *
+     * @return 存在其他写入错误的商品ID
+     */
+    private Set<Object> insertIgnoringDuplicates(List<Document> reviews, List<Object> ownerOfReview) {
+        Set<Object> failedPhones = new HashSet<>();
+        if (reviews.isEmpty()) {
+            return failedPhones;
+        }
+        try {
+            mongoTemplate.getCollection(REVIEWS_COLLECTION)
+                .insertMany(reviews, new InsertManyOptions().ordered(false));
+        } catch (MongoBulkWriteException e) {
+            e.getWriteErrors().stream()
+                .filter(error -> error.getCode() != DUPLICATE_KEY_CODE)
+                .forEach(error -> failedPhones.add(ownerOfReview.get(error.getIndex())));
+        }
+        return failedPhones;
+    }
+
+    /**
+     * 内嵌评论转换为 reviews 集合文档（保留原ID和创建时间）
+     */
+    static Document toReviewDocument(String phoneId, Document embedded) {
+        Object id = embedded.get("_id");
+        Document review = new Document("_id", id != null ? id : UUID.randomUUID().toString())
+            .append("phoneId", phoneId);
+        embedded.forEach((key, value) -> {
+            if (!"_id".equals(key)) {
+                review.append(key, value);
+            }
+        });
+        return review;
+    }
+
+    /**
+     * 可见评论条件：未隐藏的评论 + 当前用户自己的评论；卖家可见全部评论
+     */
+    static Criteria buildVisibleCriteria(String phoneId, String viewerId, boolean includeHidden) {
+        Criteria criteria = Criteria.where("phoneId").is(phoneId);
+        if (includeHidden) {
+            return criteria;
+        }
+        if (viewerId == null) {
+            return criteria.and("isHidden").ne(true);
+        }
+        return criteria.orOperator(
+            Criteria.where("isHidden").ne(true),
+            Criteria.where("reviewerId").is(viewerId));
+    }
+
+    /**
+     * 游标查询：在可见条件上追加 (createdAt, _id) > (after.createdAt, after.reviewId)，多取一条判断是否还有下一页由调用方决定
+     */
+    static Query buildVisibleAfterQuery(String phoneId, String viewerId, boolean includeHidden,
+                                        ReviewCursor after, int limit) {
+        Criteria visible = buildVisibleCriteria(phoneId, viewerId, includeHidden);
+        Criteria criteria = after == null
+            ? visible
+            : new Criteria().andOperator(visible, new Criteria().orOperator(
+                Criteria.where("createdAt").gt(after.getCreatedAt()),
+                Criteria.where("createdAt").is(after.getCreatedAt()).and("_id").gt(after.getReviewId())));
+        return Query.query(criteria).with(PHONE_REVIEW_SORT).limit(limit);
+    }
+
+    /**
+     * 后台检索条件
+     */
+    static Criteria buildSearchCriteria(Boolean visibility, String reviewerId, String phoneId, String search) {
+        Criteria criteria = new Criteria();
+        if (visibility != null) {
+            criteria = Boolean.TRUE.equals(visibility)
+                ? criteria.and("isHidden").ne(true)
+                : criteria.and("isHidden").is(true);
+        }
+        if (reviewerId != null && !reviewerId.isEmpty()) {
+            criteria = criteria.and("reviewerId").is(reviewerId);
+        }
+        if (phoneId != null && !phoneId.isEmpty()) {
+            criteria = criteria.and("phoneId").is(phoneId);
+        }
+        if (search != null && !search.trim().isEmpty()) {
+            criteria = criteria.and("comment").regex(Pattern.quote(search), "i");
+        }
+        return criteria;
+    }
+}
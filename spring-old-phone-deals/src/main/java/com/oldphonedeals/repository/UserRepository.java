@@ -2,8 +2,11 @@ package com.oldphonedeals.repository;
 
 import com.oldphonedeals.entity.User;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -14,4 +17,10 @@ public interface UserRepository extends MongoRepository<User, String> {
     boolean existsByEmail(String email);
     
     Optional<User> findByVerifyToken(String verifyToken);
+
+    /**
+     * 批量查询用户姓名（只投影 _id、firstName、lastName）
+     */
+    @Query(value = "{'_id': {$in: ?0}}", fields = "{'firstName': 1, 'lastName': 1}")
+    List<User> findNamesByIdIn(Collection<String> ids);
 }
\ No newline at end of file
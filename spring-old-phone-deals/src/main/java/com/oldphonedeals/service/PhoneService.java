@@ -1,12 +1,20 @@
 package com.oldphonedeals.service;
 
+import com.oldphonedeals.dto.request.phone.PhoneBulkUpdateRequest;
 import com.oldphonedeals.dto.request.phone.PhoneCreateRequest;
+import com.oldphonedeals.dto.request.phone.PhoneQueryRequest;
 import com.oldphonedeals.dto.request.phone.PhoneUpdateRequest;
 import com.oldphonedeals.dto.response.ApiResponse;
+import com.oldphonedeals.dto.response.PageResponse;
+import com.oldphonedeals.dto.response.phone.PhoneBulkUpdateResponse;
+import com.oldphonedeals.dto.response.phone.PhoneImportResponse;
 import com.oldphonedeals.dto.response.phone.PhoneListItemResponse;
 import com.oldphonedeals.dto.response.phone.PhoneResponse;
+import com.oldphonedeals.dto.response.phone.PhoneSuggestionResponse;
 import com.oldphonedeals.enums.PhoneBrand;
+import com.oldphonedeals.util.PhoneImportReader;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -23,10 +31,10 @@ public interface PhoneService {
     /**
      * 获取商品列表（支持搜索、筛选、分页、排序）
      * 
-     * @param search 搜索关键词（标题模糊匹配）
+     * @param search 搜索关键词（全文匹配标题和品牌）
      * @param brand 品牌过滤
      * @param maxPrice 最高价格过滤
-     * @param sortBy 排序字段（默认：createdAt）
+     * @param sortBy 排序字段（默认：有搜索词时按相关度，否则 createdAt）
      * @param sortOrder 排序方向（asc/desc，默认：desc）
      * @param page 页码（从 1 开始）
      * @param limit 每页数量（默认：10）
@@ -48,6 +56,16 @@ public interface PhoneService {
             Integer limit
     );
 
+    /**
+     * 获取商品列表（组合查询）
+     * 
+     * 搜索、品牌、最低/最高价格、排序可任意组合，由同一个 Criteria 查询引擎执行
+     * 
+     * @param query 查询条件
+     * @return 包含商品列表、分页信息的 Map（格式同上）
+     */
+    Map<String, Object> getPhones(PhoneQueryRequest query);
+
     /**
      * 获取低库存商品（库存 > 0 且按库存升序，取前 5 个）
      * 用于首页"即将售罄"展示区域
@@ -70,6 +88,26 @@ public interface PhoneService {
      */
     List<PhoneListItemResponse> getBestSellers();
 
+    /**
+     * 搜索建议（输入框自动补全）
+     * 从内存前缀索引返回匹配的品牌和商品，不访问数据库
+     * 
+     * @param q 用户输入
+     * @param limit 最大返回数量（1-20，默认 8）
+     * @return 建议列表（品牌在前，商品按销量降序）
+     */
+    List<PhoneSuggestionResponse> suggestPhones(String q, Integer limit);
+
+    /**
+     * "经常一起购买"推荐
+     * 推荐列表由共同购买矩阵任务预先计算，从内存读取，只查询一次商品摘要
+     * 
+     * @param phoneId 商品 ID
+     * @param limit 最大返回数量（默认 6，不超过预先计算的数量）
+     * @return 推荐商品列表（按共同购买次数降序，不含禁用和已删除的商品）
+     */
+    List<PhoneListItemResponse> getRelatedPhones(String phoneId, Integer limit);
+
     /**
      * 获取商品详情（含评论可见性过滤）
      * 
@@ -95,6 +133,16 @@ public interface PhoneService {
      */
     PhoneResponse createPhone(PhoneCreateRequest request, String sellerId);
 
+    /**
+     * 批量导入商品（CSV / NDJSON，流式读取并分批写入）
+     *
+     * @param body 请求体
+     * @param format 导入格式
+     * @param sellerId 卖家 ID（从 JWT 获取）
+     * @return 导入结果（含每个失败行的错误信息）
+     */
+    PhoneImportResponse importPhones(InputStream body, PhoneImportReader.Format format, String sellerId);
+
     /**
      * 更新商品（仅卖家可操作）
      * 
@@ -107,6 +155,17 @@ public interface PhoneService {
      */
     PhoneResponse updatePhone(String phoneId, PhoneUpdateRequest request, String sellerId);
 
+    /**
+     * 批量更新库存 / 价格 / 上下架状态（仅卖家可操作）
+     *
+     * 权限验证：所有商品都必须属于该卖家，否则不做任何修改
+     *
+     * @param request 批量更新请求
+     * @param sellerId 卖家 ID（从 JWT 获取）
+     * @return 更新结果
+     */
+    PhoneBulkUpdateResponse bulkUpdatePhones(PhoneBulkUpdateRequest request, String sellerId);
+
     /**
      * 删除商品（仅卖家可操作）
      * 
@@ -130,13 +189,48 @@ public interface PhoneService {
     ApiResponse<String> togglePhoneDisabled(String phoneId, Boolean isDisabled, String sellerId);
 
     /**
-     * 获取卖家的所有商品
+     * 获取卖家的商品（列表响应，按创建时间倒序，最多返回最新的 100 个商品）
      * 
      * @param sellerId 卖家 ID
-     * @return 该卖家的所有商品列表
+     * @return 该卖家的商品列表（卖家不存在时为空）
      */
     List<PhoneResponse> getPhonesBySeller(String sellerId);
 
+    /**
+     * 分页获取卖家的商品（包含禁用商品）
+     * 
+     * 不校验卖家是否存在，不存在的卖家返回空页
+     * 
+     * @param sellerId 卖家 ID
+     * @param page 页码（从 1 开始）
+     * @param limit 每页数量（上限 100）
+     * @param sortBy 排序字段（createdAt / price / title / stock / salesCount）
+     * @param sortOrder 排序方向（asc / desc）
+     * @return 分页结果
+     */
+    PageResponse<PhoneResponse> getPhonesBySeller(
+            String sellerId,
+            Integer page,
+            Integer limit,
+            String sortBy,
+            String sortOrder
+    );
+
+    /**
+     * 分页获取卖家的商品摘要（包含禁用商品，只投影列表字段）
+     * 
+     * 参数与 {@link #getPhonesBySeller(String, Integer, Integer, String, String)} 相同
+     * 
+     * @return 分页结果
+     */
+    PageResponse<PhoneListItemResponse> getPhoneSummariesBySeller(
+            String sellerId,
+            Integer page,
+            Integer limit,
+            String sortBy,
+            String sortOrder
+    );
+
     /**
      * 管理员获取所有商品（含禁用商品）
      * 
@@ -1,9 +1,10 @@
 package com.oldphonedeals.service;
 
 import com.oldphonedeals.dto.request.phone.ReviewCreateRequest;
+import com.oldphonedeals.dto.response.phone.ReviewCursorPageResponse;
+import com.oldphonedeals.dto.response.phone.ReviewPageResponse;
 import com.oldphonedeals.dto.response.phone.ReviewResponse;
 import com.oldphonedeals.dto.response.phone.SellerReviewResponse;
-import com.oldphonedeals.entity.Phone;
 
 import java.util.List;
 
@@ -71,7 +72,7 @@ public interface ReviewService {
   void deleteReview(String phoneId, String reviewId, String userId);
 
   /**
-   * 过滤评论可见性
+   * 获取商品详情页展示的前 limit 条可见评论
    * 
    * 可见性规则：
    * - 未登录用户：只能看到未隐藏的评论（isHidden = false）
@@ -80,14 +81,44 @@ public interface ReviewService {
    *   2. 自己的隐藏评论
    *   3. 作为卖家时，自己商品的所有隐藏评论
    * 
+   * 过滤和截取在 reviews 集合查询中完成，只为返回的评论批量解析评论者姓名
+   * 
    * 参考：server/app/controllers/phone.controller.js:162-177
    * 
-   * @param reviews 原始评论列表
+   * @param phoneId 商品ID
    * @param currentUserId 当前用户ID（可为null表示未登录）
    * @param sellerId 商品卖家ID
-   * @return 过滤后的可见评论列表
+   * @param limit 最大返回数量
+   * @return 前 limit 条可见评论
+   */
+  List<ReviewResponse> getTopReviews(String phoneId, String currentUserId, String sellerId, int limit);
+
+  /**
+   * 分页获取某个商品的可见评论（页码模式）
+   * 
+   * 可见性过滤和分页在 reviews 集合查询中完成
+   * 
+   * @param phoneId 商品ID
+   * @param currentUserId 当前用户ID（可为null表示未登录）
+   * @param page 页码（从 1 开始）
+   * @param limit 每页数量
+   * @return 评论分页
+   * @throws ResourceNotFoundException 商品不存在
+   */
+  ReviewPageResponse getReviews(String phoneId, String currentUserId, int page, int limit);
+
+  /**
+   * 分页获取某个商品的可见评论（游标模式，按 (createdAt, id) 继续读取，不受前面评论删除的影响）
+   * 
+   * @param phoneId 商品ID
+   * @param currentUserId 当前用户ID（可为null表示未登录）
+   * @param cursor 上一页返回的 nextCursor，第一页为空字符串
+   * @param limit 每页数量
+   * @return 评论分页（含 nextCursor / hasMore）
+   * @throws ResourceNotFoundException 商品不存在
+   * @throws BadRequestException 游标格式无效
    */
-  List<ReviewResponse> filterVisibleReviews(List<Phone.Review> reviews, String currentUserId, String sellerId);
+  ReviewCursorPageResponse getReviewsAfter(String phoneId, String currentUserId, String cursor, int limit);
 
   /**
    * 获取某个卖家所有商品收到的评论
@@ -1,5 +1,12 @@
 package com.oldphonedeals.service.impl;
 
+import com.oldphonedeals.cache.BestSellerLeaderboard;
+import com.oldphonedeals.cache.CartCache;
+import com.oldphonedeals.cache.CatalogQueryCache;
+import com.oldphonedeals.cache.PhoneDetailCache;
+import com.oldphonedeals.cache.PhoneSuggestIndex;
+import com.oldphonedeals.cache.SoldOutSoonCache;
+import com.oldphonedeals.cache.UserDisplayNameCache;
 import com.oldphonedeals.dto.request.admin.UpdatePhoneRequest;
 import com.oldphonedeals.dto.request.admin.UpdateUserRequest;
 import com.oldphonedeals.dto.request.profile.UpdateProfileRequest;
@@ -11,6 +18,7 @@ import com.oldphonedeals.entity.*;
 import com.oldphonedeals.enums.AdminAction;
 import com.oldphonedeals.enums.PhoneBrand;
 import com.oldphonedeals.enums.TargetType;
+import com.oldphonedeals.exception.BadRequestException;
 import com.oldphonedeals.exception.ForbiddenException;
 import com.oldphonedeals.exception.ResourceNotFoundException;
 import com.oldphonedeals.exception.UnauthorizedException;
@@ -54,12 +62,20 @@ public class AdminServiceImpl implements AdminService {
 
     private final UserRepository userRepository;
     private final PhoneRepository phoneRepository;
+    private final ReviewRepository reviewRepository;
     private final CartRepository cartRepository;
     private final OrderRepository orderRepository;
     private final AdminLogRepository adminLogRepository;
     private final AdminLogService adminLogService;
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
+    private final BestSellerLeaderboard bestSellerLeaderboard;
+    private final SoldOutSoonCache soldOutSoonCache;
+    private final CatalogQueryCache catalogQueryCache;
+    private final PhoneDetailCache phoneDetailCache;
+    private final PhoneSuggestIndex phoneSuggestIndex;
+    private final UserDisplayNameCache userDisplayNameCache;
+    private final CartCache cartCache;
     private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
     private static final String DEFAULT_SORT_FIELD = "createdAt";
 
@@ -159,9 +175,7 @@ public class AdminServiceImpl implements AdminService {
         long totalListings = phoneRepository.count();
 
         // 统计评论总数
-        long totalReviews = phoneRepository.findAll().stream()
-                .mapToLong(phone -> phone.getReviews() != null ? phone.getReviews().size() : 0)
-                .sum();
+        long totalReviews = reviewRepository.count();
 
         // 统计订单总数
         long totalSales = orderRepository.count();
@@ -248,11 +262,8 @@ public class AdminServiceImpl implements AdminService {
                 .mapToDouble(Order::getTotalAmount)
                 .sum();
 
-        // 计算评论数量（从所有商品中统计该用户的评论）
-        long reviewsCount = phoneRepository.findAll().stream()
-                .flatMap(phone -> phone.getReviews().stream())
-                .filter(review -> review.getReviewerId().equals(userId))
-                .count();
+        // 计算评论数量（reviewer_created_idx）
+        long reviewsCount = reviewRepository.countByReviewerId(userId);
 
         UserDetailResponse.UserStats stats = UserDetailResponse.UserStats.builder()
                 .listedPhonesCount(listedPhonesCount)
@@ -299,6 +310,16 @@ public class AdminServiceImpl implements AdminService {
 
         userRepository.save(user);
 
+        // 同步该用户所有商品中的卖家快照
+        if (request.getFirstName() != null || request.getLastName() != null || request.getEmail() != null) {
+            phoneRepository.updateSellerSnapshot(Phone.Seller.from(user));
+            // 商品列表和详情中包含卖家快照
+            catalogQueryCache.invalidateAll();
+            soldOutSoonCache.invalidate();
+            phoneDetailCache.evictAll();
+            userDisplayNameCache.evict(userId);
+        }
+
         // 记录日志
         adminLogService.logAction(adminId, AdminAction.UPDATE_USER, TargetType.USER, 
                 userId, "Updated user information");
@@ -342,18 +363,14 @@ public class AdminServiceImpl implements AdminService {
 
         // 2. 删除用户的购物车
         cartRepository.deleteByUserId(userId);
+        cartCache.evict(userId);
 
         // 3. 删除用户的订单
         orderRepository.deleteByUserId(userId);
 
-        // 4. 从所有商品的reviews中删除该用户的评论
-        List<Phone> allPhones = phoneRepository.findAll();
-        for (Phone phone : allPhones) {
-            boolean removed = phone.getReviews().removeIf(review -> 
-                    review.getReviewerId().equals(userId));
-            if (removed) {
-                phoneRepository.save(phone);
-            }
+        // 4. 删除该用户发表的评论（逐条原子删除，同时维护评论统计）
+        for (Review review : reviewRepository.findByReviewerId(userId)) {
+            reviewRepository.removeById(review.getId()).ifPresent(this::applyReviewRemoved);
         }
 
         // 5. 从其他用户的收藏夹中删除该用户的商品
@@ -372,6 +389,7 @@ public class AdminServiceImpl implements AdminService {
 
         // 6. 删除用户
         userRepository.delete(user);
+        userDisplayNameCache.evict(userId);
 
         // 7. 记录日志
         adminLogService.logAction(adminId, AdminAction.DELETE_USER, TargetType.USER, 
@@ -425,36 +443,41 @@ public class AdminServiceImpl implements AdminService {
         int safePageSize = pageSize > 0 ? pageSize : 10;
         PhoneBrand brandFilter = parseBrandFilter(brand);
 
-        List<Phone> phones = phoneRepository.findAll();
+        // 该用户的评论 + 一次 $in 查询加载涉及的商品
+        List<Review> userReviews = reviewRepository.findByReviewerId(userId);
+        Set<String> phoneIds = userReviews.stream()
+            .map(Review::getPhoneId)
+            .collect(Collectors.toSet());
+        Map<String, Phone> phones = phoneIds.isEmpty()
+            ? Collections.emptyMap()
+            : phoneRepository.findAllById(phoneIds).stream()
+                .collect(Collectors.toMap(Phone::getId, Function.identity()));
+
         List<AdminUserReviewResponse> reviews = new ArrayList<>();
-        for (Phone phone : phones) {
-            if (brandFilter != null && phone.getBrand() != null && !brandFilter.equals(phone.getBrand())) {
+        for (Review review : userReviews) {
+            Phone phone = phones.get(review.getPhoneId());
+            if (phone == null) {
                 continue;
             }
-            if (phone.getReviews() == null) {
+            if (brandFilter != null && phone.getBrand() != null && !brandFilter.equals(phone.getBrand())) {
                 continue;
             }
-            int reviewsCount = phone.getReviews().size();
+            int reviewsCount = phone.getTotalReviewCount() != null ? phone.getTotalReviewCount() : 0;
             double averageRating = phone.getAverageRating() != null ? phone.getAverageRating() : 0.0;
-            for (Phone.Review review : phone.getReviews()) {
-                if (!userId.equals(review.getReviewerId())) {
-                    continue;
-                }
-                reviews.add(AdminUserReviewResponse.builder()
-                    .reviewId(review.getId())
-                    .phoneId(phone.getId())
-                    .phoneTitle(phone.getTitle())
-                    .phoneBrand(phone.getBrand() != null ? phone.getBrand().getDisplayName() : null)
-                    .phonePrice(phone.getPrice())
-                    .phoneStock(phone.getStock())
-                    .averageRating(averageRating)
-                    .reviewsCount(reviewsCount)
-                    .reviewRating(review.getRating())
-                    .reviewComment(review.getComment())
-                    .reviewCreatedAt(review.getCreatedAt())
-                    .isHidden(Boolean.TRUE.equals(review.getIsHidden()))
-                    .build());
-            }
+            reviews.add(AdminUserReviewResponse.builder()
+                .reviewId(review.getId())
+                .phoneId(phone.getId())
+                .phoneTitle(phone.getTitle())
+                .phoneBrand(phone.getBrand() != null ? phone.getBrand().getDisplayName() : null)
+                .phonePrice(phone.getPrice())
+                .phoneStock(phone.getStock())
+                .averageRating(averageRating)
+                .reviewsCount(reviewsCount)
+                .reviewRating(review.getRating())
+                .reviewComment(review.getComment())
+                .reviewCreatedAt(review.getCreatedAt())
+                .isHidden(Boolean.TRUE.equals(review.getIsHidden()))
+                .build());
         }
 
         reviews.sort(buildAdminReviewComparator(sortBy, sortOrder));
@@ -502,26 +525,19 @@ public class AdminServiceImpl implements AdminService {
             return PhoneReviewListResponse.error("Phone not found");
         }
 
-        List<Phone.Review> reviews = phone.getReviews() != null ? phone.getReviews() : List.of();
+        List<Review> reviews = reviewRepository.findByPhoneIdOrderByCreatedAtAsc(phoneId);
         if (reviews.isEmpty()) {
             return PhoneReviewListResponse.success(0, normalizedPage, normalizedLimit, Collections.emptyList());
         }
 
-        Set<String> reviewerIds = reviews.stream()
-                .map(Phone.Review::getReviewerId)
+        Map<String, String> reviewers = userDisplayNameCache.getAll(reviews.stream()
+                .map(Review::getReviewerId)
                 .filter(id -> id != null && !id.isBlank())
-                .collect(Collectors.toSet());
-        Map<String, User> reviewers = reviewerIds.isEmpty()
-                ? Collections.emptyMap()
-                : userRepository.findAllById(reviewerIds).stream()
-                .collect(Collectors.toMap(User::getId, Function.identity()));
+                .collect(Collectors.toSet()));
 
         List<ReviewManagementResponse> mapped = reviews.stream()
                 .map(review -> {
-                    User reviewer = reviewers.get(review.getReviewerId());
-                    String reviewerName = reviewer != null
-                            ? (reviewer.getFirstName() + " " + reviewer.getLastName()).trim()
-                            : "";
+                    String reviewerName = reviewers.getOrDefault(review.getReviewerId(), "").trim();
                     if (reviewerName.isBlank()) {
                         reviewerName = "Unknown";
                     }
@@ -609,6 +625,7 @@ public class AdminServiceImpl implements AdminService {
         Phone phone = phoneRepository.findById(phoneId)
                 .orElseThrow(() -> new ResourceNotFoundException("Phone not found"));
 
+        PhoneBrand previousBrand = phone.getBrand();
         if (request.getTitle() != null) {
             phone.setTitle(request.getTitle());
         }
@@ -626,6 +643,13 @@ public class AdminServiceImpl implements AdminService {
         }
 
         phoneRepository.save(phone);
+        if (request.getIsDisabled() != null) {
+            bestSellerLeaderboard.refresh(phoneId);
+        }
+        soldOutSoonCache.evictIfAffected(phoneId, phone.getStock());
+        catalogQueryCache.invalidateBrands(previousBrand, phone.getBrand());
+        phoneDetailCache.evict(phoneId);
+        phoneSuggestIndex.update(phone);
 
         // 记录日志
         adminLogService.logAction(adminId, AdminAction.UPDATE_PHONE, TargetType.PHONE, 
@@ -644,6 +668,11 @@ public class AdminServiceImpl implements AdminService {
 
         phone.setIsDisabled(!phone.getIsDisabled());
         phoneRepository.save(phone);
+        bestSellerLeaderboard.refresh(phoneId);
+        soldOutSoonCache.evictIfAffected(phoneId, phone.getStock());
+        catalogQueryCache.invalidateBrands(phone.getBrand());
+        phoneDetailCache.evict(phoneId);
+        phoneSuggestIndex.update(phone);
 
         // 记录日志
         AdminAction action = phone.getIsDisabled() ? AdminAction.DISABLE_PHONE : AdminAction.ENABLE_PHONE;
@@ -675,11 +704,9 @@ public class AdminServiceImpl implements AdminService {
         Phone phone = phoneRepository.findById(phoneId)
                 .orElseThrow(() -> new ResourceNotFoundException("Phone not found"));
 
-        // 1. 从所有购物车中删除该商品
-        List<Cart> carts = cartRepository.findCartsContainingPhone(phoneId);
-        for (Cart cart : carts) {
-            cart.getItems().removeIf(item -> item.getPhoneId().equals(phoneId));
-            cartRepository.save(cart);
+        // 1. 从所有购物车中删除该商品（一次 updateMulti $pull）
+        if (cartRepository.pullPhoneFromAllCarts(phoneId) > 0) {
+            cartCache.evictContaining(phoneId);
         }
 
         // 2. 从所有用户的收藏夹中删除该商品
@@ -691,8 +718,14 @@ public class AdminServiceImpl implements AdminService {
             }
         }
 
-        // 3. 删除商品
+        // 3. 删除商品及其评论
         phoneRepository.delete(phone);
+        reviewRepository.deleteByPhoneId(phoneId);
+        bestSellerLeaderboard.remove(phoneId);
+        soldOutSoonCache.evictIfAffected(phoneId, phone.getStock());
+        catalogQueryCache.invalidateBrands(phone.getBrand());
+        phoneDetailCache.evict(phoneId);
+        phoneSuggestIndex.remove(phoneId);
     }
 
     // ============================================
@@ -705,86 +738,48 @@ public class AdminServiceImpl implements AdminService {
         log.info("Fetching reviews with filters: visibility={}, reviewerId={}, phoneId={}, search={}",
                 visibility, reviewerId, phoneId, search);
 
-        List<Phone> allPhones = phoneRepository.findAll();
-        List<ReviewManagementResponse> allReviews = new ArrayList<>();
-
-        for (Phone phone : allPhones) {
-            // 如果指定了 phoneId，跳过不匹配的商品
-            if (phoneId != null && !phoneId.isEmpty() && !phone.getId().equals(phoneId)) {
-                continue;
-            }
-
-            for (Phone.Review review : phone.getReviews()) {
-                // 应用过滤条件
-                // 可见性过滤
-                if (visibility != null) {
-                    boolean includeHidden = Boolean.FALSE.equals(visibility);
-                    if (includeHidden && !Boolean.TRUE.equals(review.getIsHidden())) {
-                        continue;
-                    }
-                    if (!includeHidden && Boolean.TRUE.equals(review.getIsHidden())) {
-                        continue;
-                    }
-                }
-
-                // 评论者ID过滤
-                if (reviewerId != null && !reviewerId.isEmpty() && !review.getReviewerId().equals(reviewerId)) {
-                    continue;
-                }
-
-                // 搜索过滤（评论内容）
-                if (search != null && !search.trim().isEmpty()) {
-                    if (review.getComment() == null ||
-                        !review.getComment().toLowerCase().contains(search.toLowerCase())) {
-                        continue;
-                    }
-                }
-
-                // 获取评论者信息
-                String reviewerName = "";
-                try {
-                    User reviewer = userRepository.findById(review.getReviewerId()).orElse(null);
-                    if (reviewer != null) {
-                        reviewerName = reviewer.getFirstName() + " " + reviewer.getLastName();
-                    }
-                } catch (Exception e) {
-                    log.error("Failed to fetch reviewer: {}", e.getMessage());
-                }
-
-                ReviewManagementResponse response = ReviewManagementResponse.builder()
-                        .reviewId(review.getId())
-                        .phoneId(phone.getId())
-                        .phoneTitle(phone.getTitle())
-                        .reviewerId(review.getReviewerId())
-                        .reviewerName(reviewerName)
-                        .rating(review.getRating())
-                        .comment(review.getComment())
-                        .isHidden(review.getIsHidden())
-                        .createdAt(review.getCreatedAt())
-                        .build();
-                allReviews.add(response);
-            }
-        }
-
-        // 按时间倒序排列
-        allReviews.sort((a, b) -> b.getCreatedAt().compareTo(a.getCreatedAt()));
+        // 过滤、排序和分页在 reviews 集合中完成
+        Page<Review> reviewPage = reviewRepository.search(visibility, reviewerId, phoneId, search,
+                PageRequest.of(page, pageSize));
+        List<Review> reviews = reviewPage.getContent();
 
-        // 手动分页
-        int start = page * pageSize;
-        int end = Math.min(start + pageSize, allReviews.size());
-        List<ReviewManagementResponse> pageData = start < allReviews.size()
-                ? allReviews.subList(start, end)
-                : new ArrayList<>();
+        // 评论者姓名走缓存，商品摘要一次 $in 查询加载
+        Map<String, String> reviewers = userDisplayNameCache.getAll(reviews.stream()
+                .map(Review::getReviewerId)
+                .filter(id -> id != null && !id.isBlank())
+                .collect(Collectors.toSet()));
+        Set<String> phoneIds = reviews.stream()
+                .map(Review::getPhoneId)
+                .collect(Collectors.toSet());
+        Map<String, PhoneSummary> phones = phoneIds.isEmpty()
+                ? Collections.emptyMap()
+                : phoneRepository.findSummariesByIds(phoneIds).stream()
+                .collect(Collectors.toMap(PhoneSummary::getId, Function.identity()));
 
-        int totalPages = (int) Math.ceil((double) allReviews.size() / pageSize);
+        List<ReviewManagementResponse> pageData = reviews.stream()
+                .map(review -> {
+                    PhoneSummary phone = phones.get(review.getPhoneId());
+                    return ReviewManagementResponse.builder()
+                            .reviewId(review.getId())
+                            .phoneId(review.getPhoneId())
+                            .phoneTitle(phone != null ? phone.getTitle() : null)
+                            .reviewerId(review.getReviewerId())
+                            .reviewerName(reviewers.getOrDefault(review.getReviewerId(), ""))
+                            .rating(review.getRating())
+                            .comment(review.getComment())
+                            .isHidden(review.getIsHidden())
+                            .createdAt(review.getCreatedAt())
+                            .build();
+                })
+                .collect(Collectors.toList());
 
         return PageResponse.<ReviewManagementResponse>builder()
                 .content(pageData)
                 .currentPage(page + 1)
-                .totalPages(totalPages)
-                .totalItems((long) allReviews.size())
+                .totalPages(reviewPage.getTotalPages())
+                .totalItems(reviewPage.getTotalElements())
                 .itemsPerPage(pageSize)
-                .hasNext(end < allReviews.size())
+                .hasNext(reviewPage.hasNext())
                 .hasPrevious(page > 0)
                 .build();
     }
@@ -800,13 +795,18 @@ public class AdminServiceImpl implements AdminService {
         Phone phone = phoneRepository.findById(phoneId)
                 .orElseThrow(() -> new ResourceNotFoundException("Phone not found"));
 
-        Phone.Review review = phone.getReviews().stream()
-                .filter(r -> r.getId().equals(reviewId))
-                .findFirst()
+        Review review = reviewRepository.findByIdAndPhoneId(reviewId, phoneId)
                 .orElseThrow(() -> new ResourceNotFoundException("Review not found"));
 
-        review.setIsHidden(!review.getIsHidden());
-        phoneRepository.save(phone);
+        // 条件更新可见性，状态确实变化时才调整可见评论统计
+        boolean hidden = !Boolean.TRUE.equals(review.getIsHidden());
+        if (reviewRepository.updateHidden(reviewId, hidden)) {
+            int rating = review.getRating() != null ? review.getRating() : 0;
+            int sign = hidden ? -1 : 1;
+            phoneRepository.incrementReviewStats(phoneId, 0, 0, sign, sign * rating);
+        }
+        review.setIsHidden(hidden);
+        phoneDetailCache.evict(phoneId);
 
         // 记录日志
         AdminAction action = review.getIsHidden() ? AdminAction.HIDE_REVIEW : AdminAction.SHOW_REVIEW;
@@ -816,12 +816,12 @@ public class AdminServiceImpl implements AdminService {
         log.info("Review {} visibility toggled to hidden={} by admin {}", 
                 reviewId, review.getIsHidden(), adminId);
 
-        // 获取评论者信息
+        // 获取评论者姓名
         String reviewerName = "";
         try {
-            User reviewer = userRepository.findById(review.getReviewerId()).orElse(null);
-            if (reviewer != null) {
-                reviewerName = reviewer.getFirstName() + " " + reviewer.getLastName();
+            String cachedName = userDisplayNameCache.get(review.getReviewerId());
+            if (cachedName != null) {
+                reviewerName = cachedName;
             }
         } catch (Exception e) {
             log.error("Failed to fetch reviewer: {}", e.getMessage());
@@ -843,15 +843,16 @@ public class AdminServiceImpl implements AdminService {
     @Override
     @Transactional
     public void deleteReview(String phoneId, String reviewId, String adminId) {
-        Phone phone = phoneRepository.findById(phoneId)
+        phoneRepository.findById(phoneId)
                 .orElseThrow(() -> new ResourceNotFoundException("Phone not found"));
 
-        boolean removed = phone.getReviews().removeIf(review -> review.getId().equals(reviewId));
-        if (!removed) {
-            throw new ResourceNotFoundException("Review not found");
-        }
+        reviewRepository.findByIdAndPhoneId(reviewId, phoneId)
+                .orElseThrow(() -> new ResourceNotFoundException("Review not found"));
 
-        phoneRepository.save(phone);
+        // 原子地删除评论并更新评论统计
+        Review removed = reviewRepository.removeById(reviewId)
+                .orElseThrow(() -> new ResourceNotFoundException("Review not found"));
+        applyReviewRemoved(removed);
 
         // 记录日志
         adminLogService.logAction(adminId, AdminAction.DELETE_REVIEW, TargetType.REVIEW, 
@@ -860,6 +861,17 @@ public class AdminServiceImpl implements AdminService {
         log.info("Review {} deleted by admin {}", reviewId, adminId);
     }
 
+    /**
+     * 按被删除评论的状态扣减评论统计，并刷新相关缓存
+     */
+    private void applyReviewRemoved(Review removed) {
+        int rating = removed.getRating() != null ? removed.getRating() : 0;
+        boolean visible = !Boolean.TRUE.equals(removed.getIsHidden());
+        phoneRepository.incrementReviewStats(removed.getPhoneId(), -1, -rating, visible ? -1 : 0, visible ? -rating : 0);
+        bestSellerLeaderboard.refresh(removed.getPhoneId());
+        phoneDetailCache.evict(removed.getPhoneId());
+    }
+
     // ============================================
     // 订单管理模块
     // ============================================
@@ -1236,7 +1248,7 @@ public class AdminServiceImpl implements AdminService {
     }
 
     private AdminUserPhoneResponse convertToAdminUserPhoneResponse(Phone phone) {
-        int reviewsCount = phone.getReviews() != null ? phone.getReviews().size() : 0;
+        int reviewsCount = phone.getTotalReviewCount() != null ? phone.getTotalReviewCount() : 0;
         double averageRating = phone.getAverageRating() != null ? phone.getAverageRating() : 0.0;
         return AdminUserPhoneResponse.builder()
                 .id(phone.getId())
@@ -1288,7 +1300,7 @@ public class AdminServiceImpl implements AdminService {
                 .isDisabled(phone.getIsDisabled())
                 .salesCount(phone.getSalesCount())
                 .averageRating(phone.getAverageRating())
-                .reviewCount(phone.getReviews() != null ? phone.getReviews().size() : 0)
+                .reviewCount(phone.getTotalReviewCount() != null ? phone.getTotalReviewCount() : 0)
                 .seller(sellerInfo)
                 .createdAt(phone.getCreatedAt())
                 .updatedAt(phone.getUpdatedAt())
@@ -1,11 +1,13 @@
 package com.oldphonedeals.service.impl;
 
+import com.oldphonedeals.cache.CartCache;
 import com.oldphonedeals.dto.request.cart.AddToCartRequest;
 import com.oldphonedeals.dto.request.cart.UpdateCartItemRequest;
 import com.oldphonedeals.dto.response.cart.CartItemResponse;
 import com.oldphonedeals.dto.response.cart.CartResponse;
 import com.oldphonedeals.entity.Cart;
 import com.oldphonedeals.entity.Phone;
+import com.oldphonedeals.entity.PhoneSummary;
 import com.oldphonedeals.entity.User;
 import com.oldphonedeals.exception.BadRequestException;
 import com.oldphonedeals.exception.ResourceNotFoundException;
@@ -16,11 +18,12 @@ import com.oldphonedeals.service.CartService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -36,21 +39,21 @@ public class CartServiceImpl implements CartService {
     private final CartRepository cartRepository;
     private final PhoneRepository phoneRepository;
     private final UserRepository userRepository;
+    private final CartCache cartCache;
     
     @Override
     public CartResponse getUserCart(String userId) {
         log.debug("Getting cart for user: {}", userId);
         
-        // 查找或创建购物车
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseGet(() -> createEmptyCart(userId));
+        // 查找或创建购物车（优先使用缓存）
+        Cart cart = cartCache.get(userId, () -> cartRepository.findByUserId(userId)
+                .orElseGet(() -> cartRepository.findOrCreate(userId)));
         
         // 构建增强的购物车响应（包含商品详情、评分、卖家信息）
         return buildCartResponse(cart);
     }
     
     @Override
-    @Transactional
     public CartResponse addToCart(String userId, AddToCartRequest request) {
         log.debug("Adding item to cart - userId: {}, phoneId: {}, quantity: {}", 
                 userId, request.getPhoneId(), request.getQuantity());
@@ -68,55 +71,27 @@ public class CartServiceImpl implements CartService {
             throw new BadRequestException("Insufficient stock. Available: " + phone.getStock());
         }
         
-        // 查找或创建购物车
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseGet(() -> createEmptyCart(userId));
-        
-        // 检查商品是否已在购物车中
-        Cart.CartItem existingItem = cart.getItems().stream()
-                .filter(item -> item.getPhoneId().equals(request.getPhoneId()))
-                .findFirst()
-                .orElse(null);
-        
-        if (existingItem != null) {
-            // 更新现有商品的数量
-            existingItem.setQuantity(request.getQuantity());
-            existingItem.setPrice(phone.getPrice());
-        } else {
-            // 添加新商品
-            Cart.CartItem newItem = Cart.CartItem.builder()
-                    .phoneId(request.getPhoneId())
-                    .title(phone.getTitle())
-                    .quantity(request.getQuantity())
-                    .price(phone.getPrice())
-                    .createdAt(LocalDateTime.now())
-                    .build();
-            cart.getItems().add(newItem);
-        }
-        
-        // 保存购物车
-        cart = cartRepository.save(cart);
+        // 已在购物车中时定位更新数量和价格，否则追加（购物车不存在时一并创建）
+        Cart.CartItem item = Cart.CartItem.builder()
+                .phoneId(request.getPhoneId())
+                .title(phone.getTitle())
+                .quantity(request.getQuantity())
+                .price(phone.getPrice())
+                .createdAt(LocalDateTime.now())
+                .build();
+        long cacheVersion = cartCache.version();
+        Cart cart = cartRepository.upsertItem(userId, item);
+        cartCache.put(cart, cacheVersion);
         log.info("Item added to cart - userId: {}, phoneId: {}", userId, request.getPhoneId());
         
         return buildCartResponse(cart);
     }
     
     @Override
-    @Transactional
     public CartResponse updateCartItem(String userId, String phoneId, UpdateCartItemRequest request) {
         log.debug("Updating cart item - userId: {}, phoneId: {}, newQuantity: {}", 
                 userId, phoneId, request.getQuantity());
         
-        // 查找购物车
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
-        
-        // 查找购物车中的商品
-        Cart.CartItem cartItem = cart.getItems().stream()
-                .filter(item -> item.getPhoneId().equals(phoneId))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException("Item not found in cart"));
-        
         // 验证商品和库存
         Phone phone = phoneRepository.findById(phoneId)
                 .orElseThrow(() -> new ResourceNotFoundException("Phone not found"));
@@ -125,64 +100,50 @@ public class CartServiceImpl implements CartService {
             throw new BadRequestException("Insufficient stock. Available: " + phone.getStock());
         }
         
-        // 更新数量
-        cartItem.setQuantity(request.getQuantity());
-        
-        // 保存购物车
-        cart = cartRepository.save(cart);
+        // 定位更新数量
+        long cacheVersion = cartCache.version();
+        Cart cart = cartRepository.updateItemQuantity(userId, phoneId, request.getQuantity())
+                .orElseThrow(() -> cartOrItemNotFound(userId));
+        cartCache.put(cart, cacheVersion);
         log.info("Cart item updated - userId: {}, phoneId: {}", userId, phoneId);
         
         return buildCartResponse(cart);
     }
     
     @Override
-    @Transactional
     public CartResponse removeFromCart(String userId, String phoneId) {
         log.debug("Removing item from cart - userId: {}, phoneId: {}", userId, phoneId);
         
-        // 查找购物车
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
-        
-        // 查找并移除商品
-        boolean removed = cart.getItems().removeIf(item -> item.getPhoneId().equals(phoneId));
-        
-        if (!removed) {
-            throw new ResourceNotFoundException("Item not found in cart");
-        }
-        
-        // 保存购物车
-        cart = cartRepository.save(cart);
+        // $pull 移除商品
+        long cacheVersion = cartCache.version();
+        Cart cart = cartRepository.removeItem(userId, phoneId)
+                .orElseThrow(() -> cartOrItemNotFound(userId));
+        cartCache.put(cart, cacheVersion);
         log.info("Item removed from cart - userId: {}, phoneId: {}", userId, phoneId);
         
         return buildCartResponse(cart);
     }
     
     @Override
-    @Transactional
     public void clearCart(String userId) {
         log.debug("Clearing cart for user: {}", userId);
         
-        Cart cart = cartRepository.findByUserId(userId)
-                .orElseThrow(() -> new ResourceNotFoundException("Cart not found"));
-        
-        cart.getItems().clear();
-        cartRepository.save(cart);
+        boolean cleared = cartRepository.clearItems(userId);
+        cartCache.evict(userId);
+        if (!cleared) {
+            throw new ResourceNotFoundException("Cart not found");
+        }
         
         log.info("Cart cleared for user: {}", userId);
     }
     
     /**
-     * 创建空购物车
+     * 定位更新未匹配时区分购物车不存在和商品不在购物车中（仅失败时多查询一次）
      */
-    private Cart createEmptyCart(String userId) {
-        Cart cart = Cart.builder()
-                .userId(userId)
-                .items(new ArrayList<>())
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
-        return cartRepository.save(cart);
+    private ResourceNotFoundException cartOrItemNotFound(String userId) {
+        return cartRepository.existsByUserId(userId)
+                ? new ResourceNotFoundException("Item not found in cart")
+                : new ResourceNotFoundException("Cart not found");
     }
     
     /**
@@ -193,10 +154,15 @@ public class CartServiceImpl implements CartService {
      * - 商品的评论数量
      * - 卖家信息（firstName, lastName）
      * </p>
+     * <p>
+     * 购物车中的商品通过一次 $in 查询（PhoneSummary 投影）批量加载，卖家信息取自商品内嵌的卖家快照，
+     * 之后在内存中组装每个购物车项，查询次数与购物车商品数量无关。
+     * </p>
      */
     private CartResponse buildCartResponse(Cart cart) {
+        Map<String, PhoneSummary> phones = loadPhones(cart.getItems());
         List<CartItemResponse> itemResponses = cart.getItems().stream()
-                .map(this::buildCartItemResponse)
+                .map(item -> buildCartItemResponse(item, phones.get(item.getPhoneId())))
                 .collect(Collectors.toList());
         
         return CartResponse.builder()
@@ -208,10 +174,28 @@ public class CartServiceImpl implements CartService {
                 .build();
     }
     
+    /**
+     * 批量加载购物车中的商品摘要
+     */
+    private Map<String, PhoneSummary> loadPhones(List<Cart.CartItem> items) {
+        Set<String> phoneIds = items.stream()
+                .map(Cart.CartItem::getPhoneId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (phoneIds.isEmpty()) {
+            return Map.of();
+        }
+        return phoneRepository.findSummariesByIds(phoneIds).stream()
+                .collect(Collectors.toMap(PhoneSummary::getId, summary -> summary));
+    }
+    
     /**
      * 构建购物车商品响应，包含增强信息
+     *
+     * @param item 购物车项
+     * @param phone 商品摘要（商品已删除时为 null，只返回购物车中保存的信息）
      */
-    private CartItemResponse buildCartItemResponse(Cart.CartItem item) {
+    private CartItemResponse buildCartItemResponse(Cart.CartItem item, PhoneSummary phone) {
         CartItemResponse.CartItemResponseBuilder builder = CartItemResponse.builder()
                 .phoneId(item.getPhoneId())
                 .title(item.getTitle())
@@ -219,44 +203,36 @@ public class CartServiceImpl implements CartService {
                 .price(item.getPrice())
                 .createdAt(item.getCreatedAt());
         
-        // 获取商品详情以增强信息
-        phoneRepository.findById(item.getPhoneId()).ifPresent(phone -> {
-            // 计算平均评分
-            Double averageRating = phone.getAverageRating();
-            builder.averageRating(averageRating);
-            
-            // 获取评论数量（排除隐藏的评论）
-            Integer reviewCount = 0;
-            if (phone.getReviews() != null) {
-                reviewCount = (int) phone.getReviews().stream()
-                        .filter(review -> !review.getIsHidden())
-                        .count();
-            }
-            builder.reviewCount(reviewCount);
-            
-            // 获取卖家信息
-            if (phone.getSeller() != null) {
-                User seller = phone.getSeller();
-                CartItemResponse.SellerInfo sellerInfo = CartItemResponse.SellerInfo.builder()
-                        .id(seller.getId())
-                        .firstName(seller.getFirstName())
-                        .lastName(seller.getLastName())
-                        .build();
-                builder.seller(sellerInfo);
-            }
-            
-            // 构建商品信息
-            CartItemResponse.PhoneInfo phoneInfo = CartItemResponse.PhoneInfo.builder()
-                    .id(phone.getId())
-                    .title(phone.getTitle())
-                    .brand(phone.getBrand())
-                    .image(phone.getImage())
-                    .stock(phone.getStock())
-                    .price(phone.getPrice())
-                    .isDisabled(phone.getIsDisabled())
+        if (phone == null) {
+            return builder.build();
+        }
+        
+        // 平均评分和评论数量（排除隐藏的评论，取自持久化的评论统计）
+        builder.averageRating(phone.getAverageRating());
+        builder.reviewCount(phone.getVisibleReviewCount() != null ? phone.getVisibleReviewCount() : 0);
+        
+        // 获取卖家信息
+        if (phone.getSeller() != null) {
+            Phone.Seller seller = phone.getSeller();
+            CartItemResponse.SellerInfo sellerInfo = CartItemResponse.SellerInfo.builder()
+                    .id(seller.getId())
+                    .firstName(seller.getFirstName())
+                    .lastName(seller.getLastName())
                     .build();
-            builder.phone(phoneInfo);
-        });
+            builder.seller(sellerInfo);
+        }
+        
+        // 构建商品信息
+        CartItemResponse.PhoneInfo phoneInfo = CartItemResponse.PhoneInfo.builder()
+                .id(phone.getId())
+                .title(phone.getTitle())
+                .brand(phone.getBrand())
+                .image(phone.getImage())
+                .stock(phone.getStock())
+                .price(phone.getPrice())
+                .isDisabled(phone.getIsDisabled())
+                .build();
+        builder.phone(phoneInfo);
         
         return builder.build();
     }
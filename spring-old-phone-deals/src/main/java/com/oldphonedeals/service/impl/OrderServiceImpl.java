@@ -1,5 +1,10 @@
 package com.oldphonedeals.service.impl;
 
+import com.oldphonedeals.cache.CartCache;
+import com.oldphonedeals.cache.CatalogQueryCache;
+import com.oldphonedeals.cache.PhoneDetailCache;
+import com.oldphonedeals.cache.PhoneSuggestIndex;
+import com.oldphonedeals.cache.SoldOutSoonCache;
 import com.oldphonedeals.dto.request.order.CheckoutRequest;
 import com.oldphonedeals.dto.response.order.OrderItemResponse;
 import com.oldphonedeals.dto.response.order.OrderPageResponse;
@@ -7,6 +12,7 @@ import com.oldphonedeals.dto.response.order.OrderResponse;
 import com.oldphonedeals.entity.Cart;
 import com.oldphonedeals.entity.Order;
 import com.oldphonedeals.entity.Phone;
+import com.oldphonedeals.enums.PhoneBrand;
 import com.oldphonedeals.exception.BadRequestException;
 import com.oldphonedeals.exception.ResourceNotFoundException;
 import com.oldphonedeals.repository.CartRepository;
@@ -20,11 +26,13 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 /**
@@ -40,9 +48,18 @@ public class OrderServiceImpl implements OrderService {
     private final OrderRepository orderRepository;
     private final CartRepository cartRepository;
     private final PhoneRepository phoneRepository;
+    private final SoldOutSoonCache soldOutSoonCache;
+    private final CatalogQueryCache catalogQueryCache;
+    private final PhoneDetailCache phoneDetailCache;
+    private final PhoneSuggestIndex phoneSuggestIndex;
+    private final CartCache cartCache;
     
+    /**
+     * 结账
+     * 库存以条件更新原子预留（不会超卖），预留或保存订单失败时归还已预留的库存。
+     * 不使用事务：抢购时同一商品的并发事务会因写冲突失败，补偿已足以保证一致。
+     */
     @Override
-    @Transactional
     public OrderResponse checkout(String userId, CheckoutRequest request) {
         log.debug("Starting checkout for user: {}", userId);
         
@@ -54,33 +71,13 @@ public class OrderServiceImpl implements OrderService {
             throw new BadRequestException("Cart is empty");
         }
         
-        // 2. 验证每个商品的库存和状态
-        List<Phone> phones = new ArrayList<>();
-        for (Cart.CartItem cartItem : cart.getItems()) {
-            Phone phone = phoneRepository.findById(cartItem.getPhoneId())
-                    .orElseThrow(() -> new ResourceNotFoundException("Phone not found: " + cartItem.getPhoneId()));
-            
-            // 验证商品是否被禁用
-            if (phone.getIsDisabled()) {
-                throw new BadRequestException("Phone " + phone.getTitle() + " is not available");
-            }
-            
-            // 验证库存
-            if (cartItem.getQuantity() > phone.getStock()) {
-                throw new BadRequestException("Insufficient stock for phone " + phone.getTitle() + 
-                        ". Available: " + phone.getStock() + ", Requested: " + cartItem.getQuantity());
-            }
-            
-            phones.add(phone);
-        }
-        
-        // 3. 计算总价
+        // 2. 计算总价
         double totalAmount = 0;
         for (Cart.CartItem item : cart.getItems()) {
             totalAmount += item.getPrice() * item.getQuantity();
         }
         
-        // 4. 创建订单对象
+        // 3. 创建订单对象
         List<Order.OrderItem> orderItems = cart.getItems().stream()
                 .map(item -> Order.OrderItem.builder()
                         .phoneId(item.getPhoneId())
@@ -106,36 +103,77 @@ public class OrderServiceImpl implements OrderService {
                 .createdAt(LocalDateTime.now())
                 .build();
         
+        // 4. 预留库存（条件扣减库存并增加销售计数，校验与扣减在同一次更新中完成）
+        Map<String, Integer> reserved = new LinkedHashMap<>();
+        List<Phone> phones = new ArrayList<>();
+        for (Cart.CartItem cartItem : cart.getItems()) {
+            Optional<Phone> phone = phoneRepository.reserveStock(cartItem.getPhoneId(), cartItem.getQuantity());
+            if (phone.isEmpty()) {
+                releaseStock(reserved);
+                throw reservationFailure(cartItem);
+            }
+            reserved.put(cartItem.getPhoneId(), cartItem.getQuantity());
+            phones.add(phone.get());
+        }
+        
         // 5. 保存订单
-        order = orderRepository.save(order);
+        try {
+            order = orderRepository.save(order);
+        } catch (RuntimeException e) {
+            releaseStock(reserved);
+            throw e;
+        }
         log.info("Order created: {}", order.getId());
         
-        // 6. 扣减库存并增加销售计数
-        for (int i = 0; i < cart.getItems().size(); i++) {
-            Cart.CartItem cartItem = cart.getItems().get(i);
-            Phone phone = phones.get(i);
-            
-            // 扣减库存
-            phone.setStock(phone.getStock() - cartItem.getQuantity());
-            
-            // 增加销售计数
-            Integer salesCount = phone.getSalesCount() != null ? phone.getSalesCount() : 0;
-            phone.setSalesCount(salesCount + cartItem.getQuantity());
-            
-            phoneRepository.save(phone);
+        for (Phone phone : phones) {
+            soldOutSoonCache.evictIfAffected(phone.getId(), phone.getStock());
+            phoneDetailCache.evict(phone.getId());
+            phoneSuggestIndex.update(phone);
             log.debug("Updated phone stock and sales - phoneId: {}, newStock: {}, newSalesCount: {}", 
                     phone.getId(), phone.getStock(), phone.getSalesCount());
         }
+        catalogQueryCache.invalidateBrands(phones.stream().map(Phone::getBrand).toArray(PhoneBrand[]::new));
         
-        // 7. 清空购物车
-        cart.getItems().clear();
-        cartRepository.save(cart);
+        // 6. 清空购物车
+        cartRepository.clearItems(userId);
+        cartCache.evict(userId);
         log.info("Cart cleared for user: {}", userId);
         
-        // 8. 返回订单响应
+        // 7. 返回订单响应
         return buildOrderResponse(order);
     }
     
+    /**
+     * 预留失败时读取一次商品，区分不存在、已禁用和库存不足，给出明确的错误信息
+     */
+    private RuntimeException reservationFailure(Cart.CartItem cartItem) {
+        Optional<Phone> found = phoneRepository.findById(cartItem.getPhoneId());
+        if (found.isEmpty()) {
+            return new ResourceNotFoundException("Phone not found: " + cartItem.getPhoneId());
+        }
+        Phone phone = found.get();
+        if (Boolean.TRUE.equals(phone.getIsDisabled())) {
+            return new BadRequestException("Phone " + phone.getTitle() + " is not available");
+        }
+        return new BadRequestException("Insufficient stock for phone " + phone.getTitle() + 
+                ". Available: " + phone.getStock() + ", Requested: " + cartItem.getQuantity());
+    }
+    
+    /**
+     * 归还已预留的库存（补偿失败时只记录日志，不掩盖原始错误）
+     */
+    private void releaseStock(Map<String, Integer> reserved) {
+        if (reserved.isEmpty()) {
+            return;
+        }
+        try {
+            phoneRepository.releaseStock(reserved);
+            log.info("Released reserved stock: {}", reserved);
+        } catch (RuntimeException e) {
+            log.error("Failed to release reserved stock {}: {}", reserved, e.getMessage());
+        }
+    }
+    
     @Override
     public List<OrderResponse> getUserOrders(String userId) {
         log.debug("Getting orders for user: {}", userId);
@@ -1,29 +1,53 @@
 package com.oldphonedeals.service.impl;
 
+import com.mongodb.bulk.BulkWriteResult;
+import com.oldphonedeals.cache.BestSellerLeaderboard;
+import com.oldphonedeals.cache.CartCache;
+import com.oldphonedeals.cache.CatalogQueryCache;
+import com.oldphonedeals.cache.PhoneDetailCache;
+import com.oldphonedeals.cache.PhoneSuggestIndex;
+import com.oldphonedeals.cache.RelatedPhonesIndex;
+import com.oldphonedeals.cache.SoldOutSoonCache;
+import com.oldphonedeals.config.CatalogProperties;
+import com.oldphonedeals.dto.request.phone.PhoneBulkUpdateRequest;
 import com.oldphonedeals.dto.request.phone.PhoneCreateRequest;
+import com.oldphonedeals.dto.request.phone.PhoneQueryRequest;
 import com.oldphonedeals.dto.request.phone.PhoneUpdateRequest;
 import com.oldphonedeals.dto.response.ApiResponse;
 import com.oldphonedeals.dto.response.PageResponse;
+import com.oldphonedeals.dto.response.phone.PhoneBulkUpdateResponse;
+import com.oldphonedeals.dto.response.phone.PhoneImportResponse;
 import com.oldphonedeals.dto.response.phone.PhoneListItemResponse;
 import com.oldphonedeals.dto.response.phone.PhoneResponse;
+import com.oldphonedeals.dto.response.phone.PhoneSuggestionResponse;
 import com.oldphonedeals.dto.response.phone.ReviewResponse;
-import com.oldphonedeals.entity.Cart;
 import com.oldphonedeals.entity.Phone;
+import com.oldphonedeals.entity.PhoneSummary;
 import com.oldphonedeals.entity.User;
 import com.oldphonedeals.enums.PhoneBrand;
+import com.oldphonedeals.exception.BadRequestException;
 import com.oldphonedeals.exception.ResourceNotFoundException;
 import com.oldphonedeals.exception.UnauthorizedException;
 import com.oldphonedeals.repository.CartRepository;
+import com.oldphonedeals.repository.CatalogFacetPage;
 import com.oldphonedeals.repository.PhoneRepository;
+import com.oldphonedeals.repository.PhoneRepositoryCustom;
+import com.oldphonedeals.repository.ReviewRepository;
 import com.oldphonedeals.repository.UserRepository;
 import com.oldphonedeals.service.FileStorageService;
 import com.oldphonedeals.service.PhoneService;
 import com.oldphonedeals.service.ReviewService;
+import com.oldphonedeals.util.CatalogCursor;
+import com.oldphonedeals.util.PhoneImportReader;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.core.MongoTemplate;
 import org.springframework.data.mongodb.core.query.Criteria;
@@ -31,9 +55,17 @@ import org.springframework.data.mongodb.core.query.Query;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -50,6 +82,9 @@ public class PhoneServiceImpl implements PhoneService {
   @Autowired
   private PhoneRepository phoneRepository;
 
+  @Autowired
+  private ReviewRepository reviewRepository;
+
   @Autowired
   private UserRepository userRepository;
 
@@ -65,6 +100,85 @@ public class PhoneServiceImpl implements PhoneService {
   @Autowired
   private MongoTemplate mongoTemplate;
 
+  @Autowired
+  private CatalogProperties catalogProperties;
+
+  @Autowired
+  private BestSellerLeaderboard bestSellerLeaderboard;
+
+  @Autowired
+  private SoldOutSoonCache soldOutSoonCache;
+
+  @Autowired
+  private CatalogQueryCache catalogQueryCache;
+
+  @Autowired
+  private CartCache cartCache;
+
+  @Autowired
+  private PhoneDetailCache phoneDetailCache;
+
+  @Autowired
+  private PhoneSuggestIndex phoneSuggestIndex;
+
+  @Autowired
+  private RelatedPhonesIndex relatedPhonesIndex;
+
+  @Autowired
+  private Validator validator;
+
+  /**
+   * 畅销榜返回数量
+   */
+  private static final int BEST_SELLER_LIMIT = 10;
+
+  /**
+   * 搜索建议默认 / 最大返回数量
+   */
+  private static final int SUGGEST_DEFAULT_LIMIT = 8;
+  private static final int SUGGEST_MAX_LIMIT = 20;
+
+  /**
+   * 搜索建议中最多包含的品牌数量
+   */
+  private static final int SUGGEST_MAX_BRANDS = 2;
+
+  /**
+   * 商品详情中内联返回的评论数量
+   */
+  private static final int DETAIL_REVIEW_LIMIT = 3;
+
+  /**
+   * 容错搜索最多返回的匹配数量（分页在此范围内进行）
+   */
+  private static final int FUZZY_MAX_RESULTS = 200;
+
+  /**
+   * "经常一起购买"默认返回数量
+   */
+  private static final int RELATED_DEFAULT_LIMIT = 6;
+
+  /**
+   * 批量导入必需的列
+   */
+  private static final List<String> IMPORT_COLUMNS = List.of("title", "brand", "image", "stock", "price");
+
+  /**
+   * 卖家店铺每页最大数量
+   */
+  private static final int SELLER_PAGE_MAX_LIMIT = 100;
+
+  /**
+   * 容错搜索支持的字段排序（未指定或不在其中时按匹配程度排序）
+   */
+  private static final Map<String, Comparator<PhoneSummary>> FUZZY_SORTS = Map.of(
+      "createdAt", Comparator.comparing(PhoneSummary::getCreatedAt, Comparator.nullsFirst(Comparator.naturalOrder())),
+      "price", Comparator.comparing(PhoneSummary::getPrice, Comparator.nullsFirst(Comparator.naturalOrder())),
+      "title", Comparator.comparing(PhoneSummary::getTitle, Comparator.nullsFirst(Comparator.naturalOrder())),
+      "stock", Comparator.comparing(PhoneSummary::getStock, Comparator.nullsFirst(Comparator.naturalOrder())),
+      "salesCount", Comparator.comparing(PhoneSummary::getSalesCount, Comparator.nullsFirst(Comparator.naturalOrder()))
+  );
+
   /**
    * 创建手机商品
    * 参考：server/app/controllers/phone.controller.js:11-60
@@ -89,19 +203,200 @@ public class PhoneServiceImpl implements PhoneService {
         .image(request.getImage())
         .stock(request.getStock())
         .price(request.getPrice())
-        .seller(seller)
-        .reviews(new ArrayList<>()) // 初始化为空列表
+        .seller(Phone.Seller.from(seller))
         .isDisabled(false)
         .salesCount(0)
+        .visibleRatingSum(0)
+        .visibleReviewCount(0)
+        .totalReviewCount(0)
+        .totalRatingSum(0)
         .build();
 
     // 保存商品
     Phone savedPhone = phoneRepository.save(phone);
+    soldOutSoonCache.evictIfAffected(savedPhone.getId(), savedPhone.getStock());
+    catalogQueryCache.invalidateBrands(savedPhone.getBrand());
+    phoneSuggestIndex.update(savedPhone);
 
     log.info("Phone created successfully with id: {}", savedPhone.getId());
 
     // 转换为响应DTO
-    return convertToPhoneResponse(savedPhone);
+    return convertToPhoneResponse(savedPhone, sellerId);
+  }
+
+  /**
+   * 批量导入商品
+   * <p>
+   * 逐行读取并校验，校验通过的行累积到 batchSize 后以一次无序批量写入插入，
+   * 卖家只查询一次；单行失败不影响其他行，失败原因按行号返回。
+   * 不在事务中执行：已写入的批次不会因后续行失败而回滚。
+   * </p>
+   *
+   * @param body 请求体
+   * @param format 导入格式
+   * @param sellerId 卖家ID（从JWT获取）
+   * @return 导入结果
+   */
+  @Override
+  public PhoneImportResponse importPhones(InputStream body, PhoneImportReader.Format format, String sellerId) {
+    log.info("Importing phones ({}) for seller: {}", format, sellerId);
+
+    User seller = userRepository.findById(sellerId)
+        .orElseThrow(() -> new ResourceNotFoundException("Seller not found with id: " + sellerId));
+    Phone.Seller sellerSnapshot = Phone.Seller.from(seller);
+    CatalogProperties.BulkImport config = catalogProperties.getBulkImport();
+    int batchSize = Math.max(1, config.getBatchSize());
+
+    PhoneImportResponse result = PhoneImportResponse.builder().build();
+    List<Phone> batch = new ArrayList<>(batchSize);
+    List<Integer> batchLines = new ArrayList<>(batchSize);
+    try (PhoneImportReader reader = PhoneImportReader.open(body, format, IMPORT_COLUMNS)) {
+      PhoneImportReader.Row row;
+      while ((row = reader.next()) != null) {
+        if (result.getTotalRows() >= config.getMaxRows()) {
+          result.setTruncated(true);
+          break;
+        }
+        result.setTotalRows(result.getTotalRows() + 1);
+        if (row.error() != null) {
+          addImportError(result, row.line(), row.error(), config);
+          continue;
+        }
+        try {
+          batch.add(toImportedPhone(row.fields(), sellerId, sellerSnapshot));
+          batchLines.add(row.line());
+        } catch (BadRequestException e) {
+          addImportError(result, row.line(), e.getMessage(), config);
+          continue;
+        }
+        if (batch.size() >= batchSize) {
+          flushImportBatch(batch, batchLines, result, config);
+        }
+      }
+    }
+    flushImportBatch(batch, batchLines, result, config);
+
+    result.getErrors().sort(Comparator.comparingInt(PhoneImportResponse.RowError::getLine));
+    log.info("Imported {} of {} phones for seller: {}", result.getImported(), result.getTotalRows(), sellerId);
+    return result;
+  }
+
+  /**
+   * 将一行导入数据转换为商品实体（预先分配ID，以便写入失败时定位到行）
+   *
+   * @throws BadRequestException 字段格式错误或校验失败
+   */
+  private Phone toImportedPhone(Map<String, String> fields, String sellerId, Phone.Seller sellerSnapshot) {
+    PhoneCreateRequest request = PhoneCreateRequest.builder()
+        .title(trimToNull(fields.get("title")))
+        .brand(parseImportBrand(fields.get("brand")))
+        .image(trimToNull(fields.get("image")))
+        .stock(parseImportNumber(fields.get("stock"), "Stock must be an integer", Integer::valueOf))
+        .price(parseImportNumber(fields.get("price"), "Price must be a number", Double::valueOf))
+        .seller(sellerId)
+        .build();
+    if (request.getPrice() != null && !Double.isFinite(request.getPrice())) {
+      throw new BadRequestException("Price must be a number");
+    }
+    Set<ConstraintViolation<PhoneCreateRequest>> violations = validator.validate(request);
+    if (!violations.isEmpty()) {
+      throw new BadRequestException(violations.stream()
+          .map(ConstraintViolation::getMessage)
+          .sorted()
+          .collect(Collectors.joining("; ")));
+    }
+
+    LocalDateTime now = LocalDateTime.now();
+    return Phone.builder()
+        .id(new ObjectId().toHexString())
+        .title(request.getTitle())
+        .brand(request.getBrand())
+        .image(request.getImage())
+        .stock(request.getStock())
+        .price(request.getPrice())
+        .seller(sellerSnapshot)
+        .isDisabled(false)
+        .salesCount(0)
+        .visibleRatingSum(0)
+        .visibleReviewCount(0)
+        .totalReviewCount(0)
+        .totalRatingSum(0)
+        .createdAt(now)
+        .updatedAt(now)
+        .build();
+  }
+
+  /**
+   * 写入一批导入的商品并维护相关缓存，完成后清空批次
+   */
+  private void flushImportBatch(List<Phone> batch, List<Integer> batchLines, PhoneImportResponse result,
+      CatalogProperties.BulkImport config) {
+    if (batch.isEmpty()) {
+      return;
+    }
+    Map<Integer, String> failures = phoneRepository.insertUnordered(batch);
+    Set<PhoneBrand> brands = EnumSet.noneOf(PhoneBrand.class);
+    boolean lowStock = false;
+    for (int i = 0; i < batch.size(); i++) {
+      String failure = failures.get(i);
+      if (failure != null) {
+        addImportError(result, batchLines.get(i), failure, config);
+        continue;
+      }
+      Phone phone = batch.get(i);
+      result.setImported(result.getImported() + 1);
+      brands.add(phone.getBrand());
+      lowStock |= phone.getStock() <= SoldOutSoonCache.MAX_STOCK;
+      phoneSuggestIndex.update(phone);
+    }
+    if (!brands.isEmpty()) {
+      catalogQueryCache.invalidateBrands(brands.toArray(new PhoneBrand[0]));
+    }
+    if (lowStock) {
+      soldOutSoonCache.invalidate();
+    }
+    batch.clear();
+    batchLines.clear();
+  }
+
+  private static void addImportError(PhoneImportResponse result, int line, String message,
+      CatalogProperties.BulkImport config) {
+    result.setFailed(result.getFailed() + 1);
+    if (result.getErrors().size() < config.getMaxReportedErrors()) {
+      result.getErrors().add(new PhoneImportResponse.RowError(line, message));
+    }
+  }
+
+  private static PhoneBrand parseImportBrand(String value) {
+    String brand = trimToNull(value);
+    if (brand == null) {
+      return null;
+    }
+    for (PhoneBrand candidate : PhoneBrand.values()) {
+      if (candidate.name().equalsIgnoreCase(brand) || candidate.getDisplayName().equalsIgnoreCase(brand)) {
+        return candidate;
+      }
+    }
+    throw new BadRequestException("Invalid brand: " + brand);
+  }
+
+  private static <T> T parseImportNumber(String value, String error, Function<String, T> parser) {
+    String text = trimToNull(value);
+    if (text == null) {
+      return null;
+    }
+    try {
+      return parser.apply(text);
+    } catch (NumberFormatException e) {
+      throw new BadRequestException(error);
+    }
+  }
+
+  private static String trimToNull(String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    return value.trim();
   }
 
   /**
@@ -128,6 +423,7 @@ public class PhoneServiceImpl implements PhoneService {
     }
 
     // 更新字段（只更新非null的字段）
+    PhoneBrand previousBrand = phone.getBrand();
     if (request.getTitle() != null) {
       phone.setTitle(request.getTitle());
     }
@@ -157,11 +453,84 @@ public class PhoneServiceImpl implements PhoneService {
 
     // 保存更新
     Phone updatedPhone = phoneRepository.save(phone);
+    soldOutSoonCache.evictIfAffected(phoneId, phone.getStock());
+    catalogQueryCache.invalidateBrands(previousBrand, phone.getBrand());
+    phoneDetailCache.evict(phoneId);
+    phoneSuggestIndex.update(phone);
 
     log.info("Phone updated successfully: {}", phoneId);
 
     // 转换为响应DTO
-    return convertToPhoneResponse(updatedPhone);
+    return convertToPhoneResponse(updatedPhone, sellerId);
+  }
+
+  /**
+   * 批量更新库存 / 价格 / 上下架状态
+   * <p>
+   * 一次 $in 查询校验商品存在且都属于该卖家（任一不满足时不做修改），
+   * 再以一次无序批量写入对每个商品执行 $set，不读取和回写整个文档。
+   * </p>
+   *
+   * @param request 批量更新请求
+   * @param sellerId 卖家ID（从JWT获取）
+   * @return 更新结果
+   */
+  @Override
+  @Transactional
+  public PhoneBulkUpdateResponse bulkUpdatePhones(PhoneBulkUpdateRequest request, String sellerId) {
+    List<PhoneBulkUpdateRequest.Item> updates = request.getUpdates();
+    log.info("Bulk updating {} phones by seller: {}", updates.size(), sellerId);
+
+    Set<String> phoneIds = new LinkedHashSet<>();
+    for (PhoneBulkUpdateRequest.Item item : updates) {
+      if (!phoneIds.add(item.getPhoneId())) {
+        throw new BadRequestException("Duplicate phone ID: " + item.getPhoneId());
+      }
+      if (item.getStock() == null && item.getPrice() == null && item.getIsDisabled() == null) {
+        throw new BadRequestException("No fields to update for phone: " + item.getPhoneId());
+      }
+    }
+
+    // 验证商品存在且都属于该卖家
+    Map<String, PhoneSummary> phones = phoneRepository.findSummariesByIds(phoneIds).stream()
+        .collect(Collectors.toMap(PhoneSummary::getId, summary -> summary));
+    List<String> missing = phoneIds.stream().filter(id -> !phones.containsKey(id)).toList();
+    if (!missing.isEmpty()) {
+      throw new ResourceNotFoundException("Phone not found with id: " + String.join(", ", missing));
+    }
+    for (PhoneSummary phone : phones.values()) {
+      if (phone.getSeller() == null || !sellerId.equals(phone.getSeller().getId())) {
+        throw new UnauthorizedException("You are not authorized to update this phone");
+      }
+    }
+
+    BulkWriteResult result = phoneRepository.bulkUpdateListings(sellerId, updates);
+
+    Set<PhoneBrand> brands = EnumSet.noneOf(PhoneBrand.class);
+    for (PhoneBulkUpdateRequest.Item item : updates) {
+      PhoneSummary phone = phones.get(item.getPhoneId());
+      brands.add(phone.getBrand());
+      soldOutSoonCache.evictIfAffected(phone.getId(), item.getStock() != null ? item.getStock() : phone.getStock());
+      phoneDetailCache.evict(phone.getId());
+      if (item.getIsDisabled() != null && !item.getIsDisabled().equals(phone.getIsDisabled())) {
+        bestSellerLeaderboard.refresh(phone.getId());
+        phoneSuggestIndex.update(Phone.builder()
+            .id(phone.getId())
+            .title(phone.getTitle())
+            .brand(phone.getBrand())
+            .salesCount(phone.getSalesCount())
+            .isDisabled(item.getIsDisabled())
+            .build());
+      }
+    }
+    catalogQueryCache.invalidateBrands(brands.toArray(new PhoneBrand[0]));
+
+    log.info("Bulk update finished: matched={}, modified={}", result.getMatchedCount(), result.getModifiedCount());
+    return PhoneBulkUpdateResponse.builder()
+        .requested(updates.size())
+        .matched(result.getMatchedCount())
+        .modified(result.getModifiedCount())
+        .build();
   }
 
   /**
@@ -195,13 +564,12 @@ public class PhoneServiceImpl implements PhoneService {
       }
     }
 
-    // 2. 从所有用户的购物车中移除该商品
-    List<Cart> affectedCarts = cartRepository.findCartsContainingPhone(phoneId);
-    for (Cart cart : affectedCarts) {
-      cart.getItems().removeIf(item -> item.getPhoneId().equals(phoneId));
-      cartRepository.save(cart);
+    // 2. 从所有用户的购物车中移除该商品（一次 updateMulti $pull）
+    long affectedCarts = cartRepository.pullPhoneFromAllCarts(phoneId);
+    if (affectedCarts > 0) {
+      cartCache.evictContaining(phoneId);
     }
-    log.info("Removed phone from {} carts", affectedCarts.size());
+    log.info("Removed phone from {} carts", affectedCarts);
 
     // 3. 从所有用户的收藏夹中移除该商品
     List<User> usersWithWishlist = userRepository.findAll().stream()
@@ -214,8 +582,14 @@ public class PhoneServiceImpl implements PhoneService {
     }
     log.info("Removed phone from {} wishlists", usersWithWishlist.size());
 
-    // 4. 删除商品
+    // 4. 删除商品及其评论
     phoneRepository.delete(phone);
+    reviewRepository.deleteByPhoneId(phoneId);
+    bestSellerLeaderboard.remove(phoneId);
+    soldOutSoonCache.evictIfAffected(phoneId, phone.getStock());
+    catalogQueryCache.invalidateBrands(phone.getBrand());
+    phoneDetailCache.evict(phoneId);
+    phoneSuggestIndex.remove(phoneId);
 
     log.info("Phone deleted successfully: {}", phoneId);
   }
@@ -236,34 +610,8 @@ public class PhoneServiceImpl implements PhoneService {
     Phone phone = phoneRepository.findById(phoneId)
         .orElseThrow(() -> new ResourceNotFoundException("Phone not found with id: " + phoneId));
 
-    // 使用 ReviewService 过滤可见评论
-    List<ReviewResponse> visibleReviews = reviewService.filterVisibleReviews(
-        phone.getReviews(),
-        currentUserId,
-        phone.getSeller().getId()
-    );
-
-    // 只取前 3 条评论（按创建时间倒序已在 filterVisibleReviews 中处理）
-    List<ReviewResponse> top3Reviews = visibleReviews.stream()
-        .limit(3)
-        .collect(Collectors.toList());
-
-    // 构建响应
-    return PhoneResponse.builder()
-        .id(phone.getId())
-        .title(phone.getTitle())
-        .brand(phone.getBrand())
-        .image(phone.getImage())
-        .stock(phone.getStock())
-        .price(phone.getPrice())
-        .isDisabled(phone.getIsDisabled())
-        .salesCount(phone.getSalesCount())
-        .averageRating(phone.getAverageRating())
-        .seller(convertToSellerInfo(phone.getSeller()))
-        .reviews(top3Reviews)
-        .createdAt(phone.getCreatedAt())
-        .updatedAt(phone.getUpdatedAt())
-        .build();
+    // 构建响应（携带前 3 条可见评论）
+    return convertToPhoneResponse(phone, currentUserId);
   }
 
   /**
@@ -289,50 +637,84 @@ public class PhoneServiceImpl implements PhoneService {
       Integer page,
       Integer limit
   ) {
-    // 设置默认值
-    int pageNum = (page != null && page > 0) ? page - 1 : 0; // Spring Data页码从0开始
-    int pageSize = (limit != null && limit > 0) ? limit : 12;
-    String sortField = (sortBy != null && !sortBy.isEmpty()) ? sortBy : "createdAt";
-    Sort.Direction direction = "asc".equalsIgnoreCase(sortOrder) ? Sort.Direction.ASC : Sort.Direction.DESC;
+    return getPhones(PhoneQueryRequest.builder()
+        .search(search)
+        .brand(brand)
+        .maxPrice(maxPrice)
+        .sortBy(sortBy)
+        .sortOrder(sortOrder)
+        .page(page)
+        .limit(limit)
+        .build());
+  }
 
-    // 创建分页和排序对象
-    Pageable pageable = PageRequest.of(pageNum, pageSize, Sort.by(direction, sortField));
+  /**
+   * 获取所有商品（组合查询）
+   * 所有过滤条件交由 PhoneRepository.searchCatalog 统一构建 Criteria
+   * 指定 after 时使用游标分页，返回 nextCursor / hasMore，不执行 count
+   * 指定 facets 时通过一次 $facet 聚合额外返回品牌计数和价格分布（游标模式优先）
+   * 指定 fuzzy 且有搜索词时改用 PhoneSuggestIndex 的容错搜索（页码模式）
+   * 页码模式的结果由 CatalogQueryCache 缓存（以规范化后的查询条件为键）
+   *
+   * @param query 查询条件
+   * @return 包含商品列表、分页信息的Map
+   */
+  @Override
+  public Map<String, Object> getPhones(PhoneQueryRequest query) {
+    if (query.getAfter() != null) {
+      return getPhonesByCursor(query);
+    }
+    // 页码模式的结果经过进程内缓存（商品写操作按品牌失效）
+    PhoneQueryRequest normalized = normalizePageQuery(query);
+    return catalogQueryCache.get(normalized, () -> loadPhonePage(normalized));
+  }
 
-    // 根据不同的过滤条件组合查询商品
-    Page<Phone> phonePage;
-    
-    boolean hasSearch = search != null && !search.trim().isEmpty();
-    boolean hasBrand = brand != null;
-    boolean hasMaxPrice = maxPrice != null && maxPrice > 0;
-    
-    if (hasSearch && hasBrand && hasMaxPrice) {
-      // 搜索 + 品牌 + 价格
-      phonePage = phoneRepository.findByTitleAndBrandAndPriceLessThanEqual(
-          search.trim(), brand, maxPrice, pageable);
-    } else if (hasSearch && hasBrand) {
-      // 搜索 + 品牌
-      phonePage = phoneRepository.findByTitleAndBrand(search.trim(), brand, pageable);
-    } else if (hasSearch && hasMaxPrice) {
-      // 搜索 + 价格
-      phonePage = phoneRepository.findByTitleAndPriceLessThanEqual(
-          search.trim(), maxPrice, pageable);
-    } else if (hasBrand && hasMaxPrice) {
-      // 品牌 + 价格
-      phonePage = phoneRepository.findByBrandAndPriceLessThanEqualAndIsDisabledFalse(
-          brand, maxPrice, pageable);
-    } else if (hasSearch) {
-      // 仅搜索
-      phonePage = phoneRepository.searchByTitle(search.trim(), pageable);
-    } else if (hasBrand) {
-      // 仅品牌
-      phonePage = phoneRepository.findByBrandAndIsDisabledFalse(brand, pageable);
-    } else if (hasMaxPrice) {
-      // 仅价格
-      phonePage = phoneRepository.findByPriceLessThanEqualAndIsDisabledFalse(maxPrice, pageable);
+  /**
+   * 规范化页码模式的查询条件：应用页码 / 数量默认值，并按排序白名单解析实际使用的排序字段，
+   * 使结果相同的查询（如未指定排序与 sortBy=createdAt）得到相同的缓存键
+   *
+   * @param query 查询条件
+   * @return 规范化后的副本
+   */
+  private static PhoneQueryRequest normalizePageQuery(PhoneQueryRequest query) {
+    boolean hasSearch = query.getSearch() != null && !query.getSearch().isBlank();
+    String sortBy = query.getSortBy();
+    String resolvedSort;
+    if (hasSearch && Boolean.TRUE.equals(query.getFuzzy())) {
+      // 容错搜索未指定字段排序时按匹配程度排序
+      resolvedSort = sortBy != null && FUZZY_SORTS.containsKey(sortBy) ? sortBy : PhoneRepositoryCustom.RELEVANCE_SORT;
+    } else if (hasSearch && (sortBy == null || PhoneRepositoryCustom.RELEVANCE_SORT.equalsIgnoreCase(sortBy))) {
+      resolvedSort = PhoneRepositoryCustom.RELEVANCE_SORT;
     } else {
-      // 无过滤条件
-      phonePage = phoneRepository.findByIsDisabledFalse(pageable);
+      resolvedSort = sortBy != null && PhoneRepositoryCustom.SORTABLE_FIELDS.contains(sortBy)
+          ? sortBy : PhoneRepositoryCustom.DEFAULT_SORT_FIELD;
     }
+    // 相关度排序不使用排序方向
+    String resolvedOrder = !PhoneRepositoryCustom.RELEVANCE_SORT.equals(resolvedSort)
+        && "asc".equalsIgnoreCase(query.getSortOrder()) ? "asc" : "desc";
+    return query.toBuilder()
+        .sortBy(resolvedSort)
+        .sortOrder(resolvedOrder)
+        .page((query.getPage() != null && query.getPage() > 0) ? query.getPage() : 1)
+        .limit((query.getLimit() != null && query.getLimit() > 0) ? query.getLimit() : 12)
+        .build();
+  }
+
+  /**
+   * 从数据库查询一页商品（页码模式，可选分面统计）
+   *
+   * @param query 查询条件
+   * @return 包含商品列表、分页信息的Map
+   */
+  private Map<String, Object> loadPhonePage(PhoneQueryRequest query) {
+    if (Boolean.TRUE.equals(query.getFuzzy()) && query.getSearch() != null && !query.getSearch().isBlank()) {
+      return getPhonesFuzzy(query);
+    }
+    if (Boolean.TRUE.equals(query.getFacets())) {
+      return getPhonesWithFacets(query);
+    }
+
+    Page<PhoneSummary> phonePage = phoneRepository.searchCatalog(query);
 
     // 转换为响应DTO
     Page<PhoneListItemResponse> responsePage = phonePage.map(this::convertToPhoneListItemResponse);
@@ -346,6 +728,138 @@ public class PhoneServiceImpl implements PhoneService {
     );
   }
 
+  /**
+   * 容错搜索商品（允许拼写错误）
+   *
+   * 1. 由 PhoneSuggestIndex 在内存中按 trigram 生成候选、按编辑距离排序（品牌过滤在索引中完成）
+   * 2. 一次 $in 查询加载最多 200 个匹配商品的摘要，在内存中应用价格过滤、排序和分页
+   *
+   * @param query 查询条件（需包含搜索词）
+   * @return 包含商品列表、分页信息的Map（格式与普通页码模式相同）
+   */
+  private Map<String, Object> getPhonesFuzzy(PhoneQueryRequest query) {
+    List<String> rankedIds = phoneSuggestIndex.fuzzySearch(query.getSearch(), query.getBrand(), FUZZY_MAX_RESULTS);
+
+    Map<String, PhoneSummary> summaries = rankedIds.isEmpty()
+        ? Map.of()
+        : phoneRepository.findSummariesByIds(rankedIds).stream()
+            .collect(Collectors.toMap(PhoneSummary::getId, summary -> summary));
+
+    boolean hasMinPrice = query.getMinPrice() != null && query.getMinPrice() > 0;
+    boolean hasMaxPrice = query.getMaxPrice() != null && query.getMaxPrice() > 0;
+    List<PhoneSummary> matched = rankedIds.stream()
+        .map(summaries::get)
+        .filter(summary -> summary != null && !Boolean.TRUE.equals(summary.getIsDisabled()))
+        .filter(summary -> !hasMinPrice || (summary.getPrice() != null && summary.getPrice() >= query.getMinPrice()))
+        .filter(summary -> !hasMaxPrice || (summary.getPrice() != null && summary.getPrice() <= query.getMaxPrice()))
+        .collect(Collectors.toCollection(ArrayList::new));
+
+    // 指定字段排序时按字段排序（稳定排序，相同值保持匹配程度顺序）
+    Comparator<PhoneSummary> sort = query.getSortBy() == null ? null : FUZZY_SORTS.get(query.getSortBy());
+    if (sort != null) {
+      matched.sort("asc".equalsIgnoreCase(query.getSortOrder()) ? sort : sort.reversed());
+    }
+
+    int pageSize = (query.getLimit() != null && query.getLimit() > 0) ? query.getLimit() : 12;
+    int currentPage = (query.getPage() != null && query.getPage() > 0) ? query.getPage() : 1;
+    int from = (int) Math.min((long) (currentPage - 1) * pageSize, matched.size());
+    int to = Math.min(from + pageSize, matched.size());
+
+    return Map.of(
+        "phones", matched.subList(from, to).stream()
+            .map(this::convertToPhoneListItemResponse)
+            .collect(Collectors.toList()),
+        "currentPage", currentPage,
+        "totalPages", (int) Math.ceil((double) matched.size() / pageSize),
+        "total", (long) matched.size()
+    );
+  }
+
+  /**
+   * 分面查询商品：当前页、总数、品牌计数、价格分布一次聚合返回
+   *
+   * @param query 查询条件
+   * @return 在分页结果基础上增加 facets（brands / priceBuckets）的Map
+   */
+  private Map<String, Object> getPhonesWithFacets(PhoneQueryRequest query) {
+    List<Double> boundaries = resolvePriceBoundaries(query.getPriceBuckets());
+    CatalogFacetPage facetPage = phoneRepository.searchCatalogWithFacets(query, boundaries);
+
+    int pageSize = (query.getLimit() != null && query.getLimit() > 0) ? query.getLimit() : 12;
+    int currentPage = (query.getPage() != null && query.getPage() > 0) ? query.getPage() : 1;
+    int totalPages = (int) Math.ceil((double) facetPage.getTotal() / pageSize);
+
+    Map<String, Object> facets = new LinkedHashMap<>();
+    facets.put("brands", facetPage.getBrandCounts());
+    facets.put("priceBuckets", facetPage.getPriceBuckets());
+
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("phones", facetPage.getPhones().stream()
+        .map(this::convertToPhoneListItemResponse)
+        .collect(Collectors.toList()));
+    result.put("currentPage", currentPage);
+    result.put("totalPages", totalPages);
+    result.put("total", facetPage.getTotal());
+    result.put("facets", facets);
+    return result;
+  }
+
+  /**
+   * 规范化价格桶边界：未指定时使用配置默认值，去重升序，并保证从 0 开始
+   */
+  private List<Double> resolvePriceBoundaries(List<Double> requested) {
+    List<Double> source = (requested == null || requested.isEmpty())
+        ? catalogProperties.getPriceBuckets()
+        : requested;
+
+    if (source.size() > catalogProperties.getMaxPriceBuckets()) {
+      throw new BadRequestException("Too many price buckets (max " + catalogProperties.getMaxPriceBuckets() + ")");
+    }
+    if (source.stream().anyMatch(b -> b == null || b < 0 || b.isNaN() || b.isInfinite())) {
+      throw new BadRequestException("Price bucket boundaries must be non-negative numbers");
+    }
+
+    List<Double> boundaries = source.stream()
+        .distinct()
+        .sorted()
+        .collect(Collectors.toCollection(ArrayList::new));
+    if (boundaries.get(0) > 0) {
+      boundaries.add(0, 0.0);
+    }
+    if (boundaries.size() < 2) {
+      throw new BadRequestException("At least one positive price bucket boundary is required");
+    }
+    return boundaries;
+  }
+
+  /**
+   * 游标分页查询商品
+   *
+   * @param query 查询条件（after 为空字符串表示第一页）
+   * @return 包含商品列表、nextCursor、hasMore 的Map
+   */
+  private Map<String, Object> getPhonesByCursor(PhoneQueryRequest query) {
+    CatalogCursor after = query.getAfter().isBlank() ? null : CatalogCursor.decode(query.getAfter());
+    Slice<PhoneSummary> phoneSlice = phoneRepository.searchCatalogAfter(query, after);
+
+    List<PhoneSummary> phones = phoneSlice.getContent();
+    String nextCursor = null;
+    if (phoneSlice.hasNext() && !phones.isEmpty()) {
+      Sort.Order order = phoneSlice.getSort().iterator().next();
+      nextCursor = CatalogCursor.of(phones.get(phones.size() - 1), order.getProperty(), order.getDirection())
+          .encode();
+    }
+
+    // nextCursor 可能为 null，不能使用 Map.of
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("phones", phones.stream()
+        .map(this::convertToPhoneListItemResponse)
+        .collect(Collectors.toList()));
+    result.put("nextCursor", nextCursor);
+    result.put("hasMore", phoneSlice.hasNext());
+    return result;
+  }
+
   // ==================== 第2部分：复杂查询方法 ====================
 
   /**
@@ -358,9 +872,8 @@ public class PhoneServiceImpl implements PhoneService {
   public List<PhoneListItemResponse> getSoldOutSoonPhones() {
     log.info("Fetching sold-out-soon phones");
 
-    // 查询库存 <= 5 的未禁用商品，按库存升序排序，取前6个
-    Pageable pageable = PageRequest.of(0, 6);
-    List<Phone> phones = phoneRepository.findByStockLessThanEqualAndIsDisabledFalseOrderByStockAsc(5, pageable);
+    // 库存 <= 5 的未禁用商品，按库存升序排序，取前6个（进程内缓存，库存/状态变化时失效）
+    List<PhoneSummary> phones = soldOutSoonCache.get();
 
     // 转换为响应DTO
     return phones.stream()
@@ -378,37 +891,90 @@ public class PhoneServiceImpl implements PhoneService {
    * 3. 按平均评分降序排序
    * 4. 取前10个
    *
+   * 排名由 BestSellerLeaderboard 在内存中增量维护，不再全表扫描
+   *
    * @return 畅销商品列表（最多10个）
    */
   @Override
   public List<PhoneListItemResponse> getBestSellers() {
     log.info("Fetching best sellers");
 
-    // 1. 获取所有未禁用的商品
-    List<Phone> allPhones = phoneRepository.findAll().stream()
-        .filter(phone -> !phone.getIsDisabled())
-        .collect(Collectors.toList());
+    // 1. 从内存畅销榜获取排名前10的商品ID（排名规则见 BestSellerLeaderboard）
+    List<String> topIds = bestSellerLeaderboard.top(BEST_SELLER_LIMIT);
+    if (topIds.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    // 2. 一次 $in 查询加载商品摘要，并按排名顺序返回
+    Map<String, PhoneSummary> summaries = phoneRepository.findSummariesByIds(topIds).stream()
+        .collect(Collectors.toMap(PhoneSummary::getId, summary -> summary));
 
-    // 2. 筛选至少有2条评论的商品，计算平均评分并排序
-    List<Phone> bestSellers = allPhones.stream()
-        .filter(phone -> phone.getReviews() != null && phone.getReviews().size() >= 2)
-        .sorted((p1, p2) -> {
-          // 计算平均评分（包含所有评论，包括隐藏的）
-          double avgRating1 = p1.getReviews().stream()
-              .mapToInt(Phone.Review::getRating)
-              .average()
-              .orElse(0.0);
-          double avgRating2 = p2.getReviews().stream()
-              .mapToInt(Phone.Review::getRating)
-              .average()
-              .orElse(0.0);
-          return Double.compare(avgRating2, avgRating1); // 降序
-        })
-        .limit(10)
+    return topIds.stream()
+        .map(summaries::get)
+        .filter(summary -> summary != null && !Boolean.TRUE.equals(summary.getIsDisabled()))
+        .map(this::convertToPhoneListItemResponse)
         .collect(Collectors.toList());
+  }
+
+  /**
+   * 搜索建议（输入框自动补全）
+   *
+   * 品牌建议（最多2个）在前，其余名额按销量填充商品建议；
+   * 全部来自 PhoneSuggestIndex 内存索引，不访问数据库
+   *
+   * @param q 用户输入
+   * @param limit 最大返回数量
+   * @return 建议列表
+   */
+  @Override
+  public List<PhoneSuggestionResponse> suggestPhones(String q, Integer limit) {
+    int size = limit == null ? SUGGEST_DEFAULT_LIMIT : Math.max(1, Math.min(limit, SUGGEST_MAX_LIMIT));
+
+    List<PhoneSuggestionResponse> suggestions = new ArrayList<>();
+    for (PhoneBrand brand : phoneSuggestIndex.suggestBrands(q, Math.min(SUGGEST_MAX_BRANDS, size))) {
+      suggestions.add(PhoneSuggestionResponse.builder()
+          .type("brand")
+          .text(brand.getDisplayName())
+          .brand(brand)
+          .build());
+    }
+    for (PhoneSuggestIndex.Suggestion phone : phoneSuggestIndex.suggestPhones(q, size - suggestions.size())) {
+      suggestions.add(PhoneSuggestionResponse.builder()
+          .type("phone")
+          .text(phone.title())
+          .brand(phone.brand())
+          .phoneId(phone.phoneId())
+          .build());
+    }
+    return suggestions;
+  }
 
-    // 3. 转换为响应DTO
-    return bestSellers.stream()
+  /**
+   * "经常一起购买"推荐
+   *
+   * 推荐商品ID由 CoPurchaseMatrixJob 根据订单预先计算并保存在 RelatedPhonesIndex 中，
+   * 这里只按ID取出，再一次 $in 查询加载商品摘要并按推荐顺序返回
+   *
+   * @param phoneId 商品ID
+   * @param limit 最大返回数量
+   * @return 推荐商品列表
+   */
+  @Override
+  public List<PhoneListItemResponse> getRelatedPhones(String phoneId, Integer limit) {
+    List<String> relatedIds = relatedPhonesIndex.get(phoneId);
+    int size = limit == null ? RELATED_DEFAULT_LIMIT : Math.max(1, limit);
+    if (relatedIds.isEmpty()) {
+      return new ArrayList<>();
+    }
+
+    // 多取的推荐用于补位被禁用或删除的商品
+    Map<String, PhoneSummary> summaries = phoneRepository.findSummariesByIds(relatedIds).stream()
+        .collect(Collectors.toMap(PhoneSummary::getId, summary -> summary));
+
+    return relatedIds.stream()
+        .map(summaries::get)
+        .filter(summary -> summary != null && !Boolean.TRUE.equals(summary.getIsDisabled()))
+        .limit(size)
         .map(this::convertToPhoneListItemResponse)
         .collect(Collectors.toList());
   }
@@ -440,6 +1006,11 @@ public class PhoneServiceImpl implements PhoneService {
     // 3. 更新状态
     phone.setIsDisabled(isDisabled);
     phoneRepository.save(phone);
+    bestSellerLeaderboard.refresh(phoneId);
+    soldOutSoonCache.evictIfAffected(phoneId, phone.getStock());
+    catalogQueryCache.invalidateBrands(phone.getBrand());
+    phoneDetailCache.evict(phoneId);
+    phoneSuggestIndex.update(phone);
 
     String message = isDisabled ? "Phone disabled successfully" : "Phone enabled successfully";
     log.info(message + ": {}", phoneId);
@@ -448,27 +1019,83 @@ public class PhoneServiceImpl implements PhoneService {
   }
 
   /**
-   * 获取卖家的所有商品
+   * 获取卖家的商品（列表响应，包含禁用的）
    * 参考：server/app/controllers/phone.controller.js:486-514
+   * 与分页接口共用 seller._id + createdAt 索引，最多返回最新的 SELLER_PAGE_MAX_LIMIT 个商品；
+   * 卖家快照内嵌在商品中，无需再查询 users 集合
    *
    * @param sellerId 卖家ID
-   * @return 该卖家的所有商品列表
+   * @return 该卖家的商品列表（卖家不存在时为空）
    */
   @Override
   public List<PhoneResponse> getPhonesBySeller(String sellerId) {
-    log.info("Fetching phones by seller: {}", sellerId);
+    return getPhonesBySeller(sellerId, 1, SELLER_PAGE_MAX_LIMIT, null, null).getContent();
+  }
 
-    // 验证卖家存在
-    User seller = userRepository.findById(sellerId)
-        .orElseThrow(() -> new ResourceNotFoundException("Seller not found with id: " + sellerId));
+  /**
+   * 分页获取卖家的商品（包含禁用的）
+   * 卖家快照内嵌在商品中，无需再查询 users 集合；默认排序走 seller._id + createdAt 索引
+   *
+   * @param sellerId 卖家ID
+   * @param page 页码（从1开始）
+   * @param limit 每页数量（上限 SELLER_PAGE_MAX_LIMIT）
+   * @param sortBy 排序字段
+   * @param sortOrder 排序方向
+   * @return 分页结果
+   */
+  @Override
+  public PageResponse<PhoneResponse> getPhonesBySeller(
+      String sellerId,
+      Integer page,
+      Integer limit,
+      String sortBy,
+      String sortOrder
+  ) {
+    log.info("Fetching phones by seller: {}, page={}, limit={}", sellerId, page, limit);
+    return new PageResponse<>(
+        phoneRepository.findSellerPhones(sellerId, sellerPageQuery(page, limit, sortBy, sortOrder)),
+        phone -> convertToPhoneResponse(phone, null));
+  }
 
-    // 查询该卖家的所有商品（包含禁用的）
-    List<Phone> phones = phoneRepository.findBySellerId(sellerId);
+  /**
+   * 分页获取卖家的商品摘要（包含禁用的，只投影列表字段）
+   *
+   * @param sellerId 卖家ID
+   * @param page 页码（从1开始）
+   * @param limit 每页数量（上限 SELLER_PAGE_MAX_LIMIT）
+   * @param sortBy 排序字段
+   * @param sortOrder 排序方向
+   * @return 分页结果
+   */
+  @Override
+  public PageResponse<PhoneListItemResponse> getPhoneSummariesBySeller(
+      String sellerId,
+      Integer page,
+      Integer limit,
+      String sortBy,
+      String sortOrder
+  ) {
+    log.info("Fetching phone summaries by seller: {}, page={}, limit={}", sellerId, page, limit);
+    return new PageResponse<>(
+        phoneRepository.findSellerSummaries(sellerId, sellerPageQuery(page, limit, sortBy, sortOrder)),
+        this::convertToPhoneListItemResponse);
+  }
 
-    // 转换为响应DTO
-    return phones.stream()
-        .map(this::convertToPhoneResponse)
-        .collect(Collectors.toList());
+  /**
+   * 构建卖家店铺的分页查询（未指定的参数不覆盖 PhoneQueryRequest 的默认值）
+   */
+  private static PhoneQueryRequest sellerPageQuery(Integer page, Integer limit, String sortBy, String sortOrder) {
+    PhoneQueryRequest.PhoneQueryRequestBuilder builder = PhoneQueryRequest.builder().sortBy(sortBy);
+    if (sortOrder != null) {
+      builder.sortOrder(sortOrder);
+    }
+    if (page != null) {
+      builder.page(page);
+    }
+    if (limit != null) {
+      builder.limit(Math.min(limit, SELLER_PAGE_MAX_LIMIT));
+    }
+    return builder.build();
   }
 
   @Override
@@ -498,14 +1125,21 @@ public class PhoneServiceImpl implements PhoneService {
 
   /**
    * 转换Phone实体为PhoneResponse
+   * <p>
+   * 评论保存在 reviews 集合，与详情页一致只取前 DETAIL_REVIEW_LIMIT 条可见评论，
+   * 只为这几条评论解析评论者姓名；其余评论通过 GET /api/phones/{id}/reviews 分页获取。
+   * </p>
+   *
+   * @param phone 商品
+   * @param viewerId 当前用户ID（可选，卖家本人可看到隐藏评论）
    */
-  private PhoneResponse convertToPhoneResponse(Phone phone) {
-    // 转换评论列表
-    List<ReviewResponse> reviewResponses = phone.getReviews() != null
-        ? phone.getReviews().stream()
-            .map(this::convertToReviewResponse)
-            .collect(Collectors.toList())
-        : new ArrayList<>();
+  private PhoneResponse convertToPhoneResponse(Phone phone, String viewerId) {
+    List<ReviewResponse> topReviews = reviewService.getTopReviews(
+        phone.getId(),
+        viewerId,
+        phone.getSeller().getId(),
+        DETAIL_REVIEW_LIMIT
+    );
 
     return PhoneResponse.builder()
         .id(phone.getId())
@@ -518,16 +1152,16 @@ public class PhoneServiceImpl implements PhoneService {
         .salesCount(phone.getSalesCount())
         .averageRating(phone.getAverageRating())
         .seller(convertToSellerInfo(phone.getSeller()))
-        .reviews(reviewResponses)
+        .reviews(topReviews)
         .createdAt(phone.getCreatedAt())
         .updatedAt(phone.getUpdatedAt())
         .build();
   }
 
   /**
-   * 转换Phone实体为PhoneListItemResponse（简化版）
+   * 转换PhoneSummary为PhoneListItemResponse（列表查询使用，评论统计由数据库计算）
    */
-  private PhoneListItemResponse convertToPhoneListItemResponse(Phone phone) {
+  private PhoneListItemResponse convertToPhoneListItemResponse(PhoneSummary phone) {
     return PhoneListItemResponse.builder()
         .id(phone.getId())
         .title(phone.getTitle())
@@ -536,7 +1170,7 @@ public class PhoneServiceImpl implements PhoneService {
         .stock(phone.getStock())
         .price(phone.getPrice())
         .averageRating(phone.getAverageRating())
-        .reviewCount(phone.getReviews() != null ? phone.getReviews().size() : 0)
+        .reviewCount(phone.getReviewCount() != null ? phone.getReviewCount() : 0)
         .seller(PhoneListItemResponse.SellerInfo.builder()
             .firstName(phone.getSeller().getFirstName())
             .lastName(phone.getSeller().getLastName())
@@ -546,30 +1180,13 @@ public class PhoneServiceImpl implements PhoneService {
   }
 
   /**
-   * 转换User为SellerInfo
+   * 转换卖家快照为SellerInfo
    */
-  private PhoneResponse.SellerInfo convertToSellerInfo(User seller) {
+  private PhoneResponse.SellerInfo convertToSellerInfo(Phone.Seller seller) {
     return PhoneResponse.SellerInfo.builder()
         .id(seller.getId())
         .firstName(seller.getFirstName())
         .lastName(seller.getLastName())
         .build();
   }
-
-  /**
-   * 转换Phone.Review为ReviewResponse
-   */
-  private ReviewResponse convertToReviewResponse(Phone.Review review) {
-    // 注意：这里简化处理，实际评论者姓名需要从User表查询
-    // 第2部分实现ReviewService时会完善此逻辑
-    return ReviewResponse.builder()
-        .id(review.getId())
-        .reviewerId(review.getReviewerId())
-        .rating(review.getRating())
-        .comment(review.getComment())
-        .isHidden(review.getIsHidden())
-        .reviewer("User") // 占位符，第2部分实现
-        .createdAt(review.getCreatedAt())
-        .build();
-  }
 }
@@ -1,13 +1,19 @@
 package com.oldphonedeals.service.impl;
 
+import com.oldphonedeals.cache.CatalogQueryCache;
+import com.oldphonedeals.cache.PhoneDetailCache;
+import com.oldphonedeals.cache.SoldOutSoonCache;
+import com.oldphonedeals.cache.UserDisplayNameCache;
 import com.oldphonedeals.dto.request.profile.ChangePasswordRequest;
 import com.oldphonedeals.dto.request.profile.UpdateProfileRequest;
 import com.oldphonedeals.dto.response.user.UserProfileResponse;
+import com.oldphonedeals.entity.Phone;
 import com.oldphonedeals.entity.User;
 import com.oldphonedeals.exception.BadRequestException;
 import com.oldphonedeals.exception.DuplicateResourceException;
 import com.oldphonedeals.exception.ResourceNotFoundException;
 import com.oldphonedeals.exception.UnauthorizedException;
+import com.oldphonedeals.repository.PhoneRepository;
 import com.oldphonedeals.repository.UserRepository;
 import com.oldphonedeals.security.SecurityContextHelper;
 import com.oldphonedeals.service.ProfileService;
@@ -30,6 +36,11 @@ public class ProfileServiceImpl implements ProfileService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final PhoneRepository phoneRepository;
+    private final PhoneDetailCache phoneDetailCache;
+    private final UserDisplayNameCache userDisplayNameCache;
+    private final CatalogQueryCache catalogQueryCache;
+    private final SoldOutSoonCache soldOutSoonCache;
 
     /**
      * Retrieve a user's profile by id.
@@ -115,6 +126,14 @@ public class ProfileServiceImpl implements ProfileService {
         user.setUpdatedAt(LocalDateTime.now());
         user = userRepository.save(user);
 
+        // Keep the seller snapshot embedded in this user's phones in sync
+        phoneRepository.updateSellerSnapshot(Phone.Seller.from(user));
+        // Cached listings and phone details embed the seller snapshot
+        catalogQueryCache.invalidateAll();
+        soldOutSoonCache.invalidate();
+        phoneDetailCache.evictAll();
+        userDisplayNameCache.evict(user.getId());
+
         log.info("Profile updated successfully for user: {}", user.getEmail());
 
         return buildUserProfileResponse(user);
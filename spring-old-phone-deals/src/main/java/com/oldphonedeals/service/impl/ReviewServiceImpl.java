@@ -1,27 +1,40 @@
 package com.oldphonedeals.service.impl;
 
+import com.oldphonedeals.cache.BestSellerLeaderboard;
+import com.oldphonedeals.cache.PhoneDetailCache;
+import com.oldphonedeals.cache.UserDisplayNameCache;
 import com.oldphonedeals.dto.request.phone.ReviewCreateRequest;
+import com.oldphonedeals.dto.response.phone.ReviewCursorPageResponse;
+import com.oldphonedeals.dto.response.phone.ReviewPageResponse;
 import com.oldphonedeals.dto.response.phone.ReviewResponse;
 import com.oldphonedeals.dto.response.phone.SellerReviewResponse;
 import com.oldphonedeals.entity.Order;
 import com.oldphonedeals.entity.Phone;
+import com.oldphonedeals.entity.Review;
 import com.oldphonedeals.entity.User;
 import com.oldphonedeals.exception.BadRequestException;
 import com.oldphonedeals.exception.ResourceNotFoundException;
 import com.oldphonedeals.exception.UnauthorizedException;
 import com.oldphonedeals.repository.OrderRepository;
 import com.oldphonedeals.repository.PhoneRepository;
+import com.oldphonedeals.repository.ReviewRepository;
 import com.oldphonedeals.repository.UserRepository;
 import com.oldphonedeals.service.ReviewService;
+import com.oldphonedeals.util.ReviewCursor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -35,12 +48,24 @@ public class ReviewServiceImpl implements ReviewService {
   @Autowired
   private PhoneRepository phoneRepository;
 
+  @Autowired
+  private ReviewRepository reviewRepository;
+
   @Autowired
   private UserRepository userRepository;
 
   @Autowired
   private OrderRepository orderRepository;
 
+  @Autowired
+  private BestSellerLeaderboard bestSellerLeaderboard;
+
+  @Autowired
+  private PhoneDetailCache phoneDetailCache;
+
+  @Autowired
+  private UserDisplayNameCache userDisplayNameCache;
+
   /**
    * 添加评论
    * 参考：server/app/controllers/phone.controller.js:318-398
@@ -67,11 +92,8 @@ public class ReviewServiceImpl implements ReviewService {
       throw new BadRequestException("You cannot review your own phone");
     }
 
-    // 4. 检查用户是否已经评论过该商品
-    boolean alreadyReviewed = phone.getReviews().stream()
-        .anyMatch(review -> review.getReviewerId().equals(userId));
-
-    if (alreadyReviewed) {
+    // 4. 检查用户是否已经评论过（并发提交由 (phoneId, reviewerId) 唯一索引兜底，见第 7 步）
+    if (reviewRepository.existsByPhoneIdAndReviewerId(phoneId, userId)) {
       throw new BadRequestException("You have already reviewed this phone");
     }
 
@@ -86,8 +108,9 @@ public class ReviewServiceImpl implements ReviewService {
     */
 
     // 6. 创建新评论
-    Phone.Review newReview = Phone.Review.builder()
+    Review newReview = Review.builder()
         .id(UUID.randomUUID().toString())
+        .phoneId(phoneId)
         .reviewerId(userId)
         .rating(request.getRating())
         .comment(request.getComment())
@@ -95,18 +118,20 @@ public class ReviewServiceImpl implements ReviewService {
         .createdAt(LocalDateTime.now())
         .build();
 
-    // 7. 添加评论到商品
-    if (phone.getReviews() == null) {
-      phone.setReviews(new ArrayList<>());
+    // 7. 写入评论（唯一索引拒绝重复评论，包括并发提交），再增量更新评论统计
+    try {
+      reviewRepository.insert(newReview);
+    } catch (DuplicateKeyException e) {
+      throw new BadRequestException("You have already reviewed this phone");
     }
-    phone.getReviews().add(newReview);
-
-    // 8. 保存商品
-    phoneRepository.save(phone);
+    int rating = ratingOf(newReview);
+    phoneRepository.incrementReviewStats(phoneId, 1, rating, 1, rating);
+    bestSellerLeaderboard.refresh(phoneId);
+    phoneDetailCache.evict(phoneId);
 
     log.info("Review added successfully: {}", newReview.getId());
 
-    // 9. 返回评论响应
+    // 8. 返回评论响应
     return ReviewResponse.builder()
         .id(newReview.getId())
         .reviewerId(userId)
@@ -133,9 +158,7 @@ public class ReviewServiceImpl implements ReviewService {
         .orElseThrow(() -> new ResourceNotFoundException("Phone not found with id: " + phoneId));
 
     // 2. 查找评论
-    Phone.Review review = phone.getReviews().stream()
-        .filter(r -> r.getId().equals(reviewId))
-        .findFirst()
+    Review review = reviewRepository.findByIdAndPhoneId(reviewId, phoneId)
         .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + reviewId));
 
     // 3. 权限检查：只有评论作者或商品卖家可以切换可见性
@@ -146,23 +169,24 @@ public class ReviewServiceImpl implements ReviewService {
       throw new UnauthorizedException("You are not authorized to change this review visibility");
     }
 
-    // 4. 更新可见性
-    review.setIsHidden(isHidden);
-
-    // 5. 保存商品
-    phoneRepository.save(phone);
+    // 4. 条件更新可见性，状态确实变化时才调整可见评论统计
+    boolean hidden = Boolean.TRUE.equals(isHidden);
+    if (reviewRepository.updateHidden(reviewId, hidden)) {
+      int sign = hidden ? -1 : 1;
+      phoneRepository.incrementReviewStats(phoneId, 0, 0, sign, sign * ratingOf(review));
+    }
+    review.setIsHidden(hidden);
+    phoneDetailCache.evict(phoneId);
 
     log.info("Review visibility updated successfully: {}", reviewId);
 
-    // 6. 获取评论者信息
-    User reviewer = userRepository.findById(review.getReviewerId())
-        .orElse(null);
-
-    String reviewerName = reviewer != null
-        ? reviewer.getFirstName() + " " + reviewer.getLastName()
-        : "Unknown User";
+    // 5. 获取评论者姓名
+    String reviewerName = userDisplayNameCache.get(review.getReviewerId());
+    if (reviewerName == null) {
+      reviewerName = "Unknown User";
+    }
 
-    // 7. 返回更新后的评论
+    // 6. 返回更新后的评论
     return ReviewResponse.builder()
         .id(review.getId())
         .reviewerId(review.getReviewerId())
@@ -188,9 +212,7 @@ public class ReviewServiceImpl implements ReviewService {
         .orElseThrow(() -> new ResourceNotFoundException("Phone not found with id: " + phoneId));
 
     // 2. 查找评论
-    Phone.Review review = phone.getReviews().stream()
-        .filter(r -> r.getId().equals(reviewId))
-        .findFirst()
+    Review review = reviewRepository.findByIdAndPhoneId(reviewId, phoneId)
         .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + reviewId));
 
     // 3. 权限检查：只有评论作者可以删除自己的评论
@@ -198,71 +220,102 @@ public class ReviewServiceImpl implements ReviewService {
       throw new UnauthorizedException("You are not authorized to delete this review");
     }
 
-    // 4. 删除评论
-    phone.getReviews().removeIf(r -> r.getId().equals(reviewId));
-
-    // 5. 保存商品
-    phoneRepository.save(phone);
+    // 4. 原子地删除评论，按被删除文档的状态扣减评论统计（并发删除时只有一方会扣减）
+    Review removed = reviewRepository.removeById(reviewId)
+        .orElseThrow(() -> new ResourceNotFoundException("Review not found with id: " + reviewId));
+    int rating = ratingOf(removed);
+    boolean visible = !Boolean.TRUE.equals(removed.getIsHidden());
+    phoneRepository.incrementReviewStats(phoneId, -1, -rating, visible ? -1 : 0, visible ? -rating : 0);
+    bestSellerLeaderboard.refresh(phoneId);
+    phoneDetailCache.evict(phoneId);
 
     log.info("Review deleted successfully: {}", reviewId);
   }
 
   /**
-   * 过滤评论可见性
+   * 获取商品详情页展示的前 limit 条可见评论
    * 参考：server/app/controllers/phone.controller.js:162-177, 258-274
    */
   @Override
-  public List<ReviewResponse> filterVisibleReviews(List<Phone.Review> reviews, String currentUserId, String sellerId) {
-    if (reviews == null || reviews.isEmpty()) {
-      return new ArrayList<>();
+  public List<ReviewResponse> getTopReviews(String phoneId, String currentUserId, String sellerId, int limit) {
+    boolean includeHidden = currentUserId != null && currentUserId.equals(sellerId);
+    return toReviewResponses(
+        reviewRepository.findVisibleByPhoneIdAfter(phoneId, currentUserId, includeHidden, null, limit));
+  }
+
+  /**
+   * 分页获取可见评论（页码模式）
+   */
+  @Override
+  public ReviewPageResponse getReviews(String phoneId, String currentUserId, int page, int limit) {
+    Phone phone = phoneRepository.findById(phoneId)
+        .orElseThrow(() -> new ResourceNotFoundException("Phone not found with id: " + phoneId));
+
+    Page<Review> result = reviewRepository.findVisibleByPhoneId(
+        phoneId, currentUserId, isSeller(phone, currentUserId), PageRequest.of(Math.max(page - 1, 0), limit));
+
+    return ReviewPageResponse.builder()
+        .reviews(toReviewResponses(result.getContent()))
+        .totalReviews(result.getTotalElements())
+        .currentPage(page)
+        .totalPages(result.getTotalPages())
+        .build();
+  }
+
+  /**
+   * 分页获取可见评论（游标模式）
+   */
+  @Override
+  public ReviewCursorPageResponse getReviewsAfter(String phoneId, String currentUserId, String cursor, int limit) {
+    ReviewCursor after = (cursor == null || cursor.isBlank()) ? null : ReviewCursor.decode(cursor);
+    Phone phone = phoneRepository.findById(phoneId)
+        .orElseThrow(() -> new ResourceNotFoundException("Phone not found with id: " + phoneId));
+    boolean includeHidden = isSeller(phone, currentUserId);
+
+    // 多取一条判断是否还有下一页
+    List<Review> reviews = reviewRepository.findVisibleByPhoneIdAfter(
+        phoneId, currentUserId, includeHidden, after, limit + 1);
+    boolean hasMore = reviews.size() > limit;
+    if (hasMore) {
+      reviews = reviews.subList(0, limit);
     }
+    String nextCursor = hasMore ? ReviewCursor.of(reviews.get(reviews.size() - 1)).encode() : null;
 
-    // 过滤可见评论
-    List<Phone.Review> visibleReviews = reviews.stream()
-        .filter(review -> {
-          // 情况1：评论未隐藏，所有人都可见
-          if (!review.getIsHidden()) {
-            return true;
-          }
-
-          // 情况2：评论已隐藏，需要验证当前用户身份
-          if (currentUserId == null) {
-            // 未登录用户不能看到隐藏评论
-            return false;
-          }
-
-          // 情况3：商品卖家可以看到所有评论
-          if (currentUserId.equals(sellerId)) {
-            return true;
-          }
-
-          // 情况4：评论作者可以看到自己的评论
-          if (currentUserId.equals(review.getReviewerId())) {
-            return true;
-          }
-
-          // 其他用户不能看到隐藏评论
-          return false;
-        })
-        .collect(Collectors.toList());
+    return ReviewCursorPageResponse.builder()
+        .reviews(toReviewResponses(reviews))
+        .totalReviews(reviewRepository.countVisibleByPhoneId(phoneId, currentUserId, includeHidden))
+        .nextCursor(nextCursor)
+        .hasMore(hasMore)
+        .build();
+  }
 
-    // 批量查询评论者信息
-    List<String> reviewerIds = visibleReviews.stream()
-        .map(Phone.Review::getReviewerId)
-        .distinct()
-        .collect(Collectors.toList());
+  /**
+   * 当前用户是否为商品卖家（卖家可以看到所有隐藏评论）
+   */
+  private boolean isSeller(Phone phone, String currentUserId) {
+    return currentUserId != null && phone.getSeller() != null
+        && currentUserId.equals(phone.getSeller().getId());
+  }
+
+  private static int ratingOf(Review review) {
+    return review.getRating() != null ? review.getRating() : 0;
+  }
 
-    List<User> reviewers = userRepository.findAllById(reviewerIds);
+  /**
+   * 转换为响应DTO，评论者姓名通过缓存批量获取
+   */
+  private List<ReviewResponse> toReviewResponses(List<Review> reviews) {
+    if (reviews.isEmpty()) {
+      return new ArrayList<>();
+    }
 
-    // 创建评论者映射
-    var reviewersMap = reviewers.stream()
-        .collect(Collectors.toMap(
-            User::getId,
-            user -> user.getFirstName() + " " + user.getLastName()
-        ));
+    // 批量获取评论者姓名（缓存未命中的一次查询）
+    Map<String, String> reviewersMap = userDisplayNameCache.getAll(reviews.stream()
+        .map(Review::getReviewerId)
+        .collect(Collectors.toSet()));
 
     // 转换为响应DTO
-    return visibleReviews.stream()
+    return reviews.stream()
         .map(review -> ReviewResponse.builder()
             .id(review.getId())
             .reviewerId(review.getReviewerId())
@@ -289,47 +342,28 @@ public class ReviewServiceImpl implements ReviewService {
       return new ArrayList<>();
     }
 
-    // 2. 收集所有评论，并记录 phoneId / phoneTitle
-    List<SellerReviewWrapper> allReviews = new ArrayList<>();
-    for (Phone phone : phones) {
-      if (phone.getReviews() == null || phone.getReviews().isEmpty()) {
-        continue;
-      }
-      for (Phone.Review review : phone.getReviews()) {
-        SellerReviewWrapper wrapper = new SellerReviewWrapper();
-        wrapper.phoneId = phone.getId();
-        wrapper.phoneTitle = phone.getTitle();
-        wrapper.review = review;
-        allReviews.add(wrapper);
-      }
-    }
+    // 2. 一次 $in 查询加载这些商品的所有评论
+    Map<String, Phone> phonesById = phones.stream()
+        .collect(Collectors.toMap(Phone::getId, Function.identity()));
+    List<Review> allReviews = reviewRepository.findByPhoneIdIn(phonesById.keySet());
 
     if (allReviews.isEmpty()) {
       return new ArrayList<>();
     }
 
-    // 3. 批量查询评论人信息
-    List<String> reviewerIds = allReviews.stream()
-        .map(wrapper -> wrapper.review.getReviewerId())
-        .distinct()
-        .collect(Collectors.toList());
-
-    List<User> reviewers = userRepository.findAllById(reviewerIds);
-    var reviewersMap = reviewers.stream()
-        .collect(Collectors.toMap(
-            User::getId,
-            user -> user.getFirstName() + " " + user.getLastName()
-        ));
+    // 3. 批量获取评论人姓名
+    Map<String, String> reviewersMap = userDisplayNameCache.getAll(allReviews.stream()
+        .map(Review::getReviewerId)
+        .collect(Collectors.toSet()));
 
     // 4. 构建返回 DTO
     return allReviews.stream()
-        .map(wrapper -> {
-          Phone.Review review = wrapper.review;
+        .map(review -> {
           String reviewerName = reviewersMap.getOrDefault(review.getReviewerId(), "Unknown User");
           return SellerReviewResponse.builder()
               .reviewId(review.getId())
-              .phoneId(wrapper.phoneId)
-              .phoneTitle(wrapper.phoneTitle)
+              .phoneId(review.getPhoneId())
+              .phoneTitle(phonesById.get(review.getPhoneId()).getTitle())
               .reviewerId(review.getReviewerId())
               .reviewerName(reviewerName)
               .rating(review.getRating())
@@ -340,13 +374,4 @@ public class ReviewServiceImpl implements ReviewService {
         })
         .collect(Collectors.toList());
   }
-
-  /**
-   * 内部包装类，携带评论和所属手机信息
-   */
-  private static class SellerReviewWrapper {
-    private String phoneId;
-    private String phoneTitle;
-    private Phone.Review review;
-  }
 }
@@ -3,6 +3,7 @@ package com.oldphonedeals.service.impl;
 import com.oldphonedeals.dto.response.phone.PhoneListItemResponse;
 import com.oldphonedeals.dto.response.wishlist.WishlistResponse;
 import com.oldphonedeals.entity.Phone;
+import com.oldphonedeals.entity.PhoneSummary;
 import com.oldphonedeals.entity.User;
 import com.oldphonedeals.exception.BadRequestException;
 import com.oldphonedeals.exception.ResourceNotFoundException;
@@ -187,12 +188,12 @@ public class WishlistServiceImpl implements WishlistService {
         
         // 如果用户有收藏夹
         if (user.getWishlist() != null && !user.getWishlist().isEmpty()) {
-            // 批量查询所有收藏的商品
-            List<Phone> phones = phoneRepository.findAllById(user.getWishlist());
+            // 批量查询所有收藏的商品（摘要投影，不加载评论数组）
+            List<PhoneSummary> phones = phoneRepository.findSummariesByIds(user.getWishlist());
             
             // 转换为响应DTO并过滤已禁用的商品
             phoneResponses = phones.stream()
-                .filter(phone -> !phone.getIsDisabled()) // 过滤已禁用的商品
+                .filter(phone -> !Boolean.TRUE.equals(phone.getIsDisabled())) // 过滤已禁用的商品
                 .map(this::convertToPhoneListItemResponse)
                 .collect(Collectors.toList());
         }
@@ -205,12 +206,12 @@ public class WishlistServiceImpl implements WishlistService {
     }
     
     /**
-     * 将Phone实体转换为PhoneListItemResponse
+     * 将商品摘要转换为PhoneListItemResponse
      *
-     * @param phone 商品实体
+     * @param phone 商品摘要
      * @return 商品列表项响应DTO
      */
-    private PhoneListItemResponse convertToPhoneListItemResponse(Phone phone) {
+    private PhoneListItemResponse convertToPhoneListItemResponse(PhoneSummary phone) {
         // 构建卖家信息
         PhoneListItemResponse.SellerInfo sellerInfo = null;
         if (phone.getSeller() != null) {
@@ -220,13 +221,8 @@ public class WishlistServiceImpl implements WishlistService {
                 .build();
         }
         
-        // 计算评论数量（排除隐藏的评论）
-        int reviewCount = 0;
-        if (phone.getReviews() != null) {
-            reviewCount = (int) phone.getReviews().stream()
-                .filter(review -> !review.getIsHidden())
-                .count();
-        }
+        // 评论数量（排除隐藏的评论），由数据库计算
+        int reviewCount = phone.getVisibleReviewCount() != null ? phone.getVisibleReviewCount() : 0;
         
         return PhoneListItemResponse.builder()
             .id(phone.getId())
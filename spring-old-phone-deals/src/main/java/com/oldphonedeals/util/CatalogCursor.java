@@ -0,0 +1,109 @@
+package com.oldphonedeals.util;
+
+import com.oldphonedeals.entity.PhoneSummary;
+import com.oldphonedeals.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 商品目录游标（keyset 分页）
+ * <p>
+ * 记录上一页最后一条商品的 (排序字段值, id) 以及排序方向，
+ * 编码为不透明的 Base64URL 字符串返回给客户端。
+ * </p>
+ * <p>
+ * 格式（编码前）：{@code sortField|direction|id|=value}，value 为 null 时最后一段为空
+ * </p>
+ */
+@Getter
+@AllArgsConstructor
+public final class CatalogCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final String sortField;
+
+    private final Sort.Direction direction;
+
+    private final Object sortValue;
+
+    private final String id;
+
+    /**
+     * 根据一页中的最后一条商品创建游标
+     */
+    public static CatalogCursor of(PhoneSummary phone, String sortField, Sort.Direction direction) {
+        return new CatalogCursor(sortField, direction, extractSortValue(phone, sortField), phone.getId());
+    }
+
+    /**
+     * 编码为不透明字符串
+     */
+    public String encode() {
+        String raw = sortField + SEPARATOR + direction.name() + SEPARATOR + id + SEPARATOR
+                + (sortValue == null ? "" : "=" + sortValue);
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标字符串
+     *
+     * @throws BadRequestException 游标格式无效
+     */
+    public static CatalogCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 4);
+            if (parts.length != 4 || parts[2].isEmpty()) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            String sortField = parts[0];
+            Sort.Direction direction = Sort.Direction.valueOf(parts[1]);
+            Object sortValue = parts[3].isEmpty() ? null : parseSortValue(sortField, parts[3].substring(1));
+            return new CatalogCursor(sortField, direction, sortValue, parts[2]);
+        } catch (BadRequestException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+
+    private static Object extractSortValue(PhoneSummary phone, String sortField) {
+        switch (sortField) {
+            case "createdAt":
+                return phone.getCreatedAt();
+            case "price":
+                return phone.getPrice();
+            case "title":
+                return phone.getTitle();
+            case "stock":
+                return phone.getStock();
+            case "salesCount":
+                return phone.getSalesCount();
+            default:
+                throw new IllegalArgumentException("Unsupported cursor sort field: " + sortField);
+        }
+    }
+
+    private static Object parseSortValue(String sortField, String value) {
+        switch (sortField) {
+            case "createdAt":
+                return LocalDateTime.parse(value);
+            case "price":
+                return Double.valueOf(value);
+            case "title":
+                return value;
+            case "stock":
+            case "salesCount":
+                return Integer.valueOf(value);
+            default:
+                throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.oldphonedeals.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oldphonedeals.exception.BadRequestException;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 批量导入商品的流式读取器（CSV / NDJSON）
+ * <p>
+ * 逐行读取请求体，每次只解析一行，内存占用与文件大小无关。
+ * 每行解析为 字段名 -> 字符串值，字段名统一为小写；单行格式错误时返回带错误信息的行，不中断读取。
+ * </p>
+ * <ul>
+ *   <li>CSV：第一行为表头，支持双引号包裹和 "" 转义，不支持跨行字段</li>
+ *   <li>NDJSON：每行一个 JSON 对象</li>
+ * </ul>
+ * 空行会被跳过，行号从 1 开始（CSV 表头为第 1 行）。
+ */
+public final class PhoneImportReader implements Closeable {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    /**
+     * 导入格式
+     */
+    public enum Format {
+        CSV,
+        NDJSON;
+
+        /**
+         * 根据 format 参数或 Content-Type 确定导入格式（format 参数优先）
+         *
+         * @throws BadRequestException 无法识别的格式
+         */
+        public static Format resolve(String format, String contentType) {
+            String value = format != null && !format.isBlank() ? format : contentType;
+            if (value != null) {
+                String normalized = value.toLowerCase(Locale.ROOT);
+                if (normalized.contains("csv")) {
+                    return CSV;
+                }
+                if (normalized.contains("ndjson") || normalized.contains("jsonl") || normalized.contains("json-lines")) {
+                    return NDJSON;
+                }
+            }
+            throw new BadRequestException("Unsupported import format, expected CSV (text/csv) or NDJSON (application/x-ndjson)");
+        }
+    }
+
+    /**
+     * 一行数据
+     *
+     * @param line   行号
+     * @param fields 字段（解析失败时为 null）
+     * @param error  解析错误（成功时为 null）
+     */
+    public record Row(int line, Map<String, String> fields, String error) {
+    }
+
+    private final BufferedReader reader;
+
+    private final Format format;
+
+    private List<String> header;
+
+    private int line;
+
+    private PhoneImportReader(BufferedReader reader, Format format) {
+        this.reader = reader;
+        this.format = format;
+    }
+
+    /**
+     * 打开读取器；CSV 格式会立即读取表头
+     *
+     * @param in       请求体
+     * @param format   导入格式
+     * @param required 必需的列（仅 CSV 校验）
+     * @throws BadRequestException CSV 缺少表头或必需的列
+     */
+    public static PhoneImportReader open(InputStream in, Format format, List<String> required) {
+        PhoneImportReader importReader = new PhoneImportReader(
+                new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)), format);
+        if (format == Format.CSV) {
+            importReader.readHeader(required);
+        }
+        return importReader;
+    }
+
+    /**
+     * 读取下一行
+     *
+     * @return 下一行，读取完毕时返回 null
+     */
+    public Row next() {
+        String text = nextNonBlankLine();
+        if (text == null) {
+            return null;
+        }
+        return format == Format.CSV ? parseCsvRow(text) : parseJsonRow(text);
+    }
+
+    @Override
+    public void close() {
+        try {
+            reader.close();
+        } catch (IOException e) {
+            // 请求体由容器管理，关闭失败不影响导入结果
+        }
+    }
+
+    private void readHeader(List<String> required) {
+        String text = nextNonBlankLine();
+        if (text == null) {
+            throw new BadRequestException("CSV header row is required");
+        }
+        if (text.startsWith("\uFEFF")) {
+            text = text.substring(1);
+        }
+        List<String> columns = splitCsv(text);
+        if (columns == null) {
+            throw new BadRequestException("Invalid CSV header row");
+        }
+        header = new ArrayList<>();
+        for (String column : columns) {
+            header.add(column.trim().toLowerCase(Locale.ROOT));
+        }
+        List<String> missing = required.stream()
+                .filter(column -> !header.contains(column.toLowerCase(Locale.ROOT)))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new BadRequestException("CSV header is missing columns: " + String.join(", ", missing));
+        }
+    }
+
+    private Row parseCsvRow(String text) {
+        List<String> values = splitCsv(text);
+        if (values == null) {
+            return new Row(line, null, "Unterminated quoted field");
+        }
+        if (values.size() > header.size()) {
+            return new Row(line, null, "Expected at most " + header.size() + " columns but found " + values.size());
+        }
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i < values.size(); i++) {
+            fields.put(header.get(i), values.get(i));
+        }
+        return new Row(line, fields, null);
+    }
+
+    private Row parseJsonRow(String text) {
+        JsonNode node;
+        try {
+            node = OBJECT_MAPPER.readTree(text);
+        } catch (JsonProcessingException e) {
+            return new Row(line, null, "Invalid JSON");
+        }
+        if (node == null || !node.isObject()) {
+            return new Row(line, null, "Each line must be a JSON object");
+        }
+        Map<String, String> fields = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> iterator = node.fields();
+        while (iterator.hasNext()) {
+            Map.Entry<String, JsonNode> field = iterator.next();
+            JsonNode value = field.getValue();
+            fields.put(field.getKey().toLowerCase(Locale.ROOT), value.isNull() ? null : value.asText());
+        }
+        return new Row(line, fields, null);
+    }
+
+    /**
+     * 拆分一行 CSV，引号未闭合时返回 null
+     */
+    static List<String> splitCsv(String text) {
+        List<String> values = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (quoted) {
+                if (c == '"') {
+                    if (i + 1 < text.length() && text.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    current.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                values.add(current.toString());
+                current.setLength(0);
+            } else {
+                current.append(c);
+            }
+        }
+        if (quoted) {
+            return null;
+        }
+        values.add(current.toString());
+        return values;
+    }
+
+    private String nextNonBlankLine() {
+        try {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line++;
+                if (!text.isBlank()) {
+                    return text;
+                }
+            }
+            return null;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read import data", e);
+        }
+    }
+}
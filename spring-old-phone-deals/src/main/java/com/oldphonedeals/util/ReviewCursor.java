@@ -0,0 +1,67 @@
+package com.oldphonedeals.util;
+
+import com.oldphonedeals.entity.Review;
+import com.oldphonedeals.exception.BadRequestException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+/**
+ * 商品评论游标（keyset 分页）
+ * <p>
+ * 记录上一页最后一条评论的 (createdAt, id)，编码为不透明的 Base64URL 字符串返回给客户端。
+ * 下一页从该位置之后继续读取，前面的评论被删除或隐藏也不会错位。
+ * </p>
+ * <p>
+ * 格式（编码前）：{@code createdAt|reviewId}
+ * </p>
+ */
+@Getter
+@AllArgsConstructor
+public final class ReviewCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime createdAt;
+
+    private final String reviewId;
+
+    /**
+     * 根据一页中的最后一条评论创建游标
+     */
+    public static ReviewCursor of(Review review) {
+        return new ReviewCursor(review.getCreatedAt(), review.getId());
+    }
+
+    /**
+     * 编码为不透明字符串
+     */
+    public String encode() {
+        String raw = createdAt + SEPARATOR + reviewId;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解码游标字符串
+     *
+     * @throws BadRequestException 游标格式无效
+     */
+    public static ReviewCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 2);
+            if (parts.length != 2 || parts[1].isEmpty()) {
+                throw new BadRequestException("Invalid cursor");
+            }
+            return new ReviewCursor(LocalDateTime.parse(parts[0]), parts[1]);
+        } catch (BadRequestException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor");
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.oldphonedeals.cache;
+
+import com.oldphonedeals.repository.PhoneRatingStats;
+import com.oldphonedeals.repository.PhoneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * BestSellerLeaderboard 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BestSellerLeaderboard Unit Tests")
+class BestSellerLeaderboardTest {
+
+    @Mock
+    private PhoneRepository phoneRepository;
+
+    private BestSellerLeaderboard leaderboard;
+
+    @BeforeEach
+    void setUp() {
+        leaderboard = new BestSellerLeaderboard(phoneRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("按平均评分降序，评分相同时评论多者优先")
+    void top_shouldRankByAverageThenReviewCount() {
+        when(phoneRepository.findBestSellerCandidates(BestSellerLeaderboard.MIN_REVIEWS)).thenReturn(List.of(
+            stats("p1", 2, 8),    // 4.0
+            stats("p2", 2, 10),   // 5.0
+            stats("p3", 4, 16),   // 4.0，评论更多
+            stats("p4", 3, 9)));  // 3.0
+
+        assertEquals(List.of("p2", "p3", "p1", "p4"), leaderboard.top(10));
+        assertEquals(List.of("p2", "p3"), leaderboard.top(2));
+    }
+
+    @Test
+    @DisplayName("首次读取时全量构建，之后不再查询候选列表")
+    void top_shouldBuildOnce() {
+        when(phoneRepository.findBestSellerCandidates(BestSellerLeaderboard.MIN_REVIEWS))
+            .thenReturn(List.of(stats("p1", 2, 8)));
+
+        leaderboard.top(10);
+        leaderboard.top(10);
+
+        verify(phoneRepository, times(1)).findBestSellerCandidates(BestSellerLeaderboard.MIN_REVIEWS);
+    }
+
+    @Test
+    @DisplayName("尚未构建时 refresh 不访问数据库")
+    void refresh_shouldBeNoOpBeforeBuild() {
+        leaderboard.refresh("p1");
+
+        verify(phoneRepository, never()).findRatingStats(anyString());
+    }
+
+    @Test
+    @DisplayName("refresh 按最新统计调整排名")
+    void refresh_shouldReorderEntry() {
+        when(phoneRepository.findBestSellerCandidates(BestSellerLeaderboard.MIN_REVIEWS))
+            .thenReturn(List.of(stats("p1", 2, 10), stats("p2", 2, 8)));
+        leaderboard.reconcile();
+
+        when(phoneRepository.findRatingStats("p1")).thenReturn(Optional.of(stats("p1", 3, 11)));
+        leaderboard.refresh("p1");
+
+        assertEquals(List.of("p2", "p1"), leaderboard.top(10));
+    }
+
+    @Test
+    @DisplayName("新满足条件的商品在 refresh 后上榜")
+    void refresh_shouldAddNewlyEligiblePhone() {
+        when(phoneRepository.findBestSellerCandidates(BestSellerLeaderboard.MIN_REVIEWS))
+            .thenReturn(List.of(stats("p1", 2, 8)));
+        leaderboard.reconcile();
+
+        when(phoneRepository.findRatingStats("p2")).thenReturn(Optional.of(stats("p2", 2, 9)));
+        leaderboard.refresh("p2");
+
+        assertEquals(List.of("p2", "p1"), leaderboard.top(10));
+    }
+
+    @Test
+    @DisplayName("评论数不足、被禁用或已删除的商品在 refresh 后下榜")
+    void refresh_shouldDropIneligiblePhones() {
+        when(phoneRepository.findBestSellerCandidates(BestSellerLeaderboard.MIN_REVIEWS))
+            .thenReturn(List.of(stats("p1", 2, 8), stats("p2", 2, 8), stats("p3", 2, 8)));
+        leaderboard.reconcile();
+
+        when(phoneRepository.findRatingStats("p1")).thenReturn(Optional.of(stats("p1", 1, 5)));
+        PhoneRatingStats disabled = stats("p2", 2, 8);
+        disabled.setIsDisabled(true);
+        when(phoneRepository.findRatingStats("p2")).thenReturn(Optional.of(disabled));
+        when(phoneRepository.findRatingStats("p3")).thenReturn(Optional.empty());
+
+        leaderboard.refresh("p1");
+        leaderboard.refresh("p2");
+        leaderboard.refresh("p3");
+
+        assertTrue(leaderboard.top(10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("remove 后商品不再出现在排行中")
+    void remove_shouldDropEntry() {
+        when(phoneRepository.findBestSellerCandidates(BestSellerLeaderboard.MIN_REVIEWS))
+            .thenReturn(List.of(stats("p1", 2, 8), stats("p2", 2, 10)));
+        leaderboard.reconcile();
+
+        leaderboard.remove("p2");
+
+        assertEquals(List.of("p1"), leaderboard.top(10));
+    }
+
+    @Test
+    @DisplayName("reconcile 以数据库结果覆盖内存排行")
+    void reconcile_shouldReplaceEntries() {
+        when(phoneRepository.findBestSellerCandidates(BestSellerLeaderboard.MIN_REVIEWS))
+            .thenReturn(List.of(stats("p1", 2, 8)))
+            .thenReturn(List.of(stats("p2", 2, 8)));
+        leaderboard.reconcile();
+
+        leaderboard.reconcile();
+
+        assertEquals(List.of("p2"), leaderboard.top(10));
+    }
+
+    @Test
+    @DisplayName("事务中的 refresh 和 remove 在提交后才生效")
+    void refreshAndRemove_shouldApplyAfterCommit() {
+        when(phoneRepository.findBestSellerCandidates(BestSellerLeaderboard.MIN_REVIEWS))
+            .thenReturn(List.of(stats("p1", 2, 8)));
+        leaderboard.reconcile();
+        TransactionSynchronizationManager.initSynchronization();
+
+        leaderboard.refresh("p2");
+        leaderboard.remove("p1");
+
+        verify(phoneRepository, never()).findRatingStats(anyString());
+        assertEquals(List.of("p1"), leaderboard.top(10));
+
+        when(phoneRepository.findRatingStats("p2")).thenReturn(Optional.of(stats("p2", 2, 9)));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(List.of("p2"), leaderboard.top(10));
+    }
+
+    private static PhoneRatingStats stats(String id, int reviewCount, int ratingSum) {
+        return new PhoneRatingStats(id, false, reviewCount, ratingSum);
+    }
+}
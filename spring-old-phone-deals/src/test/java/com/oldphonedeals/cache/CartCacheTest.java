@@ -0,0 +1,184 @@
+package com.oldphonedeals.cache;
+
+import com.oldphonedeals.config.CatalogProperties;
+import com.oldphonedeals.entity.Cart;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CartCache 单元测试
+ */
+@DisplayName("CartCache Unit Tests")
+class CartCacheTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private CatalogProperties catalogProperties;
+
+    private CartCache cache;
+
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        catalogProperties = new CatalogProperties();
+        cache = new CartCache(catalogProperties);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("命中时不再加载，TTL 过期后重新加载")
+    void get_shouldLoadOnceUntilTtl() {
+        Cart cart = cart("u1", NOW);
+
+        assertSame(cart, cache.get("u1", loader(cart)));
+        assertSame(cart, cache.get("u1", loader(cart)));
+        assertEquals(1, loads.get());
+
+        catalogProperties.getCartCache().setTtl(Duration.ZERO);
+        cache.get("u1", loader(cart));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("写入的购物车直接用于后续读取")
+    void put_shouldWriteThrough() {
+        Cart cart = cart("u1", NOW);
+
+        cache.put(cart, cache.version());
+
+        assertSame(cart, cache.get("u1", loader(cart("u1", NOW.minusSeconds(1)))));
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    @DisplayName("修改期间发生失效或其他写入时丢弃写入结果并使该用户失效")
+    void put_shouldDropWriteRacingWithEviction() {
+        Cart cached = cart("u1", NOW);
+        cache.put(cached, cache.version());
+        long writeVersion = cache.version();
+
+        // 修改购物车期间并发结账清空
+        cache.evict("u1");
+        cache.get("u1", loader(cached));
+        cache.put(cart("u1", NOW.plusSeconds(1)), writeVersion);
+
+        Cart reloaded = cart("u1", NOW.plusSeconds(2));
+        assertSame(reloaded, cache.get("u1", loader(reloaded)));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("加载期间发生写入或失效时不缓存加载结果")
+    void get_shouldNotCacheLoadRacingWithWrite() {
+        Cart stale = cart("u1", NOW);
+        Cart written = cart("u1", NOW.plusSeconds(1));
+
+        Cart loaded = cache.get("u1", () -> {
+            cache.put(written, cache.version());
+            return stale;
+        });
+
+        assertSame(stale, loaded);
+        assertSame(written, cache.get("u1", loader(stale)));
+    }
+
+    @Test
+    @DisplayName("失效后重新加载，只影响该用户")
+    void evict_shouldDropCachedCart() {
+        cache.put(cart("u1", NOW), cache.version());
+        cache.put(cart("u2", NOW), cache.version());
+
+        cache.evict("u1");
+        cache.get("u1", loader(cart("u1", NOW)));
+        cache.get("u2", loader(cart("u2", NOW)));
+
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("删除商品后只失效仍包含该商品的购物车，并丢弃更新前开始的写入")
+    void evictContaining_shouldDropCartsHoldingPhone() {
+        Cart holding = cartWith("u1", "phone-1");
+        cache.put(holding, cache.version());
+        cache.put(cartWith("u2", "phone-2"), cache.version());
+        long writeVersion = cache.version();
+
+        cache.evictContaining("phone-1");
+        // $pull 之前开始的加入购物车在失效后才写回
+        cache.put(cartWith("u3", "phone-1"), writeVersion);
+
+        cache.get("u2", loader(cartWith("u2", "phone-2")));
+        assertEquals(0, loads.get());
+        cache.get("u1", loader(cart("u1", NOW)));
+        cache.get("u3", loader(cart("u3", NOW)));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("事务中失效时在提交后再次失效")
+    void evict_shouldEvictAgainAfterCommit() {
+        Cart cart = cart("u1", NOW);
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evict("u1");
+        // 提交前的并发读取会缓存旧购物车
+        cache.get("u1", loader(cart));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        cache.get("u1", loader(cart));
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("max-entries 为 0 时关闭缓存")
+    void get_shouldNotCache_whenDisabled() {
+        catalogProperties.getCartCache().setMaxEntries(0);
+        Cart cart = cart("u1", NOW);
+
+        cache.put(cart, cache.version());
+        cache.get("u1", loader(cart));
+        cache.get("u1", loader(cart));
+
+        assertEquals(2, loads.get());
+    }
+
+    private Supplier<Cart> loader(Cart cart) {
+        return () -> {
+            loads.incrementAndGet();
+            return cart;
+        };
+    }
+
+    private static Cart cart(String userId, LocalDateTime updatedAt) {
+        return Cart.builder().id("cart-" + userId).userId(userId).updatedAt(updatedAt).build();
+    }
+
+    private static Cart cartWith(String userId, String phoneId) {
+        return Cart.builder()
+            .id("cart-" + userId)
+            .userId(userId)
+            .items(List.of(Cart.CartItem.builder().phoneId(phoneId).quantity(1).build()))
+            .updatedAt(NOW)
+            .build();
+    }
+}
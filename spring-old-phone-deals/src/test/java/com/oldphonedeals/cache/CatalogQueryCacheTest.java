@@ -0,0 +1,185 @@
+package com.oldphonedeals.cache;
+
+import com.oldphonedeals.config.CatalogProperties;
+import com.oldphonedeals.dto.request.phone.PhoneQueryRequest;
+import com.oldphonedeals.enums.PhoneBrand;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CatalogQueryCache 单元测试
+ */
+@DisplayName("CatalogQueryCache Unit Tests")
+class CatalogQueryCacheTest {
+
+    private CatalogProperties catalogProperties;
+
+    private List<Runnable> pendingRefreshes;
+
+    private CatalogQueryCache cache;
+
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        catalogProperties = new CatalogProperties();
+        pendingRefreshes = new ArrayList<>();
+        cache = new CatalogQueryCache(catalogProperties, pendingRefreshes::add);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("相同查询（大小写、空白不同）命中同一缓存")
+    void get_shouldHitForNormalizedQuery() {
+        cache.get(query(" iPhone ", null), loader());
+        Map<String, Object> result = cache.get(query("iphone", null), loader());
+
+        assertEquals(1, loads.get());
+        assertEquals(1, result.get("load"));
+        assertEquals(1, cache.stats().hits());
+        assertEquals(1, cache.stats().misses());
+    }
+
+    @Test
+    @DisplayName("容错搜索与普通搜索分别缓存")
+    void get_shouldSeparateFuzzyQueries() {
+        PhoneQueryRequest fuzzy = query("iphne", null);
+        fuzzy.setFuzzy(true);
+
+        cache.get(query("iphne", null), loader());
+        cache.get(fuzzy, loader());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("游标查询不缓存")
+    void get_shouldBypassCursorQueries() {
+        PhoneQueryRequest cursorQuery = PhoneQueryRequest.builder().after("").build();
+
+        cache.get(cursorQuery, loader());
+        cache.get(cursorQuery, loader());
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    @DisplayName("过期后在 stale-window 内返回旧结果并在后台刷新一次")
+    void get_shouldServeStaleAndRefreshInBackground() {
+        catalogProperties.getQueryCache().setTtl(Duration.ZERO);
+        cache.get(query(null, null), loader());
+
+        Map<String, Object> stale = cache.get(query(null, null), loader());
+        cache.get(query(null, null), loader());
+
+        assertEquals(1, stale.get("load"));
+        assertEquals(1, pendingRefreshes.size(), "同一个键只调度一次刷新");
+        pendingRefreshes.get(0).run();
+        assertEquals(2, loads.get());
+        assertEquals(2, cache.stats().staleHits());
+    }
+
+    @Test
+    @DisplayName("超过 stale-window 时同步加载")
+    void get_shouldLoadSynchronously_whenBeyondStaleWindow() {
+        catalogProperties.getQueryCache().setTtl(Duration.ZERO);
+        catalogProperties.getQueryCache().setStaleWindow(Duration.ZERO);
+        cache.get(query(null, null), loader());
+
+        Map<String, Object> result = cache.get(query(null, null), loader());
+
+        assertEquals(2, result.get("load"));
+        assertTrue(pendingRefreshes.isEmpty());
+    }
+
+    @Test
+    @DisplayName("刷新任务被拒绝时继续返回旧结果，之后可再次调度")
+    void get_shouldRetryRefresh_whenExecutorRejects() {
+        catalogProperties.getQueryCache().setTtl(Duration.ZERO);
+        AtomicInteger attempts = new AtomicInteger();
+        cache = new CatalogQueryCache(catalogProperties, task -> {
+            attempts.incrementAndGet();
+            throw new RejectedExecutionException("full");
+        });
+        cache.get(query(null, null), loader());
+
+        assertEquals(1, cache.get(query(null, null), loader()).get("load"));
+        cache.get(query(null, null), loader());
+
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    @DisplayName("超出容量时淘汰最久未访问的结果")
+    void get_shouldEvictLeastRecentlyUsed() {
+        catalogProperties.getQueryCache().setMaxEntries(2);
+        cache.get(query(null, PhoneBrand.APPLE), loader());
+        cache.get(query(null, PhoneBrand.SAMSUNG), loader());
+        cache.get(query(null, PhoneBrand.APPLE), loader());
+
+        cache.get(query(null, PhoneBrand.NOKIA), loader());
+        cache.get(query(null, PhoneBrand.APPLE), loader());
+
+        assertEquals(3, loads.get());
+        assertEquals(1, cache.stats().evictions());
+    }
+
+    @Test
+    @DisplayName("按品牌失效只移除该品牌、不限品牌和分面结果")
+    void invalidateBrands_shouldOnlyDropAffectedEntries() {
+        PhoneQueryRequest facets = query(null, PhoneBrand.SAMSUNG);
+        facets.setFacets(true);
+        cache.get(query(null, PhoneBrand.APPLE), loader());
+        cache.get(query(null, PhoneBrand.SAMSUNG), loader());
+        cache.get(query(null, null), loader());
+        cache.get(facets, loader());
+
+        cache.invalidateBrands(PhoneBrand.APPLE);
+
+        assertEquals(1, cache.stats().size());
+        cache.get(query(null, PhoneBrand.SAMSUNG), loader());
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    @DisplayName("加载期间发生失效时不缓存加载结果")
+    void get_shouldNotCacheLoadRacingWithInvalidation() {
+        cache.get(query(null, null), () -> {
+            cache.invalidateAll();
+            return Map.of("load", loads.incrementAndGet());
+        });
+
+        assertEquals(0, cache.stats().size());
+    }
+
+    @Test
+    @DisplayName("容量为 0 时关闭缓存")
+    void get_shouldBypass_whenDisabled() {
+        catalogProperties.getQueryCache().setMaxEntries(0);
+
+        cache.get(query(null, null), loader());
+        cache.get(query(null, null), loader());
+
+        assertEquals(2, loads.get());
+    }
+
+    private Supplier<Map<String, Object>> loader() {
+        return () -> Map.of("load", loads.incrementAndGet());
+    }
+
+    private static PhoneQueryRequest query(String search, PhoneBrand brand) {
+        return PhoneQueryRequest.builder().search(search).brand(brand).build();
+    }
+}
@@ -0,0 +1,148 @@
+package com.oldphonedeals.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oldphonedeals.config.CatalogProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PhoneDetailCache 单元测试
+ */
+@DisplayName("PhoneDetailCache Unit Tests")
+class PhoneDetailCacheTest {
+
+    private CatalogProperties catalogProperties;
+
+    private PhoneDetailCache cache;
+
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        catalogProperties = new CatalogProperties();
+        cache = new PhoneDetailCache(new ObjectMapper(), catalogProperties);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("命中缓存时返回相同字节和 ETag，不再加载")
+    void get_shouldServeFromCache() {
+        PhoneDetailCache.Detail first = cache.get("p1", loader());
+        PhoneDetailCache.Detail second = cache.get("p1", loader());
+
+        assertEquals(1, loads.get());
+        assertSame(first, second);
+        assertEquals("{\"load\":1}", new String(first.body(), StandardCharsets.UTF_8));
+        assertTrue(first.etag().matches("\"[0-9a-f]{32}\""));
+    }
+
+    @Test
+    @DisplayName("内容相同时 ETag 相同，内容变化时 ETag 变化")
+    void get_shouldDeriveEtagFromContent() {
+        String etag = cache.get("p1", () -> Map.of("title", "a")).etag();
+        cache.evict("p1");
+
+        assertEquals(etag, cache.get("p1", () -> Map.of("title", "a")).etag());
+        cache.evict("p1");
+        assertNotEquals(etag, cache.get("p1", () -> Map.of("title", "b")).etag());
+    }
+
+    @Test
+    @DisplayName("失效后重新加载，其他商品不受影响")
+    void evict_shouldOnlyDropThatPhone() {
+        cache.get("p1", loader());
+        cache.get("p2", loader());
+
+        cache.evict("p1");
+        cache.get("p1", loader());
+        cache.get("p2", loader());
+
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("TTL 过期后重新加载")
+    void get_shouldReloadAfterTtl() {
+        catalogProperties.getDetailCache().setTtl(Duration.ZERO);
+
+        cache.get("p1", loader());
+        cache.get("p1", loader());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("加载期间发生失效时不缓存加载结果")
+    void get_shouldNotCacheLoadRacingWithInvalidation() {
+        cache.get("p1", () -> {
+            cache.evict("p1");
+            return Map.of("load", loads.incrementAndGet());
+        });
+        cache.get("p1", loader());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("事务中失效时在提交后再次失效")
+    void evict_shouldEvictAgainAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evict("p1");
+        // 提交前的并发读取会缓存旧数据
+        cache.get("p1", loader());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        cache.get("p1", loader());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("容量为 0 时关闭缓存")
+    void get_shouldBypass_whenDisabled() {
+        catalogProperties.getDetailCache().setMaxEntries(0);
+
+        cache.get("p1", loader());
+        cache.get("p1", loader());
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("If-None-Match 支持弱比较、多个值和 *")
+    void matches_shouldFollowIfNoneMatchRules() {
+        PhoneDetailCache.Detail detail = cache.get("p1", loader());
+        String etag = detail.etag();
+
+        assertTrue(detail.matches(etag));
+        assertTrue(detail.matches("W/" + etag));
+        assertTrue(detail.matches("\"other\", " + etag));
+        assertTrue(detail.matches("*"));
+        assertFalse(detail.matches("\"other\""));
+        assertFalse(detail.matches(null));
+        assertFalse(detail.matches(" "));
+    }
+
+    private Supplier<Object> loader() {
+        return () -> Map.of("load", loads.incrementAndGet());
+    }
+}
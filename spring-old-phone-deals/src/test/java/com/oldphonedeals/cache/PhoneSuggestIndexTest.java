@@ -0,0 +1,226 @@
+package com.oldphonedeals.cache;
+
+import com.oldphonedeals.entity.Phone;
+import com.oldphonedeals.entity.PhoneSummary;
+import com.oldphonedeals.enums.PhoneBrand;
+import com.oldphonedeals.repository.PhoneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * PhoneSuggestIndex 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("PhoneSuggestIndex Unit Tests")
+class PhoneSuggestIndexTest {
+
+    @Mock
+    private PhoneRepository phoneRepository;
+
+    private PhoneSuggestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new PhoneSuggestIndex(phoneRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("按标题任一单词前缀匹配，按销量降序返回")
+    void suggestPhones_shouldMatchWordPrefixesRankedBySales() {
+        when(phoneRepository.findSuggestCandidates()).thenReturn(List.of(
+            summary("p1", "iPhone 12 Pro", PhoneBrand.APPLE, 5),
+            summary("p2", "iPhone 13", PhoneBrand.APPLE, 20),
+            summary("p3", "Galaxy Pro", PhoneBrand.SAMSUNG, 10)));
+
+        assertEquals(List.of("p2", "p1"), ids(index.suggestPhones("IPH", 5)));
+        assertEquals(List.of("p3", "p1"), ids(index.suggestPhones("pro", 5)));
+        assertEquals(List.of("p1"), ids(index.suggestPhones("12 p", 5)));
+        assertEquals(List.of("p2"), ids(index.suggestPhones("iphone", 1)));
+    }
+
+    @Test
+    @DisplayName("品牌名作为词条，同一商品只返回一次")
+    void suggestPhones_shouldMatchBrandOnce() {
+        when(phoneRepository.findSuggestCandidates()).thenReturn(List.of(
+            summary("p1", "Samsung Galaxy S21", PhoneBrand.SAMSUNG, 1)));
+
+        assertEquals(List.of("p1"), ids(index.suggestPhones("sams", 5)));
+    }
+
+    @Test
+    @DisplayName("输入规范化：忽略重音、大小写和标点")
+    void suggestPhones_shouldNormalizeInput() {
+        when(phoneRepository.findSuggestCandidates()).thenReturn(List.of(
+            summary("p1", "Moto G-Power", PhoneBrand.MOTOROLA, 1)));
+
+        assertEquals(List.of("p1"), ids(index.suggestPhones("  MÔTO g.p", 5)));
+        assertTrue(index.suggestPhones(" - ", 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("只在首次查询时构建索引")
+    void suggestPhones_shouldBuildOnce() {
+        when(phoneRepository.findSuggestCandidates()).thenReturn(List.of(
+            summary("p1", "Nokia 3310", PhoneBrand.NOKIA, 1)));
+
+        index.suggestPhones("nok", 5);
+        index.suggestPhones("331", 5);
+        index.suggestBrands("n", 5);
+
+        verify(phoneRepository, times(1)).findSuggestCandidates();
+    }
+
+    @Test
+    @DisplayName("商品更新后替换旧词条，禁用后移除")
+    void update_shouldReplaceTermsAndDropDisabled() {
+        when(phoneRepository.findSuggestCandidates()).thenReturn(new ArrayList<>(List.of(
+            summary("p1", "Old Title", PhoneBrand.SONY, 1))));
+        index.suggestPhones("old", 5);
+
+        index.update(phone("p1", "Xperia 5", PhoneBrand.SONY, 3, false));
+        assertTrue(index.suggestPhones("old", 5).isEmpty());
+        assertEquals(3, index.suggestPhones("xper", 5).get(0).salesCount());
+
+        index.update(phone("p1", "Xperia 5", PhoneBrand.SONY, 3, true));
+        assertTrue(index.suggestPhones("xper", 5).isEmpty());
+        assertTrue(index.suggestBrands("sony", 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("新增和删除商品")
+    void updateAndRemove_shouldMaintainIndex() {
+        when(phoneRepository.findSuggestCandidates()).thenReturn(List.of());
+        index.suggestPhones("x", 5);
+
+        index.update(phone("p9", "HTC One", PhoneBrand.HTC, 0, false));
+        assertEquals(List.of("p9"), ids(index.suggestPhones("one", 5)));
+
+        index.remove("p9");
+        assertTrue(index.suggestPhones("one", 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("事务中的新增和删除在提交后才生效")
+    void updateAndRemove_shouldApplyAfterCommit() {
+        when(phoneRepository.findSuggestCandidates()).thenReturn(List.of(summary("p1", "Nokia 3310", PhoneBrand.NOKIA, 1)));
+        index.suggestPhones("x", 5);
+        TransactionSynchronizationManager.initSynchronization();
+
+        index.update(phone("p9", "HTC One", PhoneBrand.HTC, 0, false));
+        index.remove("p1");
+
+        assertTrue(index.suggestPhones("one", 5).isEmpty());
+        assertEquals(List.of("p1"), ids(index.suggestPhones("nokia", 5)));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        assertEquals(List.of("p9"), ids(index.suggestPhones("one", 5)));
+        assertTrue(index.suggestPhones("nokia", 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("构建前的更新被忽略")
+    void update_shouldBeNoop_beforeInitialized() {
+        index.update(phone("p1", "HTC One", PhoneBrand.HTC, 0, false));
+
+        verifyNoInteractions(phoneRepository);
+    }
+
+    @Test
+    @DisplayName("品牌建议只包含有在售商品的品牌，按总销量排序")
+    void suggestBrands_shouldRankByTotalSales() {
+        when(phoneRepository.findSuggestCandidates()).thenReturn(List.of(
+            summary("p1", "Galaxy S21", PhoneBrand.SAMSUNG, 5),
+            summary("p2", "Galaxy S22", PhoneBrand.SAMSUNG, 5),
+            summary("p3", "Xperia 1", PhoneBrand.SONY, 30)));
+
+        assertEquals(List.of(PhoneBrand.SONY, PhoneBrand.SAMSUNG), index.suggestBrands("s", 5));
+        assertEquals(List.of(PhoneBrand.SONY), index.suggestBrands("s", 1));
+        assertTrue(index.suggestBrands("apple", 5).isEmpty());
+    }
+
+    @Test
+    @DisplayName("容错搜索：拼写错误仍能匹配，匹配词多、距离小的排在前面")
+    void fuzzySearch_shouldTolerateTypos() {
+        when(phoneRepository.findSuggestCandidates()).thenReturn(List.of(
+            summary("p1", "Galaxy S21", PhoneBrand.SAMSUNG, 1),
+            summary("p2", "Galaxy Tab", PhoneBrand.SAMSUNG, 50),
+            summary("p3", "iPhone 13", PhoneBrand.APPLE, 5),
+            summary("p4", "Note 10", PhoneBrand.SAMSUNG, 9)));
+
+        assertEquals(List.of("p3"), index.fuzzySearch("iphne", null, 10));
+        assertEquals(List.of("p1", "p2", "p4"), index.fuzzySearch("samsng galxy s21", null, 10));
+        assertEquals(List.of("p2", "p1"), index.fuzzySearch("galxy", null, 10));
+        assertEquals(List.of("p2"), index.fuzzySearch("galxy", null, 1));
+    }
+
+    @Test
+    @DisplayName("容错搜索：短词必须精确匹配，支持前缀和品牌过滤")
+    void fuzzySearch_shouldRespectEditBudgetPrefixAndBrand() {
+        when(phoneRepository.findSuggestCandidates()).thenReturn(List.of(
+            summary("p1", "G5 Plus", PhoneBrand.MOTOROLA, 1),
+            summary("p2", "G6", PhoneBrand.LG, 1)));
+
+        assertEquals(List.of("p2"), index.fuzzySearch("g6", null, 10));
+        assertEquals(List.of("p1"), index.fuzzySearch("motorol", null, 10));
+        assertEquals(List.of("p1"), index.fuzzySearch("plsu", PhoneBrand.MOTOROLA, 10));
+        assertTrue(index.fuzzySearch("plsu", PhoneBrand.LG, 10).isEmpty());
+        assertTrue(index.fuzzySearch("xyzzy", null, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("容错搜索：商品更新后使用新标题")
+    void fuzzySearch_shouldFollowUpdates() {
+        when(phoneRepository.findSuggestCandidates()).thenReturn(List.of(
+            summary("p1", "Lumia 950", PhoneBrand.NOKIA, 1)));
+        index.fuzzySearch("lumia", null, 10);
+
+        index.update(phone("p1", "Xperia 5", PhoneBrand.SONY, 3, false));
+
+        assertTrue(index.fuzzySearch("lumia", null, 10).isEmpty());
+        assertEquals(List.of("p1"), index.fuzzySearch("xpera", null, 10));
+    }
+
+    @Test
+    @DisplayName("编辑距离：相邻交换计 1 次，超过上限时提前结束")
+    void boundedEditDistance_shouldCapAtMaxEditsPlusOne() {
+        assertEquals(0, PhoneSuggestIndex.boundedEditDistance("galaxy", "galaxy", 2));
+        assertEquals(1, PhoneSuggestIndex.boundedEditDistance("galxy", "galaxy", 2));
+        assertEquals(1, PhoneSuggestIndex.boundedEditDistance("plsu", "plus", 1));
+        assertEquals(2, PhoneSuggestIndex.boundedEditDistance("samsng", "samsunf", 2));
+        assertEquals(3, PhoneSuggestIndex.boundedEditDistance("abcdef", "uvwxyz", 2));
+        assertEquals(2, PhoneSuggestIndex.boundedEditDistance("ab", "abcdef", 1));
+    }
+
+    private static List<String> ids(List<PhoneSuggestIndex.Suggestion> suggestions) {
+        return suggestions.stream().map(PhoneSuggestIndex.Suggestion::phoneId).toList();
+    }
+
+    private static PhoneSummary summary(String id, String title, PhoneBrand brand, int salesCount) {
+        return PhoneSummary.builder().id(id).title(title).brand(brand).salesCount(salesCount).build();
+    }
+
+    private static Phone phone(String id, String title, PhoneBrand brand, int salesCount, boolean disabled) {
+        return Phone.builder().id(id).title(title).brand(brand).salesCount(salesCount).isDisabled(disabled).build();
+    }
+}
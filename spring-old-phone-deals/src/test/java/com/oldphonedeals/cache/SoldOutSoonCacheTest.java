@@ -0,0 +1,149 @@
+package com.oldphonedeals.cache;
+
+import com.oldphonedeals.config.CatalogProperties;
+import com.oldphonedeals.entity.PhoneSummary;
+import com.oldphonedeals.repository.PhoneRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * SoldOutSoonCache 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SoldOutSoonCache Unit Tests")
+class SoldOutSoonCacheTest {
+
+    @Mock
+    private PhoneRepository phoneRepository;
+
+    private CatalogProperties catalogProperties;
+
+    private SoldOutSoonCache cache;
+
+    @BeforeEach
+    void setUp() {
+        catalogProperties = new CatalogProperties();
+        cache = new SoldOutSoonCache(phoneRepository, catalogProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("命中缓存时不再查询数据库")
+    void get_shouldServeFromCache() {
+        when(phoneRepository.findLowStockSummaries(SoldOutSoonCache.MAX_STOCK, SoldOutSoonCache.LIMIT))
+            .thenReturn(List.of(summary("p1", 2)));
+
+        assertEquals("p1", cache.get().get(0).getId());
+        assertEquals("p1", cache.get().get(0).getId());
+
+        verify(phoneRepository, times(1)).findLowStockSummaries(SoldOutSoonCache.MAX_STOCK, SoldOutSoonCache.LIMIT);
+    }
+
+    @Test
+    @DisplayName("TTL 过期后重新加载")
+    void get_shouldReloadAfterTtl() {
+        catalogProperties.setSoldOutSoonTtl(Duration.ZERO);
+        when(phoneRepository.findLowStockSummaries(SoldOutSoonCache.MAX_STOCK, SoldOutSoonCache.LIMIT))
+            .thenReturn(List.of(summary("p1", 2)));
+
+        cache.get();
+        cache.get();
+
+        verify(phoneRepository, times(2)).findLowStockSummaries(SoldOutSoonCache.MAX_STOCK, SoldOutSoonCache.LIMIT);
+    }
+
+    @Test
+    @DisplayName("低库存商品变化时失效")
+    void evictIfAffected_shouldInvalidate_whenStockIsLow() {
+        when(phoneRepository.findLowStockSummaries(SoldOutSoonCache.MAX_STOCK, SoldOutSoonCache.LIMIT))
+            .thenReturn(List.of(summary("p1", 2)));
+        cache.get();
+
+        cache.evictIfAffected("p2", 4);
+        cache.get();
+
+        verify(phoneRepository, times(2)).findLowStockSummaries(SoldOutSoonCache.MAX_STOCK, SoldOutSoonCache.LIMIT);
+    }
+
+    @Test
+    @DisplayName("列表中的商品补货后失效")
+    void evictIfAffected_shouldInvalidate_whenListedPhoneRestocked() {
+        when(phoneRepository.findLowStockSummaries(SoldOutSoonCache.MAX_STOCK, SoldOutSoonCache.LIMIT))
+            .thenReturn(List.of(summary("p1", 2)));
+        cache.get();
+
+        cache.evictIfAffected("p1", 50);
+        cache.get();
+
+        verify(phoneRepository, times(2)).findLowStockSummaries(SoldOutSoonCache.MAX_STOCK, SoldOutSoonCache.LIMIT);
+    }
+
+    @Test
+    @DisplayName("无关商品的高库存变化不影响缓存")
+    void evictIfAffected_shouldKeepCache_whenUnrelatedPhoneHasHighStock() {
+        when(phoneRepository.findLowStockSummaries(SoldOutSoonCache.MAX_STOCK, SoldOutSoonCache.LIMIT))
+            .thenReturn(List.of(summary("p1", 2)));
+        cache.get();
+
+        cache.evictIfAffected("p2", 50);
+        cache.get();
+
+        verify(phoneRepository, times(1)).findLowStockSummaries(SoldOutSoonCache.MAX_STOCK, SoldOutSoonCache.LIMIT);
+    }
+
+    @Test
+    @DisplayName("加载期间发生无关商品的库存变化时不缓存加载结果")
+    void evictIfAffected_shouldDiscardRacingLoad_whenUnrelatedPhoneChanges() {
+        when(phoneRepository.findLowStockSummaries(SoldOutSoonCache.MAX_STOCK, SoldOutSoonCache.LIMIT))
+            .thenAnswer(invocation -> {
+                cache.evictIfAffected("p2", 50);
+                return List.of(summary("p1", 2));
+            })
+            .thenReturn(List.of(summary("p1", 2)));
+
+        cache.get();
+        cache.get();
+        cache.get();
+
+        verify(phoneRepository, times(2)).findLowStockSummaries(SoldOutSoonCache.MAX_STOCK, SoldOutSoonCache.LIMIT);
+    }
+
+    @Test
+    @DisplayName("事务中失效时在提交后再次失效")
+    void invalidate_shouldInvalidateAgainAfterCommit() {
+        when(phoneRepository.findLowStockSummaries(SoldOutSoonCache.MAX_STOCK, SoldOutSoonCache.LIMIT))
+            .thenReturn(List.of(summary("p1", 2)));
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.invalidate();
+        // 提交前的并发读取会缓存旧数据
+        cache.get();
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        cache.get();
+
+        verify(phoneRepository, times(2)).findLowStockSummaries(SoldOutSoonCache.MAX_STOCK, SoldOutSoonCache.LIMIT);
+    }
+
+    private static PhoneSummary summary(String id, int stock) {
+        return PhoneSummary.builder().id(id).stock(stock).isDisabled(false).build();
+    }
+}
@@ -0,0 +1,135 @@
+package com.oldphonedeals.cache;
+
+import com.oldphonedeals.config.CatalogProperties;
+import com.oldphonedeals.entity.User;
+import com.oldphonedeals.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * UserDisplayNameCache 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("UserDisplayNameCache Unit Tests")
+class UserDisplayNameCacheTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private CatalogProperties catalogProperties;
+
+    private UserDisplayNameCache cache;
+
+    @BeforeEach
+    void setUp() {
+        catalogProperties = new CatalogProperties();
+        cache = new UserDisplayNameCache(userRepository, catalogProperties);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("未命中的ID一次查询加载，命中的不再查询")
+    void getAll_shouldLoadOnlyMissesInOneQuery() {
+        when(userRepository.findNamesByIdIn(Set.of("u1", "u2"))).thenReturn(List.of(user("u1", "User", "One")));
+        when(userRepository.findNamesByIdIn(Set.of("u3"))).thenReturn(List.of(user("u3", "User", null)));
+
+        assertEquals(Map.of("u1", "User One"), cache.getAll(Arrays.asList("u1", "u2", "u1", null)));
+        assertEquals(Map.of("u1", "User One", "u3", "User "), cache.getAll(List.of("u1", "u3")));
+        assertEquals("User One", cache.get("u1"));
+
+        verify(userRepository, times(2)).findNamesByIdIn(anyCollection());
+    }
+
+    @Test
+    @DisplayName("失效后重新加载，其他用户不受影响")
+    void evict_shouldOnlyDropThatUser() {
+        when(userRepository.findNamesByIdIn(Set.of("u1", "u2")))
+            .thenReturn(List.of(user("u1", "User", "One"), user("u2", "User", "Two")));
+        when(userRepository.findNamesByIdIn(Set.of("u1"))).thenReturn(List.of(user("u1", "Renamed", "One")));
+
+        cache.getAll(List.of("u1", "u2"));
+        cache.evict("u1");
+
+        assertEquals(Map.of("u1", "Renamed One", "u2", "User Two"), cache.getAll(List.of("u1", "u2")));
+    }
+
+    @Test
+    @DisplayName("TTL 过期后重新加载")
+    void getAll_shouldReloadAfterTtl() {
+        catalogProperties.getNameCache().setTtl(Duration.ZERO);
+        when(userRepository.findNamesByIdIn(Set.of("u1"))).thenReturn(List.of(user("u1", "User", "One")));
+
+        cache.get("u1");
+        cache.get("u1");
+
+        verify(userRepository, times(2)).findNamesByIdIn(Set.of("u1"));
+    }
+
+    @Test
+    @DisplayName("加载期间发生失效时不缓存加载结果")
+    void getAll_shouldNotCacheLoadRacingWithInvalidation() {
+        when(userRepository.findNamesByIdIn(Set.of("u1"))).thenAnswer(invocation -> {
+            cache.evict("u1");
+            return List.of(user("u1", "User", "One"));
+        }).thenReturn(List.of(user("u1", "User", "One")));
+
+        assertEquals("User One", cache.get("u1"));
+        cache.get("u1");
+
+        verify(userRepository, times(2)).findNamesByIdIn(Set.of("u1"));
+    }
+
+    @Test
+    @DisplayName("事务中失效时在提交后再次失效")
+    void evict_shouldEvictAgainAfterCommit() {
+        when(userRepository.findNamesByIdIn(Set.of("u1"))).thenReturn(List.of(user("u1", "User", "One")));
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evict("u1");
+        // 提交前的并发读取会缓存旧姓名
+        cache.get("u1");
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        cache.get("u1");
+
+        verify(userRepository, times(2)).findNamesByIdIn(Set.of("u1"));
+    }
+
+    @Test
+    @DisplayName("不存在的用户不在结果中，全部命中或为空时不查询")
+    void getAll_shouldSkipQuery_whenNothingToLoad() {
+        when(userRepository.findNamesByIdIn(Set.of("missing"))).thenReturn(List.of());
+
+        assertNull(cache.get("missing"));
+        assertNull(cache.get(null));
+        assertTrue(cache.getAll(List.of()).isEmpty());
+
+        verify(userRepository, times(1)).findNamesByIdIn(anyCollection());
+    }
+
+    private static User user(String id, String firstName, String lastName) {
+        return User.builder().id(id).firstName(firstName).lastName(lastName).build();
+    }
+}
@@ -0,0 +1,163 @@
+package com.oldphonedeals.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * VersionedLruCache 单元测试
+ */
+@DisplayName("VersionedLruCache Unit Tests")
+class VersionedLruCacheTest {
+
+    private int maxEntries;
+
+    private Duration ttl;
+
+    private AtomicInteger evictions;
+
+    private AtomicInteger loads;
+
+    private VersionedLruCache<String, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        maxEntries = 100;
+        ttl = Duration.ofMinutes(1);
+        evictions = new AtomicInteger();
+        loads = new AtomicInteger();
+        cache = new VersionedLruCache<>(() -> maxEntries, () -> ttl, evictions::incrementAndGet);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("命中时不再加载，TTL 过期后重新加载")
+    void get_shouldLoadOnceUntilTtl() {
+        assertEquals("a", cache.get("k", loader("a")));
+        assertEquals("a", cache.get("k", loader("b")));
+        assertEquals(1, loads.get());
+
+        ttl = Duration.ZERO;
+        assertEquals("c", cache.get("k", loader("c")));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("加载期间版本号变化时丢弃加载结果")
+    void putIfCurrent_shouldDropLoadRacingWithInvalidation() {
+        long loadVersion = cache.version();
+        cache.evict("other");
+
+        cache.putIfCurrent("k", "stale", loadVersion);
+        cache.putAllIfCurrent(Map.of("k2", "stale"), loadVersion);
+
+        assertNull(cache.getIfFresh("k"));
+        assertNull(cache.getIfFresh("k2"));
+    }
+
+    @Test
+    @DisplayName("超出容量时淘汰最久未访问的条目")
+    void putIfCurrent_shouldEvictLeastRecentlyUsed() {
+        maxEntries = 2;
+        cache.get("a", loader("a"));
+        cache.get("b", loader("b"));
+        cache.get("a", loader("a"));
+
+        cache.get("c", loader("c"));
+
+        assertEquals(1, evictions.get());
+        assertEquals("a", cache.getIfFresh("a"));
+        assertNull(cache.getIfFresh("b"));
+    }
+
+    @Test
+    @DisplayName("写入时使进行中的加载失效")
+    void putIfUnchanged_shouldWriteAndBumpVersion() {
+        long loadVersion = cache.version();
+
+        cache.putIfUnchanged("k", "written", cache.version());
+        cache.putIfUnchanged("k2", "written", cache.version());
+        cache.putIfUnchanged("k", "newer", cache.version());
+        cache.putIfCurrent("k", "stale", loadVersion);
+
+        assertEquals("newer", cache.getIfFresh("k"));
+        assertEquals("written", cache.getIfFresh("k2"));
+    }
+
+    @Test
+    @DisplayName("写入期间版本号变化时丢弃写入结果并移除该键")
+    void putIfUnchanged_shouldDropWriteRacingWithInvalidation() {
+        cache.putIfUnchanged("k", "old", cache.version());
+        long writeVersion = cache.version();
+
+        cache.evict("k");
+        cache.get("k", loader("reloaded"));
+        cache.putIfUnchanged("k", "racing", writeVersion);
+
+        assertNull(cache.getIfFresh("k"));
+    }
+
+    @Test
+    @DisplayName("按条件失效只移除匹配的键")
+    void evictWhere_shouldOnlyDropMatchingKeys() {
+        cache.get("apple-1", loader("a"));
+        cache.get("samsung-1", loader("s"));
+
+        cache.evictWhere(key -> key.startsWith("apple"));
+
+        assertEquals(1, cache.size());
+        assertEquals("s", cache.getIfFresh("samsung-1"));
+    }
+
+    @Test
+    @DisplayName("事务中失效时在提交后再次失效")
+    void evict_shouldEvictAgainAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evictAll();
+        // 提交前的并发读取会缓存旧数据
+        cache.get("k", loader("stale"));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        cache.get("k", loader("fresh"));
+
+        assertEquals(2, loads.get());
+        assertEquals("fresh", cache.getIfFresh("k"));
+    }
+
+    @Test
+    @DisplayName("max-entries 为 0 时关闭缓存")
+    void get_shouldNotCache_whenDisabled() {
+        maxEntries = 0;
+
+        cache.putIfUnchanged("k", "written", cache.version());
+        cache.get("k", loader("a"));
+        cache.get("k", loader("a"));
+
+        assertFalse(cache.isEnabled());
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.size());
+    }
+
+    private Supplier<String> loader(String value) {
+        return () -> {
+            loads.incrementAndGet();
+            return value;
+        };
+    }
+}
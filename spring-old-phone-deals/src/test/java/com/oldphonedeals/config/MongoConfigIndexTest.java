@@ -0,0 +1,82 @@
+package com.oldphonedeals.config;
+
+import com.oldphonedeals.entity.Cart;
+import com.oldphonedeals.entity.Order;
+import com.oldphonedeals.entity.Phone;
+import com.oldphonedeals.entity.Review;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.data.mongo.DataMongoTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexField;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * MongoConfig 索引创建集成测试
+ * <p>
+ * 使用应用自身的 MongoConfig（而不是 Spring Boot 的自动配置）启动，
+ * 验证实体注解声明的索引在启动时被创建
+ * </p>
+ */
+@DataMongoTest
+@Import(MongoConfig.class)
+@ActiveProfiles("test")
+@DisplayName("MongoConfig Index Integration Tests")
+class MongoConfigIndexTest {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    @DisplayName("启动时应创建商品标题/品牌的全文索引")
+    void shouldCreatePhoneTextIndex() {
+        List<IndexInfo> indexes = mongoTemplate.indexOps(Phone.class).getIndexInfo();
+
+        List<String> textFields = indexes.stream()
+                .flatMap(index -> index.getIndexFields().stream())
+                .filter(IndexField::isText)
+                .map(IndexField::getKey)
+                .collect(Collectors.toList());
+        assertTrue(textFields.containsAll(List.of("title", "brand")),
+                "text index missing on phones: " + names(indexes));
+    }
+
+    @Test
+    @DisplayName("启动时应创建商品目录、即将售罄和卖家店铺的复合索引")
+    void shouldCreatePhoneCompoundIndexes() {
+        List<String> names = names(mongoTemplate.indexOps(Phone.class).getIndexInfo());
+
+        assertTrue(names.containsAll(List.of(
+                "disabled_brand_price_idx",
+                "disabled_created_idx",
+                "disabled_price_idx",
+                "enabled_stock_idx",
+                "seller_created_idx")), "phones indexes: " + names);
+    }
+
+    @Test
+    @DisplayName("启动时应创建评论唯一索引、购物车商品索引和订单时间索引")
+    void shouldCreateReviewCartAndOrderIndexes() {
+        IndexInfo reviewerUnique = mongoTemplate.indexOps(Review.class).getIndexInfo().stream()
+                .filter(index -> "phone_reviewer_unique_idx".equals(index.getName()))
+                .findFirst()
+                .orElseThrow(() -> new AssertionError("phone_reviewer_unique_idx missing on reviews"));
+        assertTrue(reviewerUnique.isUnique());
+
+        assertTrue(names(mongoTemplate.indexOps(Cart.class).getIndexInfo()).contains("items_phone_idx"));
+        assertTrue(mongoTemplate.indexOps(Order.class).getIndexInfo().stream()
+                .anyMatch(index -> index.isIndexForFields(List.of("createdAt"))));
+    }
+
+    private static List<String> names(List<IndexInfo> indexes) {
+        return indexes.stream().map(IndexInfo::getName).collect(Collectors.toList());
+    }
+}
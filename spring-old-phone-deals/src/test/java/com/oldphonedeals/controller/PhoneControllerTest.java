@@ -1,13 +1,21 @@
 package com.oldphonedeals.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.oldphonedeals.cache.PhoneDetailCache;
+import com.oldphonedeals.config.CatalogProperties;
 import com.oldphonedeals.config.ControllerTestConfig;
 import com.oldphonedeals.config.CorsConfig;
 import com.oldphonedeals.config.FileStorageProperties;
+import com.oldphonedeals.dto.request.phone.PhoneBulkUpdateRequest;
 import com.oldphonedeals.dto.request.phone.PhoneCreateRequest;
+import com.oldphonedeals.dto.request.phone.PhoneQueryRequest;
 import com.oldphonedeals.dto.request.phone.PhoneUpdateRequest;
+import com.oldphonedeals.dto.response.PageResponse;
+import com.oldphonedeals.dto.response.phone.PhoneBulkUpdateResponse;
+import com.oldphonedeals.dto.response.phone.PhoneImportResponse;
 import com.oldphonedeals.dto.response.phone.PhoneListItemResponse;
 import com.oldphonedeals.dto.response.phone.PhoneResponse;
+import com.oldphonedeals.dto.response.phone.PhoneSuggestionResponse;
 import com.oldphonedeals.enums.PhoneBrand;
 import com.oldphonedeals.exception.ForbiddenException;
 import com.oldphonedeals.exception.ResourceNotFoundException;
@@ -15,6 +23,7 @@ import com.oldphonedeals.exception.UnauthorizedException;
 import com.oldphonedeals.security.CustomUserDetailsService;
 import com.oldphonedeals.security.JwtTokenProvider;
 import com.oldphonedeals.service.PhoneService;
+import com.oldphonedeals.util.PhoneImportReader;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -29,12 +38,15 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.FilterType;
 import org.springframework.context.annotation.Import;
 import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -64,7 +76,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
         type = FilterType.ASSIGNABLE_TYPE,
         classes = CorsConfig.class
     ))
-@Import(ControllerTestConfig.class)
+@Import({ControllerTestConfig.class, PhoneDetailCache.class, CatalogProperties.class})
 @AutoConfigureMockMvc(addFilters = false) // 禁用Security过滤器以简化测试
 @DisplayName("PhoneController集成测试")
 class PhoneControllerTest {
@@ -87,6 +99,9 @@ class PhoneControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private PhoneDetailCache phoneDetailCache;
+
     private PhoneCreateRequest createRequest;
     private PhoneUpdateRequest updateRequest;
     private PhoneResponse phoneResponse;
@@ -94,6 +109,9 @@ class PhoneControllerTest {
 
     @BeforeEach
     void setUp() {
+        // 详情缓存在测试上下文中共享
+        phoneDetailCache.evictAll();
+
         // 准备测试数据
         createRequest = PhoneCreateRequest.builder()
                 .title("iPhone 12 Pro")
@@ -168,6 +186,80 @@ class PhoneControllerTest {
         verify(phoneService, times(1)).createPhone(any(PhoneCreateRequest.class), anyString());
     }
 
+    @Test
+    @WithMockUser(username = "user123")
+    @DisplayName("testImportPhones_Csv_ReturnsReport")
+    void testImportPhones_Csv_ReturnsReport() throws Exception {
+        // Arrange
+        PhoneImportResponse report = PhoneImportResponse.builder()
+                .totalRows(2)
+                .imported(1)
+                .failed(1)
+                .errors(new ArrayList<>(List.of(new PhoneImportResponse.RowError(3, "Invalid brand: Pixel"))))
+                .build();
+        when(phoneService.importPhones(any(), eq(PhoneImportReader.Format.CSV), eq("user123"))).thenReturn(report);
+
+        // Act & Assert
+        mockMvc.perform(post("/api/phones/bulk")
+                        .contentType("text/csv")
+                        .content("title,brand,image,stock,price\nA,Apple,a.jpg,1,10\nB,Pixel,b.jpg,1,10\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.message").value("Bulk import completed"))
+                .andExpect(jsonPath("$.data.imported").value(1))
+                .andExpect(jsonPath("$.data.errors[0].line").value(3));
+
+        verify(phoneService, times(1)).importPhones(any(), eq(PhoneImportReader.Format.CSV), eq("user123"));
+    }
+
+    @Test
+    @WithMockUser(username = "user123")
+    @DisplayName("testImportPhones_UnsupportedFormat_ReturnsBadRequest")
+    void testImportPhones_UnsupportedFormat_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(post("/api/phones/bulk")
+                        .contentType(MediaType.APPLICATION_XML)
+                        .content("<phones/>"))
+                .andExpect(status().isBadRequest());
+
+        verify(phoneService, never()).importPhones(any(), any(), anyString());
+    }
+
+    @Test
+    @WithMockUser(username = "user123")
+    @DisplayName("testBulkUpdatePhones_ValidRequest_ReturnsCounts")
+    void testBulkUpdatePhones_ValidRequest_ReturnsCounts() throws Exception {
+        // Arrange
+        when(phoneService.bulkUpdatePhones(any(PhoneBulkUpdateRequest.class), eq("user123")))
+                .thenReturn(PhoneBulkUpdateResponse.builder().requested(2).matched(2).modified(1).build());
+
+        // Act & Assert
+        mockMvc.perform(patch("/api/phones/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"updates\":[{\"phoneId\":\"p1\",\"stock\":5},"
+                                + "{\"phoneId\":\"p2\",\"price\":199.0,\"isDisabled\":true}]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.message").value("Phones updated successfully"))
+                .andExpect(jsonPath("$.data.matched").value(2))
+                .andExpect(jsonPath("$.data.modified").value(1));
+
+        verify(phoneService, times(1)).bulkUpdatePhones(any(PhoneBulkUpdateRequest.class), eq("user123"));
+    }
+
+    @Test
+    @WithMockUser(username = "user123")
+    @DisplayName("testBulkUpdatePhones_NegativeStock_ReturnsBadRequest")
+    void testBulkUpdatePhones_NegativeStock_ReturnsBadRequest() throws Exception {
+        // Act & Assert
+        mockMvc.perform(patch("/api/phones/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"updates\":[{\"phoneId\":\"p1\",\"stock\":-1}]}"))
+                .andExpect(status().isBadRequest());
+
+        verify(phoneService, never()).bulkUpdatePhones(any(), anyString());
+    }
+
     @Test
     @DisplayName("testCreatePhone_MissingTitle_ReturnsBadRequest")
     void testCreatePhone_MissingTitle_ReturnsBadRequest() throws Exception {
@@ -401,6 +493,47 @@ class PhoneControllerTest {
         verify(phoneService, times(1)).getPhoneById(anyString(), isNull());
     }
 
+    @Test
+    @DisplayName("testGetPhoneById_Anonymous_ReturnsEtagAndServesFromCache")
+    void testGetPhoneById_Anonymous_ReturnsEtagAndServesFromCache() throws Exception {
+        // Arrange
+        when(phoneService.getPhoneById(anyString(), isNull()))
+                .thenReturn(phoneResponse);
+
+        // Act
+        String etag = mockMvc.perform(get("/api/phones/phone123"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Assert
+        mockMvc.perform(get("/api/phones/phone123"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(jsonPath("$.data.id").value("phone123"));
+
+        verify(phoneService, times(1)).getPhoneById(anyString(), isNull());
+    }
+
+    @Test
+    @DisplayName("testGetPhoneById_IfNoneMatch_ReturnsNotModified")
+    void testGetPhoneById_IfNoneMatch_ReturnsNotModified() throws Exception {
+        // Arrange
+        when(phoneService.getPhoneById(anyString(), isNull()))
+                .thenReturn(phoneResponse);
+        String etag = mockMvc.perform(get("/api/phones/phone123"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/phones/phone123").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+
+        verify(phoneService, times(1)).getPhoneById(anyString(), isNull());
+    }
+
     @Test
     @DisplayName("testGetPhoneById_PhoneNotFound_ReturnsNotFound")
     void testGetPhoneById_PhoneNotFound_ReturnsNotFound() throws Exception {
@@ -415,6 +548,54 @@ class PhoneControllerTest {
         verify(phoneService, times(1)).getPhoneById(anyString(), isNull());
     }
 
+    // ==================== 搜索建议端点测试 ====================
+
+    @Test
+    @DisplayName("testSuggestPhones_ReturnsSuggestions")
+    void testSuggestPhones_ReturnsSuggestions() throws Exception {
+        // Arrange
+        when(phoneService.suggestPhones("iph", null)).thenReturn(List.of(
+                PhoneSuggestionResponse.builder()
+                        .type("phone")
+                        .text("iPhone 12 Pro")
+                        .brand(PhoneBrand.APPLE)
+                        .phoneId("phone123")
+                        .build()));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/phones/suggest").param("q", "iph"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data[0].text").value("iPhone 12 Pro"))
+                .andExpect(jsonPath("$.data[0].phoneId").value("phone123"));
+
+        verify(phoneService, times(1)).suggestPhones("iph", null);
+        verify(phoneService, never()).getPhoneById(anyString(), any());
+    }
+
+    // ==================== 相关推荐端点测试 ====================
+
+    @Test
+    @DisplayName("testGetRelatedPhones_ReturnsRecommendations")
+    void testGetRelatedPhones_ReturnsRecommendations() throws Exception {
+        // Arrange
+        when(phoneService.getRelatedPhones("phone123", 4)).thenReturn(List.of(
+                PhoneListItemResponse.builder()
+                        .id("phone456")
+                        .title("Galaxy S21")
+                        .build()));
+
+        // Act & Assert
+        mockMvc.perform(get("/api/phones/phone123/related").param("limit", "4"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.message").value("Related phones retrieved successfully"))
+                .andExpect(jsonPath("$.data[0].id").value("phone456"));
+
+        verify(phoneService, times(1)).getRelatedPhones("phone123", 4);
+        verify(phoneService, never()).getPhoneById(anyString(), any());
+    }
+
     // ==================== 获取商品列表端点测试 ====================
 
     @Test
@@ -427,7 +608,7 @@ class PhoneControllerTest {
         response.put("totalPages", 1);
         response.put("totalItems", 1);
 
-        when(phoneService.getPhones(isNull(), isNull(), isNull(), eq("createdAt"), eq("desc"), eq(1), eq(12)))
+        when(phoneService.getPhones(eq(catalogQuery(null, null, null, null, "desc", 1, 12))))
                 .thenReturn(response);
 
         // Act & Assert
@@ -439,7 +620,7 @@ class PhoneControllerTest {
                 .andExpect(jsonPath("$.data.currentPage").value(1))
                 .andExpect(jsonPath("$.data.totalPages").value(1));
 
-        verify(phoneService, times(1)).getPhones(isNull(), isNull(), isNull(), eq("createdAt"), eq("desc"), eq(1), eq(12));
+        verify(phoneService, times(1)).getPhones(eq(catalogQuery(null, null, null, null, "desc", 1, 12)));
     }
 
     @Test
@@ -452,7 +633,7 @@ class PhoneControllerTest {
         response.put("totalPages", 5);
         response.put("totalItems", 50);
 
-        when(phoneService.getPhones(isNull(), isNull(), isNull(), eq("createdAt"), eq("desc"), eq(2), eq(10)))
+        when(phoneService.getPhones(eq(catalogQuery(null, null, null, null, "desc", 2, 10))))
                 .thenReturn(response);
 
         // Act & Assert
@@ -465,7 +646,7 @@ class PhoneControllerTest {
                 .andExpect(jsonPath("$.data.totalPages").value(5))
                 .andExpect(jsonPath("$.data.totalItems").value(50));
 
-        verify(phoneService, times(1)).getPhones(isNull(), isNull(), isNull(), eq("createdAt"), eq("desc"), eq(2), eq(10));
+        verify(phoneService, times(1)).getPhones(eq(catalogQuery(null, null, null, null, "desc", 2, 10)));
     }
 
     @Test
@@ -478,7 +659,7 @@ class PhoneControllerTest {
         response.put("totalPages", 1);
         response.put("totalItems", 1);
 
-        when(phoneService.getPhones(eq("iPhone"), isNull(), isNull(), eq("createdAt"), eq("desc"), eq(1), eq(12)))
+        when(phoneService.getPhones(eq(catalogQuery("iPhone", null, null, null, "desc", 1, 12))))
                 .thenReturn(response);
 
         // Act & Assert
@@ -488,7 +669,7 @@ class PhoneControllerTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data.phones").isArray());
 
-        verify(phoneService, times(1)).getPhones(eq("iPhone"), isNull(), isNull(), eq("createdAt"), eq("desc"), eq(1), eq(12));
+        verify(phoneService, times(1)).getPhones(eq(catalogQuery("iPhone", null, null, null, "desc", 1, 12)));
     }
 
     @Test
@@ -501,7 +682,7 @@ class PhoneControllerTest {
         response.put("totalPages", 1);
         response.put("totalItems", 1);
 
-        when(phoneService.getPhones(isNull(), eq(PhoneBrand.APPLE), isNull(), eq("createdAt"), eq("desc"), eq(1), eq(12)))
+        when(phoneService.getPhones(eq(catalogQuery(null, PhoneBrand.APPLE, null, null, "desc", 1, 12))))
                 .thenReturn(response);
 
         // Act & Assert
@@ -511,7 +692,7 @@ class PhoneControllerTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data.phones").isArray());
 
-        verify(phoneService, times(1)).getPhones(isNull(), eq(PhoneBrand.APPLE), isNull(), eq("createdAt"), eq("desc"), eq(1), eq(12));
+        verify(phoneService, times(1)).getPhones(eq(catalogQuery(null, PhoneBrand.APPLE, null, null, "desc", 1, 12)));
     }
 
     @Test
@@ -524,7 +705,7 @@ class PhoneControllerTest {
         response.put("totalPages", 1);
         response.put("totalItems", 1);
 
-        when(phoneService.getPhones(isNull(), isNull(), eq(1000.0), eq("createdAt"), eq("desc"), eq(1), eq(12)))
+        when(phoneService.getPhones(eq(catalogQuery(null, null, 1000.0, null, "desc", 1, 12))))
                 .thenReturn(response);
 
         // Act & Assert
@@ -534,7 +715,7 @@ class PhoneControllerTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data.phones").isArray());
 
-        verify(phoneService, times(1)).getPhones(isNull(), isNull(), eq(1000.0), eq("createdAt"), eq("desc"), eq(1), eq(12));
+        verify(phoneService, times(1)).getPhones(eq(catalogQuery(null, null, 1000.0, null, "desc", 1, 12)));
     }
 
     @Test
@@ -547,7 +728,7 @@ class PhoneControllerTest {
         response.put("totalPages", 1);
         response.put("totalItems", 1);
 
-        when(phoneService.getPhones(isNull(), isNull(), isNull(), eq("price"), eq("asc"), eq(1), eq(12)))
+        when(phoneService.getPhones(eq(catalogQuery(null, null, null, "price", "asc", 1, 12))))
                 .thenReturn(response);
 
         // Act & Assert
@@ -558,7 +739,7 @@ class PhoneControllerTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data.phones").isArray());
 
-        verify(phoneService, times(1)).getPhones(isNull(), isNull(), isNull(), eq("price"), eq("asc"), eq(1), eq(12));
+        verify(phoneService, times(1)).getPhones(eq(catalogQuery(null, null, null, "price", "asc", 1, 12)));
     }
 
     @Test
@@ -571,7 +752,7 @@ class PhoneControllerTest {
         response.put("totalPages", 1);
         response.put("totalItems", 1);
 
-        when(phoneService.getPhones(eq("iPhone"), eq(PhoneBrand.APPLE), eq(1000.0), eq("price"), eq("asc"), eq(1), eq(12)))
+        when(phoneService.getPhones(eq(catalogQuery("iPhone", PhoneBrand.APPLE, 1000.0, "price", "asc", 1, 12))))
                 .thenReturn(response);
 
         // Act & Assert
@@ -585,7 +766,82 @@ class PhoneControllerTest {
                 .andExpect(jsonPath("$.success").value(true))
                 .andExpect(jsonPath("$.data.phones").isArray());
 
-        verify(phoneService, times(1)).getPhones(eq("iPhone"), eq(PhoneBrand.APPLE), eq(1000.0), eq("price"), eq("asc"), eq(1), eq(12));
+        verify(phoneService, times(1)).getPhones(eq(catalogQuery("iPhone", PhoneBrand.APPLE, 1000.0, "price", "asc", 1, 12)));
+    }
+
+    @Test
+    @DisplayName("testGetAllPhones_WithPriceRange_PassesMinAndMaxPrice")
+    void testGetAllPhones_WithPriceRange_PassesMinAndMaxPrice() throws Exception {
+        // Arrange
+        Map<String, Object> response = new HashMap<>();
+        response.put("phones", List.of(listItemResponse));
+        response.put("currentPage", 1);
+        response.put("totalPages", 1);
+        response.put("totalItems", 1);
+
+        PhoneQueryRequest expected = catalogQuery(null, PhoneBrand.APPLE, 1000.0, null, "desc", 1, 12);
+        expected.setMinPrice(200.0);
+        when(phoneService.getPhones(eq(expected))).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/phones")
+                        .param("brand", "APPLE")
+                        .param("minPrice", "200")
+                        .param("maxPrice", "1000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.success").value(true))
+                .andExpect(jsonPath("$.data.phones").isArray());
+
+        verify(phoneService, times(1)).getPhones(eq(expected));
+    }
+
+    @Test
+    @DisplayName("testGetAllPhones_WithCursor_PassesAfterAndReturnsNextCursor")
+    void testGetAllPhones_WithCursor_PassesAfterAndReturnsNextCursor() throws Exception {
+        // Arrange
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("phones", List.of(listItemResponse));
+        response.put("nextCursor", "next-token");
+        response.put("hasMore", true);
+
+        PhoneQueryRequest expected = catalogQuery(null, null, null, null, "desc", 1, 12);
+        expected.setAfter("token-1");
+        when(phoneService.getPhones(eq(expected))).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/phones")
+                        .param("after", "token-1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.nextCursor").value("next-token"))
+                .andExpect(jsonPath("$.data.hasMore").value(true))
+                .andExpect(jsonPath("$.data.total").doesNotExist());
+
+        verify(phoneService, times(1)).getPhones(eq(expected));
+    }
+
+    @Test
+    @DisplayName("testGetAllPhones_WithFacets_PassesFacetOptions")
+    void testGetAllPhones_WithFacets_PassesFacetOptions() throws Exception {
+        // Arrange
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("phones", List.of(listItemResponse));
+        response.put("total", 1L);
+        response.put("facets", Map.of("brands", Map.of("APPLE", 1L)));
+
+        PhoneQueryRequest expected = catalogQuery("phone", null, null, null, "desc", 1, 12);
+        expected.setFacets(true);
+        expected.setPriceBuckets(List.of(0.0, 200.0, 600.0));
+        when(phoneService.getPhones(eq(expected))).thenReturn(response);
+
+        // Act & Assert
+        mockMvc.perform(get("/api/phones")
+                        .param("search", "phone")
+                        .param("facets", "true")
+                        .param("priceBuckets", "0,200,600"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.facets.brands.APPLE").value(1));
+
+        verify(phoneService, times(1)).getPhones(eq(expected));
     }
 
     // ==================== Special 列表端点测试 ====================
@@ -606,7 +862,7 @@ class PhoneControllerTest {
                 .andExpect(jsonPath("$.data").isArray());
 
         verify(phoneService, times(1)).getSoldOutSoonPhones();
-        verify(phoneService, never()).getPhones(any(), any(), any(), any(), any(), anyInt(), anyInt());
+        verify(phoneService, never()).getPhones(any(PhoneQueryRequest.class));
     }
 
     @Test
@@ -625,7 +881,7 @@ class PhoneControllerTest {
                 .andExpect(jsonPath("$.data").isArray());
 
         verify(phoneService, times(1)).getBestSellers();
-        verify(phoneService, never()).getPhones(any(), any(), any(), any(), any(), anyInt(), anyInt());
+        verify(phoneService, never()).getPhones(any(PhoneQueryRequest.class));
     }
 
     // ==================== 按卖家列出商品端点测试 ====================
@@ -646,19 +902,76 @@ class PhoneControllerTest {
                 .andExpect(jsonPath("$.data[0].id").value("phone123"));
 
         verify(phoneService, times(1)).getPhonesBySeller(eq("seller123"));
+        verify(phoneService, never()).getPhonesBySeller(anyString(), any(), any(), any(), any());
     }
 
     @Test
-    @DisplayName("testGetPhonesBySeller_SellerNotFound_ReturnsNotFound")
-    void testGetPhonesBySeller_SellerNotFound_ReturnsNotFound() throws Exception {
+    @DisplayName("testGetPhonesBySeller_WithPage_ReturnsPageResponse")
+    void testGetPhonesBySeller_WithPage_ReturnsPageResponse() throws Exception {
         // Arrange
-        when(phoneService.getPhonesBySeller(eq("nonexistent")))
-                .thenThrow(new ResourceNotFoundException("Seller not found"));
+        PageResponse<PhoneResponse> response = PageResponse.<PhoneResponse>builder()
+                .content(List.of(phoneResponse))
+                .currentPage(2)
+                .totalPages(2)
+                .totalItems(30L)
+                .itemsPerPage(20)
+                .build();
+        when(phoneService.getPhonesBySeller("seller123", 2, 20, "price", "asc"))
+                .thenReturn(response);
 
         // Act & Assert
-        mockMvc.perform(get("/api/phones/by-seller/nonexistent"))
-                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/phones/by-seller/seller123")
+                        .param("page", "2")
+                        .param("limit", "20")
+                        .param("sortBy", "price")
+                        .param("sortOrder", "asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].id").value("phone123"))
+                .andExpect(jsonPath("$.data.currentPage").value(2))
+                .andExpect(jsonPath("$.data.totalItems").value(30));
+
+        verify(phoneService, times(1)).getPhonesBySeller("seller123", 2, 20, "price", "asc");
+        verify(phoneService, never()).getPhonesBySeller("seller123");
+    }
+
+    @Test
+    @DisplayName("testGetPhonesBySeller_WithSummary_ReturnsSummaryPage")
+    void testGetPhonesBySeller_WithSummary_ReturnsSummaryPage() throws Exception {
+        // Arrange
+        PageResponse<PhoneListItemResponse> response = PageResponse.<PhoneListItemResponse>builder()
+                .content(List.of(listItemResponse))
+                .currentPage(1)
+                .totalPages(1)
+                .totalItems(1L)
+                .itemsPerPage(12)
+                .build();
+        when(phoneService.getPhoneSummariesBySeller("seller123", null, 12, null, "desc"))
+                .thenReturn(response);
 
-        verify(phoneService, times(1)).getPhonesBySeller(eq("nonexistent"));
+        // Act & Assert
+        mockMvc.perform(get("/api/phones/by-seller/seller123")
+                        .param("summary", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.content[0].reviewCount").exists())
+                .andExpect(jsonPath("$.data.currentPage").value(1));
+
+        verify(phoneService, times(1)).getPhoneSummariesBySeller("seller123", null, 12, null, "desc");
+    }
+
+    // ==================== 辅助方法 ====================
+
+    private PhoneQueryRequest catalogQuery(String search, PhoneBrand brand, Double maxPrice,
+                                           String sortBy, String sortOrder, int page, int limit) {
+        return PhoneQueryRequest.builder()
+                .search(search)
+                .fuzzy(false)
+                .brand(brand)
+                .maxPrice(maxPrice)
+                .sortBy(sortBy)
+                .sortOrder(sortOrder)
+                .page(page)
+                .limit(limit)
+                .facets(false)
+                .build();
     }
-}
\ No newline at end of file
+}
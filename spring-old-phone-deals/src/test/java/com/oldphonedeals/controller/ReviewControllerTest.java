@@ -6,15 +6,14 @@ import com.oldphonedeals.config.CorsConfig;
 import com.oldphonedeals.config.FileStorageProperties;
 import com.oldphonedeals.dto.request.admin.ToggleReviewVisibilityRequest;
 import com.oldphonedeals.dto.request.phone.ReviewCreateRequest;
+import com.oldphonedeals.dto.response.phone.ReviewCursorPageResponse;
+import com.oldphonedeals.dto.response.phone.ReviewPageResponse;
 import com.oldphonedeals.dto.response.phone.ReviewResponse;
 import com.oldphonedeals.dto.response.phone.SellerReviewResponse;
-import com.oldphonedeals.entity.Phone;
-import com.oldphonedeals.entity.User;
 import com.oldphonedeals.exception.ResourceNotFoundException;
 import com.oldphonedeals.security.CustomUserDetailsService;
 import com.oldphonedeals.security.JwtTokenProvider;
 import com.oldphonedeals.service.ReviewService;
-import com.oldphonedeals.repository.PhoneRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -34,7 +33,6 @@ import org.springframework.test.web.servlet.MockMvc;
 
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
@@ -71,9 +69,6 @@ class ReviewControllerTest {
     @MockBean
     private ReviewService reviewService;
 
-    @MockBean
-    private PhoneRepository phoneRepository;
-
     @MockBean
     private JwtTokenProvider jwtTokenProvider;
 
@@ -86,25 +81,12 @@ class ReviewControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
-    private Phone phoneWithReviews;
     private ReviewResponse review1;
     private ReviewResponse review2;
     private ReviewResponse review3;
 
     @BeforeEach
     void setUp() {
-        User seller = User.builder()
-                .id("seller-1")
-                .firstName("Alice")
-                .lastName("Seller")
-                .build();
-
-        phoneWithReviews = Phone.builder()
-                .id("phone-1")
-                .title("Test Phone")
-                .seller(seller)
-                .build();
-
         review1 = ReviewResponse.builder()
                 .id("r1")
                 .reviewerId("user-1")
@@ -153,17 +135,21 @@ class ReviewControllerTest {
                         .param("limit", "0"))
                 .andExpect(status().isBadRequest());
 
-        verify(phoneRepository, never()).findById(anyString());
-        verify(reviewService, never()).filterVisibleReviews(anyList(), any(), any());
+        verify(reviewService, never()).getReviews(anyString(), any(), anyInt(), anyInt());
+        verify(reviewService, never()).getReviewsAfter(anyString(), any(), any(), anyInt());
     }
 
     @Test
     @WithMockUser(username = "user-1")
     @DisplayName("应该返回分页后的评论列表 - 当请求参数有效且手机存在时")
     void shouldReturnPagedReviews_whenRequestValidAndPhoneExists() throws Exception {
-        when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phoneWithReviews));
-        when(reviewService.filterVisibleReviews(anyList(), any(), any()))
-                .thenReturn(List.of(review1, review2, review3));
+        when(reviewService.getReviews(eq("phone-1"), any(), eq(1), eq(2)))
+                .thenReturn(ReviewPageResponse.builder()
+                        .reviews(List.of(review1, review2))
+                        .totalReviews(3)
+                        .currentPage(1)
+                        .totalPages(2)
+                        .build());
 
         mockMvc.perform(get("/api/phones/{phoneId}/reviews", "phone-1")
                         .param("page", "1")
@@ -175,42 +161,41 @@ class ReviewControllerTest {
                 .andExpect(jsonPath("$.data.currentPage").value(1))
                 .andExpect(jsonPath("$.data.totalPages").value(2));
 
-        verify(phoneRepository, times(1)).findById("phone-1");
-        verify(reviewService, times(1)).filterVisibleReviews(anyList(), any(), any());
+        verify(reviewService, times(1)).getReviews(eq("phone-1"), any(), eq(1), eq(2));
+        verify(reviewService, never()).getReviewsAfter(anyString(), any(), any(), anyInt());
     }
 
     @Test
-    @WithMockUser(username = "user-1")
-    @DisplayName("应该返回空列表但状态为200 - 当请求页码超出总页数时")
-    void shouldReturnEmptyPage_whenPageExceedsTotal() throws Exception {
-        when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phoneWithReviews));
-        when(reviewService.filterVisibleReviews(anyList(), any(), any()))
-                .thenReturn(List.of(review1, review2, review3));
+    @DisplayName("应该返回游标分页结果 - 当指定 cursor 时")
+    void shouldReturnCursorPage_whenCursorProvided() throws Exception {
+        when(reviewService.getReviewsAfter(eq("phone-1"), any(), eq("abc"), eq(2)))
+                .thenReturn(ReviewCursorPageResponse.builder()
+                        .reviews(List.of(review3))
+                        .totalReviews(3)
+                        .nextCursor(null)
+                        .hasMore(false)
+                        .build());
 
         mockMvc.perform(get("/api/phones/{phoneId}/reviews", "phone-1")
-                        .param("page", "5")
+                        .param("cursor", "abc")
                         .param("limit", "2"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.success").value(true))
-                .andExpect(jsonPath("$.data.reviews").isArray())
-                .andExpect(jsonPath("$.data.reviews").isEmpty())
+                .andExpect(jsonPath("$.data.reviews.length()").value(1))
                 .andExpect(jsonPath("$.data.totalReviews").value(3))
-                .andExpect(jsonPath("$.data.currentPage").value(5));
+                .andExpect(jsonPath("$.data.hasMore").value(false));
 
-        verify(phoneRepository, times(1)).findById("phone-1");
-        verify(reviewService, times(1)).filterVisibleReviews(anyList(), any(), any());
+        verify(reviewService, never()).getReviews(anyString(), any(), anyInt(), anyInt());
     }
 
     @Test
     @DisplayName("应该返回404错误 - 当手机不存在时")
     void shouldReturnNotFound_whenPhoneDoesNotExist() throws Exception {
-        when(phoneRepository.findById("phone-1")).thenReturn(Optional.empty());
+        when(reviewService.getReviews(eq("phone-1"), any(), anyInt(), anyInt()))
+                .thenThrow(new ResourceNotFoundException("Phone not found with id: phone-1"));
 
         mockMvc.perform(get("/api/phones/{phoneId}/reviews", "phone-1"))
                 .andExpect(status().isNotFound());
-
-        verify(phoneRepository, times(1)).findById("phone-1");
-        verify(reviewService, never()).filterVisibleReviews(anyList(), any(), any());
     }
 
     // ==================== 添加评论 ====================
@@ -0,0 +1,154 @@
+package com.oldphonedeals.job;
+
+import com.oldphonedeals.cache.RelatedPhonesIndex;
+import com.oldphonedeals.config.CatalogProperties;
+import com.oldphonedeals.entity.JobCheckpoint;
+import com.oldphonedeals.entity.Order;
+import com.oldphonedeals.entity.PhoneCoPurchase;
+import com.oldphonedeals.repository.CoPurchaseRepository;
+import com.oldphonedeals.repository.JobCheckpointRepository;
+import com.oldphonedeals.repository.OrderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+/**
+ * CoPurchaseMatrixJob 单元测试
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CoPurchaseMatrixJob Unit Tests")
+class CoPurchaseMatrixJobTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private CoPurchaseRepository coPurchaseRepository;
+
+    @Mock
+    private JobCheckpointRepository jobCheckpointRepository;
+
+    @Mock
+    private RelatedPhonesIndex relatedPhonesIndex;
+
+    private CoPurchaseMatrixJob job;
+
+    @BeforeEach
+    void setUp() {
+        job = new CoPurchaseMatrixJob(orderRepository, coPurchaseRepository, jobCheckpointRepository,
+            relatedPhonesIndex, new CatalogProperties());
+    }
+
+    @Test
+    @DisplayName("商品对计数双向累加")
+    void pairCounts_shouldCountBothDirections() {
+        CoPurchaseMatrixJob.PairCounts pairs = new CoPurchaseMatrixJob.PairCounts();
+
+        pairs.addOrder(List.of("a", "b", "c"));
+        pairs.addOrder(List.of("b", "a"));
+        pairs.addOrder(List.of("a"));
+
+        assertEquals(6, pairs.size());
+        assertEquals(2, pairs.get("a", "b"));
+        assertEquals(2, pairs.get("b", "a"));
+        assertEquals(1, pairs.get("c", "a"));
+        assertEquals(0, pairs.get("a", "a"));
+        assertEquals(0, pairs.get("a", "missing"));
+        assertEquals(Map.of("b", 2, "c", 1), pairs.toDeltas().get("a"));
+    }
+
+    @Test
+    @DisplayName("扩容后计数不丢失")
+    void pairCounts_shouldKeepCountsAcrossResize() {
+        CoPurchaseMatrixJob.PairCounts pairs = new CoPurchaseMatrixJob.PairCounts();
+        List<String> ids = IntStream.range(0, 40).mapToObj(i -> "p" + i).collect(Collectors.toList());
+
+        pairs.addOrder(ids);
+        pairs.addOrder(ids);
+
+        assertEquals(40 * 39, pairs.size());
+        assertEquals(2, pairs.get("p0", "p39"));
+        assertEquals(2, pairs.get("p39", "p0"));
+        assertEquals(39, pairs.toDeltas().get("p17").size());
+    }
+
+    @Test
+    @DisplayName("推荐按次数降序、次数相同时按ID升序取前 k 个")
+    void topRelated_shouldOrderByCountThenId() {
+        Map<String, Integer> counts = Map.of("d", 1, "c", 5, "b", 3, "a", 3);
+
+        assertEquals(List.of("c", "a", "b"), CoPurchaseMatrixJob.topRelated(counts, 3));
+        assertTrue(CoPurchaseMatrixJob.topRelated(null, 3).isEmpty());
+    }
+
+    @Test
+    @DisplayName("处理检查点之后的订单并更新推荐")
+    @SuppressWarnings("unchecked")
+    void processNewOrders_shouldIncrementCountsAndRefreshRelated() {
+        LocalDateTime from = LocalDateTime.of(2024, 5, 1, 0, 0);
+        JobCheckpoint checkpoint = JobCheckpoint.builder()
+            .id(CoPurchaseMatrixJob.CHECKPOINT_ID).processedUntil(from).version(3L).build();
+        when(jobCheckpointRepository.findById(CoPurchaseMatrixJob.CHECKPOINT_ID)).thenReturn(Optional.of(checkpoint));
+        when(orderRepository.streamItemsCreatedBetween(eq(from), any()))
+            .thenReturn(Stream.of(order("a", "b", "a"), order("a", "c"), Order.builder().build()));
+        when(coPurchaseRepository.findAllById(anyCollection())).thenReturn(List.of(
+            PhoneCoPurchase.builder().id("a").counts(Map.of("b", 4, "c", 1)).build(),
+            PhoneCoPurchase.builder().id("b").counts(Map.of("a", 4)).build(),
+            PhoneCoPurchase.builder().id("c").counts(Map.of("a", 1)).build()));
+
+        assertEquals(3, job.processNewOrders());
+
+        ArgumentCaptor<Map<String, Map<String, Integer>>> deltas = ArgumentCaptor.forClass(Map.class);
+        verify(coPurchaseRepository).incrementCounts(deltas.capture());
+        assertEquals(Map.of(
+            "a", Map.of("b", 1, "c", 1),
+            "b", Map.of("a", 1),
+            "c", Map.of("a", 1)), deltas.getValue());
+
+        Map<String, List<String>> expected = Map.of("a", List.of("b", "c"), "b", List.of("a"), "c", List.of("a"));
+        verify(coPurchaseRepository).saveRelated(expected);
+        verify(relatedPhonesIndex).putAll(expected);
+        verify(jobCheckpointRepository).save(checkpoint);
+        assertTrue(checkpoint.getProcessedUntil().isAfter(from));
+    }
+
+    @Test
+    @DisplayName("窗口已被其他实例认领时只重新加载推荐")
+    void processNewOrders_shouldReload_whenWindowAlreadyClaimed() {
+        when(jobCheckpointRepository.findById(CoPurchaseMatrixJob.CHECKPOINT_ID)).thenReturn(Optional.empty());
+        when(jobCheckpointRepository.save(any())).thenThrow(new OptimisticLockingFailureException("claimed"));
+
+        assertEquals(0, job.processNewOrders());
+
+        verify(relatedPhonesIndex).reload();
+        verifyNoInteractions(orderRepository, coPurchaseRepository);
+    }
+
+    private static Order order(String... phoneIds) {
+        return Order.builder()
+            .items(Arrays.stream(phoneIds)
+                .map(id -> Order.OrderItem.builder().phoneId(id).build())
+                .collect(Collectors.toList()))
+            .createdAt(LocalDateTime.now())
+            .build();
+    }
+}
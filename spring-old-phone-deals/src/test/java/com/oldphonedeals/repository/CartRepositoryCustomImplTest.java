@@ -0,0 +1,164 @@
+package com.oldphonedeals.repository;
+
+import com.mongodb.client.result.UpdateResult;
+import com.oldphonedeals.entity.Cart;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * CartRepositoryCustomImpl 单元测试
+ * 验证每个购物车修改都是单条原子更新语句，不依赖 MongoDB
+ */
+@DisplayName("CartRepositoryCustomImpl Unit Tests")
+class CartRepositoryCustomImplTest {
+
+    private static final Cart CART = Cart.builder().id("cart-1").userId("user-1").build();
+
+    @Test
+    @DisplayName("商品已在购物车中时应定位更新数量和价格")
+    void shouldUpdateExistingItemInPlace() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Cart.class))).thenReturn(CART);
+
+        Cart result = new CartRepositoryCustomImpl(mongoTemplate).upsertItem("user-1", item("phone-1", 2));
+
+        assertSame(CART, result);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).findAndModify(query.capture(), update.capture(),
+                any(FindAndModifyOptions.class), eq(Cart.class));
+        assertEquals(new Document("userId", "user-1").append("items.phoneId", "phone-1"),
+                query.getValue().getQueryObject());
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals(2, set.get("items.$.quantity"));
+        assertEquals(999.99, set.get("items.$.price"));
+    }
+
+    @Test
+    @DisplayName("商品不在购物车中时应条件 $push 并允许插入新购物车")
+    void shouldPushNewItemWithUpsert() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Cart.class))).thenReturn(null, CART);
+
+        Cart result = new CartRepositoryCustomImpl(mongoTemplate).upsertItem("user-1", item("phone-1", 1));
+
+        assertSame(CART, result);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<FindAndModifyOptions> options = ArgumentCaptor.forClass(FindAndModifyOptions.class);
+        verify(mongoTemplate, times(2)).findAndModify(query.capture(), any(Update.class), options.capture(),
+                eq(Cart.class));
+        assertEquals(new Document("userId", "user-1").append("items.phoneId", new Document("$ne", "phone-1")),
+                query.getAllValues().get(1).getQueryObject());
+        assertFalse(options.getAllValues().get(0).isUpsert());
+        assertTrue(options.getAllValues().get(1).isUpsert());
+        assertTrue(options.getAllValues().get(1).isReturnNew());
+    }
+
+    @Test
+    @DisplayName("并发加入同一商品导致插入冲突时应重新走定位更新")
+    void shouldRetryPositionalUpdate_whenConcurrentPushConflicts() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Cart.class)))
+                .thenReturn(null)
+                .thenThrow(new DuplicateKeyException("E11000"))
+                .thenReturn(CART);
+
+        Cart result = new CartRepositoryCustomImpl(mongoTemplate).upsertItem("user-1", item("phone-1", 1));
+
+        assertSame(CART, result);
+        verify(mongoTemplate, times(3)).findAndModify(any(Query.class), any(Update.class),
+                any(FindAndModifyOptions.class), eq(Cart.class));
+    }
+
+    @Test
+    @DisplayName("追加更新应 $push 商品并只在插入时写入创建时间")
+    void shouldBuildPushUpdate() {
+        LocalDateTime now = LocalDateTime.of(2024, 1, 1, 0, 0);
+        Cart.CartItem item = item("phone-1", 1);
+
+        Document update = CartRepositoryCustomImpl.buildPushUpdate(item, now).getUpdateObject();
+
+        assertEquals(new Document("items", item), update.get("$push"));
+        assertEquals(new Document("updatedAt", now), update.get("$set"));
+        assertEquals(new Document("createdAt", now), update.get("$setOnInsert"));
+    }
+
+    @Test
+    @DisplayName("移除商品应以 $pull 删除，不匹配时返回空")
+    void shouldPullItem() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Cart.class))).thenReturn(null);
+
+        Optional<Cart> result = new CartRepositoryCustomImpl(mongoTemplate).removeItem("user-1", "phone-1");
+
+        assertTrue(result.isEmpty());
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), update.capture(), any(FindAndModifyOptions.class),
+                eq(Cart.class));
+        assertEquals(new Document("items", new Document("phoneId", "phone-1")),
+                update.getValue().getUpdateObject().get("$pull"));
+    }
+
+    @Test
+    @DisplayName("清空购物车应根据匹配数量判断购物车是否存在")
+    void shouldClearItems() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Cart.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null), UpdateResult.acknowledged(0, 0L, null));
+        CartRepositoryCustomImpl repository = new CartRepositoryCustomImpl(mongoTemplate);
+
+        assertTrue(repository.clearItems("user-1"));
+        assertFalse(repository.clearItems("user-2"));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), update.capture(), eq(Cart.class));
+        assertEquals(List.of(), ((Document) update.getValue().getUpdateObject().get("$set")).get("items"));
+    }
+
+    @Test
+    @DisplayName("删除商品时应以一次 updateMulti $pull 清理所有购物车")
+    void shouldPullPhoneFromAllCarts() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Cart.class)))
+                .thenReturn(UpdateResult.acknowledged(3, 3L, null));
+
+        long modified = new CartRepositoryCustomImpl(mongoTemplate).pullPhoneFromAllCarts("phone-1");
+
+        assertEquals(3, modified);
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(query.capture(), update.capture(), eq(Cart.class));
+        assertEquals(new Document("items.phoneId", "phone-1"), query.getValue().getQueryObject());
+        assertEquals(new Document("items", new Document("phoneId", "phone-1")),
+                update.getValue().getUpdateObject().get("$pull"));
+    }
+
+    private static Cart.CartItem item(String phoneId, int quantity) {
+        return Cart.CartItem.builder()
+                .phoneId(phoneId)
+                .title("Test Phone")
+                .quantity(quantity)
+                .price(999.99)
+                .build();
+    }
+}
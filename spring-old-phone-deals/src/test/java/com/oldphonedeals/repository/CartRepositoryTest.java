@@ -13,6 +13,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -144,8 +145,8 @@ class CartRepositoryTest {
   }
 
   @Test
-  @DisplayName("应该查找包含指定商品的所有购物车")
-  void shouldFindCartsContainingPhone() {
+  @DisplayName("应该从所有包含指定商品的购物车中移除该商品")
+  void shouldPullPhoneFromAllCarts() {
     // Given
     String phoneId = "phone-123";
     
@@ -164,18 +165,18 @@ class CartRepositoryTest {
     cartRepository.save(cart3);
 
     // When
-    List<Cart> cartsWithPhone = cartRepository.findCartsContainingPhone(phoneId);
+    long modified = cartRepository.pullPhoneFromAllCarts(phoneId);
 
     // Then
-    assertEquals(2, cartsWithPhone.size());
-    assertTrue(cartsWithPhone.stream()
-        .allMatch(cart -> cart.getItems().stream()
-            .anyMatch(item -> item.getPhoneId().equals(phoneId))));
+    assertEquals(2, modified);
+    assertEquals(List.of("phone-456"), phoneIdsInCart("user-1"));
+    assertTrue(phoneIdsInCart("user-2").isEmpty());
+    assertEquals(List.of("phone-789"), phoneIdsInCart("user-3"));
   }
 
   @Test
-  @DisplayName("应该返回空列表 - 当没有购物车包含指定商品时")
-  void shouldReturnEmptyList_whenNoCartsContainPhone() {
+  @DisplayName("应该不修改任何购物车 - 当没有购物车包含指定商品时")
+  void shouldModifyNoCarts_whenNoCartsContainPhone() {
     // Given
     String phoneId = "non-existent-phone";
     
@@ -184,10 +185,11 @@ class CartRepositoryTest {
     cartRepository.save(cart);
 
     // When
-    List<Cart> cartsWithPhone = cartRepository.findCartsContainingPhone(phoneId);
+    long modified = cartRepository.pullPhoneFromAllCarts(phoneId);
 
     // Then
-    assertTrue(cartsWithPhone.isEmpty());
+    assertEquals(0, modified);
+    assertEquals(List.of("phone-123"), phoneIdsInCart("user-1"));
   }
 
   @Test
@@ -325,4 +327,10 @@ class CartRepositoryTest {
         .createdAt(LocalDateTime.now())
         .build();
   }
-}
\ No newline at end of file
+
+  private List<String> phoneIdsInCart(String userId) {
+    return cartRepository.findByUserId(userId).orElseThrow().getItems().stream()
+        .map(Cart.CartItem::getPhoneId)
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,494 @@
+package com.oldphonedeals.repository;
+
+import com.mongodb.DBRef;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.UpdateResult;
+import com.oldphonedeals.dto.request.phone.PhoneBulkUpdateRequest;
+import com.oldphonedeals.dto.request.phone.PhoneQueryRequest;
+import com.oldphonedeals.entity.Phone;
+import com.oldphonedeals.entity.User;
+import com.oldphonedeals.enums.PhoneBrand;
+import com.oldphonedeals.util.CatalogCursor;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * PhoneRepositoryCustomImpl 单元测试
+ * 只验证 Criteria / 排序的构建，不依赖 MongoDB
+ */
+@DisplayName("PhoneRepositoryCustomImpl Unit Tests")
+class PhoneRepositoryCustomImplTest {
+
+    @Test
+    @DisplayName("无过滤条件时只过滤未禁用商品")
+    void shouldOnlyFilterDisabled_whenNoFilters() {
+        PhoneQueryRequest query = PhoneQueryRequest.builder().build();
+
+        Document criteria = PhoneRepositoryCustomImpl.buildCatalogCriteria(query).getCriteriaObject();
+
+        assertEquals(1, criteria.size());
+        assertEquals(false, criteria.get("isDisabled"));
+    }
+
+    @Test
+    @DisplayName("应该组合品牌与价格区间条件")
+    void shouldComposeBrandAndPriceFilters() {
+        PhoneQueryRequest query = PhoneQueryRequest.builder()
+                .brand(PhoneBrand.SAMSUNG)
+                .minPrice(100.0)
+                .maxPrice(500.0)
+                .build();
+
+        Document criteria = PhoneRepositoryCustomImpl.buildCatalogCriteria(query).getCriteriaObject();
+
+        assertEquals(false, criteria.get("isDisabled"));
+        assertEquals(PhoneBrand.SAMSUNG, criteria.get("brand"));
+        Document price = (Document) criteria.get("price");
+        assertEquals(100.0, price.get("$gte"));
+        assertEquals(500.0, price.get("$lte"));
+    }
+
+    @Test
+    @DisplayName("搜索词应使用 $text 查询而不是正则")
+    void shouldUseTextSearch_whenSearchProvided() {
+        PhoneQueryRequest query = PhoneQueryRequest.builder()
+                .search("  galaxy.*(a+)+ ")
+                .brand(PhoneBrand.SAMSUNG)
+                .build();
+
+        Query mongoQuery = PhoneRepositoryCustomImpl.buildCatalogQuery(query);
+        Document queryObject = mongoQuery.getQueryObject();
+
+        assertInstanceOf(TextQuery.class, mongoQuery);
+        assertEquals("galaxy.*(a+)+", ((Document) queryObject.get("$text")).get("$search"));
+        assertFalse(queryObject.containsKey("title"));
+        assertEquals(PhoneBrand.SAMSUNG, queryObject.get("brand"));
+    }
+
+    @Test
+    @DisplayName("有搜索词且未指定排序时按相关度排序")
+    void shouldSortByRelevance_whenSearchWithoutSortBy() {
+        PhoneQueryRequest query = PhoneQueryRequest.builder()
+                .search("iphone")
+                .build();
+
+        Query mongoQuery = PhoneRepositoryCustomImpl.buildCatalogQuery(query)
+                .with(PhoneRepositoryCustomImpl.toPageable(query));
+
+        assertTrue(PhoneRepositoryCustomImpl.isRelevanceSort(query));
+        assertTrue(mongoQuery.getSortObject().containsKey("score"));
+    }
+
+    @Test
+    @DisplayName("有搜索词但指定排序字段时按该字段排序")
+    void shouldSortByField_whenSearchWithExplicitSortBy() {
+        PhoneQueryRequest query = PhoneQueryRequest.builder()
+                .search("iphone")
+                .sortBy("price")
+                .sortOrder("asc")
+                .build();
+
+        Query mongoQuery = PhoneRepositoryCustomImpl.buildCatalogQuery(query)
+                .with(PhoneRepositoryCustomImpl.toPageable(query));
+
+        assertFalse(PhoneRepositoryCustomImpl.isRelevanceSort(query));
+        assertFalse(mongoQuery.getSortObject().containsKey("score"));
+        assertEquals(1, mongoQuery.getSortObject().get("price"));
+    }
+
+    @Test
+    @DisplayName("非正数价格应被忽略")
+    void shouldIgnoreNonPositivePrices() {
+        PhoneQueryRequest query = PhoneQueryRequest.builder()
+                .minPrice(0.0)
+                .maxPrice(-1.0)
+                .build();
+
+        Document criteria = PhoneRepositoryCustomImpl.buildCatalogCriteria(query).getCriteriaObject();
+
+        assertFalse(criteria.containsKey("price"));
+    }
+
+    @Test
+    @DisplayName("未知排序字段应回退到 createdAt 并附加 _id")
+    void shouldFallbackToCreatedAt_whenSortFieldUnknown() {
+        PhoneQueryRequest query = PhoneQueryRequest.builder()
+                .sortBy("seller.password")
+                .sortOrder("asc")
+                .page(3)
+                .limit(20)
+                .build();
+
+        Pageable pageable = PhoneRepositoryCustomImpl.toPageable(query);
+
+        assertEquals(2, pageable.getPageNumber());
+        assertEquals(20, pageable.getPageSize());
+        assertEquals(Sort.Direction.ASC, pageable.getSort().getOrderFor("createdAt").getDirection());
+        assertNotNull(pageable.getSort().getOrderFor("_id"));
+        assertNull(pageable.getSort().getOrderFor("seller.password"));
+    }
+
+    @Test
+    @DisplayName("升序游标应查询排序值更大或相同值下 _id 更大的数据")
+    void shouldBuildAscendingKeyset() {
+        String id = new ObjectId().toHexString();
+        CatalogCursor after = new CatalogCursor("price", Sort.Direction.ASC, 199.0, id);
+
+        Document keyset = PhoneRepositoryCustomImpl.buildKeysetCriteria(after).getCriteriaObject();
+
+        List<?> branches = (List<?>) keyset.get("$or");
+        assertEquals(2, branches.size());
+        assertEquals(199.0, ((Document) ((Document) branches.get(0)).get("price")).get("$gt"));
+        Document sameValue = (Document) branches.get(1);
+        assertEquals(199.0, sameValue.get("price"));
+        assertEquals(new ObjectId(id), ((Document) sameValue.get("_id")).get("$gt"));
+    }
+
+    @Test
+    @DisplayName("降序游标应包含排序值为 null 的数据（null 排在最后）")
+    void shouldIncludeNullValues_whenDescendingKeyset() {
+        CatalogCursor after = new CatalogCursor("salesCount", Sort.Direction.DESC, 10, "phone-1");
+
+        Document keyset = PhoneRepositoryCustomImpl.buildKeysetCriteria(after).getCriteriaObject();
+
+        List<?> branches = (List<?>) keyset.get("$or");
+        assertEquals(3, branches.size());
+        assertEquals(10, ((Document) ((Document) branches.get(0)).get("salesCount")).get("$lt"));
+        assertEquals("phone-1", ((Document) ((Document) branches.get(1)).get("_id")).get("$lt"));
+        assertTrue(((Document) branches.get(2)).containsKey("salesCount"));
+        assertNull(((Document) branches.get(2)).get("salesCount"));
+    }
+
+    @Test
+    @DisplayName("游标模式下搜索不使用相关度排序")
+    void shouldNotSortByRelevance_whenCursorMode() {
+        PhoneQueryRequest query = PhoneQueryRequest.builder()
+                .search("iphone")
+                .after("")
+                .build();
+
+        assertFalse(PhoneRepositoryCustomImpl.isRelevanceSort(query));
+        assertNotNull(PhoneRepositoryCustomImpl.toSort(query).getOrderFor("createdAt"));
+    }
+
+    @Test
+    @DisplayName("分面聚合应共享 $match 且品牌过滤只作用于子管道")
+    void shouldBuildFacetAggregation_withBrandOnlyInSubPipelines() {
+        PhoneQueryRequest query = PhoneQueryRequest.builder()
+                .search("galaxy")
+                .brand(PhoneBrand.SAMSUNG)
+                .maxPrice(800.0)
+                .page(2)
+                .limit(10)
+                .build();
+
+        List<Document> pipeline = PhoneRepositoryCustomImpl
+                .buildFacetAggregation(query, List.of(0.0, 100.0, 500.0))
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        assertEquals(2, pipeline.size());
+        Document match = (Document) pipeline.get(0).get("$match");
+        assertTrue(match.containsKey("$text"));
+        assertFalse(match.containsKey("brand"));
+        assertEquals(800.0, ((Document) match.get("price")).get("$lte"));
+
+        Document facet = (Document) pipeline.get(1).get("$facet");
+        List<?> page = (List<?>) facet.get("page");
+        assertTrue(((Document) page.get(0)).containsKey("$match"));
+        assertTrue(((Document) ((Document) page.get(1)).get("$sort")).containsKey("score"));
+        assertEquals(10L, ((Number) ((Document) page.get(2)).get("$skip")).longValue());
+        assertTrue(((Document) page.get(4)).containsKey("$project"));
+        List<?> brands = (List<?>) facet.get("brands");
+        assertEquals(1, brands.size());
+        assertTrue(((Document) brands.get(0)).containsKey("$group"));
+        Document bucket = (Document) ((Document) ((List<?>) facet.get("priceBuckets")).get(1)).get("$bucket");
+        assertEquals(List.of(0.0, 100.0, 500.0), bucket.get("boundaries"));
+    }
+
+    @Test
+    @DisplayName("品牌计数应包含所有品牌，缺失的计为 0")
+    void shouldFillAllBrands_whenConvertingBrandCounts() {
+        Map<PhoneBrand, Long> counts = PhoneRepositoryCustomImpl.toBrandCounts(List.of(
+                new Document("_id", "APPLE").append("count", 4)));
+
+        assertEquals(PhoneBrand.values().length, counts.size());
+        assertEquals(4L, counts.get(PhoneBrand.APPLE));
+        assertEquals(0L, counts.get(PhoneBrand.NOKIA));
+    }
+
+    @Test
+    @DisplayName("价格分布应补全空桶并包含开放区间")
+    void shouldFillEmptyBuckets_whenConvertingPriceBuckets() {
+        List<CatalogFacetPage.PriceBucket> buckets = PhoneRepositoryCustomImpl.toPriceBuckets(List.of(
+                new Document("_id", 100.0).append("count", 2),
+                new Document("_id", "open").append("count", 1)), List.of(0.0, 100.0, 500.0));
+
+        assertEquals(3, buckets.size());
+        assertEquals(0L, buckets.get(0).getCount());
+        assertEquals(2L, buckets.get(1).getCount());
+        assertEquals(500.0, buckets.get(1).getMax());
+        assertEquals(500.0, buckets.get(2).getMin());
+        assertNull(buckets.get(2).getMax());
+        assertEquals(1L, buckets.get(2).getCount());
+    }
+
+    @Test
+    @DisplayName("摘要投影不应包含 reviews 数组，评论统计取自持久化字段")
+    void shouldProjectSummaryFields_withoutReviewsArray() {
+        Query mongoQuery = PhoneRepositoryCustomImpl.withSummaryFields(new Query());
+
+        Document fields = mongoQuery.getFieldsObject();
+        assertFalse(fields.containsKey("reviews"));
+        assertEquals(1, fields.get("title"));
+        assertEquals(1, fields.get("seller"));
+        assertNotNull(fields.get("reviewCount"));
+        assertNotNull(fields.get("visibleReviewCount"));
+        assertNotNull(fields.get("averageRating"));
+
+        Document projection = PhoneRepositoryCustomImpl.summaryProjection();
+        assertFalse(projection.containsKey("reviews"));
+        assertTrue(((Document) projection.get("averageRating")).containsKey("$let"));
+        // 统计字段未回填时视为 0
+        assertEquals("$totalReviewCount", ((List<?>) ((Document) projection.get("reviewCount")).get("$ifNull")).get(0));
+    }
+
+    @Test
+    @DisplayName("卖家店铺查询只按卖家过滤，包含禁用商品并按白名单排序分页")
+    void shouldQuerySellerPhonesByPage() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.find(any(Query.class), eq(Phone.class))).thenReturn(List.of());
+        PhoneQueryRequest query = PhoneQueryRequest.builder().sortBy("reviews").page(3).limit(10).build();
+
+        new PhoneRepositoryCustomImpl(mongoTemplate).findSellerPhones("seller-1", query);
+
+        ArgumentCaptor<Query> captor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(captor.capture(), eq(Phone.class));
+        Query mongoQuery = captor.getValue();
+        assertEquals(new Document("seller.id", "seller-1"), mongoQuery.getQueryObject());
+        assertEquals(new Document("createdAt", -1).append("_id", -1), mongoQuery.getSortObject());
+        assertEquals(20, mongoQuery.getSkip());
+        assertEquals(10, mongoQuery.getLimit());
+        // 旧版内嵌评论不加载
+        assertEquals(0, mongoQuery.getFieldsObject().get("reviews"));
+    }
+
+    @Test
+    @DisplayName("评论统计增量更新应对四个统计字段 $inc")
+    void shouldIncrementReviewStats() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Phone.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        new PhoneRepositoryCustomImpl(mongoTemplate).incrementReviewStats("phone-1", -1, -2, 0, 0);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(query.capture(), update.capture(), eq(Phone.class));
+        assertEquals("phone-1", query.getValue().getQueryObject().get("_id"));
+        Document inc = (Document) update.getValue().getUpdateObject().get("$inc");
+        assertEquals(-1, inc.get("totalReviewCount"));
+        assertEquals(-2, inc.get("totalRatingSum"));
+        assertEquals(0, inc.get("visibleReviewCount"));
+        assertEquals(0, inc.get("visibleRatingSum"));
+    }
+
+    @Test
+    @DisplayName("评论统计重算应按 phoneId 对 reviews 集合分组")
+    void shouldBuildReviewStatsAggregation() {
+        List<Document> pipeline = PhoneRepositoryCustomImpl.buildReviewStatsAggregation(List.of("p1", "p2"))
+                .toPipeline(Aggregation.DEFAULT_CONTEXT);
+
+        assertEquals(2, pipeline.size());
+        Document match = (Document) pipeline.get(0).get("$match");
+        assertEquals(List.of("p1", "p2"), ((Document) match.get("phoneId")).get("$in"));
+        Document group = (Document) pipeline.get(1).get("$group");
+        assertEquals("$phoneId", group.get("_id"));
+        assertTrue(group.containsKey("totalReviewCount"));
+        assertTrue(group.containsKey("totalRatingSum"));
+        assertTrue(group.containsKey("visibleReviewCount"));
+        assertTrue(group.containsKey("visibleRatingSum"));
+    }
+
+    @Test
+    @DisplayName("评论统计重算应把没有评论的商品统计写为 0")
+    void shouldResetStats_whenPhoneHasNoReviews() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("phones")))
+                .thenReturn(List.of(new Document("_id", "p1"), new Document("_id", "p2")));
+        AggregationResults<Document> results = new AggregationResults<>(List.of(
+                new Document("_id", "p1").append("totalReviewCount", 2).append("totalRatingSum", 9)
+                        .append("visibleReviewCount", 1).append("visibleRatingSum", 5)), new Document());
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq("reviews"), eq(Document.class))).thenReturn(results);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Phone.class)).thenReturn(bulk);
+        when(bulk.execute()).thenReturn(BulkWriteResult.acknowledged(0, 2, 0, 2, List.of(), List.of()));
+
+        long modified = new PhoneRepositoryCustomImpl(mongoTemplate).recalculateReviewStats(false);
+
+        assertEquals(2, modified);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).updateOne(any(Query.class), update.capture());
+        Document first = (Document) update.getAllValues().get(0).getUpdateObject().get("$set");
+        Document second = (Document) update.getAllValues().get(1).getUpdateObject().get("$set");
+        assertEquals(9, first.get("totalRatingSum"));
+        assertEquals(5, first.get("visibleRatingSum"));
+        assertEquals(0, second.get("totalReviewCount"));
+        assertEquals(0, second.get("visibleRatingSum"));
+    }
+
+    @Test
+    @DisplayName("卖家快照同步应按卖家ID批量更新姓名和邮箱")
+    void shouldFanOutSellerSnapshot() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(Phone.class)))
+                .thenReturn(UpdateResult.acknowledged(3, 3L, null));
+        Phone.Seller seller = Phone.Seller.builder()
+                .id("seller-1").firstName("Jane").lastName("Doe").email("jane@example.com").build();
+
+        long modified = new PhoneRepositoryCustomImpl(mongoTemplate).updateSellerSnapshot(seller);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(query.capture(), update.capture(), eq(Phone.class));
+        assertEquals(3, modified);
+        assertEquals("seller-1", query.getValue().getQueryObject().get("seller.id"));
+        Document set = (Document) update.getValue().getUpdateObject().get("$set");
+        assertEquals("Jane", set.get("seller.firstName"));
+        assertEquals("Doe", set.get("seller.lastName"));
+        assertEquals("jane@example.com", set.get("seller.email"));
+    }
+
+    @Test
+    @DisplayName("旧 DBRef 值应能解析出卖家ID")
+    void shouldExtractLegacySellerId() {
+        ObjectId sellerId = new ObjectId();
+
+        assertEquals(sellerId, PhoneRepositoryCustomImpl.legacySellerId(new DBRef("users", sellerId)));
+        assertEquals(sellerId, PhoneRepositoryCustomImpl.legacySellerId(
+                new Document("$ref", "users").append("$id", sellerId)));
+        assertNull(PhoneRepositoryCustomImpl.legacySellerId(null));
+    }
+
+    @Test
+    @DisplayName("迁移应一次加载卖家并批量写入快照")
+    void shouldMigrateLegacySellerReferencesInBulk() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        BulkOperations bulk = mock(BulkOperations.class);
+        ObjectId sellerId = new ObjectId();
+        ObjectId missingSellerId = new ObjectId();
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq("phones"))).thenReturn(List.of(
+                new Document("_id", "p1").append("seller", new DBRef("users", sellerId)),
+                new Document("_id", "p2").append("seller", new DBRef("users", missingSellerId))));
+        when(mongoTemplate.find(any(Query.class), eq(User.class))).thenReturn(List.of(
+                User.builder().id(sellerId.toHexString()).firstName("Jane").lastName("Doe").build()));
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Phone.class)).thenReturn(bulk);
+        when(bulk.execute()).thenReturn(BulkWriteResult.acknowledged(0, 2, 0, 2, List.of(), List.of()));
+
+        long migrated = new PhoneRepositoryCustomImpl(mongoTemplate).migrateSellerReferences(500);
+
+        assertEquals(2, migrated);
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(User.class));
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).updateOne(any(Query.class), update.capture());
+        List<Phone.Seller> snapshots = update.getAllValues().stream()
+                .map(u -> (Phone.Seller) ((Document) u.getUpdateObject().get("$set")).get("seller"))
+                .toList();
+        assertTrue(snapshots.stream().anyMatch(seller -> "Jane".equals(seller.getFirstName())));
+        assertTrue(snapshots.stream().anyMatch(seller ->
+                missingSellerId.toHexString().equals(seller.getId()) && seller.getFirstName() == null));
+    }
+
+    @Test
+    @DisplayName("批量更新应按商品ID和卖家ID一次写入，只设置提供的字段")
+    void shouldBulkUpdateListingsWithSellerGuard() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Phone.class)).thenReturn(bulk);
+        when(bulk.execute()).thenReturn(BulkWriteResult.acknowledged(0, 2, 0, 1, List.of(), List.of()));
+
+        BulkWriteResult result = new PhoneRepositoryCustomImpl(mongoTemplate).bulkUpdateListings("seller-1", List.of(
+                PhoneBulkUpdateRequest.Item.builder().phoneId("p1").stock(4).build(),
+                PhoneBulkUpdateRequest.Item.builder().phoneId("p2").price(99.5).isDisabled(true).build()));
+
+        assertEquals(1, result.getModifiedCount());
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk, times(2)).updateOne(query.capture(), update.capture());
+        verify(bulk, times(1)).execute();
+        assertEquals("p1", query.getAllValues().get(0).getQueryObject().get("_id"));
+        assertEquals("seller-1", query.getAllValues().get(0).getQueryObject().get("seller.id"));
+        Document first = (Document) update.getAllValues().get(0).getUpdateObject().get("$set");
+        Document second = (Document) update.getAllValues().get(1).getUpdateObject().get("$set");
+        assertEquals(4, first.get("stock"));
+        assertFalse(first.containsKey("price"));
+        assertTrue(first.containsKey("updatedAt"));
+        assertEquals(99.5, second.get("price"));
+        assertEquals(true, second.get("isDisabled"));
+        assertFalse(second.containsKey("stock"));
+    }
+
+    @Test
+    @DisplayName("预留库存应在同一条件更新中校验库存和上架状态并扣减")
+    void shouldBuildGuardedStockReservation() {
+        Document query = PhoneRepositoryCustomImpl.buildReserveQuery("p1", 3).getQueryObject();
+        Document update = PhoneRepositoryCustomImpl.buildStockUpdate(-3).getUpdateObject();
+
+        assertEquals("p1", query.get("_id"));
+        assertEquals(new Document("$gte", 3), query.get("stock"));
+        assertEquals(false, query.get("isDisabled"));
+        assertEquals(new Document("stock", -3).append("salesCount", 3), update.get("$inc"));
+    }
+
+    @Test
+    @DisplayName("预留失败时返回空")
+    void shouldReturnEmpty_whenReservationDoesNotMatch() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+
+        assertTrue(new PhoneRepositoryCustomImpl(mongoTemplate).reserveStock("p1", 3).isEmpty());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findAndModify(query.capture(), any(Update.class), any(FindAndModifyOptions.class),
+                eq(Phone.class));
+        assertEquals(1, query.getValue().getFieldsObject().get("stock"));
+    }
+
+    @Test
+    @DisplayName("归还库存应以一次批量写入反向 $inc，无预留时不写入")
+    void shouldReleaseStockInOneBulkWrite() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        BulkOperations bulk = mock(BulkOperations.class);
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Phone.class)).thenReturn(bulk);
+        PhoneRepositoryCustomImpl repository = new PhoneRepositoryCustomImpl(mongoTemplate);
+
+        repository.releaseStock(Map.of());
+        verifyNoInteractions(mongoTemplate);
+
+        repository.releaseStock(Map.of("p1", 2));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(bulk).updateOne(any(Query.class), update.capture());
+        verify(bulk, times(1)).execute();
+        assertEquals(new Document("stock", 2).append("salesCount", -2), update.getValue().getUpdateObject().get("$inc"));
+    }
+}
@@ -83,7 +83,7 @@ class PhoneRepositoryTest {
     User anotherSeller = TestDataFactory.createUser("seller2", "seller2@test.com", "Jane", "Smith", false);
     anotherSeller.setId(null);
     anotherSeller = userRepository.save(anotherSeller);
-    phone3.setSeller(anotherSeller);
+    phone3.setSeller(Phone.Seller.from(anotherSeller));
 
     phoneRepository.save(phone1);
     phoneRepository.save(phone2);
@@ -299,7 +299,7 @@ class PhoneRepositoryTest {
     anotherSeller.setId(null);
     anotherSeller = userRepository.save(anotherSeller);
     Phone phone3 = createTestPhone("Phone 3", PhoneBrand.NOKIA, 400.0, 8);
-    phone3.setSeller(anotherSeller);
+    phone3.setSeller(Phone.Seller.from(anotherSeller));
     phoneRepository.save(phone3);
 
     // When
@@ -438,7 +438,7 @@ class PhoneRepositoryTest {
         .price(price)
         .stock(stock)
         .image("/images/test.jpg")
-        .seller(testSeller)
+        .seller(Phone.Seller.from(testSeller))
         .isDisabled(false)
         .salesCount(0)
         .build();
@@ -0,0 +1,110 @@
+package com.oldphonedeals.repository;
+
+import com.mongodb.client.result.UpdateResult;
+import com.oldphonedeals.entity.Review;
+import com.oldphonedeals.util.ReviewCursor;
+import org.bson.Document;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * ReviewRepositoryCustomImpl 单元测试
+ * 只验证查询条件 / 原子更新的构建，不依赖 MongoDB
+ */
+@DisplayName("ReviewRepositoryCustomImpl Unit Tests")
+class ReviewRepositoryCustomImplTest {
+
+    @Test
+    @DisplayName("未登录用户只能看到未隐藏的评论")
+    void shouldOnlyMatchVisibleReviews_whenAnonymous() {
+        Document query = ReviewRepositoryCustomImpl.buildVisibleCriteria("phone-1", null, false).getCriteriaObject();
+
+        assertEquals("phone-1", query.get("phoneId"));
+        assertEquals(true, ((Document) query.get("isHidden")).get("$ne"));
+        assertFalse(query.containsKey("$or"));
+    }
+
+    @Test
+    @DisplayName("登录用户还能看到自己的隐藏评论，卖家能看到全部评论")
+    void shouldIncludeOwnHiddenReviews_andAllForSeller() {
+        Document viewer = ReviewRepositoryCustomImpl.buildVisibleCriteria("phone-1", "user-1", false).getCriteriaObject();
+        assertEquals(2, ((List<?>) viewer.get("$or")).size());
+
+        Document seller = ReviewRepositoryCustomImpl.buildVisibleCriteria("phone-1", "seller-1", true).getCriteriaObject();
+        assertEquals(new Document("phoneId", "phone-1"), seller);
+    }
+
+    @Test
+    @DisplayName("游标查询应从 (createdAt, _id) 之后继续并按索引顺序排序")
+    void shouldBuildKeysetQuery_afterCursor() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 10, 0);
+        Query query = ReviewRepositoryCustomImpl.buildVisibleAfterQuery(
+                "phone-1", null, false, new ReviewCursor(createdAt, "r2"), 11);
+
+        assertEquals(11, query.getLimit());
+        assertEquals(new Document("createdAt", 1).append("_id", 1), query.getSortObject());
+        List<?> and = (List<?>) query.getQueryObject().get("$and");
+        List<?> keyset = (List<?>) ((Document) and.get(1)).get("$or");
+        assertEquals(createdAt, ((Document) ((Document) keyset.get(0)).get("createdAt")).get("$gt"));
+        assertEquals("r2", ((Document) ((Document) keyset.get(1)).get("_id")).get("$gt"));
+
+        Query first = ReviewRepositoryCustomImpl.buildVisibleAfterQuery("phone-1", null, false, null, 3);
+        assertFalse(first.getQueryObject().containsKey("$and"));
+    }
+
+    @Test
+    @DisplayName("切换隐藏状态应以当前状态为条件，未变化时返回 false")
+    void shouldConditionOnCurrentState_whenUpdatingHidden() {
+        MongoTemplate mongoTemplate = mock(MongoTemplate.class);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Review.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 0L, null));
+
+        boolean changed = new ReviewRepositoryCustomImpl(mongoTemplate).updateHidden("r1", true);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(query.capture(), any(Update.class), eq(Review.class));
+        assertFalse(changed);
+        Document state = (Document) ((List<?>) query.getValue().getQueryObject().get("$and")).get(0);
+        assertEquals(true, ((Document) state.get("isHidden")).get("$ne"));
+    }
+
+    @Test
+    @DisplayName("后台检索应转义关键字并组合过滤条件")
+    void shouldBuildAdminSearchCriteria() {
+        Criteria criteria = ReviewRepositoryCustomImpl.buildSearchCriteria(false, "user-1", null, "a.b");
+        Document query = criteria.getCriteriaObject();
+
+        assertEquals(true, query.get("isHidden"));
+        assertEquals("user-1", query.get("reviewerId"));
+        assertFalse(query.containsKey("phoneId"));
+        assertNotNull(query.get("comment"));
+
+        assertTrue(ReviewRepositoryCustomImpl.buildSearchCriteria(null, null, null, " ").getCriteriaObject().isEmpty());
+    }
+
+    @Test
+    @DisplayName("内嵌评论迁移时应保留原ID并补充 phoneId")
+    void shouldConvertEmbeddedReview() {
+        Document embedded = new Document("_id", "r1").append("reviewerId", "user-1").append("rating", 4);
+
+        Document review = ReviewRepositoryCustomImpl.toReviewDocument("phone-1", embedded);
+
+        assertEquals("r1", review.get("_id"));
+        assertEquals("phone-1", review.get("phoneId"));
+        assertEquals("user-1", review.get("reviewerId"));
+        assertEquals(4, review.get("rating"));
+    }
+}
@@ -1,5 +1,12 @@
 package com.oldphonedeals.service;
 
+import com.oldphonedeals.cache.BestSellerLeaderboard;
+import com.oldphonedeals.cache.CartCache;
+import com.oldphonedeals.cache.CatalogQueryCache;
+import com.oldphonedeals.cache.PhoneDetailCache;
+import com.oldphonedeals.cache.PhoneSuggestIndex;
+import com.oldphonedeals.cache.SoldOutSoonCache;
+import com.oldphonedeals.cache.UserDisplayNameCache;
 import com.oldphonedeals.dto.request.admin.UpdatePhoneRequest;
 import com.oldphonedeals.dto.request.admin.UpdateUserRequest;
 import com.oldphonedeals.dto.request.profile.UpdateProfileRequest;
@@ -32,6 +39,7 @@ import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -51,6 +59,9 @@ class AdminServiceTest {
     @Mock
     private PhoneRepository phoneRepository;
 
+    @Mock
+    private ReviewRepository reviewRepository;
+
     @Mock
     private CartRepository cartRepository;
 
@@ -69,6 +80,27 @@ class AdminServiceTest {
     @Mock
     private JwtTokenProvider jwtTokenProvider;
 
+    @Mock
+    private BestSellerLeaderboard bestSellerLeaderboard;
+
+    @Mock
+    private SoldOutSoonCache soldOutSoonCache;
+
+    @Mock
+    private CatalogQueryCache catalogQueryCache;
+
+    @Mock
+    private PhoneDetailCache phoneDetailCache;
+
+    @Mock
+    private PhoneSuggestIndex phoneSuggestIndex;
+
+    @Mock
+    private UserDisplayNameCache userDisplayNameCache;
+
+    @Mock
+    private CartCache cartCache;
+
     @InjectMocks
     private AdminServiceImpl adminService;
 
@@ -113,8 +145,7 @@ class AdminServiceTest {
                 .image("test.jpg")
                 .stock(10)
                 .price(999.99)
-                .seller(testUser)
-                .reviews(new ArrayList<>())
+                .seller(Phone.Seller.from(testUser))
                 .isDisabled(false)
                 .salesCount(0)
                 .createdAt(LocalDateTime.now())
@@ -268,7 +299,7 @@ class AdminServiceTest {
         // Arrange
         when(userRepository.findAll()).thenReturn(Arrays.asList(testUser, testAdmin));
         when(phoneRepository.count()).thenReturn(10L);
-        when(phoneRepository.findAll()).thenReturn(Arrays.asList(testPhone));
+        when(reviewRepository.count()).thenReturn(7L);
         when(orderRepository.count()).thenReturn(5L);
 
         // Act
@@ -278,6 +309,7 @@ class AdminServiceTest {
         assertNotNull(response);
         assertEquals(1, response.getTotalUsers()); // 只统计非管理员用户
         assertEquals(10, response.getTotalListings());
+        assertEquals(7, response.getTotalReviews());
         assertEquals(5, response.getTotalSales());
         verify(userRepository, times(1)).findAll();
         verify(phoneRepository, times(1)).count();
@@ -351,7 +383,7 @@ class AdminServiceTest {
         when(userRepository.findById("user-id")).thenReturn(Optional.of(testUser));
         when(phoneRepository.findBySellerId("user-id")).thenReturn(new ArrayList<>());
         when(orderRepository.findByUserId("user-id")).thenReturn(new ArrayList<>());
-        when(phoneRepository.findAll()).thenReturn(new ArrayList<>());
+        when(reviewRepository.countByReviewerId("user-id")).thenReturn(2L);
 
         // Act
         UserDetailResponse response = adminService.getUserDetail("user-id", "admin-id");
@@ -360,6 +392,7 @@ class AdminServiceTest {
         assertNotNull(response);
         assertEquals("user-id", response.getId());
         assertNotNull(response.getStats());
+        assertEquals(2, response.getStats().getReviewsCount());
         verify(userRepository, times(1)).findById("user-id");
     }
 
@@ -379,6 +412,12 @@ class AdminServiceTest {
         // Assert
         assertNotNull(response);
         verify(userRepository, times(1)).save(testUser);
+        verify(phoneRepository, times(1)).updateSellerSnapshot(argThat(seller ->
+                "user-id".equals(seller.getId()) && "Updated".equals(seller.getFirstName())));
+        verify(catalogQueryCache, times(1)).invalidateAll();
+        verify(soldOutSoonCache, times(1)).invalidate();
+        verify(phoneDetailCache, times(1)).evictAll();
+        verify(userDisplayNameCache, times(1)).evict("user-id");
         verify(adminLogService, times(1)).logAction(eq("admin-id"), eq(AdminAction.UPDATE_USER), 
                 eq(TargetType.USER), eq("user-id"), anyString());
     }
@@ -406,17 +445,30 @@ class AdminServiceTest {
         when(userRepository.findById("user-id")).thenReturn(Optional.of(testUser));
         when(phoneRepository.findBySellerId("user-id")).thenReturn(Arrays.asList(testPhone));
         when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
-        when(cartRepository.findCartsContainingPhone("phone-id")).thenReturn(new ArrayList<>());
+        when(cartRepository.pullPhoneFromAllCarts("phone-id")).thenReturn(0L);
         when(userRepository.findAll()).thenReturn(new ArrayList<>());
-        when(phoneRepository.findAll()).thenReturn(new ArrayList<>());
+        Review ownReview = Review.builder()
+                .id("review-id")
+                .phoneId("phone-2")
+                .reviewerId("user-id")
+                .rating(4)
+                .isHidden(false)
+                .build();
+        when(reviewRepository.findByReviewerId("user-id")).thenReturn(List.of(ownReview));
+        when(reviewRepository.removeById("review-id")).thenReturn(Optional.of(ownReview));
         doNothing().when(adminLogService).logAction(anyString(), any(), any(), anyString(), anyString());
 
         // Act
         adminService.deleteUser("user-id", "admin-id");
 
         // Assert
+        verify(reviewRepository, times(1)).deleteByPhoneId("phone-id");
+        verify(phoneRepository, times(1)).incrementReviewStats("phone-2", -1, -4, -1, -4);
+        verify(phoneDetailCache, times(1)).evict("phone-2");
+        verify(userDisplayNameCache, times(1)).evict("user-id");
         verify(userRepository, times(1)).delete(testUser);
         verify(cartRepository, times(1)).deleteByUserId("user-id");
+        verify(cartCache, times(1)).evict("user-id");
         verify(orderRepository, times(1)).deleteByUserId("user-id");
         verify(adminLogService, times(1)).logAction(eq("admin-id"), eq(AdminAction.DELETE_USER), 
                 eq(TargetType.USER), eq("user-id"), anyString());
@@ -474,6 +526,7 @@ class AdminServiceTest {
         assertNotNull(response);
         assertEquals(!initialStatus, testPhone.getIsDisabled());
         verify(phoneRepository, times(1)).save(testPhone);
+        verify(bestSellerLeaderboard, times(1)).refresh("phone-id");
         verify(adminLogService, times(1)).logAction(anyString(), any(), any(), anyString(), anyString());
     }
 
@@ -481,7 +534,7 @@ class AdminServiceTest {
     void testDeletePhone_WithCascadeOperations_Success() {
         // Arrange
         when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
-        when(cartRepository.findCartsContainingPhone("phone-id")).thenReturn(new ArrayList<>());
+        when(cartRepository.pullPhoneFromAllCarts("phone-id")).thenReturn(0L);
         when(userRepository.findAll()).thenReturn(new ArrayList<>());
         doNothing().when(adminLogService).logAction(anyString(), any(), any(), anyString(), anyString());
 
@@ -489,7 +542,12 @@ class AdminServiceTest {
         adminService.deletePhone("phone-id", "admin-id");
 
         // Assert
+        verify(cartRepository, times(1)).pullPhoneFromAllCarts("phone-id");
+        verify(cartRepository, never()).save(any(Cart.class));
+        verify(cartCache, never()).evictContaining(anyString());
         verify(phoneRepository, times(1)).delete(testPhone);
+        verify(bestSellerLeaderboard, times(1)).remove("phone-id");
+        verify(soldOutSoonCache, times(1)).evictIfAffected("phone-id", testPhone.getStock());
         verify(adminLogService, times(1)).logAction(eq("admin-id"), eq(AdminAction.DELETE_PHONE), 
                 eq(TargetType.PHONE), eq("phone-id"), anyString());
     }
@@ -499,108 +557,53 @@ class AdminServiceTest {
     @Test
     void testGetAllReviews_ReturnsPagedResults() {
         // Arrange
-        Phone.Review review = Phone.Review.builder()
-                .id("review-id")
-                .reviewerId("user-id")
-                .rating(5)
-                .comment("Great!")
-                .isHidden(false)
-                .createdAt(LocalDateTime.now())
-                .build();
-        
-        testPhone.setReviews(Arrays.asList(review));
-        when(phoneRepository.findAll()).thenReturn(Arrays.asList(testPhone));
-        when(userRepository.findById("user-id")).thenReturn(Optional.of(testUser));
+        Review review = buildReview("review-id", false);
+        when(reviewRepository.search(isNull(), isNull(), isNull(), isNull(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(review)));
+        when(userDisplayNameCache.getAll(anySet())).thenReturn(Map.of("user-id", "John Doe"));
+        when(phoneRepository.findSummariesByIds(anySet())).thenReturn(List.of(
+                PhoneSummary.builder().id("phone-id").title("Test Phone").build()));
 
         // Act
         PageResponse<ReviewManagementResponse> response = adminService.getAllReviews(0, 10);
 
-        // Assert
-        assertNotNull(response);
-        assertFalse(response.getContent().isEmpty());
-        verify(phoneRepository, times(1)).findAll();
-    }
-
-    @Test
-    void testGetAllReviews_WithVisibilityFilter_ReturnsFilteredResults() {
-        // Arrange
-        Phone.Review hiddenReview = Phone.Review.builder()
-                .id("review-hidden")
-                .reviewerId("user-id")
-                .rating(3)
-                .comment("Hidden review")
-                .isHidden(true)
-                .createdAt(LocalDateTime.now())
-                .build();
-        
-        Phone.Review visibleReview = Phone.Review.builder()
-                .id("review-visible")
-                .reviewerId("user-id")
-                .rating(5)
-                .comment("Visible review")
-                .isHidden(false)
-                .createdAt(LocalDateTime.now())
-                .build();
-        
-        testPhone.setReviews(Arrays.asList(hiddenReview, visibleReview));
-        when(phoneRepository.findAll()).thenReturn(Arrays.asList(testPhone));
-        when(userRepository.findById("user-id")).thenReturn(Optional.of(testUser));
-
-        // Act
-        PageResponse<ReviewManagementResponse> response = adminService.getAllReviews(0, 10, false, null, null, null);
-
         // Assert
         assertNotNull(response);
         assertEquals(1, response.getContent().size());
-        assertEquals("review-hidden", response.getContent().get(0).getReviewId());
+        assertEquals("John Doe", response.getContent().get(0).getReviewerName());
+        assertEquals("Test Phone", response.getContent().get(0).getPhoneTitle());
+        verify(phoneRepository, never()).findAll();
+        verify(userRepository, never()).findById(anyString());
     }
 
     @Test
-    void testGetAllReviews_WithPhoneIdFilter_ReturnsFilteredResults() {
+    void testGetAllReviews_WithFilters_DelegatesToRepositorySearch() {
         // Arrange
-        Phone anotherPhone = Phone.builder()
-                .id("phone-2")
-                .title("Another Phone")
-                .reviews(new ArrayList<>())
-                .build();
-        
-        Phone.Review review = Phone.Review.builder()
-                .id("review-id")
-                .reviewerId("user-id")
-                .rating(5)
-                .comment("Great!")
-                .isHidden(false)
-                .createdAt(LocalDateTime.now())
-                .build();
-        
-        testPhone.setReviews(Arrays.asList(review));
-        when(phoneRepository.findAll()).thenReturn(Arrays.asList(testPhone, anotherPhone));
-        when(userRepository.findById("user-id")).thenReturn(Optional.of(testUser));
+        Review hiddenReview = buildReview("review-hidden", true);
+        when(reviewRepository.search(eq(false), isNull(), eq("phone-id"), isNull(), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(hiddenReview)));
+        when(userDisplayNameCache.getAll(anySet())).thenReturn(Map.of("user-id", "John Doe"));
+        when(phoneRepository.findSummariesByIds(anySet())).thenReturn(List.of());
 
         // Act
-        PageResponse<ReviewManagementResponse> response = adminService.getAllReviews(0, 10, null, null, "phone-id", null);
+        PageResponse<ReviewManagementResponse> response = adminService.getAllReviews(0, 10, false, null, "phone-id", null);
 
         // Assert
         assertNotNull(response);
         assertEquals(1, response.getContent().size());
+        assertEquals("review-hidden", response.getContent().get(0).getReviewId());
         assertEquals("phone-id", response.getContent().get(0).getPhoneId());
+        assertEquals(1, response.getTotalItems());
     }
 
     @Test
     void testToggleReviewVisibility_Success() {
         // Arrange
-        Phone.Review review = Phone.Review.builder()
-                .id("review-id")
-                .reviewerId("user-id")
-                .rating(5)
-                .comment("Great!")
-                .isHidden(false)
-                .createdAt(LocalDateTime.now())
-                .build();
-        
-        testPhone.setReviews(new ArrayList<>(Arrays.asList(review)));
+        Review review = buildReview("review-id", false);
         when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
-        when(userRepository.findById("user-id")).thenReturn(Optional.of(testUser));
+        when(reviewRepository.findByIdAndPhoneId("review-id", "phone-id")).thenReturn(Optional.of(review));
+        when(reviewRepository.updateHidden("review-id", true)).thenReturn(true);
+        when(userDisplayNameCache.get("user-id")).thenReturn("John Doe");
         doNothing().when(adminLogService).logAction(anyString(), any(), any(), anyString(), anyString());
 
         // Act
@@ -609,32 +612,27 @@ class AdminServiceTest {
         // Assert
         assertNotNull(response);
         assertTrue(review.getIsHidden()); // 应该变为隐藏
-        verify(phoneRepository, times(1)).save(testPhone);
+        verify(phoneRepository, times(1)).incrementReviewStats("phone-id", 0, 0, -1, -5);
+        verify(phoneRepository, never()).save(any());
         verify(adminLogService, times(1)).logAction(anyString(), any(), any(), anyString(), anyString());
     }
 
     @Test
     void testDeleteReview_Success() {
         // Arrange
-        Phone.Review review = Phone.Review.builder()
-                .id("review-id")
-                .reviewerId("user-id")
-                .rating(5)
-                .comment("Great!")
-                .isHidden(false)
-                .createdAt(LocalDateTime.now())
-                .build();
-        
-        testPhone.setReviews(new ArrayList<>(Arrays.asList(review)));
+        Review review = buildReview("review-id", false);
         when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
+        when(reviewRepository.findByIdAndPhoneId("review-id", "phone-id")).thenReturn(Optional.of(review));
+        when(reviewRepository.removeById("review-id")).thenReturn(Optional.of(review));
         doNothing().when(adminLogService).logAction(anyString(), any(), any(), anyString(), anyString());
 
         // Act
         adminService.deleteReview("phone-id", "review-id", "admin-id");
 
         // Assert
-        assertTrue(testPhone.getReviews().isEmpty());
-        verify(phoneRepository, times(1)).save(testPhone);
+        verify(phoneRepository, times(1)).incrementReviewStats("phone-id", -1, -5, -1, -5);
+        verify(phoneRepository, never()).save(any());
+        verify(bestSellerLeaderboard, times(1)).refresh("phone-id");
         verify(adminLogService, times(1)).logAction(eq("admin-id"), eq(AdminAction.DELETE_REVIEW), 
                 eq(TargetType.REVIEW), eq("review-id"), anyString());
     }
@@ -642,14 +640,27 @@ class AdminServiceTest {
     @Test
     void testDeleteReview_ReviewNotFound_ThrowsException() {
         // Arrange
-        testPhone.setReviews(new ArrayList<>());
         when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
+        when(reviewRepository.findByIdAndPhoneId("non-existing-review", "phone-id")).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> {
             adminService.deleteReview("phone-id", "non-existing-review", "admin-id");
         });
-        verify(phoneRepository, never()).save(any());
+        verify(reviewRepository, never()).removeById(anyString());
+        verify(phoneRepository, never()).incrementReviewStats(anyString(), anyInt(), anyInt(), anyInt(), anyInt());
+    }
+
+    private Review buildReview(String id, boolean hidden) {
+        return Review.builder()
+                .id(id)
+                .phoneId("phone-id")
+                .reviewerId("user-id")
+                .rating(5)
+                .comment("Great!")
+                .isHidden(hidden)
+                .createdAt(LocalDateTime.now())
+                .build();
     }
 
     // ==================== 订单管理测试 ====================
@@ -864,8 +875,8 @@ class AdminServiceTest {
     @Test
     void testToggleReviewVisibility_ReviewNotFound_ThrowsException() {
         // Arrange
-        testPhone.setReviews(new ArrayList<>());
         when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
+        when(reviewRepository.findByIdAndPhoneId("non-existing-review", "phone-id")).thenReturn(Optional.empty());
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> {
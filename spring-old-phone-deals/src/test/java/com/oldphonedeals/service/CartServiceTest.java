@@ -1,11 +1,14 @@
 package com.oldphonedeals.service;
 
+import com.oldphonedeals.cache.CartCache;
+import com.oldphonedeals.config.CatalogProperties;
 import com.oldphonedeals.dto.request.cart.AddToCartRequest;
 import com.oldphonedeals.dto.request.cart.UpdateCartItemRequest;
 import com.oldphonedeals.dto.response.cart.CartItemResponse;
 import com.oldphonedeals.dto.response.cart.CartResponse;
 import com.oldphonedeals.entity.Cart;
 import com.oldphonedeals.entity.Phone;
+import com.oldphonedeals.entity.PhoneSummary;
 import com.oldphonedeals.entity.User;
 import com.oldphonedeals.enums.PhoneBrand;
 import com.oldphonedeals.exception.BadRequestException;
@@ -17,14 +20,18 @@ import com.oldphonedeals.service.impl.CartServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -46,12 +53,16 @@ class CartServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private CartCache cartCache = new CartCache(new CatalogProperties());
+
     @InjectMocks
     private CartServiceImpl cartService;
 
     private User testUser;
     private User testSeller;
     private Phone testPhone;
+    private PhoneSummary testSummary;
     private Cart testCart;
     private AddToCartRequest addToCartRequest;
     private UpdateCartItemRequest updateCartItemRequest;
@@ -80,13 +91,24 @@ class CartServiceTest {
                 .image("test.jpg")
                 .stock(10)
                 .price(999.99)
-                .seller(testSeller)
-                .reviews(new ArrayList<>())
+                .seller(Phone.Seller.from(testSeller))
                 .isDisabled(false)
                 .salesCount(0)
                 .createdAt(LocalDateTime.now())
                 .build();
 
+        testSummary = PhoneSummary.builder()
+                .id("phone-id")
+                .title("Test Phone")
+                .brand(PhoneBrand.SAMSUNG)
+                .image("test.jpg")
+                .stock(10)
+                .price(999.99)
+                .seller(Phone.Seller.from(testSeller))
+                .isDisabled(false)
+                .visibleReviewCount(0)
+                .build();
+
         // 创建测试购物车
         Cart.CartItem cartItem = Cart.CartItem.builder()
                 .phoneId("phone-id")
@@ -121,7 +143,7 @@ class CartServiceTest {
     void testGetUserCart_ExistingCart_ReturnsCart() {
         // Arrange
         when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
-        when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
+        when(phoneRepository.findSummariesByIds(Set.of("phone-id"))).thenReturn(List.of(testSummary));
 
         // Act
         CartResponse response = cartService.getUserCart("user-id");
@@ -134,6 +156,73 @@ class CartServiceTest {
         verify(cartRepository, times(1)).findByUserId("user-id");
     }
 
+    @Test
+    void testGetUserCart_RepeatedReads_ServedFromCache() {
+        // Arrange
+        when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
+        when(phoneRepository.findSummariesByIds(Set.of("phone-id"))).thenReturn(List.of(testSummary));
+
+        // Act
+        cartService.getUserCart("user-id");
+        CartResponse response = cartService.getUserCart("user-id");
+
+        // Assert：第二次查看不再读取购物车
+        assertEquals("cart-id", response.getId());
+        verify(cartRepository, times(1)).findByUserId("user-id");
+    }
+
+    @Test
+    void testGetUserCart_AfterAddToCart_UsesUpdatedCart() {
+        // Arrange
+        when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
+        when(cartRepository.upsertItem(eq("user-id"), any(Cart.CartItem.class))).thenReturn(testCart);
+
+        // Act
+        cartService.addToCart("user-id", addToCartRequest);
+        CartResponse response = cartService.getUserCart("user-id");
+
+        // Assert：原子更新返回的购物车写入缓存
+        assertEquals("cart-id", response.getId());
+        verify(cartCache, times(1)).put(eq(testCart), anyLong());
+        verify(cartRepository, never()).findByUserId(anyString());
+    }
+
+    @Test
+    void testAddToCart_ConcurrentEviction_DoesNotCacheUpdatedCart() {
+        // Arrange：加入购物车期间并发结账清空了购物车
+        Cart cleared = Cart.builder().id("cart-id").userId("user-id").items(new ArrayList<>()).build();
+        when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
+        when(cartRepository.upsertItem(eq("user-id"), any(Cart.CartItem.class))).thenAnswer(invocation -> {
+            cartCache.evict("user-id");
+            return testCart;
+        });
+        when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(cleared));
+
+        // Act
+        cartService.addToCart("user-id", addToCartRequest);
+        CartResponse response = cartService.getUserCart("user-id");
+
+        // Assert：丢弃写入结果，重新读取数据库
+        assertTrue(response.getItems().isEmpty());
+        verify(cartRepository, times(1)).findByUserId("user-id");
+    }
+
+    @Test
+    void testClearCart_EvictsCachedCart() {
+        // Arrange
+        when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
+        when(cartRepository.clearItems("user-id")).thenReturn(true);
+
+        // Act
+        cartService.getUserCart("user-id");
+        cartService.clearCart("user-id");
+        cartService.getUserCart("user-id");
+
+        // Assert
+        verify(cartCache, times(1)).evict("user-id");
+        verify(cartRepository, times(2)).findByUserId("user-id");
+    }
+
     @Test
     void testGetUserCart_NoCart_CreatesNewCart() {
         // Arrange
@@ -146,7 +235,7 @@ class CartServiceTest {
                 .build();
         
         when(cartRepository.findByUserId("user-id")).thenReturn(Optional.empty());
-        when(cartRepository.save(any(Cart.class))).thenReturn(newCart);
+        when(cartRepository.findOrCreate("user-id")).thenReturn(newCart);
 
         // Act
         CartResponse response = cartService.getUserCart("user-id");
@@ -156,7 +245,8 @@ class CartServiceTest {
         assertEquals("user-id", response.getUserId());
         assertTrue(response.getItems().isEmpty());
         verify(cartRepository, times(1)).findByUserId("user-id");
-        verify(cartRepository, times(1)).save(any(Cart.class));
+        verify(cartRepository, times(1)).findOrCreate("user-id");
+        verify(cartRepository, never()).save(any(Cart.class));
     }
 
     // ==================== 添加到购物车测试 ====================
@@ -164,43 +254,23 @@ class CartServiceTest {
     @Test
     void testAddToCart_NewItem_Success() {
         // Arrange
-        Cart emptyCart = Cart.builder()
-                .id("cart-id")
-                .userId("user-id")
-                .items(new ArrayList<>())
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
-
         when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
-        when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(emptyCart));
-        when(cartRepository.save(any(Cart.class))).thenReturn(emptyCart);
+        when(cartRepository.upsertItem(eq("user-id"), any(Cart.CartItem.class))).thenReturn(testCart);
 
         // Act
         CartResponse response = cartService.addToCart("user-id", addToCartRequest);
 
-        // Assert
+        // Assert：一次原子写入，不读取后整体回写
         assertNotNull(response);
-        verify(phoneRepository, atLeastOnce()).findById("phone-id");
-        verify(cartRepository, times(1)).save(any(Cart.class));
-    }
-
-    @Test
-    void testAddToCart_ExistingItem_UpdatesQuantity() {
-        // Arrange
-        when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
-        when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
-        when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
-
-        // Act
-        CartResponse response = cartService.addToCart("user-id", addToCartRequest);
-
-        // Assert
-        assertNotNull(response);
-        verify(phoneRepository, atLeastOnce()).findById("phone-id");
-        verify(cartRepository, times(1)).save(any(Cart.class));
-        // 验证数量更新而不是添加新条目
-        assertEquals(1, testCart.getItems().size());
+        ArgumentCaptor<Cart.CartItem> item = ArgumentCaptor.forClass(Cart.CartItem.class);
+        verify(cartRepository, times(1)).upsertItem(eq("user-id"), item.capture());
+        assertEquals("phone-id", item.getValue().getPhoneId());
+        assertEquals("Test Phone", item.getValue().getTitle());
+        assertEquals(1, item.getValue().getQuantity());
+        assertEquals(999.99, item.getValue().getPrice());
+        assertNotNull(item.getValue().getCreatedAt());
+        verify(cartRepository, never()).findByUserId(anyString());
+        verify(cartRepository, never()).save(any(Cart.class));
     }
 
     @Test
@@ -214,7 +284,7 @@ class CartServiceTest {
             cartService.addToCart("user-id", addToCartRequest);
         });
         verify(phoneRepository, times(1)).findById("invalid-phone");
-        verify(cartRepository, never()).save(any(Cart.class));
+        verify(cartRepository, never()).upsertItem(anyString(), any());
     }
 
     @Test
@@ -228,7 +298,7 @@ class CartServiceTest {
             cartService.addToCart("user-id", addToCartRequest);
         });
         verify(phoneRepository, times(1)).findById("phone-id");
-        verify(cartRepository, never()).save(any(Cart.class));
+        verify(cartRepository, never()).upsertItem(anyString(), any());
     }
 
     @Test
@@ -243,30 +313,7 @@ class CartServiceTest {
         });
         assertTrue(exception.getMessage().contains("Insufficient stock"));
         verify(phoneRepository, times(1)).findById("phone-id");
-        verify(cartRepository, never()).save(any(Cart.class));
-    }
-
-    @Test
-    void testAddToCart_NoExistingCart_CreatesCartAndAddsItem() {
-        // Arrange
-        Cart newCart = Cart.builder()
-                .id("new-cart-id")
-                .userId("user-id")
-                .items(new ArrayList<>())
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
-
-        when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
-        when(cartRepository.findByUserId("user-id")).thenReturn(Optional.empty());
-        when(cartRepository.save(any(Cart.class))).thenReturn(newCart);
-
-        // Act
-        CartResponse response = cartService.addToCart("user-id", addToCartRequest);
-
-        // Assert
-        assertNotNull(response);
-        verify(cartRepository, times(2)).save(any(Cart.class)); // 创建购物车 + 添加商品
+        verify(cartRepository, never()).upsertItem(anyString(), any());
     }
 
     // ==================== 更新购物车商品测试 ====================
@@ -274,51 +321,52 @@ class CartServiceTest {
     @Test
     void testUpdateCartItem_Success() {
         // Arrange
-        when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
         when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
-        when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
+        when(cartRepository.updateItemQuantity("user-id", "phone-id", 3)).thenReturn(Optional.of(testCart));
 
         // Act
         CartResponse response = cartService.updateCartItem("user-id", "phone-id", updateCartItemRequest);
 
         // Assert
         assertNotNull(response);
-        verify(cartRepository, times(1)).findByUserId("user-id");
-        verify(phoneRepository, atLeastOnce()).findById("phone-id"); // 可能被调用多次（业务逻辑+构建响应）
-        verify(cartRepository, times(1)).save(any(Cart.class));
+        verify(phoneRepository, times(1)).findById("phone-id");
+        verify(cartRepository, times(1)).updateItemQuantity("user-id", "phone-id", 3);
+        verify(cartRepository, never()).findByUserId(anyString());
+        verify(cartRepository, never()).save(any(Cart.class));
     }
 
     @Test
     void testUpdateCartItem_CartNotFound_ThrowsException() {
         // Arrange
-        when(cartRepository.findByUserId("user-id")).thenReturn(Optional.empty());
+        when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
+        when(cartRepository.updateItemQuantity("user-id", "phone-id", 3)).thenReturn(Optional.empty());
+        when(cartRepository.existsByUserId("user-id")).thenReturn(false);
 
         // Act & Assert
-        assertThrows(ResourceNotFoundException.class, () -> {
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
             cartService.updateCartItem("user-id", "phone-id", updateCartItemRequest);
         });
-        verify(cartRepository, times(1)).findByUserId("user-id");
-        verify(cartRepository, never()).save(any(Cart.class));
+        assertEquals("Cart not found", exception.getMessage());
     }
 
     @Test
     void testUpdateCartItem_ItemNotInCart_ThrowsException() {
         // Arrange
-        when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
+        when(phoneRepository.findById("non-existing-phone")).thenReturn(Optional.of(testPhone));
+        when(cartRepository.updateItemQuantity("user-id", "non-existing-phone", 3)).thenReturn(Optional.empty());
+        when(cartRepository.existsByUserId("user-id")).thenReturn(true);
 
         // Act & Assert
-        assertThrows(ResourceNotFoundException.class, () -> {
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
             cartService.updateCartItem("user-id", "non-existing-phone", updateCartItemRequest);
         });
-        verify(cartRepository, times(1)).findByUserId("user-id");
-        verify(cartRepository, never()).save(any(Cart.class));
+        assertEquals("Item not found in cart", exception.getMessage());
     }
 
     @Test
     void testUpdateCartItem_InsufficientStock_ThrowsException() {
         // Arrange
         updateCartItemRequest.setQuantity(20); // 超过库存
-        when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
         when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
 
         // Act & Assert
@@ -326,7 +374,7 @@ class CartServiceTest {
             cartService.updateCartItem("user-id", "phone-id", updateCartItemRequest);
         });
         assertTrue(exception.getMessage().contains("Insufficient stock"));
-        verify(cartRepository, never()).save(any(Cart.class));
+        verify(cartRepository, never()).updateItemQuantity(anyString(), anyString(), anyInt());
     }
 
     // ==================== 从购物车移除商品测试 ====================
@@ -334,42 +382,42 @@ class CartServiceTest {
     @Test
     void testRemoveFromCart_Success() {
         // Arrange
-        when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
-        when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
+        when(cartRepository.removeItem("user-id", "phone-id")).thenReturn(Optional.of(testCart));
 
         // Act
         CartResponse response = cartService.removeFromCart("user-id", "phone-id");
 
         // Assert
         assertNotNull(response);
-        verify(cartRepository, times(1)).findByUserId("user-id");
-        verify(cartRepository, times(1)).save(any(Cart.class));
+        verify(cartRepository, times(1)).removeItem("user-id", "phone-id");
+        verify(cartRepository, never()).findByUserId(anyString());
+        verify(cartRepository, never()).save(any(Cart.class));
     }
 
     @Test
     void testRemoveFromCart_CartNotFound_ThrowsException() {
         // Arrange
-        when(cartRepository.findByUserId("user-id")).thenReturn(Optional.empty());
+        when(cartRepository.removeItem("user-id", "phone-id")).thenReturn(Optional.empty());
+        when(cartRepository.existsByUserId("user-id")).thenReturn(false);
 
         // Act & Assert
-        assertThrows(ResourceNotFoundException.class, () -> {
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
             cartService.removeFromCart("user-id", "phone-id");
         });
-        verify(cartRepository, times(1)).findByUserId("user-id");
-        verify(cartRepository, never()).save(any(Cart.class));
+        assertEquals("Cart not found", exception.getMessage());
     }
 
     @Test
     void testRemoveFromCart_ItemNotInCart_ThrowsException() {
         // Arrange
-        when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
+        when(cartRepository.removeItem("user-id", "non-existing-phone")).thenReturn(Optional.empty());
+        when(cartRepository.existsByUserId("user-id")).thenReturn(true);
 
         // Act & Assert
-        assertThrows(ResourceNotFoundException.class, () -> {
+        ResourceNotFoundException exception = assertThrows(ResourceNotFoundException.class, () -> {
             cartService.removeFromCart("user-id", "non-existing-phone");
         });
-        verify(cartRepository, times(1)).findByUserId("user-id");
-        verify(cartRepository, never()).save(any(Cart.class));
+        assertEquals("Item not found in cart", exception.getMessage());
     }
 
     // ==================== 清空购物车测试 ====================
@@ -377,29 +425,26 @@ class CartServiceTest {
     @Test
     void testClearCart_Success() {
         // Arrange
-        when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
-        when(cartRepository.save(any(Cart.class))).thenReturn(testCart);
+        when(cartRepository.clearItems("user-id")).thenReturn(true);
 
         // Act
         cartService.clearCart("user-id");
 
         // Assert
-        verify(cartRepository, times(1)).findByUserId("user-id");
-        verify(cartRepository, times(1)).save(any(Cart.class));
-        assertTrue(testCart.getItems().isEmpty());
+        verify(cartRepository, times(1)).clearItems("user-id");
+        verify(cartRepository, never()).save(any(Cart.class));
     }
 
     @Test
     void testClearCart_CartNotFound_ThrowsException() {
         // Arrange
-        when(cartRepository.findByUserId("user-id")).thenReturn(Optional.empty());
+        when(cartRepository.clearItems("user-id")).thenReturn(false);
 
         // Act & Assert
         assertThrows(ResourceNotFoundException.class, () -> {
             cartService.clearCart("user-id");
         });
-        verify(cartRepository, times(1)).findByUserId("user-id");
-        verify(cartRepository, never()).save(any(Cart.class));
+        verify(cartRepository, times(1)).clearItems("user-id");
     }
 
     // ==================== 边界条件测试 ====================
@@ -409,25 +454,16 @@ class CartServiceTest {
         // Arrange
         testPhone.setStock(1);
         addToCartRequest.setQuantity(1);
-        
-        Cart emptyCart = Cart.builder()
-                .id("cart-id")
-                .userId("user-id")
-                .items(new ArrayList<>())
-                .createdAt(LocalDateTime.now())
-                .updatedAt(LocalDateTime.now())
-                .build();
 
         when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
-        when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(emptyCart));
-        when(cartRepository.save(any(Cart.class))).thenReturn(emptyCart);
+        when(cartRepository.upsertItem(eq("user-id"), any(Cart.CartItem.class))).thenReturn(testCart);
 
         // Act
         CartResponse response = cartService.addToCart("user-id", addToCartRequest);
 
         // Assert
         assertNotNull(response);
-        verify(cartRepository, times(1)).save(any(Cart.class));
+        verify(cartRepository, times(1)).upsertItem(eq("user-id"), any(Cart.CartItem.class));
     }
 
     @Test
@@ -443,15 +479,46 @@ class CartServiceTest {
         
         testCart.getItems().add(item2);
         
+        PhoneSummary secondSummary = PhoneSummary.builder()
+                .id("phone-id-2")
+                .title("Another Phone")
+                .brand(PhoneBrand.APPLE)
+                .stock(4)
+                .price(799.99)
+                .seller(Phone.Seller.from(testUser))
+                .isDisabled(false)
+                .visibleReviewCount(3)
+                .averageRating(4.5)
+                .build();
+        Cart.CartItem deletedItem = Cart.CartItem.builder()
+                .phoneId("deleted-phone")
+                .title("Deleted Phone")
+                .quantity(1)
+                .price(10.0)
+                .build();
+        testCart.getItems().add(deletedItem);
+        
         when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
-        when(phoneRepository.findById(anyString())).thenReturn(Optional.of(testPhone));
+        when(phoneRepository.findSummariesByIds(Set.of("phone-id", "phone-id-2", "deleted-phone")))
+                .thenReturn(List.of(secondSummary, testSummary));
 
         // Act
         CartResponse response = cartService.getUserCart("user-id");
 
-        // Assert
+        // Assert：一次批量查询，按购物车顺序组装，已删除的商品只返回购物车中保存的信息
         assertNotNull(response);
-        assertEquals(2, response.getItems().size());
+        assertEquals(3, response.getItems().size());
+        CartItemResponse second = response.getItems().get(1);
+        assertEquals("phone-id-2", second.getPhone().getId());
+        assertEquals(4.5, second.getAverageRating());
+        assertEquals(3, second.getReviewCount());
+        assertEquals("user-id", second.getSeller().getId());
+        assertEquals("seller-id", response.getItems().get(0).getSeller().getId());
+        assertNull(response.getItems().get(2).getPhone());
+        assertEquals("Deleted Phone", response.getItems().get(2).getTitle());
         verify(cartRepository, times(1)).findByUserId("user-id");
+        verify(phoneRepository, times(1)).findSummariesByIds(anyCollection());
+        verify(phoneRepository, never()).findById(anyString());
+        verifyNoInteractions(userRepository);
     }
 }
\ No newline at end of file
@@ -1,5 +1,10 @@
 package com.oldphonedeals.service;
 
+import com.oldphonedeals.cache.CartCache;
+import com.oldphonedeals.cache.CatalogQueryCache;
+import com.oldphonedeals.cache.PhoneDetailCache;
+import com.oldphonedeals.cache.PhoneSuggestIndex;
+import com.oldphonedeals.cache.SoldOutSoonCache;
 import com.oldphonedeals.dto.request.order.CheckoutRequest;
 import com.oldphonedeals.dto.response.order.OrderResponse;
 import com.oldphonedeals.entity.Cart;
@@ -16,6 +21,7 @@ import com.oldphonedeals.service.impl.OrderServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -24,6 +30,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -46,6 +53,21 @@ class OrderServiceTest {
     @Mock
     private PhoneRepository phoneRepository;
 
+    @Mock
+    private SoldOutSoonCache soldOutSoonCache;
+
+    @Mock
+    private CatalogQueryCache catalogQueryCache;
+
+    @Mock
+    private PhoneDetailCache phoneDetailCache;
+
+    @Mock
+    private PhoneSuggestIndex phoneSuggestIndex;
+
+    @Mock
+    private CartCache cartCache;
+
     @InjectMocks
     private OrderServiceImpl orderService;
 
@@ -80,8 +102,7 @@ class OrderServiceTest {
                 .image("test.jpg")
                 .stock(10)
                 .price(999.99)
-                .seller(testSeller)
-                .reviews(new ArrayList<>())
+                .seller(Phone.Seller.from(testSeller))
                 .isDisabled(false)
                 .salesCount(0)
                 .createdAt(LocalDateTime.now())
@@ -149,7 +170,7 @@ class OrderServiceTest {
     void testCheckout_Success() {
         // Arrange
         when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
-        when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
+        when(phoneRepository.reserveStock("phone-id", 2)).thenReturn(Optional.of(reserved(testPhone, 2)));
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
 
         // Act
@@ -160,10 +181,15 @@ class OrderServiceTest {
         assertEquals("order-id", response.getId());
         assertEquals("user-id", response.getUserId());
         verify(cartRepository, times(1)).findByUserId("user-id");
-        verify(phoneRepository, times(1)).findById("phone-id");
+        verify(phoneRepository, never()).findById(anyString()); // 不再逐个预读商品
         verify(orderRepository, times(1)).save(any(Order.class));
-        verify(phoneRepository, times(1)).save(testPhone); // 验证库存更新
-        verify(cartRepository, times(1)).save(testCart); // 验证购物车清空
+        verify(phoneRepository, times(1)).reserveStock("phone-id", 2); // 验证库存条件扣减
+        verify(phoneRepository, never()).save(any(Phone.class));
+        verify(phoneRepository, never()).releaseStock(anyMap());
+        verify(soldOutSoonCache, times(1)).evictIfAffected("phone-id", 8);
+        verify(catalogQueryCache, times(1)).invalidateBrands(testPhone.getBrand());
+        verify(cartRepository, times(1)).clearItems("user-id"); // 验证购物车清空
+        verify(cartCache, times(1)).evict("user-id");
     }
 
     @Test
@@ -205,6 +231,8 @@ class OrderServiceTest {
             orderService.checkout("user-id", checkoutRequest);
         });
         verify(orderRepository, never()).save(any(Order.class));
+        verify(phoneRepository, times(1)).reserveStock("phone-id", 2); // 条件扣减失败后才读取商品区分原因
+        verify(phoneRepository, never()).releaseStock(anyMap());
     }
 
     @Test
@@ -220,6 +248,8 @@ class OrderServiceTest {
         });
         assertTrue(exception.getMessage().contains("not available"));
         verify(orderRepository, never()).save(any(Order.class));
+        verify(phoneRepository, times(1)).reserveStock("phone-id", 2); // 条件扣减失败后才读取商品区分原因
+        verify(phoneRepository, never()).releaseStock(anyMap());
     }
 
     @Test
@@ -234,35 +264,38 @@ class OrderServiceTest {
             orderService.checkout("user-id", checkoutRequest);
         });
         assertTrue(exception.getMessage().contains("Insufficient stock"));
+        assertTrue(exception.getMessage().contains("Available: 1"));
         verify(orderRepository, never()).save(any(Order.class));
+        verify(phoneRepository, times(1)).reserveStock("phone-id", 2); // 条件扣减失败后才读取商品区分原因
+        verify(phoneRepository, never()).releaseStock(anyMap());
     }
 
     @Test
     void testCheckout_UpdatesStockAndSalesCount() {
         // Arrange
-        int initialStock = testPhone.getStock();
-        int initialSalesCount = testPhone.getSalesCount();
         int orderQuantity = testCart.getItems().get(0).getQuantity();
+        Phone reservedPhone = reserved(testPhone, orderQuantity);
 
         when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
-        when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
+        when(phoneRepository.reserveStock("phone-id", orderQuantity)).thenReturn(Optional.of(reservedPhone));
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
 
         // Act
         OrderResponse response = orderService.checkout("user-id", checkoutRequest);
 
-        // Assert
+        // Assert：库存和销量由数据库 $inc 修改，不回写读取到的商品
         assertNotNull(response);
-        assertEquals(initialStock - orderQuantity, testPhone.getStock());
-        assertEquals(initialSalesCount + orderQuantity, testPhone.getSalesCount());
-        verify(phoneRepository, times(1)).save(testPhone);
+        verify(phoneRepository, times(1)).reserveStock("phone-id", orderQuantity);
+        verify(phoneRepository, never()).save(any(Phone.class));
+        verify(phoneDetailCache, times(1)).evict("phone-id");
+        verify(phoneSuggestIndex, times(1)).update(reservedPhone);
     }
 
     @Test
     void testCheckout_ClearsCart() {
         // Arrange
         when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
-        when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
+        when(phoneRepository.reserveStock("phone-id", 2)).thenReturn(Optional.of(reserved(testPhone, 2)));
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
 
         // Act
@@ -270,8 +303,8 @@ class OrderServiceTest {
 
         // Assert
         assertNotNull(response);
-        assertTrue(testCart.getItems().isEmpty());
-        verify(cartRepository, times(1)).save(testCart);
+        verify(cartRepository, times(1)).clearItems("user-id");
+        verify(cartRepository, never()).save(any(Cart.class));
     }
 
     @Test
@@ -283,8 +316,7 @@ class OrderServiceTest {
                 .brand(PhoneBrand.APPLE)
                 .stock(5)
                 .price(1299.99)
-                .seller(testSeller)
-                .reviews(new ArrayList<>())
+                .seller(Phone.Seller.from(testSeller))
                 .isDisabled(false)
                 .salesCount(0)
                 .build();
@@ -299,8 +331,8 @@ class OrderServiceTest {
         testCart.getItems().add(secondItem);
 
         when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
-        when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
-        when(phoneRepository.findById("phone-id-2")).thenReturn(Optional.of(secondPhone));
+        when(phoneRepository.reserveStock("phone-id", 2)).thenReturn(Optional.of(reserved(testPhone, 2)));
+        when(phoneRepository.reserveStock("phone-id-2", 1)).thenReturn(Optional.of(reserved(secondPhone, 1)));
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
 
         // Act
@@ -308,7 +340,56 @@ class OrderServiceTest {
 
         // Assert
         assertNotNull(response);
-        verify(phoneRepository, times(2)).save(any(Phone.class));
+        verify(phoneRepository, times(2)).reserveStock(anyString(), anyInt());
+        verify(catalogQueryCache, times(1)).invalidateBrands(PhoneBrand.SAMSUNG, PhoneBrand.APPLE);
+    }
+
+    @Test
+    void testCheckout_ConcurrentPurchaseExhaustsStock_ReleasesReservedItems() {
+        // Arrange：第二个商品在预留时已被其他买家买光
+        Phone secondPhone = Phone.builder()
+                .id("phone-id-2")
+                .title("Second Phone")
+                .brand(PhoneBrand.APPLE)
+                .stock(5)
+                .price(1299.99)
+                .isDisabled(false)
+                .build();
+        testCart.getItems().add(Cart.CartItem.builder()
+                .phoneId("phone-id-2")
+                .title("Second Phone")
+                .quantity(1)
+                .price(1299.99)
+                .build());
+
+        when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
+        when(phoneRepository.findById("phone-id-2")).thenReturn(Optional.of(secondPhone));
+        when(phoneRepository.reserveStock("phone-id", 2)).thenReturn(Optional.of(reserved(testPhone, 2)));
+        when(phoneRepository.reserveStock("phone-id-2", 1)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        BadRequestException exception = assertThrows(BadRequestException.class, () -> {
+            orderService.checkout("user-id", checkoutRequest);
+        });
+        assertTrue(exception.getMessage().contains("Insufficient stock for phone Second Phone"));
+        verify(phoneRepository, times(1)).releaseStock(Map.of("phone-id", 2)); // 只归还已预留的商品
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(cartRepository, never()).clearItems(anyString());
+    }
+
+    @Test
+    void testCheckout_OrderSaveFails_ReleasesReservedStock() {
+        // Arrange
+        when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
+        when(phoneRepository.reserveStock("phone-id", 2)).thenReturn(Optional.of(reserved(testPhone, 2)));
+        when(orderRepository.save(any(Order.class))).thenThrow(new IllegalStateException("write failed"));
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> {
+            orderService.checkout("user-id", checkoutRequest);
+        });
+        verify(phoneRepository, times(1)).releaseStock(Map.of("phone-id", 2));
+        verify(cartRepository, never()).clearItems(anyString());
     }
 
     // ==================== 获取订单测试 ====================
@@ -400,7 +481,7 @@ class OrderServiceTest {
         // Arrange
         testPhone.setStock(2); // 恰好等于购物车数量
         when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
-        when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
+        when(phoneRepository.reserveStock("phone-id", 2)).thenReturn(Optional.of(reserved(testPhone, 2)));
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
 
         // Act
@@ -408,15 +489,14 @@ class OrderServiceTest {
 
         // Assert
         assertNotNull(response);
-        assertEquals(0, testPhone.getStock());
-        verify(phoneRepository, times(1)).save(testPhone);
+        verify(soldOutSoonCache, times(1)).evictIfAffected("phone-id", 0);
     }
 
     @Test
     void testCheckout_TotalAmountCalculatedCorrectly() {
         // Arrange
         when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
-        when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
+        when(phoneRepository.reserveStock("phone-id", 2)).thenReturn(Optional.of(reserved(testPhone, 2)));
         when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> {
             Order savedOrder = invocation.getArgument(0);
             // 验证总金额计算正确
@@ -438,7 +518,7 @@ class OrderServiceTest {
         // Arrange
         testPhone.setSalesCount(null); // 测试null情况
         when(cartRepository.findByUserId("user-id")).thenReturn(Optional.of(testCart));
-        when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
+        when(phoneRepository.reserveStock("phone-id", 2)).thenReturn(Optional.of(reserved(testPhone, 2)));
         when(orderRepository.save(any(Order.class))).thenReturn(testOrder);
 
         // Act
@@ -446,9 +526,10 @@ class OrderServiceTest {
 
         // Assert
         assertNotNull(response);
-        // 验证从null开始也能正确累加
-        assertEquals(2, testPhone.getSalesCount());
-        verify(phoneRepository, times(1)).save(testPhone);
+        // 验证从null开始也能正确累加（$inc 对缺失字段从 0 开始）
+        ArgumentCaptor<Phone> updated = ArgumentCaptor.forClass(Phone.class);
+        verify(phoneSuggestIndex, times(1)).update(updated.capture());
+        assertEquals(2, updated.getValue().getSalesCount());
     }
 
     @Test
@@ -481,4 +562,18 @@ class OrderServiceTest {
         assertEquals(3, result.size());
         verify(orderRepository, times(1)).findByUserId("user-id");
     }
-}
\ No newline at end of file
+
+    /**
+     * 模拟 reserveStock 返回的扣减后商品
+     */
+    private static Phone reserved(Phone phone, int quantity) {
+        return Phone.builder()
+                .id(phone.getId())
+                .title(phone.getTitle())
+                .brand(phone.getBrand())
+                .stock(phone.getStock() - quantity)
+                .salesCount((phone.getSalesCount() != null ? phone.getSalesCount() : 0) + quantity)
+                .isDisabled(false)
+                .build();
+    }
+}
@@ -1,34 +1,68 @@
 package com.oldphonedeals.service;
 
+import com.mongodb.bulk.BulkWriteResult;
+import com.oldphonedeals.cache.BestSellerLeaderboard;
+import com.oldphonedeals.cache.CartCache;
+import com.oldphonedeals.cache.CatalogQueryCache;
+import com.oldphonedeals.cache.PhoneDetailCache;
+import com.oldphonedeals.cache.PhoneSuggestIndex;
+import com.oldphonedeals.cache.RelatedPhonesIndex;
+import com.oldphonedeals.cache.SoldOutSoonCache;
+import com.oldphonedeals.config.CatalogProperties;
+import com.oldphonedeals.dto.request.phone.PhoneBulkUpdateRequest;
 import com.oldphonedeals.dto.request.phone.PhoneCreateRequest;
+import com.oldphonedeals.dto.request.phone.PhoneQueryRequest;
 import com.oldphonedeals.dto.request.phone.PhoneUpdateRequest;
 import com.oldphonedeals.dto.response.ApiResponse;
+import com.oldphonedeals.dto.response.PageResponse;
+import com.oldphonedeals.dto.response.phone.PhoneBulkUpdateResponse;
+import com.oldphonedeals.dto.response.phone.PhoneImportResponse;
 import com.oldphonedeals.dto.response.phone.PhoneListItemResponse;
 import com.oldphonedeals.dto.response.phone.PhoneResponse;
+import com.oldphonedeals.dto.response.phone.PhoneSuggestionResponse;
+import com.oldphonedeals.dto.response.phone.ReviewResponse;
 import com.oldphonedeals.entity.Cart;
 import com.oldphonedeals.entity.Phone;
+import com.oldphonedeals.entity.PhoneSummary;
 import com.oldphonedeals.entity.User;
 import com.oldphonedeals.enums.PhoneBrand;
+import com.oldphonedeals.exception.BadRequestException;
 import com.oldphonedeals.exception.ResourceNotFoundException;
 import com.oldphonedeals.exception.UnauthorizedException;
 import com.oldphonedeals.repository.CartRepository;
+import com.oldphonedeals.repository.CatalogFacetPage;
 import com.oldphonedeals.repository.PhoneRepository;
+import com.oldphonedeals.repository.ReviewRepository;
 import com.oldphonedeals.repository.UserRepository;
 import com.oldphonedeals.service.impl.PhoneServiceImpl;
+import com.oldphonedeals.util.CatalogCursor;
+import com.oldphonedeals.util.PhoneImportReader;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
 
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -46,6 +80,9 @@ class PhoneServiceTest {
     @Mock
     private PhoneRepository phoneRepository;
 
+    @Mock
+    private ReviewRepository reviewRepository;
+
     @Mock
     private UserRepository userRepository;
 
@@ -58,16 +95,49 @@ class PhoneServiceTest {
     @Mock
     private ReviewService reviewService;
 
+    @Mock
+    private BestSellerLeaderboard bestSellerLeaderboard;
+
+    @Mock
+    private CartCache cartCache;
+
+    @Mock
+    private SoldOutSoonCache soldOutSoonCache;
+
+    @Mock
+    private CatalogQueryCache catalogQueryCache;
+
+    @Mock
+    private PhoneDetailCache phoneDetailCache;
+
+    @Mock
+    private PhoneSuggestIndex phoneSuggestIndex;
+
+    @Mock
+    private RelatedPhonesIndex relatedPhonesIndex;
+
+    @Spy
+    private CatalogProperties catalogProperties = new CatalogProperties();
+
+    @Spy
+    private Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
     @InjectMocks
     private PhoneServiceImpl phoneService;
 
     private User testSeller;
     private Phone testPhone;
+    private PhoneSummary testSummary;
     private PhoneCreateRequest createRequest;
     private PhoneUpdateRequest updateRequest;
 
     @BeforeEach
+    @SuppressWarnings("unchecked")
     void setUp() {
+        // 查询缓存直接调用加载函数
+        when(catalogQueryCache.get(any(PhoneQueryRequest.class), any()))
+                .thenAnswer(invocation -> ((Supplier<Map<String, Object>>) invocation.getArgument(1)).get());
+
         // 创建测试用卖家
         testSeller = new User();
         testSeller.setId("seller-id");
@@ -85,14 +155,29 @@ class PhoneServiceTest {
                 .image("test.jpg")
                 .stock(10)
                 .price(999.99)
-                .seller(testSeller)
-                .reviews(new ArrayList<>())
+                .seller(Phone.Seller.from(testSeller))
                 .isDisabled(false)
                 .salesCount(0)
                 .createdAt(LocalDateTime.now())
                 .updatedAt(LocalDateTime.now())
                 .build();
 
+        // 列表查询使用的商品摘要
+        testSummary = PhoneSummary.builder()
+                .id(testPhone.getId())
+                .title(testPhone.getTitle())
+                .brand(testPhone.getBrand())
+                .image(testPhone.getImage())
+                .stock(testPhone.getStock())
+                .price(testPhone.getPrice())
+                .seller(Phone.Seller.from(testSeller))
+                .isDisabled(false)
+                .salesCount(0)
+                .createdAt(testPhone.getCreatedAt())
+                .reviewCount(0)
+                .visibleReviewCount(0)
+                .build();
+
         // 创建请求对象
         createRequest = PhoneCreateRequest.builder()
                 .title("New Phone")
@@ -141,6 +226,193 @@ class PhoneServiceTest {
         verify(phoneRepository, never()).save(any(Phone.class));
     }
 
+    // ==================== 批量更新测试 ====================
+
+    @Test
+    void testBulkUpdatePhones_Success() {
+        // Arrange
+        PhoneSummary other = PhoneSummary.builder()
+                .id("phone-2")
+                .title("Second")
+                .brand(PhoneBrand.SAMSUNG)
+                .price(500.0)
+                .stock(20)
+                .seller(Phone.Seller.from(testSeller))
+                .isDisabled(false)
+                .build();
+        when(phoneRepository.findSummariesByIds(anyCollection())).thenReturn(List.of(testSummary, other));
+        when(phoneRepository.bulkUpdateListings(eq("seller-id"), anyList()))
+                .thenReturn(BulkWriteResult.acknowledged(0, 2, 0, 2, List.of(), List.of()));
+        PhoneBulkUpdateRequest request = PhoneBulkUpdateRequest.builder()
+                .updates(List.of(
+                        PhoneBulkUpdateRequest.Item.builder().phoneId("phone-id").stock(2).price(599.0).build(),
+                        PhoneBulkUpdateRequest.Item.builder().phoneId("phone-2").isDisabled(true).build()))
+                .build();
+
+        // Act
+        PhoneBulkUpdateResponse response = phoneService.bulkUpdatePhones(request, "seller-id");
+
+        // Assert
+        assertEquals(2, response.getRequested());
+        assertEquals(2, response.getMatched());
+        assertEquals(2, response.getModified());
+        verify(phoneRepository, times(1)).findSummariesByIds(anyCollection());
+        verify(phoneRepository, times(1)).bulkUpdateListings("seller-id", request.getUpdates());
+        verify(phoneRepository, never()).findById(anyString());
+        verify(phoneRepository, never()).save(any(Phone.class));
+        verify(soldOutSoonCache).evictIfAffected("phone-id", 2);
+        verify(soldOutSoonCache).evictIfAffected("phone-2", 20);
+        verify(phoneDetailCache).evict("phone-id");
+        verify(phoneDetailCache).evict("phone-2");
+        verify(bestSellerLeaderboard, times(1)).refresh("phone-2");
+        verify(bestSellerLeaderboard, never()).refresh("phone-id");
+        verify(phoneSuggestIndex, times(1)).update(argThat(phone -> "phone-2".equals(phone.getId())
+                && Boolean.TRUE.equals(phone.getIsDisabled())));
+    }
+
+    @Test
+    void testBulkUpdatePhones_NotOwner_ThrowsWithoutWriting() {
+        // Arrange
+        User otherSeller = new User();
+        otherSeller.setId("other-seller");
+        PhoneSummary foreign = PhoneSummary.builder()
+                .id("phone-2")
+                .brand(PhoneBrand.SAMSUNG)
+                .seller(Phone.Seller.from(otherSeller))
+                .build();
+        when(phoneRepository.findSummariesByIds(anyCollection())).thenReturn(List.of(testSummary, foreign));
+        PhoneBulkUpdateRequest request = PhoneBulkUpdateRequest.builder()
+                .updates(List.of(
+                        PhoneBulkUpdateRequest.Item.builder().phoneId("phone-id").stock(2).build(),
+                        PhoneBulkUpdateRequest.Item.builder().phoneId("phone-2").stock(3).build()))
+                .build();
+
+        // Act & Assert
+        assertThrows(UnauthorizedException.class, () -> phoneService.bulkUpdatePhones(request, "seller-id"));
+        verify(phoneRepository, never()).bulkUpdateListings(anyString(), anyList());
+    }
+
+    @Test
+    void testBulkUpdatePhones_InvalidItems_ThrowsBadRequest() {
+        // Arrange
+        PhoneBulkUpdateRequest duplicate = PhoneBulkUpdateRequest.builder()
+                .updates(List.of(
+                        PhoneBulkUpdateRequest.Item.builder().phoneId("phone-id").stock(2).build(),
+                        PhoneBulkUpdateRequest.Item.builder().phoneId("phone-id").price(3.0).build()))
+                .build();
+        PhoneBulkUpdateRequest empty = PhoneBulkUpdateRequest.builder()
+                .updates(List.of(PhoneBulkUpdateRequest.Item.builder().phoneId("phone-id").build()))
+                .build();
+
+        // Act & Assert
+        assertThrows(BadRequestException.class, () -> phoneService.bulkUpdatePhones(duplicate, "seller-id"));
+        assertThrows(BadRequestException.class, () -> phoneService.bulkUpdatePhones(empty, "seller-id"));
+        verify(phoneRepository, never()).findSummariesByIds(anyCollection());
+    }
+
+    @Test
+    void testBulkUpdatePhones_PhoneNotFound_ThrowsException() {
+        // Arrange
+        when(phoneRepository.findSummariesByIds(anyCollection())).thenReturn(List.of(testSummary));
+        PhoneBulkUpdateRequest request = PhoneBulkUpdateRequest.builder()
+                .updates(List.of(
+                        PhoneBulkUpdateRequest.Item.builder().phoneId("phone-id").stock(2).build(),
+                        PhoneBulkUpdateRequest.Item.builder().phoneId("missing").stock(3).build()))
+                .build();
+
+        // Act & Assert
+        ResourceNotFoundException e = assertThrows(ResourceNotFoundException.class,
+                () -> phoneService.bulkUpdatePhones(request, "seller-id"));
+        assertTrue(e.getMessage().contains("missing"));
+        verify(phoneRepository, never()).bulkUpdateListings(anyString(), anyList());
+    }
+
+    // ==================== 批量导入测试 ====================
+
+    @Test
+    void testImportPhones_Csv_WritesInBatchesAndReportsRowErrors() {
+        // Arrange
+        catalogProperties.getBulkImport().setBatchSize(2);
+        when(userRepository.findById("seller-id")).thenReturn(Optional.of(testSeller));
+        List<List<Phone>> batches = new ArrayList<>();
+        when(phoneRepository.insertUnordered(anyList())).thenAnswer(invocation -> {
+            List<Phone> batch = new ArrayList<>(invocation.getArgument(0));
+            batches.add(batch);
+            // 第一批的第二个商品写入失败
+            return batches.size() == 1 ? Map.of(1, "E11000 duplicate key") : Map.of();
+        });
+        String csv = "Title,Brand,Image,Stock,Price\n"
+                + "\"Galaxy S21, 128GB\",Samsung,s21.jpg,3,499.5\n"
+                + "Pixel 7,Google,pixel.jpg,1,300\n"
+                + "\n"
+                + "iPhone 12,APPLE,ip12.jpg,10,650\n"
+                + "Nokia 3310,Nokia,3310.jpg,-1,20\n"
+                + "Xperia,Sony,xperia.jpg,7,250\n";
+
+        // Act
+        PhoneImportResponse result = phoneService.importPhones(stream(csv), PhoneImportReader.Format.CSV, "seller-id");
+
+        // Assert
+        assertEquals(5, result.getTotalRows());
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertFalse(result.isTruncated());
+        assertEquals(List.of(3, 5, 6), result.getErrors().stream()
+                .map(PhoneImportResponse.RowError::getLine).collect(Collectors.toList()));
+        assertEquals("Invalid brand: Google", result.getErrors().get(0).getMessage());
+        assertEquals("E11000 duplicate key", result.getErrors().get(1).getMessage());
+        assertEquals("Stock must be at least 0", result.getErrors().get(2).getMessage());
+
+        assertEquals(List.of(2, 1), batches.stream().map(List::size).collect(Collectors.toList()));
+        Phone first = batches.get(0).get(0);
+        assertEquals("Galaxy S21, 128GB", first.getTitle());
+        assertEquals(PhoneBrand.SAMSUNG, first.getBrand());
+        assertEquals("seller-id", first.getSeller().getId());
+        assertNotNull(first.getId());
+        assertNotNull(first.getCreatedAt());
+        verify(userRepository, times(1)).findById("seller-id");
+        verify(phoneRepository, never()).save(any(Phone.class));
+        verify(phoneSuggestIndex, times(2)).update(any(Phone.class));
+        verify(soldOutSoonCache, times(1)).invalidate();
+    }
+
+    @Test
+    void testImportPhones_Ndjson_StopsAtMaxRows() {
+        // Arrange
+        catalogProperties.getBulkImport().setMaxRows(2);
+        when(userRepository.findById("seller-id")).thenReturn(Optional.of(testSeller));
+        when(phoneRepository.insertUnordered(anyList())).thenReturn(Map.of());
+        String ndjson = "{\"title\":\"A\",\"brand\":\"Apple\",\"image\":\"a.jpg\",\"stock\":8,\"price\":10}\n"
+                + "not json\n"
+                + "{\"title\":\"C\",\"brand\":\"Apple\",\"image\":\"c.jpg\",\"stock\":8,\"price\":10}\n";
+
+        // Act
+        PhoneImportResponse result = phoneService.importPhones(stream(ndjson), PhoneImportReader.Format.NDJSON, "seller-id");
+
+        // Assert
+        assertEquals(2, result.getTotalRows());
+        assertEquals(1, result.getImported());
+        assertEquals(1, result.getFailed());
+        assertTrue(result.isTruncated());
+        assertEquals("Invalid JSON", result.getErrors().get(0).getMessage());
+        verify(soldOutSoonCache, never()).invalidate();
+    }
+
+    @Test
+    void testImportPhones_SellerNotFound_ThrowsException() {
+        // Arrange
+        when(userRepository.findById("invalid-seller")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () ->
+                phoneService.importPhones(stream(""), PhoneImportReader.Format.CSV, "invalid-seller"));
+        verify(phoneRepository, never()).insertUnordered(anyList());
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
     // ==================== 更新商品测试 ====================
 
     @Test
@@ -156,6 +428,33 @@ class PhoneServiceTest {
         assertNotNull(response);
         verify(phoneRepository, times(1)).findById("phone-id");
         verify(phoneRepository, times(1)).save(any(Phone.class));
+        verify(catalogQueryCache, times(1)).invalidateBrands(PhoneBrand.SAMSUNG, testPhone.getBrand());
+    }
+
+    @Test
+    void testUpdatePhone_ReturnsTopReviewsVisibleToSeller() {
+        // Arrange
+        when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
+        when(phoneRepository.save(any(Phone.class))).thenReturn(testPhone);
+        List<ReviewResponse> topReviews = List.of(ReviewResponse.builder().id("review-1").isHidden(true).build());
+        when(reviewService.getTopReviews("phone-id", "seller-id", "seller-id", 3)).thenReturn(topReviews);
+
+        // Act
+        PhoneResponse response = phoneService.updatePhone("phone-id", updateRequest, "seller-id");
+
+        // Assert：与详情页一致只携带前 3 条评论，卖家本人可看到隐藏评论
+        assertEquals(topReviews, response.getReviews());
+        verify(reviewService, times(1)).getTopReviews("phone-id", "seller-id", "seller-id", 3);
+    }
+
+    @Test
+    void testGetPhones_CursorMode_BypassesQueryCache() {
+        when(phoneRepository.searchCatalogAfter(any(), any()))
+                .thenReturn(new SliceImpl<>(List.of(), PageRequest.of(0, 12, Sort.by("createdAt")), false));
+
+        phoneService.getPhones(PhoneQueryRequest.builder().after("").build());
+
+        verify(catalogQueryCache, never()).get(any(), any());
     }
 
     @Test
@@ -207,7 +506,7 @@ class PhoneServiceTest {
     void testDeletePhone_Success() {
         // Arrange
         when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
-        when(cartRepository.findCartsContainingPhone("phone-id")).thenReturn(new ArrayList<>());
+        when(cartRepository.pullPhoneFromAllCarts("phone-id")).thenReturn(0L);
         when(userRepository.findAll()).thenReturn(new ArrayList<>());
         doNothing().when(phoneRepository).delete(any(Phone.class));
         doNothing().when(fileStorageService).deleteFile(anyString());
@@ -218,7 +517,10 @@ class PhoneServiceTest {
         // Assert
         verify(phoneRepository, times(1)).findById("phone-id");
         verify(phoneRepository, times(1)).delete(testPhone);
+        verify(reviewRepository, times(1)).deleteByPhoneId("phone-id");
         verify(fileStorageService, times(1)).deleteFile("test.jpg");
+        verify(bestSellerLeaderboard, times(1)).remove("phone-id");
+        verify(soldOutSoonCache, times(1)).evictIfAffected("phone-id", testPhone.getStock());
     }
 
     @Test
@@ -250,20 +552,12 @@ class PhoneServiceTest {
     @Test
     void testDeletePhone_RemovesFromCartsAndWishlists() {
         // Arrange
-        Cart cart = Cart.builder()
-                .id("cart-id")
-                .userId("user-id")
-                .items(new ArrayList<>(Arrays.asList(
-                        Cart.CartItem.builder().phoneId("phone-id").build()
-                )))
-                .build();
-        
         User userWithWishlist = new User();
         userWithWishlist.setId("user-id");
         userWithWishlist.setWishlist(new ArrayList<>(Arrays.asList("phone-id")));
 
         when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
-        when(cartRepository.findCartsContainingPhone("phone-id")).thenReturn(Arrays.asList(cart));
+        when(cartRepository.pullPhoneFromAllCarts("phone-id")).thenReturn(1L);
         when(userRepository.findAll()).thenReturn(Arrays.asList(userWithWishlist));
         doNothing().when(fileStorageService).deleteFile(anyString());
 
@@ -271,10 +565,11 @@ class PhoneServiceTest {
         phoneService.deletePhone("phone-id", "seller-id");
 
         // Assert
-        verify(cartRepository, times(1)).save(cart);
+        verify(cartRepository, times(1)).pullPhoneFromAllCarts("phone-id");
+        verify(cartRepository, never()).save(any(Cart.class));
+        verify(cartCache, times(1)).evictContaining("phone-id");
         verify(userRepository, times(1)).save(userWithWishlist);
         verify(phoneRepository, times(1)).delete(testPhone);
-        assertTrue(cart.getItems().isEmpty());
         assertFalse(userWithWishlist.getWishlist().contains("phone-id"));
     }
 
@@ -310,9 +605,9 @@ class PhoneServiceTest {
     @Test
     void testGetPhones_WithPagination_ReturnsPagedResults() {
         // Arrange
-        List<Phone> phones = Arrays.asList(testPhone);
-        Page<Phone> phonePage = new PageImpl<>(phones);
-        when(phoneRepository.findByIsDisabledFalse(any(Pageable.class))).thenReturn(phonePage);
+        List<PhoneSummary> phones = Arrays.asList(testSummary);
+        Page<PhoneSummary> phonePage = new PageImpl<>(phones);
+        when(phoneRepository.searchCatalog(any(PhoneQueryRequest.class))).thenReturn(phonePage);
 
         // Act
         Map<String, Object> result = phoneService.getPhones(null, null, null, null, null, 1, 12);
@@ -323,16 +618,17 @@ class PhoneServiceTest {
         assertTrue(result.containsKey("currentPage"));
         assertTrue(result.containsKey("totalPages"));
         assertEquals(1, result.get("currentPage"));
-        verify(phoneRepository, times(1)).findByIsDisabledFalse(any(Pageable.class));
+        verify(phoneRepository, times(1)).searchCatalog(argThat(query ->
+                query.getSearch() == null && query.getBrand() == null && query.getMaxPrice() == null
+                        && query.getPage() == 1 && query.getLimit() == 12));
     }
 
     @Test
     void testGetPhones_WithSearchFilter_ReturnsFilteredResults() {
         // Arrange
-        List<Phone> phones = Arrays.asList(testPhone);
-        Page<Phone> phonePage = new PageImpl<>(phones);
-        when(phoneRepository.searchByTitle(anyString(), any(Pageable.class)))
-                .thenReturn(phonePage);
+        List<PhoneSummary> phones = Arrays.asList(testSummary);
+        Page<PhoneSummary> phonePage = new PageImpl<>(phones);
+        when(phoneRepository.searchCatalog(any(PhoneQueryRequest.class))).thenReturn(phonePage);
 
         // Act
         Map<String, Object> result = phoneService.getPhones("Test", null, null, null, null, 1, 12);
@@ -340,16 +636,68 @@ class PhoneServiceTest {
         // Assert
         assertNotNull(result);
         assertTrue(result.containsKey("phones"));
-        verify(phoneRepository, times(1)).searchByTitle(anyString(), any(Pageable.class));
+        verify(phoneRepository, times(1)).searchCatalog(argThat(query -> "Test".equals(query.getSearch())));
+    }
+
+    @Test
+    void testGetPhones_Fuzzy_UsesIndexRankingAndFiltersPrice() {
+        // Arrange
+        PhoneSummary expensive = PhoneSummary.builder()
+                .id("phone-2")
+                .title("Test Phone Max")
+                .brand(testPhone.getBrand())
+                .price(5000.0)
+                .isDisabled(false)
+                .build();
+        PhoneSummary third = PhoneSummary.builder()
+                .id("phone-3")
+                .title("Test Phone Mini")
+                .brand(testPhone.getBrand())
+                .price(10.0)
+                .isDisabled(false)
+                .build();
+        when(phoneSuggestIndex.fuzzySearch("tset phne", null, 200))
+                .thenReturn(List.of("phone-3", "phone-2", "phone-id"));
+        when(phoneRepository.findSummariesByIds(anyCollection()))
+                .thenReturn(Arrays.asList(testSummary, expensive, third));
+        PhoneQueryRequest query = PhoneQueryRequest.builder()
+                .search("tset phne")
+                .fuzzy(true)
+                .maxPrice(1000.0)
+                .limit(1)
+                .page(2)
+                .build();
+
+        // Act
+        Map<String, Object> result = phoneService.getPhones(query);
+
+        // Assert：保持匹配程度顺序，过滤超出价格的商品后分页
+        List<?> phones = (List<?>) result.get("phones");
+        assertEquals(1, phones.size());
+        assertEquals("phone-id", ((PhoneListItemResponse) phones.get(0)).getId());
+        assertEquals(2L, result.get("total"));
+        assertEquals(2, result.get("totalPages"));
+        verify(phoneRepository, never()).searchCatalog(any(PhoneQueryRequest.class));
+    }
+
+    @Test
+    void testGetPhones_FuzzyWithoutSearch_UsesCatalogQuery() {
+        // Arrange
+        when(phoneRepository.searchCatalog(any(PhoneQueryRequest.class))).thenReturn(new PageImpl<>(List.of(testSummary)));
+
+        // Act
+        phoneService.getPhones(PhoneQueryRequest.builder().search(" ").fuzzy(true).build());
+
+        // Assert
+        verify(phoneSuggestIndex, never()).fuzzySearch(any(), any(), anyInt());
     }
 
     @Test
     void testGetPhones_WithBrandFilter_ReturnsFilteredResults() {
         // Arrange
-        List<Phone> phones = Arrays.asList(testPhone);
-        Page<Phone> phonePage = new PageImpl<>(phones);
-        when(phoneRepository.findByBrandAndIsDisabledFalse(eq(PhoneBrand.SAMSUNG), any(Pageable.class)))
-                .thenReturn(phonePage);
+        List<PhoneSummary> phones = Arrays.asList(testSummary);
+        Page<PhoneSummary> phonePage = new PageImpl<>(phones);
+        when(phoneRepository.searchCatalog(any(PhoneQueryRequest.class))).thenReturn(phonePage);
 
         // Act
         Map<String, Object> result = phoneService.getPhones(null, PhoneBrand.SAMSUNG, null, null, null, 1, 12);
@@ -357,16 +705,15 @@ class PhoneServiceTest {
         // Assert
         assertNotNull(result);
         assertTrue(result.containsKey("phones"));
-        verify(phoneRepository, times(1)).findByBrandAndIsDisabledFalse(eq(PhoneBrand.SAMSUNG), any(Pageable.class));
+        verify(phoneRepository, times(1)).searchCatalog(argThat(query -> query.getBrand() == PhoneBrand.SAMSUNG));
     }
 
     @Test
     void testGetPhones_WithMaxPriceFilter_ReturnsFilteredResults() {
         // Arrange
-        List<Phone> phones = Arrays.asList(testPhone);
-        Page<Phone> phonePage = new PageImpl<>(phones);
-        when(phoneRepository.findByPriceLessThanEqualAndIsDisabledFalse(eq(1000.0), any(Pageable.class)))
-                .thenReturn(phonePage);
+        List<PhoneSummary> phones = Arrays.asList(testSummary);
+        Page<PhoneSummary> phonePage = new PageImpl<>(phones);
+        when(phoneRepository.searchCatalog(any(PhoneQueryRequest.class))).thenReturn(phonePage);
 
         // Act
         Map<String, Object> result = phoneService.getPhones(null, null, 1000.0, null, null, 1, 12);
@@ -374,26 +721,171 @@ class PhoneServiceTest {
         // Assert
         assertNotNull(result);
         assertTrue(result.containsKey("phones"));
-        verify(phoneRepository, times(1)).findByPriceLessThanEqualAndIsDisabledFalse(eq(1000.0), any(Pageable.class));
+        verify(phoneRepository, times(1)).searchCatalog(argThat(query -> Double.valueOf(1000.0).equals(query.getMaxPrice())));
     }
 
     @Test
     void testGetPhones_WithAllFilters_ReturnsFilteredResults() {
         // Arrange
-        List<Phone> phones = Arrays.asList(testPhone);
-        Page<Phone> phonePage = new PageImpl<>(phones);
-        when(phoneRepository.findByTitleAndBrandAndPriceLessThanEqual(
-                anyString(), eq(PhoneBrand.SAMSUNG), eq(1000.0), any(Pageable.class)))
-                .thenReturn(phonePage);
+        List<PhoneSummary> phones = Arrays.asList(testSummary);
+        Page<PhoneSummary> phonePage = new PageImpl<>(phones);
+        when(phoneRepository.searchCatalog(any(PhoneQueryRequest.class))).thenReturn(phonePage);
+
+        PhoneQueryRequest query = PhoneQueryRequest.builder()
+                .search("Test")
+                .brand(PhoneBrand.SAMSUNG)
+                .minPrice(500.0)
+                .maxPrice(1000.0)
+                .sortBy("price")
+                .sortOrder("asc")
+                .page(1)
+                .limit(12)
+                .build();
 
         // Act
-        Map<String, Object> result = phoneService.getPhones("Test", PhoneBrand.SAMSUNG, 1000.0, null, null, 1, 12);
+        Map<String, Object> result = phoneService.getPhones(query);
 
         // Assert
         assertNotNull(result);
         assertTrue(result.containsKey("phones"));
-        verify(phoneRepository, times(1)).findByTitleAndBrandAndPriceLessThanEqual(
-                anyString(), eq(PhoneBrand.SAMSUNG), eq(1000.0), any(Pageable.class));
+        assertEquals(1L, result.get("total"));
+        verify(phoneRepository, times(1)).searchCatalog(query);
+    }
+
+    @Test
+    void testGetPhones_EquivalentQueries_ShareNormalizedCacheKey() {
+        // Arrange
+        when(phoneRepository.searchCatalog(any(PhoneQueryRequest.class))).thenReturn(new PageImpl<>(List.of(testSummary)));
+
+        // Act
+        phoneService.getPhones(new PhoneQueryRequest());
+        phoneService.getPhones(PhoneQueryRequest.builder().sortBy("createdAt").sortOrder("DESC").page(1).limit(12).build());
+        phoneService.getPhones(PhoneQueryRequest.builder().sortBy("unknown").page(0).build());
+        phoneService.getPhones(PhoneQueryRequest.builder().search("Test").sortBy("RELEVANCE").sortOrder("asc").build());
+
+        // Assert
+        ArgumentCaptor<PhoneQueryRequest> keys = ArgumentCaptor.forClass(PhoneQueryRequest.class);
+        verify(catalogQueryCache, times(4)).get(keys.capture(), any());
+        PhoneQueryRequest expected = PhoneQueryRequest.builder().sortBy("createdAt").sortOrder("desc").page(1).limit(12).build();
+        assertEquals(expected, keys.getAllValues().get(0));
+        assertEquals(expected, keys.getAllValues().get(1));
+        assertEquals(expected, keys.getAllValues().get(2));
+        assertEquals("relevance", keys.getAllValues().get(3).getSortBy());
+        assertEquals("desc", keys.getAllValues().get(3).getSortOrder());
+    }
+
+    @Test
+    void testGetPhones_WithEmptyCursor_ReturnsFirstSliceWithoutCount() {
+        // Arrange
+        Slice<PhoneSummary> slice = new SliceImpl<>(List.of(testSummary),
+                PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "createdAt").and(Sort.by(Sort.Direction.DESC, "_id"))),
+                true);
+        when(phoneRepository.searchCatalogAfter(any(PhoneQueryRequest.class), isNull())).thenReturn(slice);
+
+        PhoneQueryRequest query = PhoneQueryRequest.builder().limit(1).after("").build();
+
+        // Act
+        Map<String, Object> result = phoneService.getPhones(query);
+
+        // Assert
+        assertEquals(true, result.get("hasMore"));
+        assertFalse(result.containsKey("total"));
+        assertFalse(result.containsKey("totalPages"));
+        CatalogCursor next = CatalogCursor.decode((String) result.get("nextCursor"));
+        assertEquals("createdAt", next.getSortField());
+        assertEquals(Sort.Direction.DESC, next.getDirection());
+        assertEquals(testPhone.getCreatedAt(), next.getSortValue());
+        assertEquals(testPhone.getId(), next.getId());
+        verify(phoneRepository, never()).searchCatalog(any(PhoneQueryRequest.class));
+    }
+
+    @Test
+    void testGetPhones_WithCursor_PassesDecodedCursorAndEndsWithoutNextCursor() {
+        // Arrange
+        String token = new CatalogCursor("price", Sort.Direction.ASC, 199.0, "phone-9").encode();
+        Slice<PhoneSummary> slice = new SliceImpl<>(List.of(testSummary),
+                PageRequest.of(0, 12, Sort.by(Sort.Direction.ASC, "price")), false);
+        when(phoneRepository.searchCatalogAfter(any(PhoneQueryRequest.class), any(CatalogCursor.class))).thenReturn(slice);
+
+        // Act
+        Map<String, Object> result = phoneService.getPhones(PhoneQueryRequest.builder().after(token).build());
+
+        // Assert
+        assertEquals(false, result.get("hasMore"));
+        assertTrue(result.containsKey("nextCursor"));
+        assertNull(result.get("nextCursor"));
+        assertEquals(1, ((List<?>) result.get("phones")).size());
+        verify(phoneRepository).searchCatalogAfter(any(PhoneQueryRequest.class), argThat(cursor ->
+                "price".equals(cursor.getSortField()) && Double.valueOf(199.0).equals(cursor.getSortValue())
+                        && "phone-9".equals(cursor.getId())));
+    }
+
+    @Test
+    void testGetPhones_WithFacets_ReturnsPageAndFacetsFromSingleAggregation() {
+        // Arrange
+        Map<PhoneBrand, Long> brandCounts = new EnumMap<>(PhoneBrand.class);
+        brandCounts.put(PhoneBrand.SAMSUNG, 3L);
+        CatalogFacetPage facetPage = CatalogFacetPage.builder()
+                .phones(List.of(testSummary))
+                .total(25L)
+                .brandCounts(brandCounts)
+                .priceBuckets(List.of(new CatalogFacetPage.PriceBucket(0.0, 100.0, 25L)))
+                .build();
+        when(phoneRepository.searchCatalogWithFacets(any(PhoneQueryRequest.class), anyList())).thenReturn(facetPage);
+
+        PhoneQueryRequest query = PhoneQueryRequest.builder().facets(true).page(2).limit(12).build();
+
+        // Act
+        Map<String, Object> result = phoneService.getPhones(query);
+
+        // Assert
+        assertEquals(2, result.get("currentPage"));
+        assertEquals(3, result.get("totalPages"));
+        assertEquals(25L, result.get("total"));
+        Map<?, ?> facets = (Map<?, ?>) result.get("facets");
+        assertEquals(brandCounts, facets.get("brands"));
+        assertEquals(facetPage.getPriceBuckets(), facets.get("priceBuckets"));
+        verify(phoneRepository).searchCatalogWithFacets(eq(query.toBuilder().sortBy("createdAt").build()),
+                eq(List.of(0.0, 100.0, 200.0, 500.0, 1000.0)));
+        verify(phoneRepository, never()).searchCatalog(any(PhoneQueryRequest.class));
+    }
+
+    @Test
+    void testGetPhones_WithCustomPriceBuckets_NormalizesBoundaries() {
+        // Arrange
+        when(phoneRepository.searchCatalogWithFacets(any(PhoneQueryRequest.class), anyList()))
+                .thenReturn(CatalogFacetPage.builder().phones(List.of()).brandCounts(Map.of()).priceBuckets(List.of()).build());
+
+        PhoneQueryRequest query = PhoneQueryRequest.builder()
+                .facets(true)
+                .priceBuckets(List.of(500.0, 50.0, 500.0))
+                .build();
+
+        // Act
+        phoneService.getPhones(query);
+
+        // Assert
+        verify(phoneRepository).searchCatalogWithFacets(argThat(normalized -> Boolean.TRUE.equals(normalized.getFacets())),
+                eq(List.of(0.0, 50.0, 500.0)));
+    }
+
+    @Test
+    void testGetPhones_WithNegativePriceBucket_ThrowsBadRequest() {
+        PhoneQueryRequest query = PhoneQueryRequest.builder()
+                .facets(true)
+                .priceBuckets(List.of(-10.0, 100.0))
+                .build();
+
+        assertThrows(BadRequestException.class, () -> phoneService.getPhones(query));
+        verify(phoneRepository, never()).searchCatalogWithFacets(any(), anyList());
+    }
+
+    @Test
+    void testGetPhones_WithMalformedCursor_ThrowsBadRequest() {
+        PhoneQueryRequest query = PhoneQueryRequest.builder().after("not-a-cursor").build();
+
+        assertThrows(BadRequestException.class, () -> phoneService.getPhones(query));
+        verify(phoneRepository, never()).searchCatalogAfter(any(), any());
     }
 
     // ==================== 特殊查询测试 ====================
@@ -401,17 +893,17 @@ class PhoneServiceTest {
     @Test
     void testGetSoldOutSoonPhones_ReturnsLowStockPhones() {
         // Arrange
-        Phone lowStockPhone = Phone.builder()
+        PhoneSummary lowStockPhone = PhoneSummary.builder()
                 .id("low-stock-phone")
                 .title("Low Stock Phone")
                 .stock(3)
                 .isDisabled(false)
-                .seller(testSeller)
-                .reviews(new ArrayList<>())
+                .seller(Phone.Seller.from(testSeller))
+                .reviewCount(4)
+                .averageRating(4.5)
                 .build();
         
-        when(phoneRepository.findByStockLessThanEqualAndIsDisabledFalseOrderByStockAsc(eq(5), any(Pageable.class)))
-                .thenReturn(Arrays.asList(lowStockPhone));
+        when(soldOutSoonCache.get()).thenReturn(List.of(lowStockPhone));
 
         // Act
         List<PhoneListItemResponse> result = phoneService.getSoldOutSoonPhones();
@@ -419,41 +911,135 @@ class PhoneServiceTest {
         // Assert
         assertNotNull(result);
         assertFalse(result.isEmpty());
-        verify(phoneRepository, times(1))
-                .findByStockLessThanEqualAndIsDisabledFalseOrderByStockAsc(eq(5), any(Pageable.class));
+        assertEquals(4, result.get(0).getReviewCount());
+        assertEquals(4.5, result.get(0).getAverageRating());
+        verify(soldOutSoonCache, times(1)).get();
+        verify(phoneRepository, never()).findAll();
     }
 
     @Test
     void testGetBestSellers_ReturnsTopRatedPhones() {
         // Arrange
-        Phone.Review review1 = Phone.Review.builder()
-                .id("review-1")
-                .reviewerId("user-1")
-                .rating(5)
-                .comment("Great!")
-                .isHidden(false)
-                .createdAt(LocalDateTime.now())
+        PhoneSummary second = PhoneSummary.builder()
+                .id("phone-2")
+                .title("Second")
+                .brand(PhoneBrand.SAMSUNG)
+                .price(500.0)
+                .stock(3)
+                .seller(Phone.Seller.from(testSeller))
+                .isDisabled(false)
+                .reviewCount(2)
+                .averageRating(4.0)
                 .build();
-        
-        Phone.Review review2 = Phone.Review.builder()
-                .id("review-2")
-                .reviewerId("user-2")
-                .rating(4)
-                .comment("Good")
-                .isHidden(false)
-                .createdAt(LocalDateTime.now())
+        PhoneSummary disabled = PhoneSummary.builder()
+                .id("phone-3")
+                .title("Disabled")
+                .brand(PhoneBrand.SAMSUNG)
+                .price(500.0)
+                .stock(3)
+                .seller(Phone.Seller.from(testSeller))
+                .isDisabled(true)
                 .build();
-        
-        testPhone.setReviews(Arrays.asList(review1, review2));
-        when(phoneRepository.findAll()).thenReturn(Arrays.asList(testPhone));
+        when(bestSellerLeaderboard.top(10)).thenReturn(List.of("phone-id", "phone-3", "phone-2", "missing"));
+        when(phoneRepository.findSummariesByIds(anyCollection()))
+                .thenReturn(Arrays.asList(second, disabled, testSummary));
+
+        // Act
+        List<PhoneListItemResponse> result = phoneService.getBestSellers();
+
+        // Assert：保持排行榜顺序，跳过已禁用和已删除的商品
+        assertEquals(List.of("phone-id", "phone-2"),
+                result.stream().map(PhoneListItemResponse::getId).collect(Collectors.toList()));
+        verify(phoneRepository, never()).findAll();
+    }
+
+    @Test
+    void testGetBestSellers_EmptyLeaderboard_SkipsQuery() {
+        // Arrange
+        when(bestSellerLeaderboard.top(10)).thenReturn(List.of());
 
         // Act
         List<PhoneListItemResponse> result = phoneService.getBestSellers();
 
         // Assert
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
-        verify(phoneRepository, times(1)).findAll();
+        assertTrue(result.isEmpty());
+        verify(phoneRepository, never()).findSummariesByIds(anyCollection());
+    }
+
+    @Test
+    void testGetRelatedPhones_KeepsIndexOrderAndAppliesLimit() {
+        // Arrange
+        PhoneSummary second = PhoneSummary.builder()
+                .id("phone-2")
+                .title("Second")
+                .brand(PhoneBrand.SAMSUNG)
+                .price(500.0)
+                .stock(3)
+                .seller(Phone.Seller.from(testSeller))
+                .isDisabled(false)
+                .build();
+        PhoneSummary disabled = PhoneSummary.builder()
+                .id("phone-3")
+                .title("Disabled")
+                .brand(PhoneBrand.SAMSUNG)
+                .price(500.0)
+                .stock(3)
+                .seller(Phone.Seller.from(testSeller))
+                .isDisabled(true)
+                .build();
+        when(relatedPhonesIndex.get("phone-1")).thenReturn(List.of("phone-3", "missing", "phone-2", "phone-id"));
+        when(phoneRepository.findSummariesByIds(anyCollection()))
+                .thenReturn(Arrays.asList(testSummary, disabled, second));
+
+        // Act
+        List<PhoneListItemResponse> result = phoneService.getRelatedPhones("phone-1", 1);
+
+        // Assert：跳过已禁用和已删除的商品，按推荐顺序截取
+        assertEquals(List.of("phone-2"),
+                result.stream().map(PhoneListItemResponse::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void testGetRelatedPhones_NoRecommendations_SkipsQuery() {
+        // Arrange
+        when(relatedPhonesIndex.get("phone-1")).thenReturn(List.of());
+
+        // Act
+        List<PhoneListItemResponse> result = phoneService.getRelatedPhones("phone-1", null);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(phoneRepository, never()).findSummariesByIds(anyCollection());
+    }
+
+    @Test
+    void testSuggestPhones_BrandsFirstThenPhones() {
+        // Arrange
+        when(phoneSuggestIndex.suggestBrands("sam", 2)).thenReturn(List.of(PhoneBrand.SAMSUNG));
+        when(phoneSuggestIndex.suggestPhones("sam", 4)).thenReturn(List.of(
+                new PhoneSuggestIndex.Suggestion("phone-id", "Galaxy S21", PhoneBrand.SAMSUNG, 12)));
+
+        // Act
+        List<PhoneSuggestionResponse> result = phoneService.suggestPhones("sam", 5);
+
+        // Assert
+        assertEquals(2, result.size());
+        assertEquals("brand", result.get(0).getType());
+        assertEquals("Samsung", result.get(0).getText());
+        assertEquals("phone", result.get(1).getType());
+        assertEquals("phone-id", result.get(1).getPhoneId());
+        verifyNoInteractions(phoneRepository);
+    }
+
+    @Test
+    void testSuggestPhones_ClampsLimit() {
+        // Act
+        phoneService.suggestPhones("a", 100);
+        phoneService.suggestPhones("a", null);
+
+        // Assert
+        verify(phoneSuggestIndex).suggestPhones("a", 20);
+        verify(phoneSuggestIndex).suggestPhones("a", 8);
     }
 
     @Test
@@ -470,6 +1056,9 @@ class PhoneServiceTest {
         assertTrue(response.isSuccess());
         verify(phoneRepository, times(1)).findById("phone-id");
         verify(phoneRepository, times(1)).save(testPhone);
+        verify(bestSellerLeaderboard, times(1)).refresh("phone-id");
+        verify(soldOutSoonCache, times(1)).evictIfAffected("phone-id", testPhone.getStock());
+        verify(phoneSuggestIndex, times(1)).update(testPhone);
     }
 
     @Test
@@ -486,58 +1075,70 @@ class PhoneServiceTest {
     }
 
     @Test
-    void testGetPhonesBySeller_ReturnsSellerPhones() {
+    void testGetPhonesBySeller_ReturnsFirstPageAsList_WithoutUserLookup() {
         // Arrange
-        when(userRepository.findById("seller-id")).thenReturn(Optional.of(testSeller));
-        when(phoneRepository.findBySellerId("seller-id")).thenReturn(Arrays.asList(testPhone));
+        PhoneQueryRequest query = PhoneQueryRequest.builder().page(1).limit(100).build();
+        when(phoneRepository.findSellerPhones("seller-id", query))
+                .thenReturn(new PageImpl<>(List.of(testPhone), PageRequest.of(0, 100), 1));
 
         // Act
         List<PhoneResponse> result = phoneService.getPhonesBySeller("seller-id");
 
-        // Assert
-        assertNotNull(result);
-        assertFalse(result.isEmpty());
+        // Assert：走 seller._id + createdAt 索引分页查询，不再加载卖家的全部商品
         assertEquals(1, result.size());
-        verify(userRepository, times(1)).findById("seller-id");
-        verify(phoneRepository, times(1)).findBySellerId("seller-id");
+        assertEquals("phone-id", result.get(0).getId());
+        verifyNoInteractions(userRepository);
+        verify(phoneRepository, never()).findBySellerId(anyString());
     }
 
     @Test
-    void testGetPhonesBySeller_SellerNotFound_ThrowsException() {
+    void testGetPhonesBySeller_Paged_ReturnsPageWithoutUserLookup() {
         // Arrange
-        when(userRepository.findById("invalid-seller")).thenReturn(Optional.empty());
+        PhoneQueryRequest query = PhoneQueryRequest.builder().sortBy("price").sortOrder("asc").page(2).limit(1).build();
+        when(phoneRepository.findSellerPhones("seller-id", query))
+                .thenReturn(new PageImpl<>(List.of(testPhone), PageRequest.of(1, 1), 3));
 
-        // Act & Assert
-        assertThrows(ResourceNotFoundException.class, () -> {
-            phoneService.getPhonesBySeller("invalid-seller");
-        });
-        verify(userRepository, times(1)).findById("invalid-seller");
-        verify(phoneRepository, never()).findBySellerId(anyString());
+        // Act
+        PageResponse<PhoneResponse> result = phoneService.getPhonesBySeller("seller-id", 2, 1, "price", "asc");
+
+        // Assert
+        assertEquals(1, result.getContent().size());
+        assertEquals("phone-id", result.getContent().get(0).getId());
+        assertEquals(2, result.getCurrentPage());
+        assertEquals(3, result.getTotalPages());
+        assertEquals(3L, result.getTotalItems());
+        verifyNoInteractions(userRepository);
+        verify(phoneRepository, never()).findSellerSummaries(anyString(), any());
+    }
+
+    @Test
+    void testGetPhoneSummariesBySeller_UsesProjectionAndCapsLimit() {
+        // Arrange
+        PhoneQueryRequest query = PhoneQueryRequest.builder().page(1).limit(100).build();
+        when(phoneRepository.findSellerSummaries("seller-id", query))
+                .thenReturn(new PageImpl<>(List.of(testSummary), PageRequest.of(0, 100), 1));
+
+        // Act
+        PageResponse<PhoneListItemResponse> result =
+                phoneService.getPhoneSummariesBySeller("seller-id", 1, 5000, null, null);
+
+        // Assert
+        assertEquals(1, result.getContent().size());
+        assertEquals(1L, result.getTotalItems());
+        verify(phoneRepository, never()).findSellerPhones(anyString(), any());
     }
 
     @Test
     void testGetPhoneById_WithReviewVisibilityFiltering_ReturnsTop3Reviews() {
         // Arrange
-        // 创建 5 条评论用于测试
-        List<Phone.Review> reviews = new ArrayList<>();
-        for (int i = 0; i < 5; i++) {
-            reviews.add(Phone.Review.builder()
-                    .id("review-" + i)
-                    .reviewerId("reviewer-" + i)
-                    .rating(5)
-                    .comment("Comment " + i)
-                    .isHidden(false)
-                    .createdAt(LocalDateTime.now().minusDays(i))
-                    .build());
-        }
-        testPhone.setReviews(reviews);
-        
         when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
-        when(userRepository.findById(anyString())).thenReturn(Optional.of(testSeller));
-        
-        // Mock ReviewService 返回所有可见评论
-        lenient().when(reviewService.filterVisibleReviews(anyList(), anyString(), anyString()))
-                .thenAnswer(invocation -> invocation.getArgument(0)); // 返回所有评论
+
+        // Mock ReviewService 从 reviews 集合返回前 3 条可见评论
+        List<ReviewResponse> top3 = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            top3.add(ReviewResponse.builder().id("review-" + i).build());
+        }
+        when(reviewService.getTopReviews("phone-id", "user-id", "seller-id", 3)).thenReturn(top3);
 
         // Act
         PhoneResponse response = phoneService.getPhoneById("phone-id", "user-id");
@@ -545,15 +1146,14 @@ class PhoneServiceTest {
         // Assert
         assertNotNull(response);
         assertNotNull(response.getReviews());
-        // 应该只返回前 3 条评论
+        // 可见性过滤和截取在 reviews 集合查询中完成（先截取再解析评论者姓名）
         assertEquals(3, response.getReviews().size());
-        verify(reviewService, times(1)).filterVisibleReviews(anyList(), eq("user-id"), eq("seller-id"));
+        verify(reviewService, times(1)).getTopReviews("phone-id", "user-id", "seller-id", 3);
     }
 
     @Test
     void testGetPhoneById_WithNoReviews_ReturnsEmptyList() {
         // Arrange
-        testPhone.setReviews(new ArrayList<>());
         when(phoneRepository.findById("phone-id")).thenReturn(Optional.of(testPhone));
 
         // Act
@@ -1,12 +1,18 @@
 package com.oldphonedeals.service;
 
+import com.oldphonedeals.cache.CatalogQueryCache;
+import com.oldphonedeals.cache.PhoneDetailCache;
+import com.oldphonedeals.cache.SoldOutSoonCache;
+import com.oldphonedeals.cache.UserDisplayNameCache;
 import com.oldphonedeals.dto.request.profile.ChangePasswordRequest;
 import com.oldphonedeals.dto.request.profile.UpdateProfileRequest;
 import com.oldphonedeals.dto.response.user.UserProfileResponse;
+import com.oldphonedeals.entity.Phone;
 import com.oldphonedeals.entity.User;
 import com.oldphonedeals.exception.BadRequestException;
 import com.oldphonedeals.exception.ResourceNotFoundException;
 import com.oldphonedeals.exception.UnauthorizedException;
+import com.oldphonedeals.repository.PhoneRepository;
 import com.oldphonedeals.repository.UserRepository;
 import com.oldphonedeals.security.SecurityContextHelper;
 import com.oldphonedeals.service.ProfileService;
@@ -24,6 +30,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.*;
 
 /**
@@ -38,13 +45,29 @@ class ProfileServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private PhoneRepository phoneRepository;
+
+    @Mock
+    private PhoneDetailCache phoneDetailCache;
+
+    @Mock
+    private UserDisplayNameCache userDisplayNameCache;
+
+    @Mock
+    private CatalogQueryCache catalogQueryCache;
+
+    @Mock
+    private SoldOutSoonCache soldOutSoonCache;
+
     private ProfileService profileService;
 
     private User user;
 
     @BeforeEach
     void setUp() {
-        profileService = new ProfileServiceImpl(userRepository, passwordEncoder);
+        profileService = new ProfileServiceImpl(userRepository, passwordEncoder, phoneRepository, phoneDetailCache,
+            userDisplayNameCache, catalogQueryCache, soldOutSoonCache);
 
         user = User.builder()
             .id("user-1")
@@ -94,6 +117,14 @@ class ProfileServiceTest {
             assertEquals("Jane", response.getFirstName());
             assertEquals("Smith", response.getLastName());
             verify(userRepository).save(user);
+            verify(phoneRepository).updateSellerSnapshot(argThat((Phone.Seller seller) ->
+                "user-1".equals(seller.getId())
+                    && "Jane".equals(seller.getFirstName())
+                    && "Smith".equals(seller.getLastName())));
+            verify(catalogQueryCache).invalidateAll();
+            verify(soldOutSoonCache).invalidate();
+            verify(phoneDetailCache).evictAll();
+            verify(userDisplayNameCache).evict("user-1");
         }
     }
 
@@ -1,28 +1,40 @@
 package com.oldphonedeals.service;
 
+import com.oldphonedeals.cache.BestSellerLeaderboard;
+import com.oldphonedeals.cache.PhoneDetailCache;
+import com.oldphonedeals.cache.UserDisplayNameCache;
 import com.oldphonedeals.dto.request.phone.ReviewCreateRequest;
+import com.oldphonedeals.dto.response.phone.ReviewCursorPageResponse;
+import com.oldphonedeals.dto.response.phone.ReviewPageResponse;
 import com.oldphonedeals.dto.response.phone.ReviewResponse;
 import com.oldphonedeals.entity.Phone;
+import com.oldphonedeals.entity.Review;
 import com.oldphonedeals.entity.User;
 import com.oldphonedeals.exception.BadRequestException;
 import com.oldphonedeals.exception.ResourceNotFoundException;
 import com.oldphonedeals.exception.UnauthorizedException;
 import com.oldphonedeals.repository.OrderRepository;
 import com.oldphonedeals.repository.PhoneRepository;
+import com.oldphonedeals.repository.ReviewRepository;
 import com.oldphonedeals.repository.UserRepository;
 import com.oldphonedeals.service.ReviewService;
 import com.oldphonedeals.service.impl.ReviewServiceImpl;
+import com.oldphonedeals.util.ReviewCursor;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -37,12 +49,24 @@ class ReviewServiceTest {
     @Mock
     private PhoneRepository phoneRepository;
 
+    @Mock
+    private ReviewRepository reviewRepository;
+
     @Mock
     private UserRepository userRepository;
 
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private BestSellerLeaderboard bestSellerLeaderboard;
+
+    @Mock
+    private PhoneDetailCache phoneDetailCache;
+
+    @Mock
+    private UserDisplayNameCache userDisplayNameCache;
+
     private ReviewService reviewService;
 
     private Phone phone;
@@ -53,8 +77,12 @@ class ReviewServiceTest {
         reviewService = new ReviewServiceImpl();
         // 通过反射注入 @Autowired 字段，避免修改生产代码
         ReflectionTestUtils.setField(reviewService, "phoneRepository", phoneRepository);
+        ReflectionTestUtils.setField(reviewService, "reviewRepository", reviewRepository);
         ReflectionTestUtils.setField(reviewService, "userRepository", userRepository);
         ReflectionTestUtils.setField(reviewService, "orderRepository", orderRepository);
+        ReflectionTestUtils.setField(reviewService, "bestSellerLeaderboard", bestSellerLeaderboard);
+        ReflectionTestUtils.setField(reviewService, "phoneDetailCache", phoneDetailCache);
+        ReflectionTestUtils.setField(reviewService, "userDisplayNameCache", userDisplayNameCache);
 
         user = User.builder()
             .id("user-1")
@@ -64,9 +92,8 @@ class ReviewServiceTest {
 
         phone = Phone.builder()
             .id("phone-1")
-            .seller(User.builder().id("seller-1").firstName("Alice").lastName("Smith").build())
+            .seller(Phone.Seller.builder().id("seller-1").firstName("Alice").lastName("Smith").build())
             .isDisabled(false)
-            .reviews(new ArrayList<>())
             .build();
     }
 
@@ -78,7 +105,6 @@ class ReviewServiceTest {
 
         when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phone));
         when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
-        when(phoneRepository.save(any(Phone.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         ReviewResponse response = reviewService.addReview("phone-1", request, "user-1");
 
@@ -87,11 +113,48 @@ class ReviewServiceTest {
         assertEquals("Great phone", response.getComment());
         assertFalse(response.getIsHidden());
         assertEquals("John Doe", response.getReviewer());
-        verify(phoneRepository).save(phone);
+        verify(reviewRepository).insert(argThat((Review review) ->
+            "phone-1".equals(review.getPhoneId()) && "user-1".equals(review.getReviewerId())
+                && review.getRating() == 5 && !review.getIsHidden()));
+        verify(phoneRepository).incrementReviewStats("phone-1", 1, 5, 1, 5);
+        verify(phoneRepository, never()).save(any(Phone.class));
+        verify(bestSellerLeaderboard).refresh("phone-1");
     }
 
     @Test
-    void addReview_shouldThrow_whenPhoneNotFoundOrDisabledOrSelfReviewOrDuplicate() {
+    void addReview_shouldThrow_whenAlreadyReviewed() {
+        ReviewCreateRequest request = new ReviewCreateRequest();
+        request.setRating(4);
+        request.setComment("Again");
+
+        when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phone));
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+        when(reviewRepository.existsByPhoneIdAndReviewerId("phone-1", "user-1")).thenReturn(true);
+
+        BadRequestException ex = assertThrows(BadRequestException.class,
+            () -> reviewService.addReview("phone-1", request, "user-1"));
+        assertEquals("You have already reviewed this phone", ex.getMessage());
+        verify(reviewRepository, never()).insert(any(Review.class));
+        verify(phoneRepository, never()).incrementReviewStats(any(), anyInt(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void addReview_shouldThrow_whenDuplicateRejectedByUniqueIndex() {
+        ReviewCreateRequest request = new ReviewCreateRequest();
+        request.setRating(4);
+        request.setComment("Again");
+
+        when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phone));
+        when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
+        when(reviewRepository.insert(any(Review.class))).thenThrow(new DuplicateKeyException("E11000"));
+
+        assertThrows(BadRequestException.class,
+            () -> reviewService.addReview("phone-1", request, "user-1"));
+        verify(phoneRepository, never()).incrementReviewStats(any(), anyInt(), anyInt(), anyInt(), anyInt());
+    }
+
+    @Test
+    void addReview_shouldThrow_whenPhoneNotFoundOrDisabledOrSelfReview() {
         ReviewCreateRequest request = new ReviewCreateRequest();
         request.setRating(5);
         request.setComment("Great phone");
@@ -109,54 +172,42 @@ class ReviewServiceTest {
 
         // self review
         disabledPhone.setIsDisabled(false);
-        disabledPhone.setSeller(User.builder().id("user-1").build());
+        disabledPhone.setSeller(Phone.Seller.builder().id("user-1").build());
         when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(disabledPhone));
         assertThrows(BadRequestException.class,
             () -> reviewService.addReview("phone-1", request, "user-1"));
-
-        // duplicate review
-        Phone phoneWithReview = Phone.builder()
-            .id("phone-1")
-            .seller(User.builder().id("seller-1").build())
-            .isDisabled(false)
-            .reviews(new ArrayList<>())
-            .build();
-        Phone.Review existing = Phone.Review.builder()
-            .id("r1")
-            .reviewerId("user-1")
-            .rating(4)
-            .comment("ok")
-            .createdAt(LocalDateTime.now())
-            .isHidden(false)
-            .build();
-        phoneWithReview.getReviews().add(existing);
-        when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phoneWithReview));
-        when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
-        assertThrows(BadRequestException.class,
-            () -> reviewService.addReview("phone-1", request, "user-1"));
+        verify(reviewRepository, never()).insert(any(Review.class));
     }
 
     @Test
     void toggleReviewVisibility_shouldUpdateVisibility_whenAuthorized() {
-        Phone.Review review = Phone.Review.builder()
-            .id("r1")
-            .reviewerId("user-1")
-            .rating(5)
-            .comment("Nice")
-            .createdAt(LocalDateTime.now())
-            .isHidden(false)
-            .build();
-        phone.getReviews().add(review);
+        Review review = review("r1", "user-1", 5, false);
 
         when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phone));
-        when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
-        when(phoneRepository.save(any(Phone.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(reviewRepository.findByIdAndPhoneId("r1", "phone-1")).thenReturn(Optional.of(review));
+        when(reviewRepository.updateHidden("r1", true)).thenReturn(true);
+        when(userDisplayNameCache.get("user-1")).thenReturn("John Doe");
 
         ReviewResponse response = reviewService.toggleReviewVisibility("phone-1", "r1", true, "user-1");
 
         assertTrue(response.getIsHidden());
         assertEquals("John Doe", response.getReviewer());
-        verify(phoneRepository).save(phone);
+        verify(phoneRepository).incrementReviewStats("phone-1", 0, 0, -1, -5);
+        verify(phoneRepository, never()).save(any(Phone.class));
+    }
+
+    @Test
+    void toggleReviewVisibility_shouldNotTouchStats_whenStateUnchanged() {
+        Review review = review("r1", "user-1", 5, true);
+
+        when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phone));
+        when(reviewRepository.findByIdAndPhoneId("r1", "phone-1")).thenReturn(Optional.of(review));
+        when(reviewRepository.updateHidden("r1", true)).thenReturn(false);
+        when(userDisplayNameCache.get("user-1")).thenReturn("John Doe");
+
+        reviewService.toggleReviewVisibility("phone-1", "r1", true, "user-1");
+
+        verify(phoneRepository, never()).incrementReviewStats(any(), anyInt(), anyInt(), anyInt(), anyInt());
     }
 
     @Test
@@ -165,45 +216,43 @@ class ReviewServiceTest {
         assertThrows(ResourceNotFoundException.class,
             () -> reviewService.toggleReviewVisibility("phone-1", "r1", true, "user-1"));
 
-        Phone phoneNoReviews = Phone.builder().id("phone-1").reviews(new ArrayList<>()).build();
-        when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phoneNoReviews));
+        when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phone));
+        when(reviewRepository.findByIdAndPhoneId("r1", "phone-1")).thenReturn(Optional.empty());
         assertThrows(ResourceNotFoundException.class,
             () -> reviewService.toggleReviewVisibility("phone-1", "r1", true, "user-1"));
 
-        Phone.Review review = Phone.Review.builder()
-            .id("r1")
-            .reviewerId("other-user")
-            .rating(5)
-            .comment("Nice")
-            .createdAt(LocalDateTime.now())
-            .isHidden(false)
-            .build();
-        phoneNoReviews.getReviews().add(review);
-        phoneNoReviews.setSeller(User.builder().id("seller-1").build());
-        when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phoneNoReviews));
-
+        when(reviewRepository.findByIdAndPhoneId("r1", "phone-1"))
+            .thenReturn(Optional.of(review("r1", "other-user", 5, false)));
         assertThrows(UnauthorizedException.class,
             () -> reviewService.toggleReviewVisibility("phone-1", "r1", true, "user-1"));
+        verify(reviewRepository, never()).updateHidden(any(), anyBoolean());
     }
 
     @Test
     void deleteReview_shouldRemove_whenReviewerMatches() {
-        Phone.Review review = Phone.Review.builder()
-            .id("r1")
-            .reviewerId("user-1")
-            .rating(5)
-            .comment("Nice")
-            .createdAt(LocalDateTime.now())
-            .isHidden(false)
-            .build();
-        phone.getReviews().add(review);
+        Review review = review("r1", "user-1", 5, false);
 
         when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phone));
-        when(phoneRepository.save(any(Phone.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(reviewRepository.findByIdAndPhoneId("r1", "phone-1")).thenReturn(Optional.of(review));
+        when(reviewRepository.removeById("r1")).thenReturn(Optional.of(review));
 
         assertDoesNotThrow(() -> reviewService.deleteReview("phone-1", "r1", "user-1"));
-        assertTrue(phone.getReviews().isEmpty());
-        verify(phoneRepository).save(phone);
+        verify(phoneRepository).incrementReviewStats("phone-1", -1, -5, -1, -5);
+        verify(phoneRepository, never()).save(any(Phone.class));
+        verify(bestSellerLeaderboard).refresh("phone-1");
+    }
+
+    @Test
+    void deleteReview_shouldOnlyDecrementTotal_whenRemovedReviewWasHidden() {
+        Review review = review("r1", "user-1", 2, true);
+
+        when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phone));
+        when(reviewRepository.findByIdAndPhoneId("r1", "phone-1")).thenReturn(Optional.of(review));
+        when(reviewRepository.removeById("r1")).thenReturn(Optional.of(review));
+
+        reviewService.deleteReview("phone-1", "r1", "user-1");
+
+        verify(phoneRepository).incrementReviewStats("phone-1", -1, -2, 0, 0);
     }
 
     @Test
@@ -212,50 +261,112 @@ class ReviewServiceTest {
         assertThrows(ResourceNotFoundException.class,
             () -> reviewService.deleteReview("phone-1", "r1", "user-1"));
 
-        Phone phoneNoReviews = Phone.builder().id("phone-1").reviews(new ArrayList<>()).build();
-        when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phoneNoReviews));
+        when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phone));
+        when(reviewRepository.findByIdAndPhoneId("r1", "phone-1")).thenReturn(Optional.empty());
         assertThrows(ResourceNotFoundException.class,
             () -> reviewService.deleteReview("phone-1", "r1", "user-1"));
 
-        Phone.Review review = Phone.Review.builder()
-            .id("r1")
-            .reviewerId("other-user")
-            .rating(5)
-            .comment("Nice")
-            .createdAt(LocalDateTime.now())
-            .isHidden(false)
-            .build();
-        phoneNoReviews.getReviews().add(review);
-        when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phoneNoReviews));
-
+        when(reviewRepository.findByIdAndPhoneId("r1", "phone-1"))
+            .thenReturn(Optional.of(review("r1", "other-user", 5, false)));
         assertThrows(UnauthorizedException.class,
             () -> reviewService.deleteReview("phone-1", "r1", "user-1"));
+        verify(reviewRepository, never()).removeById(any());
+    }
+
+    @Test
+    void getTopReviews_shouldQueryVisibleReviewsAndMapReviewerNames() {
+        when(reviewRepository.findVisibleByPhoneIdAfter("phone-1", "u3", false, null, 3))
+            .thenReturn(List.of(review("r1", "u1", 5, false), review("r3", "u3", 3, true)));
+        when(userDisplayNameCache.getAll(Set.of("u1", "u3")))
+            .thenReturn(Map.of("u1", "User One", "u3", "User Three"));
+
+        List<ReviewResponse> responses = reviewService.getTopReviews("phone-1", "u3", "seller-1", 3);
+
+        assertEquals(List.of("r1", "r3"), responses.stream().map(ReviewResponse::getId).toList());
+        assertEquals("User One", responses.get(0).getReviewer());
+        assertEquals("User Three", responses.get(1).getReviewer());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void getTopReviews_shouldIncludeHiddenReviews_whenViewerIsSeller() {
+        when(reviewRepository.findVisibleByPhoneIdAfter("phone-1", "seller-1", true, null, 3)).thenReturn(List.of());
+
+        assertTrue(reviewService.getTopReviews("phone-1", "seller-1", "seller-1", 3).isEmpty());
+        verifyNoInteractions(userDisplayNameCache);
+    }
+
+    @Test
+    void getReviews_shouldReadPageFromRepository() {
+        when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phone));
+        when(reviewRepository.findVisibleByPhoneId("phone-1", "user-1", false, PageRequest.of(1, 2)))
+            .thenReturn(new PageImpl<>(List.of(review("r3", "u1", 5, false)), PageRequest.of(1, 2), 3));
+        when(userDisplayNameCache.getAll(Set.of("u1"))).thenReturn(Map.of("u1", "User One"));
+
+        ReviewPageResponse response = reviewService.getReviews("phone-1", "user-1", 2, 2);
+
+        assertEquals(1, response.getReviews().size());
+        assertEquals("User One", response.getReviews().get(0).getReviewer());
+        assertEquals(3, response.getTotalReviews());
+        assertEquals(2, response.getCurrentPage());
+        assertEquals(2, response.getTotalPages());
+    }
+
+    @Test
+    void getReviewsAfter_shouldContinueFromCursorAndReturnNextCursor() {
+        LocalDateTime t2 = LocalDateTime.of(2024, 5, 2, 9, 0);
+        Review r3 = review("r3", "u1", 5, false);
+        Review r4 = review("r4", "u1", 4, false);
+        Review r5 = review("r5", "u1", 3, false);
+        String cursor = new ReviewCursor(t2, "r2").encode();
+        when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phone));
+        when(reviewRepository.findVisibleByPhoneIdAfter(eq("phone-1"), isNull(), eq(false),
+            argThat(after -> after != null && t2.equals(after.getCreatedAt()) && "r2".equals(after.getReviewId())),
+            eq(3)))
+            .thenReturn(List.of(r3, r4, r5));
+        when(reviewRepository.countVisibleByPhoneId("phone-1", null, false)).thenReturn(6L);
+        when(userDisplayNameCache.getAll(Set.of("u1"))).thenReturn(Map.of());
+
+        ReviewCursorPageResponse response = reviewService.getReviewsAfter("phone-1", null, cursor, 2);
+
+        assertEquals(List.of("r3", "r4"), response.getReviews().stream().map(ReviewResponse::getId).toList());
+        assertEquals(6, response.getTotalReviews());
+        assertTrue(response.isHasMore());
+        ReviewCursor next = ReviewCursor.decode(response.getNextCursor());
+        assertEquals(r4.getCreatedAt(), next.getCreatedAt());
+        assertEquals("r4", next.getReviewId());
+    }
+
+    @Test
+    void getReviewsAfter_shouldStartFromBeginning_whenCursorEmpty() {
+        when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phone));
+        when(reviewRepository.findVisibleByPhoneIdAfter("phone-1", null, false, null, 11)).thenReturn(List.of());
+
+        ReviewCursorPageResponse response = reviewService.getReviewsAfter("phone-1", null, "", 10);
+
+        assertTrue(response.getReviews().isEmpty());
+        assertNull(response.getNextCursor());
+        assertFalse(response.isHasMore());
     }
 
     @Test
-    void filterVisibleReviews_shouldApplyVisibilityRulesAndMapReviewerNames() {
-        Phone.Review visible = Phone.Review.builder()
-            .id("r1").reviewerId("u1").isHidden(false).rating(5).comment("v").createdAt(LocalDateTime.now()).build();
-        Phone.Review hiddenBySeller = Phone.Review.builder()
-            .id("r2").reviewerId("u2").isHidden(true).rating(4).comment("h1").createdAt(LocalDateTime.now()).build();
-        Phone.Review hiddenByReviewer = Phone.Review.builder()
-            .id("r3").reviewerId("u3").isHidden(true).rating(3).comment("h2").createdAt(LocalDateTime.now()).build();
-
-        List<Phone.Review> reviews = List.of(visible, hiddenBySeller, hiddenByReviewer);
-
-        User seller = User.builder().id("seller-1").firstName("Seller").lastName("One").build();
-        User u1 = User.builder().id("u1").firstName("User").lastName("One").build();
-        User u3 = User.builder().id("u3").firstName("User").lastName("Three").build();
-
-        when(userRepository.findAllById(anyList())).thenReturn(List.of(u1, u3));
-
-        // current user is u3, sellerId = seller-1
-        List<ReviewResponse> responses = reviewService.filterVisibleReviews(reviews, "u3", "seller-1");
-
-        assertEquals(2, responses.size());
-        assertTrue(responses.stream().anyMatch(r -> r.getReviewerId().equals("u1")));
-        assertTrue(responses.stream().anyMatch(r -> r.getReviewerId().equals("u3")));
-        assertEquals("User One", responses.stream().filter(r -> r.getReviewerId().equals("u1")).findFirst().get().getReviewer());
-        assertEquals("User Three", responses.stream().filter(r -> r.getReviewerId().equals("u3")).findFirst().get().getReviewer());
+    void getReviewsAfter_shouldThrow_whenPhoneNotFound() {
+        when(phoneRepository.findById("missing")).thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+            () -> reviewService.getReviewsAfter("missing", null, "", 10));
+        verifyNoInteractions(reviewRepository);
+    }
+
+    private static Review review(String id, String reviewerId, int rating, boolean hidden) {
+        return Review.builder()
+            .id(id)
+            .phoneId("phone-1")
+            .reviewerId(reviewerId)
+            .rating(rating)
+            .comment("Nice")
+            .isHidden(hidden)
+            .createdAt(LocalDateTime.now())
+            .build();
     }
 }
@@ -3,6 +3,7 @@ package com.oldphonedeals.service;
 import com.oldphonedeals.dto.response.phone.PhoneListItemResponse;
 import com.oldphonedeals.dto.response.wishlist.WishlistResponse;
 import com.oldphonedeals.entity.Phone;
+import com.oldphonedeals.entity.PhoneSummary;
 import com.oldphonedeals.entity.User;
 import com.oldphonedeals.exception.BadRequestException;
 import com.oldphonedeals.exception.ResourceNotFoundException;
@@ -44,6 +45,7 @@ class WishlistServiceTest {
 
     private User user;
     private Phone phone;
+    private PhoneSummary phoneSummary;
 
     @BeforeEach
     void setUp() {
@@ -60,10 +62,24 @@ class WishlistServiceTest {
             .image("image.jpg")
             .stock(10)
             .price(10.0)
-            .seller(User.builder().firstName("John").lastName("Doe").build())
+            .seller(Phone.Seller.builder().firstName("John").lastName("Doe").build())
             .createdAt(LocalDateTime.now())
             .isDisabled(false)
             .build();
+
+        phoneSummary = PhoneSummary.builder()
+            .id("phone-1")
+            .title("Test Phone")
+            .image("image.jpg")
+            .stock(10)
+            .price(10.0)
+            .seller(phone.getSeller())
+            .createdAt(phone.getCreatedAt())
+            .isDisabled(false)
+            .reviewCount(3)
+            .visibleReviewCount(2)
+            .averageRating(4.0)
+            .build();
     }
 
     @Test
@@ -72,7 +88,7 @@ class WishlistServiceTest {
             mockedStatic.when(SecurityContextHelper::getCurrentUserId).thenReturn("user-1");
             when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
             when(phoneRepository.findById("phone-1")).thenReturn(Optional.of(phone));
-            when(phoneRepository.findAllById(any())).thenReturn(List.of(phone));
+            when(phoneRepository.findSummariesByIds(any())).thenReturn(List.of(phoneSummary));
             when(userRepository.save(any(User.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
             WishlistResponse response = wishlistService.addToWishlist("user-1", "phone-1");
@@ -152,7 +168,8 @@ class WishlistServiceTest {
     void getUserWishlist_shouldReturnConvertedPhoneList() {
         user.getWishlist().add("phone-1");
         when(userRepository.findById("user-1")).thenReturn(Optional.of(user));
-        when(phoneRepository.findAllById(List.of("phone-1"))).thenReturn(List.of(phone));
+        PhoneSummary disabledSummary = PhoneSummary.builder().id("phone-2").isDisabled(true).build();
+        when(phoneRepository.findSummariesByIds(List.of("phone-1"))).thenReturn(List.of(phoneSummary, disabledSummary));
 
         try (MockedStatic<SecurityContextHelper> mockedStatic = mockStatic(SecurityContextHelper.class)) {
             mockedStatic.when(SecurityContextHelper::getCurrentUserId).thenReturn("user-1");
@@ -165,6 +182,8 @@ class WishlistServiceTest {
             PhoneListItemResponse item = response.getPhones().get(0);
             assertEquals("Test Phone", item.getTitle());
             assertEquals(10, item.getStock());
+            assertEquals(2, item.getReviewCount());
+            assertEquals(4.0, item.getAverageRating());
         }
     }
 }
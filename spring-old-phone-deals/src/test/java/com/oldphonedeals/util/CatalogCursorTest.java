@@ -0,0 +1,64 @@
+package com.oldphonedeals.util;
+
+import com.oldphonedeals.entity.PhoneSummary;
+import com.oldphonedeals.exception.BadRequestException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CatalogCursor 单元测试
+ */
+@DisplayName("CatalogCursor Unit Tests")
+class CatalogCursorTest {
+
+    @Test
+    @DisplayName("编码后应能还原排序字段、方向、值和 id")
+    void shouldRoundTrip_whenCreatedAtCursor() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123_000_000);
+        PhoneSummary phone = PhoneSummary.builder().id("phone-1").createdAt(createdAt).build();
+
+        String token = CatalogCursor.of(phone, "createdAt", Sort.Direction.DESC).encode();
+        CatalogCursor decoded = CatalogCursor.decode(token);
+
+        assertEquals("createdAt", decoded.getSortField());
+        assertEquals(Sort.Direction.DESC, decoded.getDirection());
+        assertEquals(createdAt, decoded.getSortValue());
+        assertEquals("phone-1", decoded.getId());
+    }
+
+    @Test
+    @DisplayName("标题中包含分隔符时也能正确还原")
+    void shouldRoundTrip_whenTitleContainsSeparator() {
+        PhoneSummary phone = PhoneSummary.builder().id("phone-2").title("Galaxy | S10").build();
+
+        CatalogCursor decoded = CatalogCursor.decode(
+                CatalogCursor.of(phone, "title", Sort.Direction.ASC).encode());
+
+        assertEquals("Galaxy | S10", decoded.getSortValue());
+    }
+
+    @Test
+    @DisplayName("排序值为 null 时应还原为 null")
+    void shouldRoundTrip_whenSortValueNull() {
+        PhoneSummary phone = PhoneSummary.builder().id("phone-3").build();
+
+        CatalogCursor decoded = CatalogCursor.decode(
+                CatalogCursor.of(phone, "price", Sort.Direction.ASC).encode());
+
+        assertNull(decoded.getSortValue());
+    }
+
+    @Test
+    @DisplayName("无效游标应抛出 BadRequestException")
+    void shouldThrowBadRequest_whenTokenMalformed() {
+        assertThrows(BadRequestException.class, () -> CatalogCursor.decode("%%%"));
+        assertThrows(BadRequestException.class, () -> CatalogCursor.decode("bm90LWEtY3Vyc29y"));
+        assertThrows(BadRequestException.class, () -> CatalogCursor.decode(
+                new CatalogCursor("seller", Sort.Direction.ASC, "x", "id").encode()));
+    }
+}
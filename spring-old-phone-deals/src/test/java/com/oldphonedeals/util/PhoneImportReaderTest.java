@@ -0,0 +1,91 @@
+package com.oldphonedeals.util;
+
+import com.oldphonedeals.exception.BadRequestException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * PhoneImportReader 单元测试
+ */
+@DisplayName("PhoneImportReader Unit Tests")
+class PhoneImportReaderTest {
+
+    private static final List<String> COLUMNS = List.of("title", "price");
+
+    @Test
+    @DisplayName("CSV 应支持引号、转义，跳过空行并保留行号")
+    void shouldReadCsvRows() {
+        PhoneImportReader reader = PhoneImportReader.open(
+                stream("\uFEFFTitle,Price\n\"Phone, \"\"Pro\"\"\",10\n\nPlain,\n\"Broken,5\nA,1,extra\n"),
+                PhoneImportReader.Format.CSV, COLUMNS);
+
+        PhoneImportReader.Row quoted = reader.next();
+        assertEquals(2, quoted.line());
+        assertEquals(Map.of("title", "Phone, \"Pro\"", "price", "10"), quoted.fields());
+
+        PhoneImportReader.Row plain = reader.next();
+        assertEquals(4, plain.line());
+        assertEquals("", plain.fields().get("price"));
+
+        assertEquals("Unterminated quoted field", reader.next().error());
+        assertNotNull(reader.next().error());
+        assertNull(reader.next());
+    }
+
+    @Test
+    @DisplayName("CSV 缺少表头或必需列时应抛出 BadRequestException")
+    void shouldRejectInvalidHeader() {
+        assertThrows(BadRequestException.class,
+                () -> PhoneImportReader.open(stream(""), PhoneImportReader.Format.CSV, COLUMNS));
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> PhoneImportReader.open(stream("title,stock\n"), PhoneImportReader.Format.CSV, COLUMNS));
+        assertTrue(e.getMessage().contains("price"));
+    }
+
+    @Test
+    @DisplayName("NDJSON 每行一个对象，格式错误的行单独报告")
+    void shouldReadNdjsonRows() {
+        PhoneImportReader reader = PhoneImportReader.open(
+                stream("{\"Title\":\"A\",\"price\":9.5,\"image\":null}\n[1]\n{oops\n"),
+                PhoneImportReader.Format.NDJSON, COLUMNS);
+
+        PhoneImportReader.Row row = reader.next();
+        assertEquals("A", row.fields().get("title"));
+        assertEquals("9.5", row.fields().get("price"));
+        assertTrue(row.fields().containsKey("image"));
+        assertNull(row.fields().get("image"));
+        assertEquals("Each line must be a JSON object", reader.next().error());
+        assertEquals("Invalid JSON", reader.next().error());
+        assertNull(reader.next());
+    }
+
+    @Test
+    @DisplayName("格式参数优先于 Content-Type，无法识别时抛出 BadRequestException")
+    void shouldResolveFormat() {
+        assertEquals(PhoneImportReader.Format.CSV, PhoneImportReader.Format.resolve(null, "text/csv; charset=UTF-8"));
+        assertEquals(PhoneImportReader.Format.NDJSON, PhoneImportReader.Format.resolve(null, "application/x-ndjson"));
+        assertEquals(PhoneImportReader.Format.NDJSON, PhoneImportReader.Format.resolve("ndjson", "text/csv"));
+        assertThrows(BadRequestException.class, () -> PhoneImportReader.Format.resolve(null, "application/json"));
+        assertThrows(BadRequestException.class, () -> PhoneImportReader.Format.resolve(" ", null));
+    }
+
+    @Test
+    @DisplayName("CSV 拆分应处理空字段")
+    void shouldSplitEmptyFields() {
+        assertEquals(Arrays.asList("", "a", ""), PhoneImportReader.splitCsv(",a,"));
+        assertNull(PhoneImportReader.splitCsv("\"open"));
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,42 @@
+package com.oldphonedeals.util;
+
+import com.oldphonedeals.exception.BadRequestException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * ReviewCursor 单元测试
+ */
+@DisplayName("ReviewCursor Unit Tests")
+class ReviewCursorTest {
+
+    @Test
+    @DisplayName("编码后应能还原创建时间和评论 id")
+    void shouldRoundTrip() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 5, 1, 10, 30, 15, 123000000);
+        ReviewCursor decoded = ReviewCursor.decode(new ReviewCursor(createdAt, "2f1c|review").encode());
+
+        assertEquals(createdAt, decoded.getCreatedAt());
+        assertEquals("2f1c|review", decoded.getReviewId());
+    }
+
+    @Test
+    @DisplayName("格式无效时应抛出 BadRequestException")
+    void shouldRejectInvalidCursor() {
+        assertThrows(BadRequestException.class, () -> ReviewCursor.decode("not base64 !"));
+        assertThrows(BadRequestException.class, () -> ReviewCursor.decode(encode("2024-05-01T10:30")));
+        assertThrows(BadRequestException.class, () -> ReviewCursor.decode(encode("x|r1")));
+        assertThrows(BadRequestException.class, () -> ReviewCursor.decode(encode("12|r1")));
+        assertThrows(BadRequestException.class, () -> ReviewCursor.decode(encode("2024-05-01T10:30|")));
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}